@@ -1,15 +1,22 @@
 package de.catma.api.pre;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gson.stream.JsonWriter;
 import com.vaadin.server.RequestHandler;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
@@ -18,7 +25,6 @@ import com.vaadin.server.VaadinSession;
 import de.catma.api.pre.serialization.model_wrappers.PreApiAnnotation;
 import de.catma.api.pre.serialization.model_wrappers.PreApiSourceDocument;
 import de.catma.api.pre.serialization.model_wrappers.PreApiTagDefinition;
-import de.catma.api.pre.serialization.models.Export;
 import de.catma.api.pre.serialization.models.ExportDocument;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
@@ -38,8 +44,14 @@ public class ProjectResourceExportApiRequestHandler implements RequestHandler {
     private static final String API_PACKAGE = "pre"; // project resource export
     private static final String API_VERSION = "beta";
 
+    private static final String PARAMETER_FORMAT = "format";
+    private static final String PARAMETER_PAGE = "page";
+    private static final String PARAMETER_PAGE_SIZE = "pageSize";
+    private static final String FORMAT_NDJSON = "ndjson";
+
     private final String handlerPath;
     private final Project project;
+    private final SerializationHelper<Object> serializationHelper = new SerializationHelper<>();
 
     private static final Logger logger = Logger.getLogger(ProjectResourceExportApiRequestHandler.class.getName());
 
@@ -58,11 +70,7 @@ public class ProjectResourceExportApiRequestHandler implements RequestHandler {
         String requestPath = request.getPathInfo().toLowerCase();
 
         if (requestPath.equals(handlerPath)) {
-            response.setContentType("application/json");
-            response.setNoCacheHeaders();
-
-            OutputStream outputStream = response.getOutputStream();
-            outputStream.write(serializeProjectResources().getBytes(StandardCharsets.UTF_8));
+            handleExportRequest(request, response);
 
             return true;
         }
@@ -97,58 +105,221 @@ public class ProjectResourceExportApiRequestHandler implements RequestHandler {
         return false;
     }
 
-    private String serializeProjectResources() {
+    /**
+     * Streams the export document by document. Supported query parameters:
+     * <ul>
+     *     <li>{@code format=ndjson} - one export document per line instead of a single JSON object</li>
+     *     <li>{@code page} and {@code pageSize} - export only the given 1-based page of documents, the JSON output then
+     *     also contains the page, pageSize and totalPages</li>
+     * </ul>
+     * Responses carry the project revision as weak ETag as long as there are no uncommitted changes, so that clients can
+     * send If-None-Match and get a 304 for unchanged projects. The ETag is weak because the body is equivalent but not
+     * byte-identical for the same revision, the exportId and the document URLs differ between requests and handlers.
+     */
+    private void handleExportRequest(VaadinRequest request, VaadinResponse response) throws IOException {
+        boolean ndjson = FORMAT_NDJSON.equalsIgnoreCase(request.getParameter(PARAMETER_FORMAT));
+        Integer page;
+        Integer pageSize;
         try {
-            Export export = new Export();
+            page = getPositiveIntParameter(request, PARAMETER_PAGE);
+            pageSize = getPositiveIntParameter(request, PARAMETER_PAGE_SIZE);
+        }
+        catch (IllegalArgumentException e) {
+            response.sendError(400, e.getMessage());
+            return;
+        }
+        if (page != null && pageSize == null) {
+            response.sendError(400, String.format("Parameter '%s' requires parameter '%s'", PARAMETER_PAGE, PARAMETER_PAGE_SIZE));
+            return;
+        }
 
-            for (SourceDocumentReference sourceDocumentRef : project.getSourceDocumentReferences()) {
-                SourceDocument sourceDocument = project.getSourceDocument(sourceDocumentRef.getUuid());
+        String eTag;
+        List<SourceDocumentReference> sourceDocumentRefs;
+        try {
+            eTag = getETag();
+            sourceDocumentRefs = new ArrayList<>(project.getSourceDocumentReferences());
+            // a stable order is needed for pagination
+            sourceDocumentRefs.sort(Comparator.comparing(SourceDocumentReference::getUuid));
+        }
+        catch (Exception e) {
+            logger.log(Level.SEVERE, "Failed to serialize project resources", e);
+            response.setStatus(500);
+            response.setContentType("application/json");
+            response.getOutputStream().write(
+                    "{\"error\": \"Failed to serialize project resources, please contact CATMA support\"}".getBytes(StandardCharsets.UTF_8)
+            );
+            return;
+        }
 
-                ArrayList<AnnotationCollection> annotationCollections = new ArrayList<>();
-                for (AnnotationCollectionReference annotationCollectionReference : sourceDocumentRef.getUserMarkupCollectionRefs()) {
-                    annotationCollections.add(project.getAnnotationCollection(annotationCollectionReference));
-                }
+        if (eTag == null) {
+            response.setNoCacheHeaders();
+        }
+        else {
+            // caches have to revalidate, which is cheap thanks to the ETag
+            response.setHeader("Cache-Control", "no-cache");
+            response.setHeader("ETag", eTag);
 
-                ArrayList<TagDefinition> tagDefinitions = new ArrayList<>();
-                ArrayList<TagReference> tagReferences = new ArrayList<>();
-                for (AnnotationCollection annotationCollection : annotationCollections) {
-                    for (TagsetDefinition tagsetDefinition : annotationCollection.getTagLibrary().getTagsetDefinitions()) {
-                        tagDefinitions.addAll(tagsetDefinition.stream().collect(Collectors.toList()));
-                    }
+            if (matchesETag(request.getHeader("If-None-Match"), eTag)) {
+                response.setStatus(304);
+                return;
+            }
+        }
 
-                    tagReferences.addAll(annotationCollection.getTagReferences());
-                }
+        int totalPages = 1;
+        if (pageSize != null) {
+            totalPages = Math.max(1, (sourceDocumentRefs.size() + pageSize - 1) / pageSize);
+            int fromIndex = Math.min(sourceDocumentRefs.size(), ((page == null ? 1 : page) - 1) * pageSize);
+            sourceDocumentRefs = sourceDocumentRefs.subList(fromIndex, Math.min(sourceDocumentRefs.size(), fromIndex + pageSize));
+        }
+
+        response.setContentType(ndjson ? "application/x-ndjson; charset=UTF-8" : "application/json; charset=UTF-8");
 
-                ExportDocument exportDocument = new ExportDocument(
-                        new PreApiSourceDocument(
-                                sourceDocument,
-                                String.format("%s%s/doc/%s", BASE_URL, handlerPath.substring(1), sourceDocument.getUuid().toLowerCase())
-                        ),
-                        tagDefinitions.stream().map(PreApiTagDefinition::new).collect(Collectors.toList()),
-                        tagReferences.stream().map(
-                                (TagReference tagReference) -> {
-                                    try {
-                                        return new PreApiAnnotation(
-                                                tagReference,
-                                                tagDefinitions.stream().filter(td -> td.getUuid().equals(tagReference.getTagDefinitionId())).findFirst().get(),
-                                                sourceDocument
-                                        );
-                                    } catch (IOException e) {
-                                        logger.log(Level.WARNING, String.format("Error serializing TagReference: %s", tagReference), e);
-                                        return null;
-                                    }
-                                }
-                        ).collect(Collectors.toList())
-                );
-
-                export.addExportDocument(exportDocument);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        try {
+            if (ndjson) {
+                for (SourceDocumentReference sourceDocumentRef : sourceDocumentRefs) {
+                    writeExportDocument(new JsonWriter(writer), sourceDocumentRef);
+                    writer.write('\n');
+                }
             }
+            else {
+                JsonWriter jsonWriter = new JsonWriter(writer);
+                jsonWriter.setIndent("  ");
 
-            return new SerializationHelper<Export>().serialize(export);
+                // same field order as a serialized Export
+                jsonWriter.beginObject();
+                jsonWriter.name("exportDocuments").beginArray();
+                for (SourceDocumentReference sourceDocumentRef : sourceDocumentRefs) {
+                    writeExportDocument(jsonWriter, sourceDocumentRef);
+                }
+                jsonWriter.endArray();
+                jsonWriter.name("exportId").value(new IDGenerator().generateExportId());
+                if (pageSize != null) {
+                    jsonWriter.name("page").value(page == null ? 1 : page);
+                    jsonWriter.name("pageSize").value(pageSize);
+                    jsonWriter.name("totalPages").value(totalPages);
+                }
+                jsonWriter.endObject();
+            }
+            writer.flush();
         }
         catch (Exception e) {
+            // the response has been committed already, all we can do is to abort it
             logger.log(Level.SEVERE, "Failed to serialize project resources", e);
-            return "{\"error\": \"Failed to serialize project resources, please contact CATMA support\"}";
+            throw new IOException("Failed to serialize project resources", e);
+        }
+    }
+
+    private Integer getPositiveIntParameter(VaadinRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue > 0) {
+                return intValue;
+            }
         }
+        catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IllegalArgumentException(String.format("Parameter '%s' needs to be a positive integer", name));
+    }
+
+    /**
+     * @return the revision hash of the project as weak ETag, null if the project has changes that have not been
+     *         committed yet and therefore don't show in the revision hash
+     */
+    private String getETag() throws Exception {
+        if (project.getVersion() == null || project.hasUncommittedChanges() || project.hasUntrackedChanges()) {
+            return null;
+        }
+        return String.format("W/\"%s\"", project.getVersion());
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match, the W/ prefix is ignored on both sides.
+     */
+    private boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        String opaqueTag = getOpaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || getOpaqueTag(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getOpaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    /**
+     * Writes a single {@link ExportDocument} without building it in memory first. Field order and formatting are the
+     * same as for a serialized {@link ExportDocument}, except that tags shared by several collections are included only
+     * once.
+     */
+    private void writeExportDocument(JsonWriter jsonWriter, SourceDocumentReference sourceDocumentRef) throws Exception {
+        SourceDocument sourceDocument = project.getSourceDocument(sourceDocumentRef.getUuid());
+
+        ArrayList<AnnotationCollection> annotationCollections = new ArrayList<>();
+        for (AnnotationCollectionReference annotationCollectionReference : sourceDocumentRef.getUserMarkupCollectionRefs()) {
+            annotationCollections.add(project.getAnnotationCollection(annotationCollectionReference));
+        }
+
+        Map<String, TagDefinition> tagDefinitionsById = new LinkedHashMap<>();
+        for (AnnotationCollection annotationCollection : annotationCollections) {
+            for (TagsetDefinition tagsetDefinition : annotationCollection.getTagLibrary().getTagsetDefinitions()) {
+                for (TagDefinition tagDefinition : tagsetDefinition) {
+                    tagDefinitionsById.putIfAbsent(tagDefinition.getUuid(), tagDefinition);
+                }
+            }
+        }
+
+        jsonWriter.beginObject();
+
+        jsonWriter.name("annotations").beginArray();
+        for (AnnotationCollection annotationCollection : annotationCollections) {
+            for (TagReference tagReference : annotationCollection.getTagReferences()) {
+                TagDefinition tagDefinition = tagDefinitionsById.get(tagReference.getTagDefinitionId());
+                if (tagDefinition == null) {
+                    logger.warning(String.format("Skipping TagReference with unknown tag: %s", tagReference));
+                    continue;
+                }
+
+                try {
+                    serializationHelper.serialize(new PreApiAnnotation(tagReference, tagDefinition, sourceDocument), jsonWriter);
+                }
+                catch (IOException e) {
+                    logger.log(Level.WARNING, String.format("Error serializing TagReference: %s", tagReference), e);
+                }
+            }
+        }
+        jsonWriter.endArray();
+
+        jsonWriter.name("sourceDocument");
+        serializationHelper.serialize(
+                new PreApiSourceDocument(
+                        sourceDocument,
+                        String.format("%s%s/doc/%s", BASE_URL, handlerPath.substring(1), sourceDocument.getUuid().toLowerCase())
+                ),
+                jsonWriter
+        );
+
+        jsonWriter.name("tags").beginArray();
+        for (TagDefinition tagDefinition : tagDefinitionsById.values()) {
+            serializationHelper.serialize(new PreApiTagDefinition(tagDefinition), jsonWriter);
+        }
+        jsonWriter.endArray();
+
+        jsonWriter.endObject();
+        jsonWriter.flush();
     }
 }
@@ -0,0 +1,111 @@
+package de.catma.backgroundservice;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A job that has been submitted to the {@link BackgroundJobScheduler}.
+ * <p>
+ * Cancelling a queued job removes it from the queue. Running jobs are not interrupted, they find out about the
+ * cancellation through {@link ProgressListener#isCancelled()} if they use a listener obtained from
+ * {@link #withCancellation(ProgressListener)}.
+ */
+public class BackgroundJob {
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private final BackgroundJobClass jobClass;
+	private final BackgroundJobPriority priority;
+	private final String owner;
+	private final Consumer<BackgroundJob> task;
+	private final long sequenceNumber;
+	private final long submittedNanos;
+	private final BackgroundJobPool pool;
+
+	private volatile boolean cancelled;
+	private volatile boolean done;
+
+	BackgroundJob(
+			BackgroundJobClass jobClass, BackgroundJobPriority priority, String owner,
+			Consumer<BackgroundJob> task, BackgroundJobPool pool) {
+		this.jobClass = jobClass;
+		this.priority = priority;
+		this.owner = owner;
+		this.task = task;
+		this.pool = pool;
+		this.sequenceNumber = SEQUENCE.getAndIncrement();
+		this.submittedNanos = System.nanoTime();
+	}
+
+	void run() {
+		try {
+			task.accept(this);
+		}
+		finally {
+			done = true;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the job had not been started yet and will not run at all, <code>false</code> if it
+	 * is already running or done
+	 */
+	public boolean cancel() {
+		cancelled = true;
+		if (pool.remove(this)) {
+			done = true;
+			return true;
+		}
+		return false;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * @return a listener that reports progress to the given delegate and reports this job as cancelled once
+	 * {@link #cancel()} has been called
+	 */
+	public ProgressListener withCancellation(final ProgressListener delegate) {
+		return new ProgressListener() {
+			@Override
+			public void setProgress(String value, Object... args) {
+				delegate.setProgress(value, args);
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return cancelled || delegate.isCancelled();
+			}
+		};
+	}
+
+	public BackgroundJobClass getJobClass() {
+		return jobClass;
+	}
+
+	public BackgroundJobPriority getPriority() {
+		return priority;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	long getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	long getSubmittedNanos() {
+		return submittedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BackgroundJob #%d [%s, %s, owner %s]", sequenceNumber, jobClass, priority, owner);
+	}
+}
@@ -0,0 +1,63 @@
+package de.catma.backgroundservice;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * Background jobs are grouped into classes, each class has its own bounded pool of workers in the
+ * {@link BackgroundJobScheduler}, so that e.g. a burst of imports cannot starve queries.
+ */
+public enum BackgroundJobClass {
+	/**
+	 * Short jobs that a user is waiting for, e.g. loading a document or a project.
+	 */
+	INTERACTIVE(CATMAPropertyKey.BACKGROUND_JOB_THREADS_INTERACTIVE, false, false),
+	QUERY(CATMAPropertyKey.BACKGROUND_JOB_THREADS_QUERY, true, false),
+	/**
+	 * Imports of documents and collections, these spend most of their time parsing and indexing content.
+	 */
+	IMPORT(CATMAPropertyKey.BACKGROUND_JOB_THREADS_IMPORT, false, false),
+	/**
+	 * Synchronization with the remote and other maintenance of the local repositories.
+	 */
+	SYNC(CATMAPropertyKey.BACKGROUND_JOB_THREADS_SYNC, false, true),
+	/**
+	 * Exports that write into a pipe which is read by a download request. These jobs block for as long as the client
+	 * takes to read, so they are not bounded by a pool of their own but by the request threads of the servlet
+	 * container, and they never queue behind each other.
+	 */
+	EXPORT(null, true, false),
+	;
+
+	private final CATMAPropertyKey maxThreadsKey;
+	private final boolean readOnly;
+	private final boolean ioBound;
+
+	BackgroundJobClass(CATMAPropertyKey maxThreadsKey, boolean readOnly, boolean ioBound) {
+		this.maxThreadsKey = maxThreadsKey;
+		this.readOnly = readOnly;
+		this.ioBound = ioBound;
+	}
+
+	int getMaxThreads() {
+		if (maxThreadsKey == null) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(1, maxThreadsKey.getIntValue());
+	}
+
+	/**
+	 * @return <code>true</code> if jobs of this class don't have any side effects beyond their result, such jobs can
+	 * be dropped once nobody is waiting for the result anymore
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * @return <code>true</code> if jobs of this class spend most of their time waiting for git remotes, GitLab or the
+	 * file system, such jobs can run on virtual threads, see {@link CATMAPropertyKey#BACKGROUND_JOB_VIRTUAL_THREADS}
+	 */
+	public boolean isIoBound() {
+		return ioBound;
+	}
+}
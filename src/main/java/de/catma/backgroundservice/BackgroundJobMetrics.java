@@ -0,0 +1,97 @@
+package de.catma.backgroundservice;
+
+/**
+ * A snapshot of the state and the counters of the worker pool of one {@link BackgroundJobClass}.
+ * Counters and latencies cover the time since the server has been started.
+ */
+public class BackgroundJobMetrics {
+	private final BackgroundJobClass jobClass;
+	private final int maxThreads;
+	private final int threads;
+	private final int running;
+	private final int queued;
+	private final long submitted;
+	private final long completed;
+	private final long cancelled;
+	private final long totalWaitMillis;
+	private final long maxWaitMillis;
+	private final long totalRunMillis;
+
+	BackgroundJobMetrics(
+			BackgroundJobClass jobClass, int maxThreads, int threads, int running, int queued,
+			long submitted, long completed, long cancelled,
+			long totalWaitMillis, long maxWaitMillis, long totalRunMillis) {
+		this.jobClass = jobClass;
+		this.maxThreads = maxThreads;
+		this.threads = threads;
+		this.running = running;
+		this.queued = queued;
+		this.submitted = submitted;
+		this.completed = completed;
+		this.cancelled = cancelled;
+		this.totalWaitMillis = totalWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.totalRunMillis = totalRunMillis;
+	}
+
+	public BackgroundJobClass getJobClass() {
+		return jobClass;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public int getRunning() {
+		return running;
+	}
+
+	/**
+	 * @return the current queue depth
+	 */
+	public int getQueued() {
+		return queued;
+	}
+
+	public long getSubmitted() {
+		return submitted;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public long getCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return the average time that started jobs have spent in the queue
+	 */
+	public long getAverageWaitMillis() {
+		long started = completed + running;
+		return started == 0 ? 0 : totalWaitMillis / started;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public long getAverageRunMillis() {
+		return completed == 0 ? 0 : totalRunMillis / completed;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s: %d/%s threads, %d running, %d queued, %d submitted, %d completed, %d cancelled, "
+						+ "wait avg %dms max %dms, run avg %dms",
+				jobClass, threads, maxThreads == Integer.MAX_VALUE ? "unbounded" : String.valueOf(maxThreads), running, queued, submitted, completed, cancelled,
+				getAverageWaitMillis(), maxWaitMillis, getAverageRunMillis()
+		);
+	}
+}
@@ -0,0 +1,238 @@
+package de.catma.backgroundservice;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The bounded worker pool of one {@link BackgroundJobClass}.
+ * <p>
+ * Each owner has its own queue ordered by priority. Workers take the job with the highest priority among the heads
+ * of these queues, owners with jobs of the same priority take turns. Workers are started on demand up to the maximum
+ * and released after they have been idle for a while.
+ */
+class BackgroundJobPool {
+	private static final Logger logger = Logger.getLogger(BackgroundJobPool.class.getName());
+
+	private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+	private static final Comparator<BackgroundJob> JOB_ORDER =
+			Comparator.comparing(BackgroundJob::getPriority).reversed()
+			.thenComparingLong(BackgroundJob::getSequenceNumber);
+
+	private final BackgroundJobClass jobClass;
+	private final int maxThreads;
+	private final ThreadFactory threadFactory;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition jobAvailable = lock.newCondition();
+	private final Map<String, PriorityQueue<BackgroundJob>> queuesByOwner = new HashMap<>();
+	// owners with queued jobs, the owner that has been served least recently comes first
+	private final ArrayDeque<String> ownerRotation = new ArrayDeque<>();
+
+	private int threads;
+	private int idleThreads;
+	private int running;
+	private int queued;
+
+	private long submitted;
+	private long completed;
+	private long cancelled;
+	private long totalWaitNanos;
+	private long maxWaitNanos;
+	private long totalRunNanos;
+
+	BackgroundJobPool(BackgroundJobClass jobClass, int maxThreads, ThreadFactory threadFactory) {
+		this.jobClass = jobClass;
+		this.maxThreads = maxThreads;
+		this.threadFactory = threadFactory;
+	}
+
+	void submit(BackgroundJob job) {
+		lock.lock();
+		try {
+			PriorityQueue<BackgroundJob> queue = queuesByOwner.get(job.getOwner());
+			if (queue == null) {
+				queue = new PriorityQueue<>(JOB_ORDER);
+				queuesByOwner.put(job.getOwner(), queue);
+				ownerRotation.addLast(job.getOwner());
+			}
+			queue.add(job);
+			queued++;
+			submitted++;
+
+			if (queued > idleThreads && threads < maxThreads) {
+				startThread();
+			}
+			else {
+				jobAvailable.signal();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the job was still queued and has been removed
+	 */
+	boolean remove(BackgroundJob job) {
+		lock.lock();
+		try {
+			PriorityQueue<BackgroundJob> queue = queuesByOwner.get(job.getOwner());
+			if (queue == null || !queue.remove(job)) {
+				return false;
+			}
+			if (queue.isEmpty()) {
+				queuesByOwner.remove(job.getOwner());
+				ownerRotation.remove(job.getOwner());
+			}
+			queued--;
+			cancelled++;
+			return true;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void startThread() {
+		Thread thread = threadFactory.newThread(this::work);
+		threads++;
+		thread.start();
+	}
+
+	private void work() {
+		try {
+			BackgroundJob job;
+			while ((job = take()) != null) {
+				long startNanos = System.nanoTime();
+				try {
+					job.run();
+				}
+				catch (Throwable t) {
+					// jobs are expected to handle their errors themselves
+					logger.log(Level.SEVERE, String.format("Error running %s", job), t);
+				}
+				finally {
+					finished(System.nanoTime() - startNanos);
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			lock.lock();
+			try {
+				threads--;
+			}
+			finally {
+				lock.unlock();
+			}
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the next job or <code>null</code> if the calling worker has been idle for too long and should terminate
+	 */
+	private BackgroundJob take() throws InterruptedException {
+		lock.lock();
+		try {
+			long remainingNanos = IDLE_TIMEOUT_NANOS;
+			while (true) {
+				BackgroundJob job = poll();
+				if (job != null) {
+					running++;
+					return job;
+				}
+				if (remainingNanos <= 0) {
+					threads--;
+					return null;
+				}
+
+				idleThreads++;
+				try {
+					remainingNanos = jobAvailable.awaitNanos(remainingNanos);
+				}
+				finally {
+					idleThreads--;
+				}
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private BackgroundJob poll() {
+		String selectedOwner = null;
+		BackgroundJob selectedJob = null;
+
+		for (String owner : ownerRotation) {
+			BackgroundJob job = queuesByOwner.get(owner).peek();
+			if (selectedJob == null || job.getPriority().compareTo(selectedJob.getPriority()) > 0) {
+				selectedOwner = owner;
+				selectedJob = job;
+			}
+		}
+
+		if (selectedJob == null) {
+			return null;
+		}
+
+		PriorityQueue<BackgroundJob> queue = queuesByOwner.get(selectedOwner);
+		queue.poll();
+		ownerRotation.remove(selectedOwner);
+		if (queue.isEmpty()) {
+			queuesByOwner.remove(selectedOwner);
+		}
+		else {
+			ownerRotation.addLast(selectedOwner);
+		}
+		queued--;
+
+		long waitNanos = System.nanoTime() - selectedJob.getSubmittedNanos();
+		totalWaitNanos += waitNanos;
+		maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine(String.format("Starting %s after %dms in the queue", selectedJob, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+		}
+
+		return selectedJob;
+	}
+
+	private void finished(long runNanos) {
+		lock.lock();
+		try {
+			running--;
+			completed++;
+			totalRunNanos += runNanos;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	BackgroundJobMetrics getMetrics() {
+		lock.lock();
+		try {
+			return new BackgroundJobMetrics(
+					jobClass, maxThreads, threads, running, queued,
+					submitted, completed, cancelled,
+					TimeUnit.NANOSECONDS.toMillis(totalWaitNanos),
+					TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+					TimeUnit.NANOSECONDS.toMillis(totalRunNanos)
+			);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package de.catma.backgroundservice;
+
+/**
+ * Within a {@link BackgroundJobClass} jobs with a higher priority are started first, the users whose jobs are waiting
+ * take turns among jobs of the same priority.
+ */
+public enum BackgroundJobPriority {
+	LOW,
+	NORMAL,
+	HIGH,
+	;
+}
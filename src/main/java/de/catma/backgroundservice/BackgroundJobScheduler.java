@@ -0,0 +1,140 @@
+package de.catma.backgroundservice;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * The server-wide scheduler for the jobs of all {@link BackgroundService}s.
+ * <p>
+ * Each {@link BackgroundJobClass} has its own bounded worker pool, see {@link BackgroundJobPool} for how jobs are
+ * picked. Delayed and periodic tasks share a small timer pool bounded by
+ * {@link CATMAPropertyKey#BACKGROUND_JOB_TIMER_THREADS}, they should hand anything substantial over to
+ * {@link #submit(BackgroundJobClass, BackgroundJobPriority, String, Consumer)}.
+ * <p>
+ * With {@link CATMAPropertyKey#BACKGROUND_JOB_VIRTUAL_THREADS} the pools of {@link BackgroundJobClass#isIoBound()
+ * I/O-bound} classes run their jobs on virtual threads, bounded by
+ * {@link CATMAPropertyKey#BACKGROUND_JOB_VIRTUAL_THREAD_LIMIT} instead of the thread count of the class.
+ * <p>
+ * The {@link #getMetrics() metrics} of all job classes are logged periodically, see
+ * {@link CATMAPropertyKey#BACKGROUND_JOB_METRICS_LOG_INTERVAL_MINUTES}.
+ */
+public enum BackgroundJobScheduler {
+	INSTANCE,
+	;
+
+	private static final Logger logger = Logger.getLogger(BackgroundJobScheduler.class.getName());
+
+	private final Map<BackgroundJobClass, BackgroundJobPool> poolsByJobClass = new EnumMap<>(BackgroundJobClass.class);
+	private volatile ScheduledExecutorService timer;
+
+	private synchronized BackgroundJobPool getPool(BackgroundJobClass jobClass) {
+		BackgroundJobPool pool = poolsByJobClass.get(jobClass);
+		if (pool == null) {
+			if (poolsByJobClass.isEmpty()) {
+				startMetricsLogging();
+			}
+			pool = createPool(jobClass);
+			poolsByJobClass.put(jobClass, pool);
+		}
+		return pool;
+	}
+
+	private void startMetricsLogging() {
+		int interval = CATMAPropertyKey.BACKGROUND_JOB_METRICS_LOG_INTERVAL_MINUTES.getIntValue();
+		if (interval <= 0) {
+			return;
+		}
+
+		getTimer().scheduleWithFixedDelay(() -> {
+			for (BackgroundJobMetrics metrics : getMetrics()) {
+				logger.info(metrics.toString());
+			}
+		}, interval, interval, TimeUnit.MINUTES);
+	}
+
+	private BackgroundJobPool createPool(BackgroundJobClass jobClass) {
+		String namePrefix = "catma-background-" + jobClass.name().toLowerCase() + "-";
+
+		if (jobClass.isIoBound() && CATMAPropertyKey.BACKGROUND_JOB_VIRTUAL_THREADS.getBooleanValue()) {
+			ThreadFactory virtualThreadFactory = VirtualThreads.newThreadFactory(namePrefix);
+			if (virtualThreadFactory != null) {
+				int limit = Math.max(1, CATMAPropertyKey.BACKGROUND_JOB_VIRTUAL_THREAD_LIMIT.getIntValue());
+				logger.info(String.format("Running %s jobs on up to %d virtual threads", jobClass, limit));
+				return new BackgroundJobPool(jobClass, limit, virtualThreadFactory);
+			}
+			logger.warning(String.format(
+					"Virtual threads are not supported by this JDK, running %s jobs on platform threads", jobClass));
+		}
+
+		return new BackgroundJobPool(jobClass, jobClass.getMaxThreads(), newPlatformThreadFactory(namePrefix));
+	}
+
+	/**
+	 * @return a factory for daemon threads that are named with the given prefix followed by a counter
+	 */
+	static ThreadFactory newPlatformThreadFactory(String namePrefix) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * @param owner the jobs of different owners, usually users, are started in turns
+	 * @param task the job itself, receives its own {@link BackgroundJob} handle
+	 * @return the handle of the queued job
+	 */
+	public BackgroundJob submit(
+			BackgroundJobClass jobClass, BackgroundJobPriority priority, String owner, Consumer<BackgroundJob> task) {
+		BackgroundJobPool pool = getPool(jobClass);
+		BackgroundJob job = new BackgroundJob(jobClass, priority, owner, task, pool);
+		pool.submit(job);
+		return job;
+	}
+
+	/**
+	 * @return the executor for delayed and periodic tasks
+	 */
+	public ScheduledExecutorService getTimer() {
+		if (timer == null) {
+			synchronized (this) {
+				if (timer == null) {
+					ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(
+							Math.max(1, CATMAPropertyKey.BACKGROUND_JOB_TIMER_THREADS.getIntValue()),
+							newPlatformThreadFactory("catma-background-timer-")
+					);
+					// cancelled tasks of closed UIs should not pile up in the queue
+					scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
+
+					timer = scheduledThreadPoolExecutor;
+				}
+			}
+		}
+
+		return timer;
+	}
+
+	/**
+	 * @return queue depth, latencies and other counters of all job classes that have been used so far
+	 */
+	public synchronized List<BackgroundJobMetrics> getMetrics() {
+		List<BackgroundJobMetrics> metrics = new ArrayList<>();
+		for (BackgroundJobPool pool : poolsByJobClass.values()) {
+			metrics.add(pool.getMetrics());
+		}
+		return metrics;
+	}
+}
@@ -49,6 +49,20 @@ public interface BackgroundService {
 			final ExecutionListener<T> listener,
 			final ProgressListener progressListener);	
 	
+	/**
+	 * Like {@link #submit(ProgressCallable, ExecutionListener, ProgressListener)} but for jobs that should not
+	 * be treated as {@link BackgroundJobClass#INTERACTIVE interactive} ones with {@link BackgroundJobPriority#NORMAL normal}
+	 * priority.
+	 */
+	public default <T> void submit(
+			final BackgroundJobClass jobClass,
+			final BackgroundJobPriority priority,
+			final ProgressCallable<T> callable, 
+			final ExecutionListener<T> listener,
+			final ProgressListener progressListener) {
+		submit(callable, listener, progressListener);
+	}
+	
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
 			long initialDelay, long delay, TimeUnit unit);
 
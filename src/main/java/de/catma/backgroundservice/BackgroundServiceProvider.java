@@ -25,4 +25,12 @@ public interface BackgroundServiceProvider {
 			String caption,
 			ProgressCallable<T> callable, 
 			ExecutionListener<T> listener);
+
+	public default <T> void submit( 
+			String caption,
+			BackgroundJobClass jobClass,
+			ProgressCallable<T> callable, 
+			ExecutionListener<T> listener) {
+		submit(caption, callable, listener);
+	}
 }
@@ -1,16 +1,20 @@
 package de.catma.backgroundservice;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DefaultBackgroundService implements BackgroundService {
-	private ScheduledExecutorService backgroundThread;
+	private static final String OWNER = "system";
+	
 	private boolean background = true;
 	private Object lock;
+	private final Set<ScheduledFuture<?>> periodicTasks = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * setup the worker thread
@@ -22,9 +26,6 @@ public class DefaultBackgroundService implements BackgroundService {
 	public DefaultBackgroundService(Object lock, boolean background) {
 		this.lock = lock;
 		this.background = background;
-		if (background) {
-			backgroundThread = Executors.newSingleThreadScheduledExecutor();
-		}
 	}
 	
 	/**
@@ -42,12 +43,21 @@ public class DefaultBackgroundService implements BackgroundService {
 			final ProgressCallable<T> callable, 
 			final ExecutionListener<T> listener,
 			final ProgressListener progressListener) {
+		submit(BackgroundJobClass.INTERACTIVE, BackgroundJobPriority.NORMAL, callable, listener, progressListener);
+	}
+	
+	@Override
+	public <T> void submit(
+			BackgroundJobClass jobClass, BackgroundJobPriority priority,
+			final ProgressCallable<T> callable, 
+			final ExecutionListener<T> listener,
+			final ProgressListener progressListener) {
 		
         if (background) {
-            backgroundThread.submit( new Runnable() {
-                public void run() {
+            BackgroundJobScheduler.INSTANCE.submit(jobClass, priority, OWNER, new Consumer<BackgroundJob>() {
+                public void accept(BackgroundJob job) {
                     try {
-                        callable.setProgressListener( progressListener );
+                        callable.setProgressListener( job.withCancellation(progressListener) );
                         final T result = callable.call();
                         
                         synchronized(lock) {
@@ -86,17 +96,23 @@ public class DefaultBackgroundService implements BackgroundService {
 	
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
 			long initialDelay, long delay, TimeUnit unit) {
-		return backgroundThread.scheduleWithFixedDelay(command, initialDelay,
-				delay, unit);
+		ScheduledFuture<?> periodicTask = BackgroundJobScheduler.INSTANCE.getTimer().scheduleWithFixedDelay(
+				command, initialDelay, delay, unit);
+		periodicTasks.removeIf(Future::isDone);
+		periodicTasks.add(periodicTask);
+		return periodicTask;
 	}
 	
 	public ScheduledFuture<?> schedule(Runnable command,
 			long delay, TimeUnit unit) {
-		return backgroundThread.schedule(command, delay, unit);
+		return BackgroundJobScheduler.INSTANCE.getTimer().schedule(command, delay, unit);
 	}
 
 	public void shutdown() {
-		backgroundThread.shutdown();
+		for (ScheduledFuture<?> periodicTask : periodicTasks) {
+			periodicTask.cancel(false);
+		}
+		periodicTasks.clear();
 	}
 
 }
@@ -29,4 +29,13 @@ public interface ProgressListener {
 	
 	public void setProgress(String value, Object... args);
 
+	/**
+	 * Long running jobs can poll this to find out whether they should stop early.
+	 *
+	 * @return <code>true</code> if the job that reports to this listener has been cancelled
+	 */
+	public default boolean isCancelled() {
+		return false;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package de.catma.backgroundservice;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * A server-wide pool of daemon worker threads that is shared by all users and bounded by a parallelism property.
+ * <p>
+ * The pool is created when it is first requested. A parallelism of 0 or less means one worker per available
+ * processor, a parallelism of 1 disables the pool and the work is expected to run sequentially on the calling thread.
+ *
+ * @param <T> the type of the pool
+ */
+public final class SharedWorkerPool<T extends ExecutorService> {
+
+	private final CATMAPropertyKey parallelismKey;
+	private final IntFunction<T> poolFactory;
+
+	private volatile T pool;
+
+	private SharedWorkerPool(CATMAPropertyKey parallelismKey, IntFunction<T> poolFactory) {
+		this.parallelismKey = parallelismKey;
+		this.poolFactory = poolFactory;
+	}
+
+	/**
+	 * A fork/join pool, for computations that split their work into tasks that idle workers can steal.
+	 *
+	 * @param threadNamePrefix the prefix of the worker thread names, followed by the index of the worker
+	 * @param parallelismKey the maximum number of workers
+	 */
+	public static SharedWorkerPool<ForkJoinPool> forkJoinPool(String threadNamePrefix, CATMAPropertyKey parallelismKey) {
+		return new SharedWorkerPool<>(
+				parallelismKey,
+				parallelism -> new ForkJoinPool(
+						parallelism,
+						forkJoinPool -> {
+							ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+							thread.setName(threadNamePrefix + thread.getPoolIndex());
+							thread.setDaemon(true);
+							return thread;
+						},
+						null,
+						false
+				)
+		);
+	}
+
+	/**
+	 * A fixed size thread pool with an unbounded queue, for blocking work like I/O. Idle workers are released after a
+	 * while.
+	 *
+	 * @param threadNamePrefix the prefix of the worker thread names, followed by a counter
+	 * @param parallelismKey the maximum number of workers
+	 */
+	public static SharedWorkerPool<ExecutorService> threadPool(String threadNamePrefix, CATMAPropertyKey parallelismKey) {
+		return new SharedWorkerPool<>(
+				parallelismKey,
+				parallelism -> {
+					AtomicInteger threadCount = new AtomicInteger();
+					ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+							parallelism,
+							parallelism,
+							60L,
+							TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(),
+							runnable -> {
+								Thread thread = new Thread(runnable, threadNamePrefix + threadCount.getAndIncrement());
+								thread.setDaemon(true);
+								return thread;
+							}
+					);
+					threadPoolExecutor.allowCoreThreadTimeOut(true);
+					return threadPoolExecutor;
+				}
+		);
+	}
+
+	/**
+	 * @return the pool or <code>null</code> if the work should run sequentially on the calling thread
+	 */
+	public T get() {
+		if (pool == null) {
+			synchronized (this) {
+				if (pool == null) {
+					int parallelism = parallelismKey.getIntValue();
+					if (parallelism <= 0) {
+						parallelism = Runtime.getRuntime().availableProcessors();
+					}
+					if (parallelism == 1) {
+						return null;
+					}
+
+					pool = poolFactory.apply(parallelism);
+				}
+			}
+		}
+
+		return pool;
+	}
+}
@@ -0,0 +1,30 @@
+package de.catma.backgroundservice;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads while the code base still targets Java 8. The builder API is looked up reflectively,
+ * on JDKs without (non-preview) virtual threads no factory is available.
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @param namePrefix threads are named with the prefix followed by a counter
+	 * @return a factory for virtual threads or <code>null</code> if the running JDK does not support them
+	 */
+	static ThreadFactory newThreadFactory(String namePrefix) {
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			// JDK < 19 or preview features not enabled
+			return null;
+		}
+	}
+}
@@ -201,6 +201,13 @@ public class AnnotationCollection {
 		return tagReferencesByInstanceId.isEmpty();
 	}
 	
+	/**
+	 * @return the number of tag references in this collection
+	 */
+	public int getTagReferenceCount() {
+		return tagReferencesByInstanceId.size();
+	}
+	
 	/**
 	 * @param tagLibrary the internal library with all relevant {@link TagsetDefinition}s
 	 * must correspond to the tag definitions of the tag intances of the tag references 
@@ -1,8 +1,11 @@
 package de.catma.document.corpus;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.zip.GZIPOutputStream;
@@ -71,23 +74,31 @@ public class CorpusExporter {
 									project.getTagManager(), 
 									project.getVersion(), 
 									false);
-					ByteArrayOutputStream teiDocOut = new ByteArrayOutputStream();
-					handler.serialize(
-						project.getAnnotationCollection(umcRef), sd, teiDocOut);
-
-					byte[] umcContent = teiDocOut.toByteArray();
-					
-					String umcEntryName = getUmcEntryName(exportName, umc, sdRef);
-					
-					TarArchiveEntry umcEntry = 
-						new TarArchiveEntry(umcEntryName);
-					
-					umcEntry.setSize(umcContent.length);
-					
-					taOut.putArchiveEntry(umcEntry);
-					taOut.write(umcContent);
 					
-					taOut.closeArchiveEntry();
+					// tar entries need their size up front, so large collections 
+					// are spooled to disk rather than buffered in memory
+					File umcFile = File.createTempFile("catma-tei-export", ".xml");
+					try {
+						try (OutputStream umcOut = 
+								new BufferedOutputStream(new FileOutputStream(umcFile))) {
+							handler.serialize(umc, sd, umcOut);
+						}
+						
+						String umcEntryName = getUmcEntryName(exportName, umc, sdRef);
+						
+						TarArchiveEntry umcEntry = 
+							new TarArchiveEntry(umcEntryName);
+						
+						umcEntry.setSize(umcFile.length());
+						
+						taOut.putArchiveEntry(umcEntry);
+						Files.copy(umcFile.toPath(), taOut);
+						
+						taOut.closeArchiveEntry();
+					}
+					finally {
+						Files.deleteIfExists(umcFile.toPath());
+					}
 				}
 			}
 		}
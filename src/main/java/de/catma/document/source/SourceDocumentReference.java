@@ -30,6 +30,15 @@ public class SourceDocumentReference {
 		this.userMarkupCollectionRefs = new ArrayList<AnnotationCollectionReference>();
 	}
 
+	/**
+	 * @return a new reference to the same document without any collection references attached
+	 */
+	public SourceDocumentReference copyWithoutCollectionReferences() {
+		SourceDocumentReference copy = new SourceDocumentReference(uuid, sourceContentHandler);
+		copy.contribution = contribution;
+		return copy;
+	}
+
 	/**
 	 * displays title or id
 	 */
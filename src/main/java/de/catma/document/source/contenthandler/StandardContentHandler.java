@@ -29,7 +29,7 @@ import java.nio.charset.Charset;
 public class StandardContentHandler extends AbstractSourceContentHandler {
 	private static final int KB64 = 65536;
 
-	private void load(BufferedInputStream bufferedInputStream) throws IOException {
+	protected void load(BufferedInputStream bufferedInputStream) throws IOException {
 		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 		byte[] inputByteBuffer = new byte[KB64];
 		int bytesRead;
@@ -61,10 +61,44 @@ public class StandardContentHandler extends AbstractSourceContentHandler {
 		setContent(
 				// some texts seem to include invalid unicode characters and this causes problems when converting text to HTML for GUI delivery and during
 				// indexing
-				contentBuilder.toString().replaceAll("[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\u10000-\\u10FFFF]", "?")
+				replaceInvalidCharacters(contentBuilder)
 		);
 	}
 
+	/**
+	 * Replaces each code point outside of #x9, #xA, #xD, #x20-#xD7FF and #xE000-#xFFFD with a '?'. Note that this 
+	 * includes supplementary code points, a surrogate pair is replaced by a single '?'.
+	 * <p>
+	 * This is what the former <code>replaceAll("[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\u10000-\\u10FFFF]", "?")</code>
+	 * did, in a single pass that doesn't copy the content when there is nothing to replace.
+	 */
+	static String replaceInvalidCharacters(CharSequence content) {
+		int length = content.length();
+		int firstInvalid = 0;
+		while (firstInvalid < length && isValid(content.charAt(firstInvalid))) {
+			firstInvalid++;
+		}
+		if (firstInvalid == length) {
+			return content.toString();
+		}
+
+		StringBuilder result = new StringBuilder(length);
+		result.append(content, 0, firstInvalid);
+		int i = firstInvalid;
+		while (i < length) {
+			int codePoint = Character.codePointAt(content, i);
+			result.append(isValid(codePoint) ? (char) codePoint : '?');
+			i += Character.charCount(codePoint);
+		}
+		return result.toString();
+	}
+
+	private static boolean isValid(int codePoint) {
+		return (codePoint >= 0x20 && codePoint <= 0xD7FF)
+				|| codePoint == 0x09 || codePoint == 0x0A || codePoint == 0x0D
+				|| (codePoint >= 0xE000 && codePoint <= 0xFFFD);
+	}
+
 	@Override
 	public void load() throws IOException {
 		try (BufferedInputStream bufferedInputStream = new BufferedInputStream(getSourceDocumentInfo().getTechInfoSet().getURI().toURL().openStream())) {
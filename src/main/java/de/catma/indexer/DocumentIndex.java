@@ -0,0 +1,209 @@
+package de.catma.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * A read-only view of the binary index of a single document, as written by {@link DocumentIndexWriter}.
+ * <p>
+ * The layout (all values are big-endian ints unless noted otherwise):
+ * <pre>
+ * header:   magic, version, sourceLength, tokenCount, termCount, postingsCount, literalPoolSize,
+ *           sourceDigest (SOURCE_DIGEST_SIZE bytes)
+ * tokens:   tokenCount x (startOffset, endOffset, termId), indexed by token offset
+ * terms:    termCount x (literalOffset, literalLength, postingsOffset, frequency), sorted by literal
+ * postings: postingsCount token offsets, ascending per term
+ * literals: literalPoolSize bytes of UTF-8
+ * </pre>
+ * Only absolute reads are used, so a single instance can be shared between threads. Term lookups are binary
+ * searches over the sorted dictionary and only decode the literals they compare against.
+ */
+public class DocumentIndex {
+	static final int MAGIC = 0x43494458; // "CIDX"
+	static final int VERSION = 2;
+
+	static final int SOURCE_DIGEST_SIZE = 20; // SHA-1
+	static final int HEADER_SIZE = 7 * Integer.BYTES + SOURCE_DIGEST_SIZE;
+	static final int TOKEN_ENTRY_SIZE = 3 * Integer.BYTES;
+	static final int TERM_ENTRY_SIZE = 4 * Integer.BYTES;
+
+	private final ByteBuffer buffer;
+	private final long sourceLength;
+	private final String sourceDigest;
+	private final int tokenCount;
+	private final int termCount;
+	private final int tokensStart;
+	private final int termsStart;
+	private final int postingsStart;
+	private final int literalsStart;
+
+	/**
+	 * @param buffer a buffer containing a complete binary document index, starting at position 0
+	 * @throws IOException if the buffer does not contain an index in a supported format
+	 */
+	public DocumentIndex(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a binary document index");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException(String.format("Unsupported binary document index version %d", buffer.getInt(4)));
+		}
+
+		this.sourceLength = Integer.toUnsignedLong(buffer.getInt(8));
+		this.tokenCount = buffer.getInt(12);
+		this.termCount = buffer.getInt(16);
+		int postingsCount = buffer.getInt(20);
+		int literalPoolSize = buffer.getInt(24);
+
+		byte[] digest = new byte[SOURCE_DIGEST_SIZE];
+		ByteBuffer header = buffer.duplicate();
+		header.position(7 * Integer.BYTES);
+		header.get(digest);
+		this.sourceDigest = BaseEncoding.base16().lowerCase().encode(digest);
+
+		this.tokensStart = HEADER_SIZE;
+		this.termsStart = tokensStart + tokenCount * TOKEN_ENTRY_SIZE;
+		this.postingsStart = termsStart + termCount * TERM_ENTRY_SIZE;
+		this.literalsStart = postingsStart + postingsCount * Integer.BYTES;
+
+		if (buffer.capacity() != literalsStart + literalPoolSize) {
+			throw new IOException("Truncated binary document index");
+		}
+	}
+
+	/**
+	 * Maps the given index file into memory.
+	 *
+	 * @param indexFile the binary index file
+	 * @return the memory-mapped index
+	 * @throws IOException if the file cannot be mapped or is not a valid index
+	 */
+	public static DocumentIndex map(File indexFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel has been closed
+			return new DocumentIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * @return the size in bytes of the tokenized source this index was built from, used to detect stale indexes
+	 */
+	public long getSourceLength() {
+		return sourceLength;
+	}
+
+	/**
+	 * @return the hex encoded SHA-1 digest of the tokenized source this index was built from, identifies the revision
+	 *         of the document content independently of the repository or branch it was read from
+	 */
+	public String getSourceDigest() {
+		return sourceDigest;
+	}
+
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	public int getTermCount() {
+		return termCount;
+	}
+
+	public int getStartOffset(int tokenOffset) {
+		return buffer.getInt(tokensStart + tokenOffset * TOKEN_ENTRY_SIZE);
+	}
+
+	public int getEndOffset(int tokenOffset) {
+		return buffer.getInt(tokensStart + tokenOffset * TOKEN_ENTRY_SIZE + Integer.BYTES);
+	}
+
+	/**
+	 * @return the ID of the term at the given token offset, or -1 if the document has no token at that offset
+	 */
+	public int getTermId(int tokenOffset) {
+		return buffer.getInt(tokensStart + tokenOffset * TOKEN_ENTRY_SIZE + 2 * Integer.BYTES);
+	}
+
+	public String getTerm(int termId) {
+		int entry = termsStart + termId * TERM_ENTRY_SIZE;
+		int literalOffset = buffer.getInt(entry);
+		int literalLength = buffer.getInt(entry + Integer.BYTES);
+
+		byte[] literal = new byte[literalLength];
+		ByteBuffer literals = buffer.duplicate();
+		literals.position(literalsStart + literalOffset);
+		literals.get(literal);
+
+		return new String(literal, StandardCharsets.UTF_8);
+	}
+
+	public int getFrequency(int termId) {
+		return buffer.getInt(termsStart + termId * TERM_ENTRY_SIZE + 3 * Integer.BYTES);
+	}
+
+	/**
+	 * @return the token offsets of all occurrences of the given term in ascending order
+	 */
+	public int[] getPostings(int termId) {
+		int entry = termsStart + termId * TERM_ENTRY_SIZE;
+		int postingsOffset = buffer.getInt(entry + 2 * Integer.BYTES);
+		int frequency = buffer.getInt(entry + 3 * Integer.BYTES);
+
+		int[] postings = new int[frequency];
+		for (int i = 0; i < frequency; i++) {
+			postings[i] = buffer.getInt(postingsStart + (postingsOffset + i) * Integer.BYTES);
+		}
+
+		return postings;
+	}
+
+	/**
+	 * @param term the literal to look up
+	 * @return the ID of the term, or -1 if the document does not contain it
+	 */
+	public int findTermId(String term) {
+		int idx = lowerBound(term);
+
+		if (idx < termCount && getTerm(idx).equals(term)) {
+			return idx;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @param term the literal to look up
+	 * @return the ID of the first term in dictionary order that is not less than the given literal, or
+	 *         {@link #getTermCount()} if there is none
+	 */
+	public int lowerBound(String term) {
+		int low = 0;
+		int high = termCount;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getTerm(mid).compareTo(term) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @return the size of the underlying buffer in bytes
+	 */
+	public int getSizeInBytes() {
+		return buffer.capacity();
+	}
+}
@@ -0,0 +1,229 @@
+package de.catma.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the positions of a tokenized document and writes them in the binary format read by {@link DocumentIndex}.
+ */
+public class DocumentIndexWriter {
+
+	private final Map<String, Integer> termIdsByLiteral = new HashMap<>();
+	private final List<String> literals = new ArrayList<>();
+
+	private int[] startOffsets = new int[1024];
+	private int[] endOffsets = new int[1024];
+	private int[] termIds = new int[1024];
+	private int tokenCount = 0;
+
+	public DocumentIndexWriter() {
+		Arrays.fill(termIds, -1);
+	}
+
+	/**
+	 * Creates a writer for terms as produced by {@link TermExtractor#getTerms()}.
+	 */
+	public DocumentIndexWriter(Map<String, List<TermInfo>> terms) {
+		this();
+
+		for (Map.Entry<String, List<TermInfo>> entry : terms.entrySet()) {
+			for (TermInfo termInfo : entry.getValue()) {
+				addPosition(
+						entry.getKey(),
+						termInfo.getRange().getStartPoint(),
+						termInfo.getRange().getEndPoint(),
+						termInfo.getTokenOffset()
+				);
+			}
+		}
+	}
+
+	public void addPosition(String term, int startOffset, int endOffset, int tokenOffset) {
+		if (tokenOffset < 0) {
+			throw new IllegalArgumentException(String.format("Invalid token offset %d for term \"%s\"", tokenOffset, term));
+		}
+
+		Integer termId = termIdsByLiteral.get(term);
+		if (termId == null) {
+			termId = literals.size();
+			termIdsByLiteral.put(term, termId);
+			literals.add(term);
+		}
+
+		ensureCapacity(tokenOffset + 1);
+
+		startOffsets[tokenOffset] = startOffset;
+		endOffsets[tokenOffset] = endOffset;
+		termIds[tokenOffset] = termId;
+		tokenCount = Math.max(tokenCount, tokenOffset + 1);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= termIds.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, termIds.length * 2);
+		int oldCapacity = termIds.length;
+
+		startOffsets = Arrays.copyOf(startOffsets, newCapacity);
+		endOffsets = Arrays.copyOf(endOffsets, newCapacity);
+		termIds = Arrays.copyOf(termIds, newCapacity);
+		Arrays.fill(termIds, oldCapacity, newCapacity, -1);
+	}
+
+	/**
+	 * @return a {@link MessageDigest} suitable to compute the source digest that is passed to
+	 *         {@link #toByteBuffer(long, byte[])} and {@link #write(File, long, byte[])}
+	 */
+	public static MessageDigest createSourceDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param sourceLength the size in bytes of the tokenized source, see {@link DocumentIndex#getSourceLength()}
+	 * @param sourceDigest the SHA-1 digest of the tokenized source, see {@link DocumentIndex#getSourceDigest()}
+	 * @return the serialized index
+	 */
+	public ByteBuffer toByteBuffer(long sourceLength, byte[] sourceDigest) {
+		if (sourceDigest.length != DocumentIndex.SOURCE_DIGEST_SIZE) {
+			throw new IllegalArgumentException(String.format("Invalid source digest length %d", sourceDigest.length));
+		}
+
+		int termCount = literals.size();
+
+		// sort the dictionary and remap the term IDs that were assigned in order of appearance
+		Integer[] sortedTermIds = new Integer[termCount];
+		for (int i = 0; i < termCount; i++) {
+			sortedTermIds[i] = i;
+		}
+		Arrays.sort(sortedTermIds, (id1, id2) -> literals.get(id1).compareTo(literals.get(id2)));
+
+		int[] newTermIds = new int[termCount];
+		for (int i = 0; i < termCount; i++) {
+			newTermIds[sortedTermIds[i]] = i;
+		}
+
+		int[] frequencies = new int[termCount];
+		int postingsCount = 0;
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			if (termIds[tokenOffset] != -1) {
+				frequencies[newTermIds[termIds[tokenOffset]]]++;
+				postingsCount++;
+			}
+		}
+
+		int[] postingsOffsets = new int[termCount];
+		for (int i = 1; i < termCount; i++) {
+			postingsOffsets[i] = postingsOffsets[i - 1] + frequencies[i - 1];
+		}
+
+		// token offsets are visited in ascending order, so the postings of each term end up sorted
+		int[] postings = new int[postingsCount];
+		int[] postingsFill = Arrays.copyOf(postingsOffsets, termCount);
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			if (termIds[tokenOffset] != -1) {
+				postings[postingsFill[newTermIds[termIds[tokenOffset]]]++] = tokenOffset;
+			}
+		}
+
+		byte[][] encodedLiterals = new byte[termCount][];
+		int literalPoolSize = 0;
+		for (int i = 0; i < termCount; i++) {
+			encodedLiterals[i] = literals.get(sortedTermIds[i]).getBytes(StandardCharsets.UTF_8);
+			literalPoolSize += encodedLiterals[i].length;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(
+				DocumentIndex.HEADER_SIZE
+				+ tokenCount * DocumentIndex.TOKEN_ENTRY_SIZE
+				+ termCount * DocumentIndex.TERM_ENTRY_SIZE
+				+ postingsCount * Integer.BYTES
+				+ literalPoolSize
+		);
+
+		buffer.putInt(DocumentIndex.MAGIC);
+		buffer.putInt(DocumentIndex.VERSION);
+		buffer.putInt((int) sourceLength);
+		buffer.putInt(tokenCount);
+		buffer.putInt(termCount);
+		buffer.putInt(postingsCount);
+		buffer.putInt(literalPoolSize);
+		buffer.put(sourceDigest);
+
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			buffer.putInt(startOffsets[tokenOffset]);
+			buffer.putInt(endOffsets[tokenOffset]);
+			buffer.putInt(termIds[tokenOffset] == -1 ? -1 : newTermIds[termIds[tokenOffset]]);
+		}
+
+		int literalOffset = 0;
+		for (int i = 0; i < termCount; i++) {
+			buffer.putInt(literalOffset);
+			buffer.putInt(encodedLiterals[i].length);
+			buffer.putInt(postingsOffsets[i]);
+			buffer.putInt(frequencies[i]);
+			literalOffset += encodedLiterals[i].length;
+		}
+
+		for (int posting : postings) {
+			buffer.putInt(posting);
+		}
+
+		for (byte[] encodedLiteral : encodedLiterals) {
+			buffer.put(encodedLiteral);
+		}
+
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Writes the index to the given file. The index is written to a temporary file first and then moved into place, so
+	 * that concurrent readers never see a partially written index.
+	 *
+	 * @param indexFile the target file
+	 * @param sourceLength the size in bytes of the tokenized source, see {@link DocumentIndex#getSourceLength()}
+	 * @param sourceDigest the SHA-1 digest of the tokenized source, see {@link DocumentIndex#getSourceDigest()}
+	 * @throws IOException if the index cannot be written
+	 */
+	public void write(File indexFile, long sourceLength, byte[] sourceDigest) throws IOException {
+		ByteBuffer buffer = toByteBuffer(sourceLength, sourceDigest);
+
+		File parentDirectory = indexFile.getAbsoluteFile().getParentFile();
+		if (!parentDirectory.exists() && !parentDirectory.mkdirs()) {
+			throw new IOException(String.format("Unable to create directory %s", parentDirectory));
+		}
+
+		File tempFile = File.createTempFile(indexFile.getName(), ".tmp", parentDirectory);
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempFile.toPath())) {
+				outputStream.write(buffer.array(), 0, buffer.limit());
+			}
+
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+}
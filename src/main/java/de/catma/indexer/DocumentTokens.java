@@ -0,0 +1,23 @@
+package de.catma.indexer;
+
+/**
+ * Read access to the tokens of a single document in writing order, as stored by the index.
+ * <p>
+ * Start and end offsets grow with the token offset, so tokens covering a given character position can be found by
+ * binary search.
+ */
+public interface DocumentTokens {
+
+	public int getTokenCount();
+
+	/**
+	 * @return <code>true</code> if there is a token at the given offset
+	 */
+	public boolean hasToken(int tokenOffset);
+
+	public int getStartOffset(int tokenOffset);
+
+	public int getEndOffset(int tokenOffset);
+
+	public String getTermLiteral(int tokenOffset);
+}
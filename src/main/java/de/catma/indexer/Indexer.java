@@ -21,6 +21,7 @@ package de.catma.indexer;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.document.Range;
@@ -28,7 +29,9 @@ import de.catma.document.annotation.TagReference;
 import de.catma.document.source.SourceDocument;
 import de.catma.queryengine.CompareOperator;
 import de.catma.queryengine.QueryId;
+import de.catma.queryengine.result.GroupedQueryResult;
 import de.catma.queryengine.result.QueryResult;
+import de.catma.queryengine.result.QueryResultRowArray;
 import de.catma.tag.TagLibrary;
 
 public interface Indexer {
@@ -82,8 +85,41 @@ public interface Indexer {
 			CompareOperator comp1, int freq1, 
 			CompareOperator comp2, int freq2) throws IOException;
 	
+	/**
+	 * Searches all occurrences of the types (distinct terms) that satisfy the given filter.
+	 * 
+	 * @param typeFilter tested once per type
+	 * @return the occurrences of the matching types
+	 * @throws IOException
+	 */
+	public default QueryResult searchTypes(
+			QueryId queryId, 
+			List<String> documentIdList, 
+			Predicate<String> typeFilter) throws IOException {
+		QueryResultRowArray result = new QueryResultRowArray();
+		
+		QueryResult allTokens = searchFrequency(queryId, documentIdList, CompareOperator.GREATERTHAN, 0, null, 0);
+		for (GroupedQueryResult groupedQueryResult : allTokens.asGroupedSet()) {
+			if (typeFilter.test(groupedQueryResult.getGroup().toString())) {
+				groupedQueryResult.forEach(result::add);
+			}
+		}
+		
+		return result;
+	}
+	
 	public SpanContext getSpanContextFor(String sourceDocumentId, Range range,
 	            int spanContextSize, SpanDirection direction) throws IOException;
+	
+	/**
+	 * @param sourceDocumentId the ID of a SourceDocument
+	 * @return the indexed tokens of the document or <code>null</code> if this indexer 
+	 * cannot provide them
+	 * @throws IOException
+	 */
+	public default DocumentTokens getDocumentTokens(String sourceDocumentId) throws IOException {
+		return null;
+	}
 	    	
 	public QueryResult searchCollocation(
 			QueryId queryId, 
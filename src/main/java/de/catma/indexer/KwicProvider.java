@@ -21,7 +21,11 @@ package de.catma.indexer;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
@@ -36,15 +40,33 @@ import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
 import de.catma.project.Project;
 
+/**
+ * Provides keywords in context for a single document.
+ * <p>
+ * If the indexed tokens of the document are available (see {@link Indexer#getDocumentTokens(String)}) the span
+ * contexts are read from the token positions directly, otherwise the content around each keyword is tokenized with a
+ * {@link WhitespaceAndPunctuationAnalyzer}. Both ways yield the same span contexts.
+ */
 public class KwicProvider {
+	private static final Logger logger = Logger.getLogger(KwicProvider.class.getName());
 	
 	private String content;
 	private String sourceDocumentId;
 	private String sourceDocumentName;
 	private SourceDocumentReference sourceDocumentReference;
 	private IndexInfoSet indexInfoSet;
+	private DocumentTokens documentTokens; // null if the tokens have to be computed with the analyzer
 	
 	public KwicProvider(SourceDocument sourceDocument, SourceDocumentReference sourceDocumentReference) throws IOException {
+		this(sourceDocument, sourceDocumentReference, null);
+	}
+	
+	/**
+	 * @param documentTokens the indexed tokens of the document or <code>null</code>
+	 */
+	public KwicProvider(
+			SourceDocument sourceDocument, SourceDocumentReference sourceDocumentReference, 
+			DocumentTokens documentTokens) throws IOException {
 		this.sourceDocumentId = sourceDocument.getUuid();
 		this.content = sourceDocument.getContent();
 		this.sourceDocumentName = sourceDocument.toString();
@@ -52,15 +74,47 @@ public class KwicProvider {
 		indexInfoSet = 
 				sourceDocument.getSourceContentHandler()
 					.getSourceDocumentInfo().getIndexInfoSet();
+		
+		if (documentTokens != null && documentTokens.getTokenCount() > 0
+				&& documentTokens.getEndOffset(documentTokens.getTokenCount()-1) > content.length()) {
+			logger.warning(String.format(
+				"Indexed tokens of document %1$s do not match its content, falling back to the analyzer", 
+				sourceDocumentId));
+			documentTokens = null;
+		}
+		this.documentTokens = documentTokens;
 	}
 	
+	/**
+	 * Computes the keywords in context for all the given ranges. With indexed tokens available the ranges are
+	 * processed in the order of their start points, so that the token lookups of consecutive ranges only move forward.
+	 * 
+	 * @return the keywords in context in the order of the given ranges
+	 */
 	public List<KeywordInSpanContext> getKwic(
 			List<Range> ranges, int span) throws IOException {
-		List<KeywordInSpanContext> result = new ArrayList<KeywordInSpanContext>();
-		for (Range r : ranges) {
-			result.add(getKwic(r, span));
+		if (documentTokens == null) {
+			List<KeywordInSpanContext> result = new ArrayList<KeywordInSpanContext>();
+			for (Range r : ranges) {
+				result.add(getKwic(r, span));
+			}
+			return result;
+		}
+		
+		Integer[] order = new Integer[ranges.size()];
+		for (int i=0; i<order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(idx -> ranges.get(idx).getStartPoint()));
+		
+		KeywordInSpanContext[] result = new KeywordInSpanContext[ranges.size()];
+		TokenCursor cursor = new TokenCursor();
+		for (int idx : order) {
+			Range range = ranges.get(idx);
+			result[idx] = createKwic(range, getSpanContextFromTokens(range, span, SpanDirection.BOTH, cursor));
 		}
-		return result;
+		
+		return Arrays.asList(result);
 	}
 	
     public KeywordInSpanContext getKwic(Range range, int span) throws IOException {
@@ -68,6 +122,10 @@ public class KwicProvider {
         SpanContext spanContext =
                 getSpanContextFor(range, span, SpanDirection.BOTH);
 
+        return createKwic(range, spanContext);
+    }
+    
+    private KeywordInSpanContext createKwic(Range range, SpanContext spanContext) {
         return new KeywordInSpanContext(
             content.substring(range.getStartPoint(), range.getEndPoint()),
             content.substring(
@@ -84,6 +142,10 @@ public class KwicProvider {
     public SpanContext getSpanContextFor(Range range,
             int spanContextSize, SpanDirection direction) throws IOException{
     	
+    	if (documentTokens != null) {
+    		return getSpanContextFromTokens(range, spanContextSize, direction, new TokenCursor());
+    	}
+    	
     	try (WhitespaceAndPunctuationAnalyzer forwardAnalyzer = 
 				new WhitespaceAndPunctuationAnalyzer(
 						indexInfoSet.getUnseparableCharacterSequences(),
@@ -237,6 +299,138 @@ public class KwicProvider {
     	}
     }
 
+    /**
+     * Lower bounds for the token lookups of ranges that are processed in the order of their start points.
+     */
+    private static class TokenCursor {
+    	private int firstTokenEndingAfterStart = 0;
+    	private int firstTokenStartingAtStart = 0;
+    }
+    
+    /**
+     * @return the offset of the first token at or after the given lower bound with an end offset greater than 
+     * the given character position
+     */
+    private int findFirstTokenEndingAfter(int position, int lowerBound) {
+    	int low = lowerBound;
+    	int high = documentTokens.getTokenCount();
+    	while (low < high) {
+    		int mid = (low + high) >>> 1;
+    		if (documentTokens.getEndOffset(mid) <= position) {
+    			low = mid + 1;
+    		}
+    		else {
+    			high = mid;
+    		}
+    	}
+    	return low;
+    }
+    
+    /**
+     * @return the offset of the first token at or after the given lower bound with a start offset greater than 
+     * or equal to the given character position
+     */
+    private int findFirstTokenStartingAt(int position, int lowerBound) {
+    	int low = lowerBound;
+    	int high = documentTokens.getTokenCount();
+    	while (low < high) {
+    		int mid = (low + high) >>> 1;
+    		if (documentTokens.getStartOffset(mid) < position) {
+    			low = mid + 1;
+    		}
+    		else {
+    			high = mid;
+    		}
+    	}
+    	return low;
+    }
+    
+    private TermInfo createTermInfo(int tokenOffset) {
+    	return new TermInfo(
+    			documentTokens.getTermLiteral(tokenOffset), 
+    			documentTokens.getStartOffset(tokenOffset), 
+    			documentTokens.getEndOffset(tokenOffset));
+    }
+    
+    /**
+     * Same as the analyzer based computation of {@link #getSpanContextFor(Range, int, SpanDirection)}, but reads 
+     * the tokens from the index: the context starts with the first full token after the last token that 
+     * underlies the range (backward: before the first token) and partial tokens at the edges of the range are
+     * excluded from the context.
+     */
+    private SpanContext getSpanContextFromTokens(
+    		Range range, int spanContextSize, SpanDirection direction, TokenCursor cursor) {
+    	
+    	int tokenCount = documentTokens.getTokenCount();
+    	SpanContext spanContext = new SpanContext(sourceDocumentId);
+    	
+    	// the first token that underlies the range, possibly partially
+    	cursor.firstTokenEndingAfterStart = 
+    			findFirstTokenEndingAfter(range.getStartPoint(), cursor.firstTokenEndingAfterStart);
+    	int firstTokenOfRange = cursor.firstTokenEndingAfterStart;
+    	
+    	//forward
+    	// the last token that underlies the range, the context starts with its successor
+    	int lastTokenOfRange = Math.max(
+    			firstTokenOfRange, 
+    			findFirstTokenEndingAfter(range.getEndPoint(), firstTokenOfRange)-1);
+    	
+    	if (lastTokenOfRange+1 < tokenCount) {
+    		final int startOffset = Math.max(range.getEndPoint(), documentTokens.getEndOffset(lastTokenOfRange));
+    		int endOffset = startOffset;
+    		
+    		for (int tokenOffset = lastTokenOfRange+1; 
+    				tokenOffset < tokenCount && spanContext.getForwardTokens().size() < spanContextSize; 
+    				tokenOffset++) {
+    			if (documentTokens.hasToken(tokenOffset)) {
+	    			spanContext.addForwardToken(createTermInfo(tokenOffset));
+	    			endOffset = documentTokens.getEndOffset(tokenOffset);
+    			}
+    		}
+    		
+	        spanContext.setForward(content.substring(startOffset, endOffset));
+	        spanContext.setForwardRange(new Range(startOffset, endOffset));
+    	}
+    	else {
+        	spanContext.setForward("");
+ 	        spanContext.setForwardRange(new Range(content.length(), content.length()));
+    	}
+    	
+    	if (direction.equals(SpanDirection.BOTH)) { //backward
+    		cursor.firstTokenStartingAtStart = 
+    				findFirstTokenStartingAt(range.getStartPoint(), cursor.firstTokenStartingAtStart);
+    		
+    		// the last token that starts before the end of the range, possibly partially
+    		int lastTokenOfRangeBackward = 
+    				findFirstTokenStartingAt(range.getEndPoint(), cursor.firstTokenStartingAtStart)-1;
+    		// the first token that underlies the range, the context ends with its predecessor
+    		int firstTokenOfRangeBackward = Math.min(lastTokenOfRangeBackward, cursor.firstTokenStartingAtStart);
+    		
+    		if (firstTokenOfRangeBackward >= 1) {
+    			int startOffset = Math.min(range.getStartPoint(), documentTokens.getStartOffset(firstTokenOfRangeBackward));
+    			final int endOffset = startOffset;
+    			
+    			for (int tokenOffset = firstTokenOfRangeBackward-1; 
+    					tokenOffset >= 0 && spanContext.getBackwardTokens().size() < spanContextSize; 
+    					tokenOffset--) {
+    				if (documentTokens.hasToken(tokenOffset)) {
+	    				spanContext.addBackwardToken(createTermInfo(tokenOffset));
+	    				startOffset = documentTokens.getStartOffset(tokenOffset);
+    				}
+    			}
+    			
+	            spanContext.setBackward(content.substring(startOffset, endOffset));
+	            spanContext.setBackwardRange(new Range(startOffset, endOffset));
+    		}
+    		else {
+            	spanContext.setBackward("");
+            	spanContext.setBackwardRange(new Range(0,0));
+    		}
+    	}
+    	
+    	return spanContext;
+    }
+
 	private boolean moveForwardStreamToLastTokenOfRange(
 			PeekableTokenStream forwardStream,
 			Range range) throws IOException {
@@ -291,6 +485,24 @@ public class KwicProvider {
 		return sourceDocumentReference;
 	}
 
+	/**
+	 * @return the indexed tokens of the given document or <code>null</code> if they are not available
+	 */
+	public static DocumentTokens getDocumentTokens(Project project, String sourceDocumentId) {
+		if (project instanceof IndexedProject) {
+			try {
+				return ((IndexedProject) project).getIndexer().getDocumentTokens(sourceDocumentId);
+			}
+			catch (Exception e) {
+				logger.log(
+					Level.WARNING, 
+					String.format("Indexed tokens of document %1$s are not available, falling back to the analyzer", sourceDocumentId), 
+					e);
+			}
+		}
+		return null;
+	}
+
 	public static LoadingCache<String, KwicProvider> buildKwicProviderByDocumentIdCache(Project project) {
 		return CacheBuilder.newBuilder().maximumSize(10)
 		.build(new CacheLoader<String, KwicProvider>() {
@@ -299,7 +511,7 @@ public class KwicProvider {
 			public KwicProvider load(String key) throws Exception {
 				 SourceDocument sd = project.getSourceDocument(key);
 				 SourceDocumentReference docRef = project.getSourceDocumentReference(key); 
-				 KwicProvider kwicProvider = new KwicProvider(sd, docRef);
+				 KwicProvider kwicProvider = new KwicProvider(sd, docRef, getDocumentTokens(project, key));
 				 return kwicProvider;
 			}
 		});		
@@ -21,7 +21,7 @@ package de.catma.indexer;
 
 import java.io.IOException;
 import java.text.BreakIterator;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,19 +36,34 @@ import de.catma.indexer.unseparablecharactersequence.UnseparableCharacterSequenc
 
 /**
  * A punctuation aware tokenizer.
+ * <p>
+ * The {@link BreakIterator}s and the {@link Matcher} for the user defined separating characters are created once per
+ * instance and reused for every token, the {@link org.apache.lucene.analysis.Analyzer} keeps one instance per thread.
+ * Pending tokens are kept as index ranges into the current whitespace token instead of substrings.
  *
  * @author Marco Petris <marco.petris@web.de>
  */
 public final class PunctuationTokenizer extends TokenFilter {
 
+    // per pending token: start and end of the text within the current term, start and end offset
+    private static final int PENDING_TOKEN_SIZE = 4;
+
     private CharTermAttribute termAtt;
     private OffsetAttribute offsetAtt;
     private UnseparableCharacterSequenceAttribute ucAtt;
-    private ArrayDeque<TermInfo> termInfoBuffer;
     private CharTree treeRoot;
     private Pattern userDefSeparatingPunctuationPattern;
     private Locale locale;
 
+    private BreakIterator wordBreakIterator;
+    private BreakIterator splitBreakIterator;
+    private Matcher userDefSeparatingPunctuationMatcher;
+
+    private String currentTerm;
+    private int[] pendingTokens = new int[PENDING_TOKEN_SIZE*16];
+    private int pendingTokenStart;
+    private int pendingTokenEnd;
+
     /**
      * Constructor.
      *
@@ -65,7 +80,6 @@ public final class PunctuationTokenizer extends TokenFilter {
             Locale locale) {
         super(input);
 
-        termInfoBuffer = new ArrayDeque<TermInfo>();
         offsetAtt = (OffsetAttribute) input.getAttribute(OffsetAttribute.class);
         termAtt = (CharTermAttribute) input.getAttribute(CharTermAttribute.class);
         ucAtt = (UnseparableCharacterSequenceAttribute)
@@ -83,8 +97,10 @@ public final class PunctuationTokenizer extends TokenFilter {
     public boolean incrementToken() throws IOException {
 
         // do we have entries from the previos tokenize operation?
-        if (termInfoBuffer.size() == 0) {
+        if (pendingTokenStart == pendingTokenEnd) {
             // no, ok then ask the stream
+            pendingTokenStart = 0;
+            pendingTokenEnd = 0;
 
             boolean rc = input.incrementToken();
 
@@ -92,7 +108,7 @@ public final class PunctuationTokenizer extends TokenFilter {
                 return false; // no more tokens in the stream
             }
 
-            String origTerm = termAtt.toString();
+            currentTerm = termAtt.toString();
             int origStartOffset = offsetAtt.startOffset();
             int origEndOffset = offsetAtt.endOffset();
 
@@ -102,34 +118,47 @@ public final class PunctuationTokenizer extends TokenFilter {
             if (!isUC) {
                 // no, ok we look for sequences that include punctuation, that
                 // might have been separated but should't be
-                tokenize(origTerm, origStartOffset);
+                tokenize(currentTerm, origStartOffset);
             }
             else {
                 // not separable, so just leave it for later handling
-                termInfoBuffer.addLast(
-                    new TermInfo(
-                        origTerm,
-                        origStartOffset,
-                        origEndOffset));
+                addPendingToken(0, currentTerm.length(), origStartOffset, origEndOffset);
             }
         }
 
         // ok, now we handle everything we left for later, while tokenizing
-        if (termInfoBuffer.size() > 0) {
-            TermInfo ti = termInfoBuffer.pop();
+        if (pendingTokenStart < pendingTokenEnd) {
             termAtt.setEmpty();
-            termAtt.append(ti.getTerm());
+            termAtt.append(
+                    currentTerm,
+                    pendingTokens[pendingTokenStart],
+                    pendingTokens[pendingTokenStart+1]);
             offsetAtt.setOffset(
-                    (int)ti.getRange().getStartPoint(),
-                    (int)ti.getRange().getEndPoint());
+                    pendingTokens[pendingTokenStart+2],
+                    pendingTokens[pendingTokenStart+3]);
+            pendingTokenStart += PENDING_TOKEN_SIZE;
         }
 
         return true;
     }
 
-//    public static boolean isPunctuation(char c) {
-//        return !Character.isDigit(c) && !Character.isLetter(c);
-//    }
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        currentTerm = null;
+        pendingTokenStart = 0;
+        pendingTokenEnd = 0;
+    }
+
+    private void addPendingToken(int textStart, int textEnd, int startOffset, int endOffset) {
+        if (pendingTokenEnd + PENDING_TOKEN_SIZE > pendingTokens.length) {
+            pendingTokens = Arrays.copyOf(pendingTokens, pendingTokens.length*2);
+        }
+        pendingTokens[pendingTokenEnd++] = textStart;
+        pendingTokens[pendingTokenEnd++] = textEnd;
+        pendingTokens[pendingTokenEnd++] = startOffset;
+        pendingTokens[pendingTokenEnd++] = endOffset;
+    }
 
     /**
      * Tokenize the given term, taking unseparable character sequences and punctuation into
@@ -140,13 +169,15 @@ public final class PunctuationTokenizer extends TokenFilter {
      */
     private void tokenize(String term, int startOffset) {
 
-        BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
+        if (wordBreakIterator == null) {
+            wordBreakIterator = BreakIterator.getWordInstance(locale);
+        }
+        BreakIterator breakIterator = wordBreakIterator;
         breakIterator.setText(term);
 
-        // buffer for unseparable character sequence
-        StringBuilder uscTerm = new StringBuilder();
-        // start index for unseparable character sequence
+        // start index and length of the unseparable character sequence within the term
         int uscStart = 0;
+        int uscLength = 0;
         CharTree curTree = treeRoot;
 
         int chunkStart = breakIterator.first();
@@ -156,54 +187,52 @@ public final class PunctuationTokenizer extends TokenFilter {
                 chunkEnd != BreakIterator.DONE;
                 chunkEnd = breakIterator.next() ) {
 
-            String curChunk = term.substring(chunkStart,chunkEnd);
-
-            curTree = curTree.matches(curChunk);
+            curTree = curTree.matches(term, chunkStart, chunkEnd);
 
             if (curTree != null) { // found an entry for the current chunk
 
-                // build uscTerm
+                // build usc
 
                 // mark start if this is the first chunk of the usc sequence
-                if (uscTerm.length() == 0) {
+                if (uscLength == 0) {
                     uscStart = chunkStart;
                 }
-                uscTerm.append(curChunk);
+                uscLength += chunkEnd-chunkStart;
                 
                 // did we reach the end
                 if (curTree.isEndEntry()) {
                     curTree = treeRoot;
-                    // end -> store uscTerm
-                    if (uscTerm.length() > 0) {
-                        termInfoBuffer.addLast(
-                            new TermInfo(
-                                uscTerm.toString(),
-                                startOffset+uscStart,
-                                startOffset+uscStart+uscTerm.length()));
-                        uscTerm.delete(0,uscTerm.length());
+                    // end -> store usc
+                    if (uscLength > 0) {
+                        addPendingToken(
+                            uscStart,
+                            uscStart+uscLength,
+                            startOffset+uscStart,
+                            startOffset+uscStart+uscLength);
+                        uscLength = 0;
                         uscStart = 0;
                     }
                 }
             }
             else {
 
-                if (uscTerm.length() > 0) {
-                    split(uscTerm.toString(), startOffset);
-                    uscTerm.delete(0,uscTerm.length());
+                if (uscLength > 0) {
+                    split(term, uscStart, uscStart+uscLength, startOffset);
+                    uscLength = 0;
                     uscStart = 0;
 
                     // restart with the current chunk
-                    curTree = treeRoot.matches(curChunk);
+                    curTree = treeRoot.matches(term, chunkStart, chunkEnd);
 
                     if (curTree != null) { // found an entry for the current chunk
                         // did we reach the end
                         if (curTree.isEndEntry()) {
                             curTree = treeRoot;
-                            termInfoBuffer.addLast(
-                                new TermInfo(
-                                    curChunk,
-                                    startOffset+chunkStart,
-                                    startOffset+chunkEnd));
+                            addPendingToken(
+                                chunkStart,
+                                chunkEnd,
+                                startOffset+chunkStart,
+                                startOffset+chunkEnd);
                             chunkStart = chunkEnd;
                         }
                         continue; 
@@ -213,14 +242,14 @@ public final class PunctuationTokenizer extends TokenFilter {
 
                 // no match -> this is a separable sequence, so go ahead and split
                 if (userDefSeparatingPunctuationPattern != null) {
-                    splitAtUserDefPunctuation(startOffset, curChunk, chunkStart);
+                    splitAtUserDefPunctuation(term, chunkStart, chunkEnd, startOffset+chunkStart);
                 }
                 else {
-                    termInfoBuffer.addLast(
-                        new TermInfo(
-                            curChunk,
-                            startOffset+chunkStart,
-                            startOffset+chunkEnd));
+                    addPendingToken(
+                        chunkStart,
+                        chunkEnd,
+                        startOffset+chunkStart,
+                        startOffset+chunkEnd);
                 }
                 
                 curTree = treeRoot;
@@ -231,15 +260,22 @@ public final class PunctuationTokenizer extends TokenFilter {
     }
 
     /**
-     * Split the given term into tokens. We are concerned about punctuation only, the given
-     * term is not an USC.
+     * Split the given part of the term into tokens. We are concerned about punctuation only, 
+     * the given part is not an USC.
      *
-     * @param term the term to split
-     * @param startOffset the base offset to compute the offsets
+     * @param term the current term
+     * @param textStart the start of the part within the term
+     * @param textEnd the end of the part within the term
+     * @param startOffset the base offset to compute the offsets, offsets are computed relative
+     * to the part, not to the term
      */
-    private void split(String term, int startOffset) {
-        BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
-        breakIterator.setText(term);
+    private void split(String term, int textStart, int textEnd, int startOffset) {
+        if (splitBreakIterator == null) {
+            splitBreakIterator = BreakIterator.getWordInstance(locale);
+        }
+        BreakIterator breakIterator = splitBreakIterator;
+        // word boundaries depend on the surrounding text, so the part is looked at on its own
+        breakIterator.setText(term.substring(textStart, textEnd));
 
         int chunkStart = breakIterator.first();
 
@@ -248,21 +284,20 @@ public final class PunctuationTokenizer extends TokenFilter {
                 chunkEnd != BreakIterator.DONE;
                 chunkEnd = breakIterator.next() ) {
 
-            String curChunk = term.substring(chunkStart,chunkEnd);
-
-            if (curChunk.trim().isEmpty()) {
+            if (isBlank(term, textStart+chunkStart, textStart+chunkEnd)) {
                 continue;
             }
 
             if (userDefSeparatingPunctuationPattern != null) {
-                splitAtUserDefPunctuation(startOffset, curChunk, chunkStart);
+                splitAtUserDefPunctuation(
+                    term, textStart+chunkStart, textStart+chunkEnd, startOffset+chunkStart);
             }
             else {
-                termInfoBuffer.addLast(
-                    new TermInfo(
-                        curChunk,
-                        startOffset+chunkStart,
-                        startOffset+chunkEnd));
+                addPendingToken(
+                    textStart+chunkStart,
+                    textStart+chunkEnd,
+                    startOffset+chunkStart,
+                    startOffset+chunkEnd);
             }
             chunkStart = chunkEnd;
         }        
@@ -270,49 +305,65 @@ public final class PunctuationTokenizer extends TokenFilter {
 
     /**
      * Splits the given chunk at the user defined separating characters.
-     * @param startOffset the base offset to compute the offsets
-     * @param curChunk the current chunk to split
-     * @param chunkStart the start offset of the current chunk within the term we
-     * are currently dealing with
+     * @param term the current term
+     * @param chunkStart the start of the current chunk within the term
+     * @param chunkEnd the end of the current chunk within the term
+     * @param startOffset the offset of the current chunk
      */
-    private void splitAtUserDefPunctuation(int startOffset, String curChunk, int chunkStart) {
-        if (!curChunk.trim().isEmpty()) {
-            Matcher matcher =
-                    userDefSeparatingPunctuationPattern.matcher(curChunk);
+    private void splitAtUserDefPunctuation(String term, int chunkStart, int chunkEnd, int startOffset) {
+        if (!isBlank(term, chunkStart, chunkEnd)) {
+            Matcher matcher = userDefSeparatingPunctuationMatcher;
+            if (matcher == null) {
+                matcher = userDefSeparatingPunctuationPattern.matcher(term);
+                userDefSeparatingPunctuationMatcher = matcher;
+            }
+            else {
+                matcher.reset(term);
+            }
+            matcher.region(chunkStart, chunkEnd);
 
-            int startIdx=0;
+            int startIdx=chunkStart;
             while(matcher.find()) {
 
                 int idx = matcher.start();
 
                 // add the token for the text that is separated
                 if (idx!=startIdx) {
-                    termInfoBuffer.addLast(
-                        new TermInfo(
-                            curChunk.substring(startIdx, idx),
-                            startOffset+chunkStart+startIdx,
-                            startOffset+chunkStart+idx));
+                    addPendingToken(
+                        startIdx,
+                        idx,
+                        startOffset+startIdx-chunkStart,
+                        startOffset+idx-chunkStart);
                 }
 
                 // add the token for the separating character
-                termInfoBuffer.addLast(
-                    new TermInfo(
-                        curChunk.substring(idx, idx+1),
-                        startOffset+chunkStart+idx,
-                        startOffset+chunkStart+idx+1));
+                addPendingToken(
+                    idx,
+                    idx+1,
+                    startOffset+idx-chunkStart,
+                    startOffset+idx-chunkStart+1);
                 startIdx=idx+1;
 
             }
 
             // add the token for the last part of the chunk 
-            termInfoBuffer.addLast(
-                new TermInfo(
-                    curChunk.substring(startIdx),
-                    startOffset+chunkStart+startIdx,
-                    startOffset+chunkStart+startIdx+
-                            curChunk.substring(startIdx).length()));
+            addPendingToken(
+                startIdx,
+                chunkEnd,
+                startOffset+startIdx-chunkStart,
+                startOffset+chunkEnd-chunkStart);
         }
     }
-}
-
 
+    /**
+     * @return <code>true</code> if the given part of the term is empty after {@link String#trim() trimming}
+     */
+    private static boolean isBlank(String term, int start, int end) {
+        for (int i=start; i<end; i++) {
+            if (term.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
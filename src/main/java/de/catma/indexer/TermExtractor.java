@@ -21,33 +21,71 @@ package de.catma.indexer;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 
+import de.catma.backgroundservice.SharedWorkerPool;
+import de.catma.properties.CATMAPropertyKey;
 
+/**
+ * Extracts the terms of a content with the {@link WhitespaceAndPunctuationAnalyzer}.
+ * <p>
+ * Contents larger than the chunk size are split right after a whitespace character into chunks that are tokenized in
+ * parallel on the {@link #TOKENIZER_POOL}. The whitespace tokenizer starts over after every whitespace character, so the
+ * tokens of the chunks, shifted by the start of their chunk, are the same as the tokens of the whole content. This does
+ * not hold for unseparable character sequences that contain whitespace, with those the content is always tokenized
+ * as a whole.
+ */
 public class TermExtractor {
+	
+	static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	private static final SharedWorkerPool<ForkJoinPool> TOKENIZER_POOL =
+			SharedWorkerPool.forkJoinPool("catma-tokenizer-", CATMAPropertyKey.TOKENIZER_PARALLELISM);
 
 	private Map<String, List<TermInfo>> terms;
 	private List<String> termsInOrder;
 
 	public TermExtractor(String content, List<String> unseparableCharacterSequences,
 			List<Character> userDefinedSeparatingCharacters, Locale locale) throws IOException {
+		this(
+			content, 
+			unseparableCharacterSequences, 
+			userDefinedSeparatingCharacters, 
+			locale, 
+			content.length() > DEFAULT_CHUNK_SIZE ? TOKENIZER_POOL.get() : null, 
+			DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param pool the pool for the chunks, <code>null</code> tokenizes the content as a whole on the calling thread
+	 * @param chunkSize the minimum number of characters per chunk
+	 */
+	TermExtractor(String content, List<String> unseparableCharacterSequences,
+			List<Character> userDefinedSeparatingCharacters, Locale locale, 
+			ForkJoinPool pool, int chunkSize) throws IOException {
 		extractTermInfos(
 			content,
 			unseparableCharacterSequences, 
-			userDefinedSeparatingCharacters, locale);
+			userDefinedSeparatingCharacters, locale,
+			pool, chunkSize);
 	}
 
 	private void extractTermInfos(
 			String content,
 			List<String> unseparableCharacterSequences,
-			List<Character> userDefinedSeparatingCharacters, Locale locale) throws IOException {
+			List<Character> userDefinedSeparatingCharacters, Locale locale,
+			ForkJoinPool pool, int chunkSize) throws IOException {
 		
 		terms = new HashMap<String, List<TermInfo>>();
 		termsInOrder = new ArrayList<String>();
@@ -58,31 +96,108 @@ public class TermExtractor {
 
 		try (WhitespaceAndPunctuationAnalyzer analyzer = new WhitespaceAndPunctuationAnalyzer(
 				unseparableCharacterSequences, userDefinedSeparatingCharacters, locale)) {
+			
+			if (pool == null 
+					|| content.length() <= chunkSize 
+					|| containsWhitespace(unseparableCharacterSequences)) {
+				addTokens(tokenize(analyzer, content), 0);
+				return;
+			}
+			
+			int[] chunkStarts = getChunkStarts(content, chunkSize);
+			List<ForkJoinTask<Tokens>> tasks = new ArrayList<>(chunkStarts.length);
+			for (int i=0; i<chunkStarts.length; i++) {
+				final String chunk = content.substring(
+						chunkStarts[i], 
+						(i+1 < chunkStarts.length) ? chunkStarts[i+1] : content.length());
+				tasks.add(pool.submit(() -> tokenize(analyzer, chunk)));
+			}
+			
+			for (int i=0; i<tasks.size(); i++) {
+				try {
+					addTokens(tasks.get(i).get(), chunkStarts[i]);
+				}
+				catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IOException("Failed to tokenize content", e.getCause());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while tokenizing content", e);
+				}
+			}
+		}
+	}
+	
+	private boolean containsWhitespace(List<String> unseparableCharacterSequences) {
+		for (String unseparableCharacterSequence : unseparableCharacterSequences) {
+			if (unseparableCharacterSequence.codePoints().anyMatch(Character::isWhitespace)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the start of each chunk, every chunk but the last ends with a whitespace character
+	 */
+	static int[] getChunkStarts(String content, int chunkSize) {
+		int[] chunkStarts = new int[content.length() / chunkSize + 1];
+		int chunkCount = 0;
+		int chunkStart = 0;
+		
+		while (chunkStart < content.length()) {
+			chunkStarts[chunkCount++] = chunkStart;
+			
+			int chunkEnd = chunkStart + chunkSize;
+			while (chunkEnd < content.length() && !Character.isWhitespace(content.charAt(chunkEnd-1))) {
+				chunkEnd++;
+			}
+			chunkStart = chunkEnd;
+		}
 		
-			TokenStream ts = analyzer.tokenStream(null, // our analyzer does not use
-														// the fieldname
-					new StringReader(content));
+		return Arrays.copyOf(chunkStarts, Math.max(1, chunkCount));
+	}
+	
+	private Tokens tokenize(WhitespaceAndPunctuationAnalyzer analyzer, String content) throws IOException {
+		Tokens tokens = new Tokens();
+		try (TokenStream ts = analyzer.tokenStream(null, // our analyzer does not use
+														 // the fieldname
+				new StringReader(content))) {
+			CharTermAttribute termAttr = ts.getAttribute(CharTermAttribute.class);
+			OffsetAttribute offsetAttr = ts.getAttribute(OffsetAttribute.class);
+			
 			ts.reset();
-			int positionCounter = 0;
 			while (ts.incrementToken()) {
-				CharTermAttribute termAttr = (CharTermAttribute) ts
-						.getAttribute(CharTermAttribute.class);
-	
-				OffsetAttribute offsetAttr = (OffsetAttribute) ts
-						.getAttribute(OffsetAttribute.class);
-	
-				TermInfo ti = new TermInfo(termAttr.toString(),
-						offsetAttr.startOffset(), offsetAttr.endOffset(),
-						positionCounter);
+				tokens.add(termAttr.toString(), offsetAttr.startOffset(), offsetAttr.endOffset());
+			}
+			ts.end();
+		}
+		return tokens;
+	}
 	
-				if (!terms.containsKey(ti.getTerm())) {
-					terms.put(ti.getTerm(), new ArrayList<TermInfo>());
-				}
-				terms.get(ti.getTerm()).add(ti);
-				positionCounter++;
-				
-				termsInOrder.add(ti.getTerm());
+	private void addTokens(Tokens tokens, int offsetBase) {
+		for (int i=0; i<tokens.size; i++) {
+			String term = tokens.terms[i];
+			List<TermInfo> termInfos = terms.get(term);
+			if (termInfos == null) {
+				termInfos = new ArrayList<TermInfo>();
+				terms.put(term, termInfos);
+			}
+			else {
+				// keep a single instance per term
+				term = termInfos.get(0).getTerm();
 			}
+			
+			termInfos.add(
+				new TermInfo(
+					term,
+					offsetBase + tokens.offsets[2*i], 
+					offsetBase + tokens.offsets[2*i+1], 
+					termsInOrder.size()));
+			termsInOrder.add(term);
 		}
 	}
 	
@@ -97,4 +212,24 @@ public class TermExtractor {
 	public List<String> getTermsInOrder() {
 		return termsInOrder;
 	}
+	
+	/**
+	 * The tokens of a chunk in order, offsets are relative to the chunk.
+	 */
+	private static class Tokens {
+		private String[] terms = new String[256];
+		private int[] offsets = new int[512];
+		private int size;
+		
+		void add(String term, int startOffset, int endOffset) {
+			if (size == terms.length) {
+				terms = Arrays.copyOf(terms, size*2);
+				offsets = Arrays.copyOf(offsets, size*4);
+			}
+			terms[size] = term;
+			offsets[2*size] = startOffset;
+			offsets[2*size+1] = endOffset;
+			size++;
+		}
+	}
 }
@@ -0,0 +1,117 @@
+package de.catma.indexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+
+/**
+ * A compiled SQL style wildcard term, '%' matches any sequence of characters, '_' matches a single character and '\'
+ * escapes the next character. This is the same syntax as understood by
+ * {@link de.catma.indexer.wildcard2regex.SQLWildcard2RegexConverter}.
+ * <p>
+ * Compile a pattern once per query and reuse it for all terms and documents. Matching runs a deterministic automaton,
+ * and the literal prefix of the pattern allows lookups in a sorted term dictionary to be restricted to a range scan.
+ */
+public class WildcardTermPattern {
+	private static final char ANY_CHAR_WILDCARD = '%';
+	private static final char SINGLE_CHAR_WILDCARD = '_';
+	private static final char ESCAPE_CHAR = '\\';
+
+	private final String wildcardTerm;
+	private final String literalPrefix;
+	private final boolean literal;
+	private final boolean prefixOnly;
+	private final CharacterRunAutomaton automaton;
+
+	private WildcardTermPattern(
+			String wildcardTerm, String literalPrefix, boolean literal, boolean prefixOnly, CharacterRunAutomaton automaton
+	) {
+		this.wildcardTerm = wildcardTerm;
+		this.literalPrefix = literalPrefix;
+		this.literal = literal;
+		this.prefixOnly = prefixOnly;
+		this.automaton = automaton;
+	}
+
+	public static WildcardTermPattern compile(String wildcardTerm) {
+		List<Automaton> automata = new ArrayList<>();
+		StringBuilder literalPrefix = new StringBuilder();
+		StringBuilder quote = new StringBuilder();
+		boolean inPrefix = true;
+		boolean escaped = false;
+		int wildcardCount = 0;
+		boolean endsWithAnyCharWildcard = false;
+
+		for (char c : wildcardTerm.toCharArray()) {
+			if (!escaped && (c == ANY_CHAR_WILDCARD || c == SINGLE_CHAR_WILDCARD)) {
+				if (quote.length() > 0) {
+					automata.add(Automata.makeString(quote.toString()));
+					quote.setLength(0);
+				}
+				automata.add(c == ANY_CHAR_WILDCARD ? Automata.makeAnyString() : Automata.makeAnyChar());
+				inPrefix = false;
+				wildcardCount++;
+				endsWithAnyCharWildcard = c == ANY_CHAR_WILDCARD;
+			}
+			else if (!escaped && c == ESCAPE_CHAR) {
+				escaped = true;
+			}
+			else {
+				quote.append(c);
+				if (inPrefix) {
+					literalPrefix.append(c);
+				}
+				escaped = false;
+				endsWithAnyCharWildcard = false;
+			}
+		}
+
+		if (quote.length() > 0) {
+			automata.add(Automata.makeString(quote.toString()));
+		}
+
+		return new WildcardTermPattern(
+				wildcardTerm,
+				literalPrefix.toString(),
+				wildcardCount == 0,
+				wildcardCount == 1 && endsWithAnyCharWildcard,
+				new CharacterRunAutomaton(automata.isEmpty() ? Automata.makeEmptyString() : Operations.concatenate(automata))
+		);
+	}
+
+	/**
+	 * @return the literal characters before the first wildcard, every matching term starts with this prefix
+	 */
+	public String getLiteralPrefix() {
+		return literalPrefix;
+	}
+
+	/**
+	 * @return <code>true</code> if the pattern does not contain any wildcards, in that case
+	 *         {@link #getLiteralPrefix()} is the only matching term
+	 */
+	public boolean isLiteral() {
+		return literal;
+	}
+
+	/**
+	 * @return <code>true</code> if the pattern is a literal prefix followed by a single '%', in that case every term
+	 *         that starts with {@link #getLiteralPrefix()} matches
+	 */
+	public boolean isPrefixOnly() {
+		return prefixOnly;
+	}
+
+	public boolean matches(String term) {
+		return automaton.run(term);
+	}
+
+	@Override
+	public String toString() {
+		return wildcardTerm;
+	}
+}
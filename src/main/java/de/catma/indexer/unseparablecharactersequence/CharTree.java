@@ -80,14 +80,25 @@ public class CharTree extends HashMap<Integer, CharTree> {
      * match and to do this more input can be checked against the tree returned.  
      */
     public CharTree matches(String input) {
+        return matches(input, 0, input.length());
+    }
+
+    /**
+     * Same as {@link #matches(String)} for the given part of the input, without copying it.
+     * @param input the input that contains the part to test
+     * @param start the start of the part (inclusive)
+     * @param end the end of the part (exclusive)
+     * @return see {@link #matches(String)}
+     */
+    public CharTree matches(CharSequence input, int start, int end) {
 
         CharTree currentTree = this;
 
         // loop over characters and try to match them with one of the char sequences of this tree
 
-        for (int i=0; i<input.length(); i++) {
+        for (int i=start; i<end; i++) {
 
-            int c = input.codePointAt(i);
+            int c = codePointAt(input, i, end);
 
             boolean isWS = Character.isWhitespace(c);
 
@@ -100,7 +111,7 @@ public class CharTree extends HashMap<Integer, CharTree> {
             else {
                 
                 if (currentTree.isEndEntry()) { // we reached an endpoint
-                    if (i==input.length()-1) {
+                    if (i==end-1) {
                         return currentTree; // input matches
                     }
                     else {
@@ -123,5 +134,18 @@ public class CharTree extends HashMap<Integer, CharTree> {
         // in the matching sequence of this tree        
         return currentTree;
     }
-}
 
+    /**
+     * Like {@link Character#codePointAt(CharSequence, int)} but a surrogate pair has to end before the limit.
+     */
+    private static int codePointAt(CharSequence input, int index, int limit) {
+        char high = input.charAt(index);
+        if (Character.isHighSurrogate(high) && index+1 < limit) {
+            char low = input.charAt(index+1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+        return high;
+    }
+}
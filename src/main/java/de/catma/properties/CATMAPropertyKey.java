@@ -43,6 +43,41 @@ public enum CATMAPropertyKey {
 	MAX_ANNOTATION_PAGE_FILE_SIZE_BYTES("200000"),
 
 	MIN_TIME_BETWEEN_SYNCHRONIZATIONS_SECONDS("30"),
+
+	// upper bound for the estimated heap size of the document indexes that are kept in memory, shared by all users
+	SHARED_DOCUMENT_INDEX_CACHE_SIZE_MB("512"),
+
+	// number of worker threads that evaluate queries in parallel, shared by all users
+	// 0 means one per available processor, 1 disables parallel evaluation
+	QUERY_PARALLELISM("0"),
+
+	// number of worker threads that load annotation collections in parallel, shared by all users
+	// 0 means one per available processor, 1 disables parallel loading
+	COLLECTION_LOAD_PARALLELISM("4"),
+
+	// number of worker threads that read the latest contributions from the branches of project members, shared by all users
+	// 0 means one per available processor, 1 disables parallel loading
+	CONTRIBUTION_LOAD_PARALLELISM("4"),
+
+	// number of worker threads that tokenize the chunks of large documents in parallel, shared by all users
+	// 0 means one per available processor, 1 disables parallel tokenization
+	TOKENIZER_PARALLELISM("0"),
+
+	// maximum number of worker threads per class of background jobs, shared by all users
+	// jobs beyond that are queued, users take turns within each class
+	// exports that stream into a download are bounded by the request threads of the servlet container instead
+	BACKGROUND_JOB_THREADS_INTERACTIVE("16"),
+	BACKGROUND_JOB_THREADS_QUERY("4"),
+	BACKGROUND_JOB_THREADS_IMPORT("2"),
+	BACKGROUND_JOB_THREADS_SYNC("4"),
+	// number of threads that run delayed and periodic tasks, these are expected to be short (e.g. UI updates)
+	BACKGROUND_JOB_TIMER_THREADS("2"),
+	// interval for logging the queue depth, latencies and other counters of the background job classes, 0 disables logging
+	BACKGROUND_JOB_METRICS_LOG_INTERVAL_MINUTES("15"),
+	// run I/O-bound background jobs (synchronization) on virtual threads if the JDK supports them (21+),
+	// the limit then replaces the thread count of these job classes
+	BACKGROUND_JOB_VIRTUAL_THREADS("false"),
+	BACKGROUND_JOB_VIRTUAL_THREAD_LIMIT("64"),
 	DEV_PREVENT_PUSH("false"),
 
 	SQLITE_DB_BASE_PATH,
@@ -46,6 +46,20 @@ public class AndRefinement implements Refinement {
         return refinement2.refine(refinement1.refine(result));
     }
     
+    @Override
+    public void prepare() throws Exception {
+    	Query.invokeBoth(
+    			() -> {
+    				refinement1.prepare();
+    				return null;
+    			},
+    			() -> {
+    				refinement2.prepare();
+    				return null;
+    			}
+    	);
+    }
+
     public void setQueryOptions(QueryOptions queryOptions) {
     	this.refinement1.setQueryOptions(queryOptions);
     	this.refinement2.setQueryOptions(queryOptions);
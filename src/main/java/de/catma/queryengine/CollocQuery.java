@@ -19,6 +19,8 @@
 
 package de.catma.queryengine;
 
+import java.util.List;
+
 import de.catma.indexer.Indexer;
 import de.catma.indexer.SpanDirection;
 import de.catma.queryengine.result.QueryResult;
@@ -74,8 +76,9 @@ public class CollocQuery extends Query {
 
     @Override
     protected QueryResult execute() throws Exception {
-    	QueryResult baseResult = query1.execute();
-    	QueryResult collocCondition = query2.execute();
+    	List<QueryResult> results = invokeBoth(query1::execute, query2::execute);
+    	QueryResult baseResult = results.get(0);
+    	QueryResult collocCondition = results.get(1);
     	
     	Indexer indexer = getQueryOptions().getIndexer();
     	return indexer.searchCollocation(
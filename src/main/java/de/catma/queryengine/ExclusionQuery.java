@@ -19,12 +19,11 @@
 
 package de.catma.queryengine;
 
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.List;
 
 import de.catma.queryengine.result.QueryResult;
-import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
+import de.catma.queryengine.result.QueryResultRowIndex;
 
 /**
  * An exclusion query takes the results of the first query and substracts the results of the second
@@ -70,39 +69,38 @@ public class ExclusionQuery extends Query {
     	query1.setQueryOptions(getQueryOptions());
     	query2.setQueryOptions(getQueryOptions());
     	
-    	QueryResultRowArray result1 = query1.getResult().asQueryResultRowArray();
-    	QueryResultRowArray result2 = query2.getResult().asQueryResultRowArray();
+    	List<QueryResult> results = invokeBoth(query1::getResult, query2::getResult);
+
+    	QueryResultRowArray result1 = results.get(0).asQueryResultRowArray();
+    	QueryResultRowArray result2 = results.get(1).asQueryResultRowArray();
     	
 
     	if (matchMode == null) {
     		result1.removeAll(result2);
     	}
     	else {
-            removeWithComparator(result1, result2, matchMode.getComparator());
+            removeMatching(result1, result2, matchMode);
         }
     	
     	return result1;
     }
 
     /**
-     * Remove each item from the first list that is considered equal to the one of the item in
-     * the second list testing with the given comparator.
-     * @param results1 the result list items shall be removed from
-     * @param results2 the result list to check against
-     * @param comparator the comparator to use for the tests
+     * Remove each item from the first list that is considered equal to one of the items in
+     * the second list testing with the comparator of the given match mode.
+     * @param result1 the result list items shall be removed from
+     * @param result2 the result list to check against
+     * @param matchMode the match mode to use for the tests
      */
-    private void removeWithComparator(
+    private void removeMatching(
             QueryResultRowArray result1, 
-            QueryResultRowArray results2, 
-            Comparator<QueryResultRow> comparator) {
+            QueryResultRowArray result2, 
+            MatchMode matchMode) {
     	
-        Iterator<QueryResultRow> baseResultIterator = result1.iterator();
-        while (baseResultIterator.hasNext()) {
-            QueryResultRow row  = baseResultIterator.next();
-            if(row.existsIn(results2,comparator)) {
-                baseResultIterator.remove();
-            }
-        }
+    	QueryResultRowIndex result2Index = new QueryResultRowIndex(result2);
+    	
+    	// removeIf compacts the list in a single pass
+    	result1.removeIf(row -> matchMode.existsIn(row, result2Index));
     }
 
 }
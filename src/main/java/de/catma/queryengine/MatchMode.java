@@ -21,9 +21,13 @@ package de.catma.queryengine;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.IntPredicate;
 
 import de.catma.document.Range;
+import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.QueryResultRowIndex;
 import de.catma.queryengine.result.TagQueryResultRow;
 
 public enum MatchMode {
@@ -157,6 +161,29 @@ public enum MatchMode {
 		return comparator;
 	}
 	
+	/**
+	 * Same as {@link QueryResultRow#existsIn(QueryResult, Comparator)} with the {@link #getComparator() comparator} of
+	 * this mode, but the row is only compared with those rows of the index that can match at all: rows that share its
+	 * first range for {@link #EXACT}, rows that intersect its first range for {@link #OVERLAP} and {@link #BOUNDARY}.
+	 */
+	public boolean existsIn(QueryResultRow row, QueryResultRowIndex index) {
+		IntPredicate matches = position -> comparator.compare(row, index.getRow(position)) == 0;
+		
+		Iterator<Range> rangeIterator = collectRanges(row).iterator();
+		Range firstRange = rangeIterator.hasNext() ? rangeIterator.next() : null;
+		
+		if (firstRange == null) {
+			return index.anyRowInDocument(row.getSourceDocumentId(), matches);
+		}
+		else if (this == EXACT) {
+			return index.anyRowWithRange(row.getSourceDocumentId(), firstRange, matches);
+		}
+		else {
+			// an overlapping or enclosing range always intersects the first range
+			return index.anyRowIntersecting(row.getSourceDocumentId(), firstRange, matches);
+		}
+	}
+	
 	private static Collection<Range> collectRanges(QueryResultRow row) {
 		if (row instanceof TagQueryResultRow) {
 			return ((TagQueryResultRow)row).getRanges();
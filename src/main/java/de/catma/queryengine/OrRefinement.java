@@ -60,6 +60,20 @@ public class OrRefinement implements Refinement {
     	return combinedResult;
     }
 
+    @Override
+    public void prepare() throws Exception {
+    	Query.invokeBoth(
+    			() -> {
+    				refinement1.prepare();
+    				return null;
+    			},
+    			() -> {
+    				refinement2.prepare();
+    				return null;
+    			}
+    	);
+    }
+
     public void setQueryOptions(QueryOptions queryOptions) {
     	this.refinement1.setQueryOptions(queryOptions);
     	this.refinement2.setQueryOptions(queryOptions);
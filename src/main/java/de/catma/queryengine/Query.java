@@ -19,6 +19,12 @@
 
 package de.catma.queryengine;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
 import de.catma.queryengine.result.QueryResult;
 
 /**
@@ -48,15 +54,82 @@ public abstract class Query {
      * @throws Exception see instance for details 
      */
     public QueryResult getResult() throws Exception {
+    	checkCancelled();
 
-        QueryResult result = execute();
-        
         if(refinement != null) {
         	refinement.setQueryOptions(queryOptions);
+
+        	// the refinement condition does not depend on the result to refine, so both can be evaluated concurrently
+        	QueryResult result = invokeBoth(
+        			() -> execute(),
+        			() -> {
+        				refinement.prepare();
+        				return null;
+        			}
+        	).get(0);
+
+        	checkCancelled();
             return refinement.refine(result);
         }
 
-        return result;
+        return execute();
+    }
+
+    private void checkCancelled() {
+    	if (queryOptions != null) {
+    		queryOptions.checkCancelled();
+    	}
+    }
+
+    /**
+     * Evaluates two independent computations. Within a fork/join pool (see {@link QueryJob#EXECUTOR_POOL}) they are
+     * evaluated as parallel tasks, otherwise one after the other on the calling thread.
+     *
+     * @return the results of both computations in the given order
+     * @throws Exception the exception of the first computation that failed
+     */
+    static <T> List<T> invokeBoth(Callable<T> computation1, Callable<T> computation2) throws Exception {
+    	if (!ForkJoinTask.inForkJoinPool()) {
+    		return Arrays.asList(computation1.call(), computation2.call());
+    	}
+
+    	ComputationTask<T> task1 = new ComputationTask<>(computation1);
+    	ComputationTask<T> task2 = new ComputationTask<>(computation2);
+    	ForkJoinTask.invokeAll(task1, task2);
+
+    	return Arrays.asList(task1.getResult(), task2.getResult());
+    }
+
+    /**
+     * Keeps checked exceptions as they are, so that they can be rethrown after joining.
+     */
+    private static class ComputationTask<T> extends RecursiveTask<T> {
+    	private static final long serialVersionUID = -2950413872213408575L;
+
+    	private final Callable<T> computation;
+    	private Exception exception;
+
+    	ComputationTask(Callable<T> computation) {
+    		this.computation = computation;
+    	}
+
+    	@Override
+    	protected T compute() {
+    		try {
+    			return computation.call();
+    		}
+    		catch (Exception e) {
+    			exception = e;
+    			return null;
+    		}
+    	}
+
+    	T getResult() throws Exception {
+    		if (exception != null) {
+    			throw exception;
+    		}
+    		return getRawResult();
+    	}
     }
 
     /**
@@ -19,6 +19,12 @@
 
 package de.catma.queryengine;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
 import org.antlr.runtime.ANTLRStringStream;
@@ -28,6 +34,8 @@ import org.antlr.runtime.tree.CommonTreeNodeStream;
 import org.antlr.runtime.tree.Tree;
 
 import de.catma.backgroundservice.DefaultProgressCallable;
+import de.catma.backgroundservice.SharedWorkerPool;
+import de.catma.properties.CATMAPropertyKey;
 import de.catma.queryengine.parser.CatmaQueryLexer;
 import de.catma.queryengine.parser.CatmaQueryParser;
 import de.catma.queryengine.parser.CatmaQueryWalker;
@@ -43,6 +51,16 @@ import de.catma.util.StopWatch;
  *
  */
 public class QueryJob extends DefaultProgressCallable<QueryResult> {
+	private static final long CANCELLATION_POLL_INTERVAL_MILLIS = 200;
+
+	/**
+	 * The fork/join pool that is shared by all query jobs. Independent subqueries and per-document work are forked into
+	 * this pool, idle workers steal pending work from busy ones, so a single complex query can use all workers while
+	 * queries of other sessions still get their share.
+	 */
+	static final SharedWorkerPool<ForkJoinPool> EXECUTOR_POOL =
+			SharedWorkerPool.forkJoinPool("catma-query-", CATMAPropertyKey.QUERY_PARALLELISM);
+
 	private Logger logger = Logger.getLogger(getClass().getName());
     private String inputQuery;
 	private QueryOptions queryOptions;
@@ -75,15 +93,20 @@ public class QueryJob extends DefaultProgressCallable<QueryResult> {
 
             CatmaQueryWalker walker = new CatmaQueryWalker(nodes);
             Query query = walker.start();
+            queryOptions.setProgressListener(getProgressListener());
             query.setQueryOptions(queryOptions);
             
             // execute the query and retrieve the execution result
-            QueryResult queryResult = query.getResult();
+            QueryResult queryResult = execute(query);
             
             getProgressListener().setProgress("Query finished!");
             logger.info("Query finished, query: " + inputQuery +  ", duration: " + stopWatch);
             return queryResult;
         }
+        catch (CancellationException ce) {
+        	logger.info("Query cancelled, query: " + inputQuery);
+        	throw ce;
+        }
         catch (Exception e) {
             if (e instanceof RecognitionException) {
                 throw new QueryException(inputQuery,(RecognitionException)e);
@@ -97,6 +120,40 @@ public class QueryJob extends DefaultProgressCallable<QueryResult> {
         }
     }
 
+    /**
+     * Executes the query in the shared {@link #EXECUTOR_POOL}, so that independent subqueries and per-document work
+     * can be spread over the workers of the pool. The calling thread only waits for the result and cancels the
+     * evaluation as soon as the {@link #getProgressListener() progress listener} reports a cancellation.
+     */
+    private QueryResult execute(Query query) throws Exception {
+    	ForkJoinPool pool = EXECUTOR_POOL.get();
+    	if (pool == null) {
+    		return query.getResult();
+    	}
+    	
+    	ForkJoinTask<QueryResult> task = pool.submit(() -> query.getResult());
+    	
+    	try {
+    		while (true) {
+    			try {
+    				return task.get(CANCELLATION_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    			}
+    			catch (TimeoutException te) {
+    				if ((getProgressListener() != null) && getProgressListener().isCancelled()) {
+    					task.cancel(true);
+    					throw new CancellationException("Query cancelled: " + inputQuery);
+    				}
+    			}
+    		}
+    	}
+    	catch (ExecutionException ee) {
+    		if (ee.getCause() instanceof Exception) {
+    			throw (Exception)ee.getCause();
+    		}
+    		throw ee;
+    	}
+    }
+
     /**
      * An exception that occurred during parsing.
      */
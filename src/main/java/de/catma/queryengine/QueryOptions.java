@@ -20,7 +20,9 @@ package de.catma.queryengine;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CancellationException;
 
+import de.catma.backgroundservice.ProgressListener;
 import de.catma.indexer.IndexedProject;
 import de.catma.indexer.Indexer;
 import de.catma.project.Project;
@@ -35,6 +37,7 @@ public class QueryOptions {
 	private IndexedProject repository;
 	private int limit = 0;
 	private QueryId queryId;
+	private ProgressListener progressListener;
 	
 	public QueryOptions(
 			QueryId queryId, 
@@ -91,4 +94,18 @@ public class QueryOptions {
 	public QueryId getQueryId() {
 		return queryId;
 	}
+
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * @throws CancellationException if the job that executes the query has been cancelled via its
+	 * {@link ProgressListener}
+	 */
+	public void checkCancelled() {
+		if (progressListener != null && progressListener.isCancelled()) {
+			throw new CancellationException(String.format("Query %s has been cancelled", queryId));
+		}
+	}
 }
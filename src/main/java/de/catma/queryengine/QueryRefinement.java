@@ -27,6 +27,7 @@ import de.catma.queryengine.result.GroupedQueryResult;
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
+import de.catma.queryengine.result.QueryResultRowIndex;
 
 /**
  * A refinement that is specified via a {@link org.catma.queryengine.Query}.
@@ -37,6 +38,7 @@ public class QueryRefinement implements Refinement {
 
     private Query query;
 	private MatchMode matchMode;
+	private QueryResult refinementResult; // see prepare
 
     /**
      * Constructor.
@@ -61,7 +63,9 @@ public class QueryRefinement implements Refinement {
     
     private QueryResult refineWithNonFreqQuery(QueryResult result) throws Exception {
 
-    	QueryResult refinementResult = query.getResult();
+    	if (refinementResult == null) {
+    		prepare();
+    	}
     	
     	Comparator<QueryResultRow> comparator = matchMode.getComparator();
     	
@@ -72,16 +76,14 @@ public class QueryRefinement implements Refinement {
     		return refinedResult;
     	}
     	else {
-    		Iterator<QueryResultRow> resultIterator = result.iterator();
-    		while (resultIterator.hasNext()) {
-    			QueryResultRow curRow = resultIterator.next();
-    			if (!curRow.existsIn(refinementResult, comparator)) {
-    				resultIterator.remove();
-    			}
-    		}
+    		QueryResultRowIndex refinementResultIndex = new QueryResultRowIndex(refinementResult);
+    		
+    		// results like the paged ones of frequency and similarity queries cannot be modified in place
+    		QueryResultRowArray refinedResult = result.asQueryResultRowArray();
+    		refinedResult.removeIf(row -> !matchMode.existsIn(row, refinementResultIndex));
+    		
+    		return refinedResult;
     	}
-
-    	return result;
     }
     
     private QueryResult refineWithFreqQuery(QueryResult result) throws Exception {
@@ -104,6 +106,13 @@ public class QueryRefinement implements Refinement {
 		return refinedResult;
     }
     
+    @Override
+    public void prepare() throws Exception {
+    	if (!(query instanceof FreqQuery)) {
+    		refinementResult = query.getResult();
+    	}
+    }
+
     public QueryResult refine(QueryResult result) throws Exception {
     	if (query instanceof FreqQuery) {
     		return refineWithFreqQuery(result);
@@ -35,6 +35,15 @@ public interface Refinement {
      * @throws Exception see instance for details
      */
     public QueryResult refine(QueryResult result) throws Exception;
+
+    /**
+     * Evaluates the parts of the refinement condition that do not depend on the result to refine, so that this can
+     * happen concurrently with the evaluation of the refined query. Anything that has not been prepared is evaluated
+     * by {@link #refine(QueryResult)}.
+     * @throws Exception see instance for details
+     */
+    public default void prepare() throws Exception {
+    }
     
     public void setQueryOptions(QueryOptions queryOptions);
 }
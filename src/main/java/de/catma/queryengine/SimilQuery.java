@@ -19,12 +19,7 @@
 
 package de.catma.queryengine;
 
-import java.util.Set;
-
-import de.catma.queryengine.result.GroupedQueryResult;
 import de.catma.queryengine.result.QueryResult;
-import de.catma.queryengine.result.QueryResultRow;
-import de.catma.queryengine.result.QueryResultRowArray;
 
 
 /**
@@ -73,27 +68,14 @@ public class SimilQuery extends Query {
      * @see org.catma.queryengine.Simil
      */
     private QueryResult searchTermsBySimilarity() throws Exception {
-    	
-        QueryResultRowArray result = new QueryResultRowArray();
-
         Simil simil = new Simil(phrase);
-
-        FreqQuery freqQuery = 
-        		new FreqQuery(CompareOperator.GREATERTHAN.toString(), "0");
-        
-        freqQuery.setQueryOptions(getQueryOptions());
         
-        QueryResult allTokens = freqQuery.getResult();
-        Set<GroupedQueryResult> allTypes = allTokens.asGroupedSet();
+        QueryOptions options = getQueryOptions();
         
-        for (GroupedQueryResult groupedQueryResult : allTypes) {
-        	String type = groupedQueryResult.getGroup().toString();
-        	if(simil.getSimilarityInPercentFor(type) >= similPercent) {
-        		for (QueryResultRow row : groupedQueryResult) {
-        			result.add(row);
-        		}
-        	}
-        }
-        return result;
+        // similarity is computed once per type, only the occurrences of similar types are produced
+        return options.getIndexer().searchTypes(
+        		options.getQueryId(), 
+        		options.getRelevantSourceDocumentIDs(), 
+        		type -> simil.getSimilarityInPercentFor(type) >= similPercent);
     }
 }
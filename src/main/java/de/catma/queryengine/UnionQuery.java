@@ -19,6 +19,8 @@
 
 package de.catma.queryengine;
 
+import java.util.List;
+
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRowArray;
 
@@ -49,9 +51,10 @@ public class UnionQuery extends Query {
     	query1.setQueryOptions(getQueryOptions());
     	query2.setQueryOptions(getQueryOptions());
 
-    	QueryResultRowArray unifiedResult = 
-    			query1.getResult().asQueryResultRowArray();
-    	QueryResultRowArray r2 = query2.getResult().asQueryResultRowArray();
+    	List<QueryResult> results = invokeBoth(query1::getResult, query2::getResult);
+
+    	QueryResultRowArray unifiedResult = results.get(0).asQueryResultRowArray();
+    	QueryResultRowArray r2 = results.get(1).asQueryResultRowArray();
     	
     	if (exclusive) {
     		r2.removeAll(unifiedResult); 
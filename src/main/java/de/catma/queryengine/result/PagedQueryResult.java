@@ -0,0 +1,256 @@
+package de.catma.queryengine.result;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A {@link QueryResult} that produces its rows per document on demand instead of holding all of them in memory.
+ * <p>
+ * Iterating the result loads the rows of one document at a time. The rows of a document are grouped by their phrase and
+ * the number of rows per phrase is available without producing the rows, so {@link #size()} and the groups returned by
+ * {@link #asGroupedSet()} do not materialize rows until a group is iterated. Rows are loaded anew on each iteration.
+ * {@link #asQueryResultRowArray()} materializes all rows into a new array that can be modified freely.
+ */
+public class PagedQueryResult implements QueryResult {
+
+	/**
+	 * Produces the rows of a single document.
+	 */
+	public interface DocumentRowSource {
+		/**
+		 * @param phrase the phrase of the rows of interest or <code>null</code> for all rows of the document
+		 * @return the rows of the given document
+		 */
+		public QueryResultRowArray getRows(String documentId, String phrase) throws IOException;
+
+		/**
+		 * @return the number of rows per phrase of the given document
+		 */
+		public Map<String, Integer> getPhraseFrequencies(String documentId) throws IOException;
+	}
+
+	private static class DocumentRowIterator implements Iterator<QueryResultRow> {
+		private final Iterator<String> documentIdIterator;
+		private final DocumentRowSource rowSource;
+		private final String phrase;
+		private Iterator<QueryResultRow> currentRowIterator = Collections.emptyIterator();
+
+		public DocumentRowIterator(Iterator<String> documentIdIterator, DocumentRowSource rowSource, String phrase) {
+			this.documentIdIterator = documentIdIterator;
+			this.rowSource = rowSource;
+			this.phrase = phrase;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!currentRowIterator.hasNext() && documentIdIterator.hasNext()) {
+				try {
+					currentRowIterator = rowSource.getRows(documentIdIterator.next(), phrase).iterator();
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return currentRowIterator.hasNext();
+		}
+
+		@Override
+		public QueryResultRow next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return currentRowIterator.next();
+		}
+	}
+
+	/**
+	 * A phrase group that loads its rows per document when iterated. It is materialized into a {@link PhraseResult}
+	 * as soon as it gets modified.
+	 */
+	private class PhraseGroup implements GroupedQueryResult {
+		private final String phrase;
+		private final Map<String, Integer> frequencyByDocumentId;
+		private PhraseResult materializedResult;
+
+		public PhraseGroup(String phrase, Map<String, Integer> frequencyByDocumentId) {
+			this.phrase = phrase;
+			this.frequencyByDocumentId = frequencyByDocumentId;
+		}
+
+		private PhraseResult materialize() {
+			if (materializedResult == null) {
+				PhraseResult phraseResult = new PhraseResult(phrase);
+				forEach(phraseResult::add);
+				materializedResult = phraseResult;
+			}
+			return materializedResult;
+		}
+
+		@Override
+		public Object getGroup() {
+			return phrase;
+		}
+
+		@Override
+		public int getTotalFrequency() {
+			if (materializedResult != null) {
+				return materializedResult.getTotalFrequency();
+			}
+			return frequencyByDocumentId.values().stream().mapToInt(Integer::intValue).sum();
+		}
+
+		@Override
+		public int getFrequency(String sourceDocumentID) {
+			if (materializedResult != null) {
+				return materializedResult.getFrequency(sourceDocumentID);
+			}
+			return frequencyByDocumentId.getOrDefault(sourceDocumentID, 0);
+		}
+
+		@Override
+		public Set<String> getSourceDocumentIDs() {
+			if (materializedResult != null) {
+				return materializedResult.getSourceDocumentIDs();
+			}
+			return Collections.unmodifiableSet(frequencyByDocumentId.keySet());
+		}
+
+		@Override
+		public GroupedQueryResult getSubResult(String... sourceDocumentID) {
+			if (materializedResult != null) {
+				return materializedResult.getSubResult(sourceDocumentID);
+			}
+
+			Set<String> filterSourceDocumentIds = new HashSet<>(Arrays.asList(sourceDocumentID));
+			Map<String, Integer> subFrequencyByDocumentId = new LinkedHashMap<>();
+			frequencyByDocumentId.forEach((documentId, frequency) -> {
+				if (filterSourceDocumentIds.contains(documentId)) {
+					subFrequencyByDocumentId.put(documentId, frequency);
+				}
+			});
+
+			return new PhraseGroup(phrase, subFrequencyByDocumentId);
+		}
+
+		@Override
+		public void add(QueryResultRow row) {
+			materialize().add(row);
+		}
+
+		@Override
+		public boolean contains(QueryResultRow row) {
+			return materialize().contains(row);
+		}
+
+		@Override
+		public boolean remove(QueryResultRow row) {
+			return materialize().remove(row);
+		}
+
+		@Override
+		public Iterator<QueryResultRow> iterator() {
+			if (materializedResult != null) {
+				return materializedResult.iterator();
+			}
+			return new DocumentRowIterator(frequencyByDocumentId.keySet().iterator(), rowSource, phrase);
+		}
+
+		@Override
+		public String toString() {
+			return "PhraseGroup [phrase=" + phrase + ", sourceDocumentResults="
+					+ Arrays.toString(frequencyByDocumentId.keySet().toArray()) + "]";
+		}
+	}
+
+	private final List<String> documentIds;
+	private final DocumentRowSource rowSource;
+	private final Map<String, Map<String, Integer>> phraseFrequenciesByDocumentId = new HashMap<>();
+
+	/**
+	 * @param documentIds the documents that contribute rows, in the order in which they are iterated
+	 */
+	public PagedQueryResult(List<String> documentIds, DocumentRowSource rowSource) {
+		this.documentIds = documentIds;
+		this.rowSource = rowSource;
+	}
+
+	public List<String> getDocumentIds() {
+		return Collections.unmodifiableList(documentIds);
+	}
+
+	/**
+	 * @return the rows of the given document
+	 */
+	public QueryResultRowArray getRows(String documentId) throws IOException {
+		return rowSource.getRows(documentId, null);
+	}
+
+	private synchronized Map<String, Integer> getPhraseFrequencies(String documentId) {
+		Map<String, Integer> phraseFrequencies = phraseFrequenciesByDocumentId.get(documentId);
+		if (phraseFrequencies == null) {
+			try {
+				phraseFrequencies = rowSource.getPhraseFrequencies(documentId);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			phraseFrequenciesByDocumentId.put(documentId, phraseFrequencies);
+		}
+		return phraseFrequencies;
+	}
+
+	@Override
+	public Iterator<QueryResultRow> iterator() {
+		return new DocumentRowIterator(documentIds.iterator(), rowSource, null);
+	}
+
+	@Override
+	public QueryResultRowArray asQueryResultRowArray() {
+		QueryResultRowArray result = new QueryResultRowArray();
+		forEach(result::add);
+		return result;
+	}
+
+	@Override
+	public Set<GroupedQueryResult> asGroupedSet() {
+		Map<String, Map<String, Integer>> frequenciesByPhrase = new LinkedHashMap<>();
+
+		for (String documentId : documentIds) {
+			getPhraseFrequencies(documentId).forEach((phrase, frequency) ->
+				frequenciesByPhrase.computeIfAbsent(phrase, key -> new LinkedHashMap<>()).put(documentId, frequency));
+		}
+
+		Set<GroupedQueryResult> groupedQueryResults = new HashSet<>();
+		frequenciesByPhrase.forEach((phrase, frequencyByDocumentId) ->
+			groupedQueryResults.add(new PhraseGroup(phrase, frequencyByDocumentId)));
+
+		return groupedQueryResults;
+	}
+
+	@Override
+	public Set<GroupedQueryResult> asGroupedSet(Function<QueryResultRow, Object> groupingKeyProvider) {
+		return asQueryResultRowArray().asGroupedSet(groupingKeyProvider);
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (String documentId : documentIds) {
+			for (int frequency : getPhraseFrequencies(documentId).values()) {
+				size += frequency;
+			}
+		}
+		return size;
+	}
+}
@@ -0,0 +1,183 @@
+package de.catma.queryengine.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import de.catma.document.Range;
+
+/**
+ * An index over the rows of a {@link QueryResult} that is used to join one result with another without comparing
+ * every row of the first result with every row of the second.
+ * <p>
+ * Rows are grouped by document. Within a document they can be looked up by one of their {@link QueryResultRow#getRanges()
+ * ranges} via a hash table or by ranges that intersect a given range via a list of ranges sorted by start point.
+ * Lookups report the positions of the candidate rows within the indexed result, the caller decides whether a candidate
+ * actually matches.
+ */
+public class QueryResultRowIndex {
+
+	private static class DocumentRows {
+		private final List<Integer> positions = new ArrayList<>();
+		private final ListMultimap<Range, Integer> positionsByRange = ArrayListMultimap.create();
+
+		// all ranges of the document ordered by start point, built on first use
+		private int[] startPoints;
+		private int[] endPoints;
+		private int[] maxEndPoints; // the largest end point of the ranges up to and including index i
+		private int[] rangePositions;
+
+		private void sortRanges() {
+			List<Map.Entry<Range, Integer>> entries = new ArrayList<>(positionsByRange.entries());
+			entries.sort((e1, e2) -> Integer.compare(e1.getKey().getStartPoint(), e2.getKey().getStartPoint()));
+
+			startPoints = new int[entries.size()];
+			endPoints = new int[entries.size()];
+			maxEndPoints = new int[entries.size()];
+			rangePositions = new int[entries.size()];
+
+			for (int i = 0; i < entries.size(); i++) {
+				Range range = entries.get(i).getKey();
+				startPoints[i] = range.getStartPoint();
+				endPoints[i] = range.getEndPoint();
+				maxEndPoints[i] = i == 0 ? endPoints[i] : Math.max(maxEndPoints[i - 1], endPoints[i]);
+				rangePositions[i] = entries.get(i).getValue();
+			}
+		}
+	}
+
+	private final List<QueryResultRow> rows;
+	private final Map<String, DocumentRows> rowsByDocument = new HashMap<>();
+
+	public QueryResultRowIndex(QueryResult result) {
+		this.rows = new ArrayList<>(result.size());
+
+		for (QueryResultRow row : result) {
+			int position = rows.size();
+			rows.add(row);
+
+			DocumentRows documentRows = rowsByDocument.computeIfAbsent(row.getSourceDocumentId(), documentId -> new DocumentRows());
+			documentRows.positions.add(position);
+			for (Range range : row.getRanges()) {
+				if (range != null) {
+					documentRows.positionsByRange.put(range, position);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the row at the given position of the indexed result
+	 */
+	public QueryResultRow getRow(int position) {
+		return rows.get(position);
+	}
+
+	public int size() {
+		return rows.size();
+	}
+
+	/**
+	 * Tests the rows of the given document in the order of the indexed result until the predicate is satisfied.
+	 *
+	 * @return <code>true</code> if the predicate has been satisfied by one of the rows
+	 */
+	public boolean anyRowInDocument(String documentId, IntPredicate predicate) {
+		DocumentRows documentRows = rowsByDocument.get(documentId);
+		if (documentRows == null) {
+			return false;
+		}
+
+		for (int position : documentRows.positions) {
+			if (predicate.test(position)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Tests the rows of the given document that have a range that is equal to the given range until the predicate is
+	 * satisfied.
+	 *
+	 * @return <code>true</code> if the predicate has been satisfied by one of the rows
+	 */
+	public boolean anyRowWithRange(String documentId, Range range, IntPredicate predicate) {
+		DocumentRows documentRows = rowsByDocument.get(documentId);
+		if (documentRows == null) {
+			return false;
+		}
+
+		for (int position : documentRows.positionsByRange.get(range)) {
+			if (predicate.test(position)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Tests the rows of the given document that have a range that intersects the given range, edges included, until
+	 * the predicate is satisfied. A row with several intersecting ranges may be tested more than once.
+	 *
+	 * @return <code>true</code> if the predicate has been satisfied by one of the rows
+	 */
+	public boolean anyRowIntersecting(String documentId, Range range, IntPredicate predicate) {
+		DocumentRows documentRows = rowsByDocument.get(documentId);
+		if (documentRows == null) {
+			return false;
+		}
+
+		if (documentRows.startPoints == null) {
+			documentRows.sortRanges();
+		}
+
+		// candidates start at or before the end of the range...
+		int idx = upperBound(documentRows.startPoints, range.getEndPoint());
+
+		// ...and we walk backwards until no range before the current one reaches the start of the range anymore
+		for (int i = idx - 1; i >= 0 && documentRows.maxEndPoints[i] >= range.getStartPoint(); i--) {
+			if (documentRows.endPoints[i] >= range.getStartPoint() && predicate.test(documentRows.rangePositions[i])) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Adds the positions of the rows of the given document that have a range that intersects the given range, edges
+	 * included, to the given set.
+	 */
+	public void addRowsIntersecting(String documentId, Range range, BitSet positions) {
+		anyRowIntersecting(documentId, range, position -> {
+			positions.set(position);
+			return false;
+		});
+	}
+
+	/**
+	 * @return the number of values that are less than or equal to the given value
+	 */
+	private static int upperBound(int[] sortedValues, int value) {
+		int idx = Arrays.binarySearch(sortedValues, value);
+		if (idx < 0) {
+			return -idx - 1;
+		}
+
+		// there may be several equal values
+		while (idx < sortedValues.length && sortedValues[idx] == value) {
+			idx++;
+		}
+		return idx;
+	}
+}
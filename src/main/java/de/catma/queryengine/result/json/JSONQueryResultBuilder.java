@@ -1,12 +1,16 @@
 package de.catma.queryengine.result.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -35,6 +39,8 @@ public class JSONQueryResultBuilder {
 		}
 	}
 	
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	
 	public enum Field {
 		queryId,
 		sourceDocumentId,
@@ -55,9 +61,44 @@ public class JSONQueryResultBuilder {
 	}
 	
 	public ArrayNode createJSONQueryResult(final Iterable<QueryResultRow> queryResult, final Project project) throws IOException {
+		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = createSourceDocInfoCache(project);
+		LoadingCache<String, String> colorCache = createColorCache(project);
+		
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+
+		ArrayNode valuesArray = factory.arrayNode();
 
-		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = 
-				CacheBuilder.newBuilder().maximumSize(10).build(new CacheLoader<String, SourceDocInfo>() {
+		for (QueryResultRow row : queryResult) {
+			valuesArray.add(createRowNode(row, factory, sourceDocInfoCache, colorCache));
+		}
+		
+		return valuesArray;
+		
+	}
+	
+	/**
+	 * Writes the same JSON array as {@link #createJSONQueryResult(Iterable, Project)} row by row to the given stream,
+	 * so only a single row node is held in memory at a time. The stream is flushed but not closed.
+	 */
+	public void writeJSONQueryResult(
+			final Iterable<QueryResultRow> queryResult, final Project project, OutputStream outputStream) throws IOException {
+		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = createSourceDocInfoCache(project);
+		LoadingCache<String, String> colorCache = createColorCache(project);
+		
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+		
+		try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.writeStartArray();
+			for (QueryResultRow row : queryResult) {
+				generator.writeTree(createRowNode(row, factory, sourceDocInfoCache, colorCache));
+			}
+			generator.writeEndArray();
+		}
+	}
+	
+	private LoadingCache<String, SourceDocInfo> createSourceDocInfoCache(final Project project) {
+		return CacheBuilder.newBuilder().maximumSize(10).build(new CacheLoader<String, SourceDocInfo>() {
 					
 			@Override
 			public SourceDocInfo load(String key) throws Exception {
@@ -75,48 +116,44 @@ public class JSONQueryResultBuilder {
 				}
 			}
 		});
-		
-		LoadingCache<String, String> colorCache = 
-				CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
-					@Override
-					public String load(String tagDefinitionId) throws Exception {
-						return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
-					}
-				});
-		
-		JsonNodeFactory factory = JsonNodeFactory.instance;
-
-		ArrayNode valuesArray = factory.arrayNode();
-
-		for (QueryResultRow row : queryResult) {
-			ObjectNode rowNode = factory.objectNode();
-			addQueryResultRowFields(rowNode, row);
-			if (row instanceof TagQueryResultRow) {
-				List<Range> mergedRanges = 
-					Range.mergeRanges(new TreeSet<>(((TagQueryResultRow) row).getRanges()));
-				for (Range range : mergedRanges) {
-					addTagQueryResultRowFields(rowNode, (TagQueryResultRow)row, range, colorCache);
-				}
-			}
-			else {
-				rowNode.put(Field.startOffset.name(), row.getRange().getStartPoint());
-				rowNode.put(Field.endOffset.name(), row.getRange().getEndPoint());
+	}
+	
+	private LoadingCache<String, String> createColorCache(final Project project) {
+		return CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
+			@Override
+			public String load(String tagDefinitionId) throws Exception {
+				return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
 			}
-			
-			SourceDocInfo info;
-			try {
-				info = sourceDocInfoCache.get(row.getSourceDocumentId());
-			} catch (ExecutionException e) {
-				throw new IOException(e);
+		});
+	}
+	
+	private ObjectNode createRowNode(
+			QueryResultRow row, JsonNodeFactory factory, 
+			LoadingCache<String, SourceDocInfo> sourceDocInfoCache, LoadingCache<String, String> colorCache) throws IOException {
+		ObjectNode rowNode = factory.objectNode();
+		addQueryResultRowFields(rowNode, row);
+		if (row instanceof TagQueryResultRow) {
+			List<Range> mergedRanges = 
+				Range.mergeRanges(new TreeSet<>(((TagQueryResultRow) row).getRanges()));
+			for (Range range : mergedRanges) {
+				addTagQueryResultRowFields(rowNode, (TagQueryResultRow)row, range, colorCache);
 			}
-			rowNode.put(Field.sourceDocumentSize.name(), info.size);
-			rowNode.put(Field.sourceDocumentTitle.name(), info.contentInfoSet.getTitle());
-			
-			valuesArray.add(rowNode);
+		}
+		else {
+			rowNode.put(Field.startOffset.name(), row.getRange().getStartPoint());
+			rowNode.put(Field.endOffset.name(), row.getRange().getEndPoint());
 		}
 		
-		return valuesArray;
+		SourceDocInfo info;
+		try {
+			info = sourceDocInfoCache.get(row.getSourceDocumentId());
+		} catch (ExecutionException e) {
+			throw new IOException(e);
+		}
+		rowNode.put(Field.sourceDocumentSize.name(), info.size);
+		rowNode.put(Field.sourceDocumentTitle.name(), info.contentInfoSet.getTitle());
 		
+		return rowNode;
 	}
 
 	private void addTagQueryResultRowFields(ObjectNode rowNode, TagQueryResultRow row, Range range, LoadingCache<String,String> colorCache) {
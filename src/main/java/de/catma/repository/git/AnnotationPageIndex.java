@@ -0,0 +1,664 @@
+package de.catma.repository.git;
+
+import de.catma.repository.git.serialization.AnnotationPageCodec;
+import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Knows which annotation page file of a collection contains which annotation and where exactly its JSON object is
+ * located within the file. This allows annotations to be replaced and removed by splicing the page file content,
+ * instead of parsing and re-serializing whole pages.
+ * <p>
+ * Pages are scanned lazily and rescanned whenever their length or modification time differs from what has been
+ * indexed, e.g. after annotations have been appended or after a merge. All methods that write page files synchronize
+ * on the index, so that edits and compaction of the pages of a collection don't interleave. They also clean up after
+ * an interrupted compaction before writing anything.
+ */
+class AnnotationPageIndex {
+	private static final byte[] EMPTY_PAGE = "[]".getBytes(StandardCharsets.UTF_8);
+	// the layout written by pretty printing Gson
+	private static final byte[] PAGE_START = "[\n  ".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] SEPARATOR = ",\n  ".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] PAGE_END = "\n]".getBytes(StandardCharsets.UTF_8);
+	// list the pages written and those replaced by a compaction while it is in progress, see compact
+	static final String NEW_PAGES_MARKER_FILENAME = ".compaction-new-pages";
+	static final String OLD_PAGES_MARKER_FILENAME = ".compaction-old-pages";
+
+	private static class Page {
+		private final long length;
+		private final long lastModified;
+		// tag instance ID -> {offset, length} of the serialized annotation within the page file, in page order
+		private final LinkedHashMap<String, int[]> spansByTagInstanceId;
+
+		private Page(long length, long lastModified, LinkedHashMap<String, int[]> spansByTagInstanceId) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.spansByTagInstanceId = spansByTagInstanceId;
+		}
+
+		private boolean isCurrent(long length, long lastModified) {
+			return this.length == length && this.lastModified == lastModified;
+		}
+	}
+
+	private final File annotationsDirectory;
+	private final AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+
+	private final Map<String, Page> pagesByFilename = new HashMap<>();
+	private final Map<String, String> pageFilenamesByTagInstanceId = new HashMap<>();
+	// the highest page number per user, as far as known
+	private final Map<String, Integer> lastPageNumbersByUsername = new HashMap<>();
+
+	AnnotationPageIndex(File annotationsDirectory) {
+		this.annotationsDirectory = annotationsDirectory;
+	}
+
+	/**
+	 * @return the number of the given page file if it is a page of the given user (<code>&lt;username&gt;_&lt;pagenumber&gt;.json</code>),
+	 *         otherwise -1
+	 */
+	static int getUserPageNumber(String pageFilename, String username) {
+		String prefix = username + "_";
+		if (!pageFilename.startsWith(prefix) || !pageFilename.toLowerCase().endsWith(".json")) {
+			return -1;
+		}
+
+		try {
+			return Integer.parseInt(pageFilename.substring(prefix.length(), pageFilename.length() - ".json".length()));
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private List<Integer> getUserPageNumbers(String username) {
+		List<Integer> pageNumbers = new ArrayList<>();
+
+		String[] pageFilenames = annotationsDirectory.list();
+		if (pageFilenames != null) {
+			for (String pageFilename : pageFilenames) {
+				int pageNumber = getUserPageNumber(pageFilename, username);
+				if (pageNumber >= 0) {
+					pageNumbers.add(pageNumber);
+				}
+			}
+		}
+
+		Collections.sort(pageNumbers);
+		return pageNumbers;
+	}
+
+	private static String getPageFilename(String username, int pageNumber) {
+		return username + "_" + pageNumber + ".json";
+	}
+
+	/**
+	 * @param forceNew whether to start a new page even if the last one isn't full yet
+	 * @return the name of the page file that new annotations of the given user should be appended to
+	 */
+	synchronized String getCurrentPageFilename(String username, int maxPageSizeBytes, boolean forceNew) throws IOException {
+		recoverFromInterruptedCompaction();
+
+		Integer lastPageNumber = lastPageNumbersByUsername.get(username);
+		if (lastPageNumber == null) {
+			List<Integer> pageNumbers = getUserPageNumbers(username);
+			lastPageNumber = pageNumbers.isEmpty() ? -1 : pageNumbers.get(pageNumbers.size() - 1);
+		}
+
+		int pageNumber = Math.max(lastPageNumber, 0);
+
+		if (lastPageNumber >= 0
+				&& (forceNew || new File(annotationsDirectory, getPageFilename(username, lastPageNumber)).length() >= maxPageSizeBytes)) {
+			pageNumber++;
+		}
+
+		lastPageNumbersByUsername.put(username, pageNumber);
+		return getPageFilename(username, pageNumber);
+	}
+
+	/**
+	 * @return the spans ({offset, length}) of the JSON objects that are the elements of the top-level array of the given
+	 *         page file content
+	 */
+	static List<int[]> findAnnotations(byte[] content) throws IOException {
+		List<int[]> spans = new ArrayList<>();
+
+		int depth = 0;
+		int start = -1;
+		boolean inString = false;
+		boolean escaped = false;
+
+		// all structural characters are ASCII, so the UTF-8 content doesn't need to be decoded
+		for (int i = 0; i < content.length; i++) {
+			byte b = content[i];
+
+			if (inString) {
+				if (escaped) {
+					escaped = false;
+				}
+				else if (b == '\\') {
+					escaped = true;
+				}
+				else if (b == '"') {
+					inString = false;
+				}
+				continue;
+			}
+
+			switch (b) {
+				case '"':
+					inString = true;
+					break;
+				case '{':
+				case '[':
+					if (depth == 1 && b == '{') {
+						start = i;
+					}
+					depth++;
+					break;
+				case '}':
+				case ']':
+					depth--;
+					if (depth == 1 && b == '}') {
+						spans.add(new int[] {start, i + 1 - start});
+					}
+					break;
+				default:
+					break;
+			}
+		}
+
+		if (depth != 0 || inString) {
+			throw new IOException("Unbalanced JSON");
+		}
+
+		return spans;
+	}
+
+	private void forget(String pageFilename) {
+		Page page = pagesByFilename.remove(pageFilename);
+		if (page != null) {
+			for (String tagInstanceId : page.spansByTagInstanceId.keySet()) {
+				pageFilenamesByTagInstanceId.remove(tagInstanceId, pageFilename);
+			}
+		}
+	}
+
+	private Page index(String pageFilename, byte[] content, long lastModified) throws IOException {
+		forget(pageFilename);
+
+		LinkedHashMap<String, int[]> spansByTagInstanceId = new LinkedHashMap<>();
+		try {
+			for (int[] span : findAnnotations(content)) {
+				String tagInstanceId = annotationPageCodec.readAnnotation(content, span[0], span[1]).getTagInstanceUuid();
+				spansByTagInstanceId.put(tagInstanceId, span);
+			}
+		}
+		catch (IOException e) {
+			throw new IOException(String.format("Invalid annotation page file %s", new File(annotationsDirectory, pageFilename)), e);
+		}
+
+		Page page = new Page(content.length, lastModified, spansByTagInstanceId);
+		pagesByFilename.put(pageFilename, page);
+		for (String tagInstanceId : spansByTagInstanceId.keySet()) {
+			pageFilenamesByTagInstanceId.put(tagInstanceId, pageFilename);
+		}
+
+		return page;
+	}
+
+	/**
+	 * @return the up-to-date index of the given page or <code>null</code> if there is no such page file
+	 */
+	private Page getPage(String pageFilename) throws IOException {
+		File pageFile = new File(annotationsDirectory, pageFilename);
+		// the modification time is taken first, a concurrent change shows up as a stale page the next time
+		long lastModified = pageFile.lastModified();
+
+		if (!pageFile.isFile()) {
+			forget(pageFilename);
+			return null;
+		}
+
+		Page page = pagesByFilename.get(pageFilename);
+		if (page != null && page.isCurrent(pageFile.length(), lastModified)) {
+			return page;
+		}
+
+		return index(pageFilename, Files.readAllBytes(pageFile.toPath()), lastModified);
+	}
+
+	private String locate(String tagInstanceId, String pageFilenameHint) throws IOException {
+		String pageFilename = pageFilenamesByTagInstanceId.get(tagInstanceId);
+		if (pageFilename != null) {
+			Page page = getPage(pageFilename);
+			if (page != null && page.spansByTagInstanceId.containsKey(tagInstanceId)) {
+				return pageFilename;
+			}
+		}
+
+		if (pageFilenameHint != null && !pageFilenameHint.equals(pageFilename)) {
+			Page page = getPage(pageFilenameHint);
+			if (page != null && page.spansByTagInstanceId.containsKey(tagInstanceId)) {
+				return pageFilenameHint;
+			}
+		}
+
+		return null;
+	}
+
+	private void indexAllPages() throws IOException {
+		String[] pageFilenames = annotationsDirectory.list();
+		Set<String> existingPageFilenames = pageFilenames == null ? Collections.emptySet() : new HashSet<>(Arrays.asList(pageFilenames));
+
+		for (String pageFilename : new ArrayList<>(pagesByFilename.keySet())) {
+			if (!existingPageFilenames.contains(pageFilename)) {
+				forget(pageFilename);
+			}
+		}
+
+		for (String pageFilename : existingPageFilenames) {
+			if (pageFilename.toLowerCase().endsWith(".json")) {
+				getPage(pageFilename);
+			}
+		}
+	}
+
+	/**
+	 * @return the serialized annotation as it appears as an element of a page file
+	 */
+	private static byte[] toPageElement(JsonLdWebAnnotation annotation) {
+		// the list item is a single element list, indented the same way as a page file
+		String serializedListItem = annotation.asSerializedListItem();
+		return serializedListItem.substring(serializedListItem.indexOf('{'), serializedListItem.lastIndexOf('}') + 1)
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Replaces and removes the given annotations. The annotations are grouped by page file, each affected page file is
+	 * read and written once.
+	 *
+	 * @param replacementsByTagInstanceId the annotations that replace the ones with the same tag instance ID
+	 * @param removedTagInstanceIds the tag instance IDs of the annotations to remove
+	 * @param pageFilenameHintsByTagInstanceId the page files the annotations are expected in, may be incomplete or
+	 *                                         outdated, e.g. after compaction
+	 * @return the tag instance IDs of those annotations that could not be found in any page file
+	 */
+	synchronized Set<String> edit(
+			Map<String, JsonLdWebAnnotation> replacementsByTagInstanceId,
+			Collection<String> removedTagInstanceIds,
+			Map<String, String> pageFilenameHintsByTagInstanceId
+	) throws IOException {
+		recoverFromInterruptedCompaction();
+
+		Set<String> tagInstanceIds = new LinkedHashSet<>(replacementsByTagInstanceId.keySet());
+		tagInstanceIds.addAll(removedTagInstanceIds);
+
+		Map<String, Set<String>> tagInstanceIdsByPageFilename = new HashMap<>();
+		Set<String> notFound = new LinkedHashSet<>();
+
+		for (String tagInstanceId : tagInstanceIds) {
+			String pageFilename = locate(tagInstanceId, pageFilenameHintsByTagInstanceId.get(tagInstanceId));
+			if (pageFilename == null) {
+				notFound.add(tagInstanceId);
+			}
+			else {
+				tagInstanceIdsByPageFilename.computeIfAbsent(pageFilename, key -> new HashSet<>()).add(tagInstanceId);
+			}
+		}
+
+		if (!notFound.isEmpty()) {
+			indexAllPages();
+
+			Iterator<String> notFoundIterator = notFound.iterator();
+			while (notFoundIterator.hasNext()) {
+				String tagInstanceId = notFoundIterator.next();
+				String pageFilename = pageFilenamesByTagInstanceId.get(tagInstanceId);
+				if (pageFilename != null) {
+					tagInstanceIdsByPageFilename.computeIfAbsent(pageFilename, key -> new HashSet<>()).add(tagInstanceId);
+					notFoundIterator.remove();
+				}
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> entry : tagInstanceIdsByPageFilename.entrySet()) {
+			Map<String, byte[]> replacements = new HashMap<>();
+			for (String tagInstanceId : entry.getValue()) {
+				JsonLdWebAnnotation replacement = replacementsByTagInstanceId.get(tagInstanceId);
+				if (replacement != null) {
+					replacements.put(tagInstanceId, toPageElement(replacement));
+				}
+			}
+
+			Set<String> removed = new HashSet<>(entry.getValue());
+			removed.removeAll(replacements.keySet());
+
+			notFound.addAll(rewrite(entry.getKey(), replacements, removed));
+		}
+
+		return notFound;
+	}
+
+	/**
+	 * @return the tag instance IDs of those annotations that are not in the page (anymore)
+	 */
+	private Set<String> rewrite(String pageFilename, Map<String, byte[]> replacementsByTagInstanceId, Set<String> removedTagInstanceIds)
+			throws IOException {
+		File pageFile = new File(annotationsDirectory, pageFilename);
+		long lastModified = pageFile.lastModified();
+		byte[] content = Files.readAllBytes(pageFile.toPath());
+
+		Page page = pagesByFilename.get(pageFilename);
+		if (page == null || !page.isCurrent(content.length, lastModified) || !spansMatch(page, content, replacementsByTagInstanceId.keySet())
+				|| !spansMatch(page, content, removedTagInstanceIds)) {
+			// the modification time alone doesn't catch all changes on file systems with a coarse resolution
+			page = index(pageFilename, content, lastModified);
+		}
+
+		Set<String> notFound = new HashSet<>(replacementsByTagInstanceId.keySet());
+		notFound.addAll(removedTagInstanceIds);
+		notFound.removeAll(page.spansByTagInstanceId.keySet());
+
+		ByteArrayOutputStream pageContent = new ByteArrayOutputStream(content.length);
+		LinkedHashMap<String, int[]> spansByTagInstanceId = new LinkedHashMap<>();
+
+		for (Map.Entry<String, int[]> entry : page.spansByTagInstanceId.entrySet()) {
+			String tagInstanceId = entry.getKey();
+			if (removedTagInstanceIds.contains(tagInstanceId)) {
+				continue;
+			}
+
+			pageContent.write(spansByTagInstanceId.isEmpty() ? PAGE_START : SEPARATOR);
+
+			byte[] replacement = replacementsByTagInstanceId.get(tagInstanceId);
+			int[] span = entry.getValue();
+			int offset = pageContent.size();
+
+			if (replacement != null) {
+				pageContent.write(replacement);
+				spansByTagInstanceId.put(tagInstanceId, new int[] {offset, replacement.length});
+			}
+			else {
+				pageContent.write(content, span[0], span[1]);
+				spansByTagInstanceId.put(tagInstanceId, new int[] {offset, span[1]});
+			}
+		}
+
+		if (spansByTagInstanceId.isEmpty()) {
+			pageContent.write(EMPTY_PAGE);
+		}
+		else {
+			pageContent.write(PAGE_END);
+		}
+
+		byte[] newContent = pageContent.toByteArray();
+		Files.write(pageFile.toPath(), newContent);
+
+		forget(pageFilename);
+		pagesByFilename.put(pageFilename, new Page(newContent.length, pageFile.lastModified(), spansByTagInstanceId));
+		for (String tagInstanceId : spansByTagInstanceId.keySet()) {
+			pageFilenamesByTagInstanceId.put(tagInstanceId, pageFilename);
+		}
+
+		return notFound;
+	}
+
+	private boolean spansMatch(Page page, byte[] content, Collection<String> tagInstanceIds) {
+		for (String tagInstanceId : tagInstanceIds) {
+			int[] span = page.spansByTagInstanceId.get(tagInstanceId);
+			if (span == null) {
+				continue;
+			}
+			if (span[0] + span[1] > content.length
+					|| !new String(content, span[0], span[1], StandardCharsets.UTF_8).contains(tagInstanceId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the page files that are left over from an interrupted compaction and must not be read, an empty set if
+	 *         there are none, see {@link #compact(String, int)}
+	 */
+	static Set<String> getObsoletePageFilenames(File annotationsDirectory) throws IOException {
+		File oldPagesMarker = new File(annotationsDirectory, OLD_PAGES_MARKER_FILENAME);
+		if (oldPagesMarker.isFile()) {
+			// the new pages have been checked, the old ones are obsolete
+			return readMarker(oldPagesMarker);
+		}
+
+		File newPagesMarker = new File(annotationsDirectory, NEW_PAGES_MARKER_FILENAME);
+		if (newPagesMarker.isFile()) {
+			// the new pages may be incomplete, the old ones are still in place
+			return readMarker(newPagesMarker);
+		}
+
+		return Collections.emptySet();
+	}
+
+	private static Set<String> readMarker(File marker) throws IOException {
+		Set<String> pageFilenames = new HashSet<>();
+		for (String line : Files.readAllLines(marker.toPath(), StandardCharsets.UTF_8)) {
+			if (!line.isEmpty()) {
+				pageFilenames.add(line);
+			}
+		}
+		return pageFilenames;
+	}
+
+	/**
+	 * Writes to a temporary file in the annotations directory first and moves it into place, so that the file is never
+	 * seen half written.
+	 */
+	private void writeAtomically(String filename, byte[] content) throws IOException {
+		File tempFile = File.createTempFile("." + filename, ".tmp", annotationsDirectory);
+		try {
+			Files.write(tempFile.toPath(), content);
+			Files.move(
+					tempFile.toPath(),
+					new File(annotationsDirectory, filename).toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE
+			);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	/**
+	 * Deletes the page files that are left over from an interrupted compaction, see {@link #compact(String, int)}.
+	 * This is done before any page files get written or staged.
+	 */
+	synchronized void recoverFromInterruptedCompaction() throws IOException {
+		Set<String> obsoletePageFilenames = getObsoletePageFilenames(annotationsDirectory);
+
+		for (String pageFilename : obsoletePageFilenames) {
+			forget(pageFilename);
+			Files.deleteIfExists(new File(annotationsDirectory, pageFilename).toPath());
+		}
+
+		// the marker of the new pages goes first, the other way round the new pages would be taken for incomplete
+		Files.deleteIfExists(new File(annotationsDirectory, NEW_PAGES_MARKER_FILENAME).toPath());
+		Files.deleteIfExists(new File(annotationsDirectory, OLD_PAGES_MARKER_FILENAME).toPath());
+
+		if (!obsoletePageFilenames.isEmpty()) {
+			lastPageNumbersByUsername.clear();
+		}
+	}
+
+	/**
+	 * @return the page numbers of those pages of the given user that compaction would rewrite, all pages starting with
+	 *         the first one that is less than three quarters full
+	 */
+	private List<Integer> getPageNumbersToCompact(String username, int maxPageSizeBytes) {
+		List<Integer> pageNumbers = getUserPageNumbers(username);
+
+		int firstPageIndex = 0;
+		while (firstPageIndex < pageNumbers.size()
+				&& new File(annotationsDirectory, getPageFilename(username, pageNumbers.get(firstPageIndex))).length()
+					>= (long) maxPageSizeBytes * 3 / 4) {
+			firstPageIndex++;
+		}
+
+		return pageNumbers.subList(firstPageIndex, pageNumbers.size());
+	}
+
+	/**
+	 * Tells whether compaction would pay off, which is the case if it would save at least a quarter of the pages it
+	 * rewrites. This only looks at the sizes of the page files.
+	 */
+	synchronized boolean isCompactionDue(String username, int maxPageSizeBytes) {
+		List<Integer> pageNumbers = getPageNumbersToCompact(username, maxPageSizeBytes);
+		if (pageNumbers.size() < 2) {
+			return false;
+		}
+
+		long totalSize = 0;
+		for (int pageNumber : pageNumbers) {
+			totalSize += new File(annotationsDirectory, getPageFilename(username, pageNumber)).length();
+		}
+		long requiredPageCount = Math.max(1, (totalSize + maxPageSizeBytes - 1) / maxPageSizeBytes);
+
+		return pageNumbers.size() - requiredPageCount >= Math.max(1, pageNumbers.size() / 4);
+	}
+
+	/**
+	 * Moves the annotations in the pages of the given user into as few pages as possible, keeping their order, and
+	 * deletes the pages that are no longer needed. Leading pages that are mostly full are left alone, as are pages of
+	 * other users, to avoid merge conflicts. Nothing is done unless compaction is due, see
+	 * {@link #isCompactionDue(String, int)}.
+	 * <p>
+	 * The packed pages get new page numbers, the old pages are only deleted once the new ones have been written and
+	 * checked against the old ones. Marker files record which pages are obsolete in case of a crash in between, see
+	 * {@link #getObsoletePageFilenames(File)}.
+	 *
+	 * @return the page files that have been deleted, an empty list if compaction isn't due or wouldn't save any pages
+	 */
+	synchronized List<File> compact(String username, int maxPageSizeBytes) throws IOException {
+		recoverFromInterruptedCompaction();
+
+		if (!isCompactionDue(username, maxPageSizeBytes)) {
+			return Collections.emptyList();
+		}
+
+		List<Integer> pageNumbers = getPageNumbersToCompact(username, maxPageSizeBytes);
+
+		// pack the annotations greedily, in page order
+		Set<String> tagInstanceIds = new LinkedHashSet<>();
+		List<List<byte[]>> packedPages = new ArrayList<>();
+		List<byte[]> packedPage = new ArrayList<>();
+		long packedPageSize = EMPTY_PAGE.length;
+
+		for (int pageNumber : pageNumbers) {
+			String pageFilename = getPageFilename(username, pageNumber);
+			File pageFile = new File(annotationsDirectory, pageFilename);
+			long lastModified = pageFile.lastModified();
+			byte[] content = Files.readAllBytes(pageFile.toPath());
+
+			for (Map.Entry<String, int[]> entry : index(pageFilename, content, lastModified).spansByTagInstanceId.entrySet()) {
+				if (!tagInstanceIds.add(entry.getKey())) {
+					// a copy left over by an older version, copies are identical
+					continue;
+				}
+
+				int[] span = entry.getValue();
+				// each annotation comes with a separator (or the page start) of the same length
+				long annotationSize = span[1] + SEPARATOR.length;
+				if (!packedPage.isEmpty() && packedPageSize + annotationSize > maxPageSizeBytes) {
+					packedPages.add(packedPage);
+					packedPage = new ArrayList<>();
+					packedPageSize = EMPTY_PAGE.length;
+				}
+				packedPage.add(Arrays.copyOfRange(content, span[0], span[0] + span[1]));
+				packedPageSize += annotationSize;
+			}
+		}
+
+		if (!packedPage.isEmpty()) {
+			packedPages.add(packedPage);
+		}
+
+		if (packedPages.size() >= pageNumbers.size()) {
+			return Collections.emptyList();
+		}
+
+		// the new pages go behind the last existing page, so that no page gets overwritten
+		int firstNewPageNumber = getUserPageNumbers(username).stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+		List<String> newPageFilenames = new ArrayList<>();
+		for (int i = 0; i < packedPages.size(); i++) {
+			newPageFilenames.add(getPageFilename(username, firstNewPageNumber + i));
+		}
+		List<String> oldPageFilenames = new ArrayList<>();
+		for (int pageNumber : pageNumbers) {
+			oldPageFilenames.add(getPageFilename(username, pageNumber));
+		}
+
+		writeAtomically(NEW_PAGES_MARKER_FILENAME, String.join("\n", newPageFilenames).getBytes(StandardCharsets.UTF_8));
+
+		boolean checked = false;
+		try {
+			for (int i = 0; i < packedPages.size(); i++) {
+				ByteArrayOutputStream pageContent = new ByteArrayOutputStream();
+				for (byte[] annotation : packedPages.get(i)) {
+					pageContent.write(pageContent.size() == 0 ? PAGE_START : SEPARATOR);
+					pageContent.write(annotation);
+				}
+				pageContent.write(PAGE_END);
+
+				writeAtomically(newPageFilenames.get(i), pageContent.toByteArray());
+			}
+
+			// check the new pages as they are on disk before the old ones go away
+			List<String> newTagInstanceIds = new ArrayList<>();
+			for (String newPageFilename : newPageFilenames) {
+				Page page = getPage(newPageFilename);
+				if (page != null) {
+					newTagInstanceIds.addAll(page.spansByTagInstanceId.keySet());
+				}
+			}
+			checked = newTagInstanceIds.equals(new ArrayList<>(tagInstanceIds));
+		}
+		finally {
+			if (!checked) {
+				// rolls back, the old pages are still in place
+				recoverFromInterruptedCompaction();
+			}
+		}
+
+		if (!checked) {
+			throw new IOException(String.format(
+					"The compacted annotation pages in %1$s don't match the original pages, compaction has been rolled back",
+					annotationsDirectory
+			));
+		}
+
+		// from here on a crash completes the compaction instead of rolling it back
+		writeAtomically(OLD_PAGES_MARKER_FILENAME, String.join("\n", oldPageFilenames).getBytes(StandardCharsets.UTF_8));
+		Files.delete(new File(annotationsDirectory, NEW_PAGES_MARKER_FILENAME).toPath());
+
+		List<File> deletedPageFiles = new ArrayList<>();
+
+		for (String oldPageFilename : oldPageFilenames) {
+			forget(oldPageFilename);
+
+			File pageFile = new File(annotationsDirectory, oldPageFilename);
+			Files.delete(pageFile.toPath());
+			deletedPageFiles.add(pageFile);
+		}
+
+		Files.delete(new File(annotationsDirectory, OLD_PAGES_MARKER_FILENAME).toPath());
+
+		lastPageNumbersByUsername.put(username, firstNewPageNumber + packedPages.size() - 1);
+
+		return deletedPageFiles;
+	}
+}
@@ -1,9 +1,6 @@
 package de.catma.repository.git;
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-import com.google.gson.reflect.TypeToken;
 import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
@@ -11,6 +8,8 @@ import de.catma.document.annotation.TagReference;
 import de.catma.document.source.ContentInfoSet;
 import de.catma.properties.CATMAPropertyKey;
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
+import de.catma.repository.git.managers.jgit.RevisionReader;
+import de.catma.repository.git.serialization.AnnotationPageCodec;
 import de.catma.repository.git.serialization.SerializationHelper;
 import de.catma.repository.git.serialization.models.GitMarkupCollectionHeader;
 import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
@@ -20,18 +19,19 @@ import de.catma.tag.TagLibrary;
 import de.catma.tag.TagsetDefinition;
 import de.catma.util.Pair;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class GitAnnotationCollectionHandler {
 	public static final String ANNNOTATIONS_DIR = "annotations";
@@ -47,22 +47,59 @@ public class GitAnnotationCollectionHandler {
 
 	private final int maxPageSizeBytes;
 
+	private final AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+
+	private final ConcurrentMap<String, AnnotationPageIndex> annotationPageIndexesByCollectionId;
+
 	public GitAnnotationCollectionHandler(
 			LocalGitRepositoryManager localGitRepositoryManager,
 			File projectDirectory,
 			String projectId,
 			String username,
 			String email
+	) {
+		this(localGitRepositoryManager, projectDirectory, projectId, username, email, new ConcurrentHashMap<>());
+	}
+
+	/**
+	 * @param annotationPageIndexesByCollectionId the page indexes to use and populate, shared by all handlers of the
+	 *                                            same project so that pages don't have to be indexed again for each
+	 *                                            operation
+	 */
+	GitAnnotationCollectionHandler(
+			LocalGitRepositoryManager localGitRepositoryManager,
+			File projectDirectory,
+			String projectId,
+			String username,
+			String email,
+			ConcurrentMap<String, AnnotationPageIndex> annotationPageIndexesByCollectionId
 	) {
 		this.localGitRepositoryManager = localGitRepositoryManager;
 		this.projectDirectory = projectDirectory;
 		this.projectId = projectId;
 		this.username = username;
 		this.email = email;
+		this.annotationPageIndexesByCollectionId = annotationPageIndexesByCollectionId;
 
 		this.maxPageSizeBytes = CATMAPropertyKey.MAX_ANNOTATION_PAGE_FILE_SIZE_BYTES.getIntValue();
 	}
 
+	private File getAnnotationsDirectory(String collectionId) {
+		return Paths.get(
+				projectDirectory.getAbsolutePath(),
+				GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME,
+				collectionId,
+				ANNNOTATIONS_DIR
+		).toFile();
+	}
+
+	private AnnotationPageIndex getAnnotationPageIndex(String collectionId) {
+		return annotationPageIndexesByCollectionId.computeIfAbsent(
+				collectionId,
+				key -> new AnnotationPageIndex(getAnnotationsDirectory(key))
+		);
+	}
+
 	public String create(
 			File collectionFolder,
 			String collectionId,
@@ -98,51 +135,37 @@ public class GitAnnotationCollectionHandler {
 	}
 
 	public void updateTagInstance(String collectionId, JsonLdWebAnnotation updatedAnnotation) throws IOException {
-		String collectionDirectory = String.format(
-				"%s/%s", 
-				GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME, 
-				collectionId
-		);
-
-		File annotationsDirectory = Paths.get(
-				projectDirectory.getAbsolutePath(),
-				collectionDirectory,
-				ANNNOTATIONS_DIR
-		).toFile();
-		annotationsDirectory.mkdirs();
-
-		File pageFile = Paths.get(
-				projectDirectory.getAbsolutePath(),
-				collectionDirectory,
-				ANNNOTATIONS_DIR,
-				updatedAnnotation.getPageFilename()
-		).toFile();
-
-		String serializedPageContent = FileUtils.readFileToString(pageFile, StandardCharsets.UTF_8);
+		updateTagInstances(collectionId, Collections.singletonList(updatedAnnotation));
+	}
 
-		Type listType = new TypeToken<ArrayList<JsonLdWebAnnotation>>(){}.getType();
-		ArrayList<JsonLdWebAnnotation> currentAnnotations = new SerializationHelper<ArrayList<JsonLdWebAnnotation>>()
-				.deserialize(serializedPageContent, listType);
+	/**
+	 * Replaces the given annotations in their page files. Each affected page file is rewritten once, no matter how many
+	 * of its annotations are updated.
+	 */
+	public void updateTagInstances(String collectionId, Collection<JsonLdWebAnnotation> updatedAnnotations) throws IOException {
+		Map<String, JsonLdWebAnnotation> updatedAnnotationsByTagInstanceId = new LinkedHashMap<>();
+		Map<String, String> pageFilenamesByTagInstanceId = new HashMap<>();
+
+		for (JsonLdWebAnnotation updatedAnnotation : updatedAnnotations) {
+			updatedAnnotationsByTagInstanceId.put(updatedAnnotation.getTagInstanceUuid(), updatedAnnotation);
+			pageFilenamesByTagInstanceId.put(updatedAnnotation.getTagInstanceUuid(), updatedAnnotation.getPageFilename());
+		}
 
-		JsonLdWebAnnotation currentAnnotation = currentAnnotations.stream()
-				.filter(anno -> anno.getId().equals(updatedAnnotation.getId())).findFirst().orElse(null);
+		Set<String> notFound = getAnnotationPageIndex(collectionId).edit(
+				updatedAnnotationsByTagInstanceId,
+				Collections.emptySet(),
+				pageFilenamesByTagInstanceId
+		);
 
-		if (currentAnnotation == null) {
+		if (!notFound.isEmpty()) {
 			throw new IOException(
 					String.format(
-							"Couldn't find annotation with ID %1$s in page file \"%2$s\" of collection with ID %3$s",
-							updatedAnnotation.getId(),
-							updatedAnnotation.getPageFilename(),
+							"Couldn't find annotation(s) with tag instance ID(s) %1$s in the page files of collection with ID %2$s",
+							String.join(",", notFound),
 							collectionId
 					)
 			);
 		}
-
-		currentAnnotation.setBody(updatedAnnotation.getBody());
-
-		serializedPageContent = new SerializationHelper<JsonLdWebAnnotation>().serialize(currentAnnotations);
-
-		FileUtils.writeStringToFile(pageFile, serializedPageContent, StandardCharsets.UTF_8);
 	}
 
 	public void createTagInstances(String collectionId, List<Pair<JsonLdWebAnnotation, TagInstance>> annotations) throws IOException {
@@ -159,7 +182,23 @@ public class GitAnnotationCollectionHandler {
 		).toFile();
 		annotationsDirectory.mkdirs();
 
-		String currentPageFilename = getCurrentPageFilename(annotationsDirectory, false); // <username>_<pagenumber>.json
+		AnnotationPageIndex annotationPageIndex = getAnnotationPageIndex(collectionId);
+
+		// keeps compaction and other edits of the pages of this collection out while appending
+		synchronized (annotationPageIndex) {
+			appendTagInstances(annotationsDirectory, annotationPageIndex, annotations);
+		}
+
+		// not doing Git add/commit because annotations are committed in bulk
+	}
+
+	private void appendTagInstances(
+			File annotationsDirectory,
+			AnnotationPageIndex annotationPageIndex,
+			List<Pair<JsonLdWebAnnotation, TagInstance>> annotations
+	) throws IOException {
+		// <username>_<pagenumber>.json
+		String currentPageFilename = annotationPageIndex.getCurrentPageFilename(username, maxPageSizeBytes, false);
 
 		File currentPageFile = Paths.get(
 				annotationsDirectory.getAbsolutePath(),
@@ -179,7 +218,7 @@ public class GitAnnotationCollectionHandler {
 				if (currentPageFile.length() + annotationByteSize > maxPageSizeBytes) {
 					// the current page file doesn't have enough space to write the new annotation, we need to create a new one
 					raPageFile.close();
-					currentPageFilename = getCurrentPageFilename(annotationsDirectory, true);
+					currentPageFilename = annotationPageIndex.getCurrentPageFilename(username, maxPageSizeBytes, true);
 					currentPageFile = Paths.get(
 							annotationsDirectory.getAbsolutePath(),
 							currentPageFilename
@@ -210,60 +249,14 @@ public class GitAnnotationCollectionHandler {
 		finally {
 			raPageFile.close();
 		}
-
-		// not doing Git add/commit because annotations are committed in bulk
-	}
-
-	private String getCurrentPageFilename(File annotationsDir, boolean forceNew) {
-		File[] pages = annotationsDir.listFiles(
-				file -> 
-					file.isFile() 
-					&& isUserPage(file) 
-					&& file.getName().toLowerCase().endsWith(".json"));
-		
-		Integer pageNumber = 0;
-		
-		if (pages.length > 0) {
-			Arrays.sort(pages, (page1, page2) -> getPageNumber(page1).compareTo(getPageNumber(page2)));
-			pageNumber = pages.length-1;
-			
-			File lastPage = pages[pageNumber];
-			
-			if (lastPage.length() >= maxPageSizeBytes || forceNew) {
-				pageNumber++;
-			}
-		}
-
-		return username + "_" + pageNumber + ".json";
-	}
-
-	private Integer getPageNumber(File page) {
-		try {
-			String pageNumber = page.getName().substring(
-					page.getName().lastIndexOf("_") + 1,
-					page.getName().lastIndexOf('.')
-			);
-			return Integer.valueOf(pageNumber);
-		}
-		catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-			logger.warning(
-					String.format("\"%s\" doesn't seem to be a page file! The full path was %s", page.getName(), page.getAbsolutePath())
-			);
-		}
-
-		return -1;
-	}
-
-	private boolean isUserPage(File pagefile) {
-		String pageFileUser = pagefile.getName().substring(0, pagefile.getName().lastIndexOf("_"));
-		return pageFileUser.equals(username);		
 	}
 
 	private boolean isAnnotationFilename(String fileName) {
-		// TODO: hidden assumption that anything that isn't a header file or .git is an annotation page file
+		// TODO: hidden assumption that anything that isn't a header file or a hidden file (.git, temporary files and
+		//       compaction markers) is an annotation page file
 		//       consider testing against the expected "<user>_<pagenumber>.json" pattern
 		return !(
-				fileName.equalsIgnoreCase(HEADER_FILE_NAME) || fileName.equalsIgnoreCase(".git")
+				fileName.equalsIgnoreCase(HEADER_FILE_NAME) || fileName.startsWith(".")
 		);
 	}
 
@@ -281,6 +274,8 @@ public class GitAnnotationCollectionHandler {
 		}
 
 		String[] directoryContents = parentDirectory.list();
+		// pages left over from an interrupted compaction would duplicate or miss annotations
+		Set<String> obsoletePageFilenames = AnnotationPageIndex.getObsoletePageFilenames(parentDirectory);
 
 		for (String directoryItemName : directoryContents) {
 			File directoryItem = new File(parentDirectory, directoryItemName);
@@ -292,15 +287,10 @@ public class GitAnnotationCollectionHandler {
 				);
 			}
 			// otherwise, if it's an annotation page file, read it into a list of TagReference objects
-			else if (directoryItem.isFile() && isAnnotationFilename(directoryItem.getName())) {
-				String pageContent = new String(Files.readAllBytes(directoryItem.toPath()), StandardCharsets.UTF_8);
-
-				Type listType = new TypeToken<ArrayList<JsonLdWebAnnotation>>(){}.getType();
-				ArrayList<JsonLdWebAnnotation> jsonLdWebAnnotations = new SerializationHelper<ArrayList<JsonLdWebAnnotation>>().deserialize(
-						pageContent, listType
-				);
-
-				for (JsonLdWebAnnotation webAnnotation : jsonLdWebAnnotations) {
+			else if (directoryItem.isFile() && isAnnotationFilename(directoryItem.getName())
+					&& !obsoletePageFilenames.contains(directoryItem.getName())) {
+				// annotations are converted as they are parsed, without an intermediate list
+				annotationPageCodec.read(directoryItem, webAnnotation -> {
 					counter.incrementAndGet();
 					if (counter.intValue() % 1000 == 0) {
 						progressListener.setProgress("Loading annotations from collection \"%s\" (%d)", collectionName, counter.intValue());
@@ -308,7 +298,7 @@ public class GitAnnotationCollectionHandler {
 
 					webAnnotation.setPageFilename(directoryItem.getName());
 					tagReferences.addAll(webAnnotation.toTagReferences(collectionId));
-				}
+				});
 			}
 		}
 
@@ -343,6 +333,26 @@ public class GitAnnotationCollectionHandler {
 				markupCollectionHeaderFile, StandardCharsets.UTF_8
 		);
 
+		return createCollectionReference(collectionId, serializedAnnotationCollectionHeaderFile);
+	}
+
+	/**
+	 * Reads the header of the collection identified by <code>collectionId</code> from the given revision instead of the
+	 * worktree.
+	 */
+	public AnnotationCollectionReference getCollectionReference(String collectionId, RevisionReader revisionReader) throws IOException {
+		String markupCollectionHeaderPath = String.format(
+				"%s/%s/%s", GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME, collectionId, HEADER_FILE_NAME
+		);
+
+		try (InputStream inputStream = revisionReader.openFile(markupCollectionHeaderPath)) {
+			return createCollectionReference(collectionId, IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+		}
+	}
+
+	private AnnotationCollectionReference createCollectionReference(
+			String collectionId, String serializedAnnotationCollectionHeaderFile
+	) {
 		GitMarkupCollectionHeader annotationCollectionHeader = 
 			new SerializationHelper<GitMarkupCollectionHeader>()
 				.deserialize(serializedAnnotationCollectionHeaderFile, GitMarkupCollectionHeader.class);
@@ -371,6 +381,34 @@ public class GitAnnotationCollectionHandler {
 			TagLibrary tagLibrary,
 			ProgressListener progressListener,
 			boolean handleOrphans
+	) throws IOException {
+		return getCollection(collectionId, tagLibrary, progressListener, handleOrphans, handleOrphans, null);
+	}
+
+	/**
+	 * Loads the collection identified by <code>collectionId</code> without modifying the worktree. Orphaned annotations
+	 * and properties, i.e. those whose tagset, tag or property definition has been deleted, are left out of the
+	 * returned collection but stay in the page files until they are removed with
+	 * {@link #getCollection(String, TagLibrary, ProgressListener, boolean) getCollection(..., true)}.
+	 *
+	 * @param collectionIdsWithOrphans the ID of the collection is added to this set if it contains orphans
+	 */
+	public AnnotationCollection getCollectionWithoutOrphans(
+			String collectionId,
+			TagLibrary tagLibrary,
+			ProgressListener progressListener,
+			Set<String> collectionIdsWithOrphans
+	) throws IOException {
+		return getCollection(collectionId, tagLibrary, progressListener, true, false, collectionIdsWithOrphans);
+	}
+
+	private AnnotationCollection getCollection(
+			String collectionId,
+			TagLibrary tagLibrary,
+			ProgressListener progressListener,
+			boolean handleOrphans,
+			boolean persistOrphanRemoval,
+			Set<String> collectionIdsWithOrphans
 	) throws IOException {
 		AnnotationCollectionReference collectionReference = getCollectionReference(collectionId);
 		ContentInfoSet contentInfoSet = collectionReference.getContentInfoSet();
@@ -383,13 +421,17 @@ public class GitAnnotationCollectionHandler {
 				collectionId
 		);
 
-		ArrayList<TagReference> tagReferences = openTagReferences(
-				collectionId,
-				contentInfoSet.getTitle(),
-				Paths.get(projectDirectory.getAbsolutePath(), relativeCollectionPath, ANNNOTATIONS_DIR).toFile(),
-				progressListener,
-				new AtomicInteger()
-		);
+		ArrayList<TagReference> tagReferences;
+		// a compaction in the background must not delete pages between listing and reading them
+		synchronized (getAnnotationPageIndex(collectionId)) {
+			tagReferences = openTagReferences(
+					collectionId,
+					contentInfoSet.getTitle(),
+					Paths.get(projectDirectory.getAbsolutePath(), relativeCollectionPath, ANNNOTATIONS_DIR).toFile(),
+					progressListener,
+					new AtomicInteger()
+			);
+		}
 
 		// handle orphaned annotations
 		if (handleOrphans) {
@@ -428,7 +470,9 @@ public class GitAnnotationCollectionHandler {
 				}
 			}
 
-			if (!orphanedTagInstances.isEmpty()) {
+			boolean hasOrphans = !orphanedTagInstances.isEmpty();
+
+			if (hasOrphans && persistOrphanRemoval) {
 				removeTagInstances(collectionId, orphanedTagInstances);
 			}
 
@@ -443,16 +487,23 @@ public class GitAnnotationCollectionHandler {
 					if (tagsetDefinition.isDeleted(property.getPropertyDefinitionId())) {
 						// property has been deleted, remove the stale property from memory
 						tagInstance.removeUserDefinedProperty(property.getPropertyDefinitionId());
-						// persist the change
-						JsonLdWebAnnotation annotation = new JsonLdWebAnnotation(
-								tagReferencesByTagInstance.get(tagInstance),
-								tagLibrary,
-								tagInstance.getPageFilename()
-						);
-						updateTagInstance(collectionId, annotation);
+						hasOrphans = true;
+						if (persistOrphanRemoval) {
+							// persist the change
+							JsonLdWebAnnotation annotation = new JsonLdWebAnnotation(
+									tagReferencesByTagInstance.get(tagInstance),
+									tagLibrary,
+									tagInstance.getPageFilename()
+							);
+							updateTagInstance(collectionId, annotation);
+						}
 					}
 				}
 			}
+
+			if (hasOrphans && collectionIdsWithOrphans != null) {
+				collectionIdsWithOrphans.add(collectionId);
+			}
 		}
 
 		return new AnnotationCollection(
@@ -466,51 +517,120 @@ public class GitAnnotationCollectionHandler {
 		);
 	}
 
-	// TODO: consider performing some kind of page file "compression"
-	//       (fill gaps by shifting annotations and utilise max. page file size as far as possible)
-	public void removeTagInstances(String collectionId, Collection<TagInstance> deletedTagInstances) throws IOException {
-		String collectionSubdir = String.format(
-				"%s/%s",
-				GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME,
-				collectionId
+	/**
+	 * Reads the collection identified by <code>collectionId</code> from the given revision instead of the worktree.
+	 * Orphans are not handled as the revision cannot be modified.
+	 */
+	public AnnotationCollection getCollection(
+			String collectionId,
+			TagLibrary tagLibrary,
+			ProgressListener progressListener,
+			RevisionReader revisionReader
+	) throws IOException {
+		AnnotationCollectionReference collectionReference = getCollectionReference(collectionId, revisionReader);
+		ContentInfoSet contentInfoSet = collectionReference.getContentInfoSet();
+
+		progressListener.setProgress(
+				"Loading collection \"%s\" with ID %s from revision %s",
+				contentInfoSet.getTitle(), collectionId, revisionReader.getCommitHash()
 		);
 
-		Multimap<String, TagInstance> deletedTagInstancesByPageFilename = Multimaps.index(deletedTagInstances, TagInstance::getPageFilename);
+		String annotationsPath = String.format(
+				"%s/%s/%s", GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME, collectionId, ANNNOTATIONS_DIR
+		);
 
-		for (String pageFilename : deletedTagInstancesByPageFilename.keySet()) {
-			File pageFile =	Paths.get(
-					projectDirectory.getAbsolutePath(),
-					collectionSubdir,
-					ANNNOTATIONS_DIR,
-					pageFilename
-			).toFile();
+		ArrayList<TagReference> tagReferences = new ArrayList<>();
+		AtomicInteger counter = new AtomicInteger();
 
-			String serializedPageContent = FileUtils.readFileToString(pageFile, StandardCharsets.UTF_8);
+		for (String pagePath : revisionReader.listFiles(annotationsPath)) {
+			String pageFilename = pagePath.substring(pagePath.lastIndexOf('/') + 1);
+			if (!isAnnotationFilename(pageFilename)) {
+				continue;
+			}
 
-			Type listType = new TypeToken<ArrayList<JsonLdWebAnnotation>>(){}.getType();
-			ArrayList<JsonLdWebAnnotation> currentAnnotations = new SerializationHelper<ArrayList<JsonLdWebAnnotation>>().deserialize(
-					serializedPageContent, listType
-			);
+			annotationPageCodec.read(revisionReader.openFile(pagePath), pagePath, webAnnotation -> {
+				counter.incrementAndGet();
+				if (counter.intValue() % 1000 == 0) {
+					progressListener.setProgress(
+							"Loading annotations from collection \"%s\" (%d)", contentInfoSet.getTitle(), counter.intValue()
+					);
+				}
+
+				webAnnotation.setPageFilename(pageFilename);
+				tagReferences.addAll(webAnnotation.toTagReferences(collectionId));
+			});
+		}
+
+		return new AnnotationCollection(
+				collectionId,
+				contentInfoSet,
+				tagLibrary,
+				tagReferences,
+				collectionReference.getSourceDocumentId(),
+				collectionReference.getForkedFromCommitURL(),
+				collectionReference.getResponsibleUser()
+		);
+	}
 
-			Collection<String> tagInstanceUuidsToRemove = deletedTagInstancesByPageFilename.get(pageFilename).stream()
-					.map(TagInstance::getUuid).collect(Collectors.toList());
+	/**
+	 * Removes the given tag instances from their page files. Each affected page file is rewritten once.
+	 * <p>
+	 * This leaves pages with gaps or even empty pages behind, see {@link #compactAnnotationPages(String)}.
+	 */
+	public void removeTagInstances(String collectionId, Collection<TagInstance> deletedTagInstances) throws IOException {
+		Map<String, String> pageFilenamesByTagInstanceId = new HashMap<>();
+		for (TagInstance tagInstance : deletedTagInstances) {
+			pageFilenamesByTagInstanceId.put(tagInstance.getUuid(), tagInstance.getPageFilename());
+		}
 
-			boolean anyRemoved = currentAnnotations.removeIf(anno -> tagInstanceUuidsToRemove.contains(anno.getTagInstanceUuid()));
+		Set<String> notFound = getAnnotationPageIndex(collectionId).edit(
+				Collections.emptyMap(),
+				pageFilenamesByTagInstanceId.keySet(),
+				pageFilenamesByTagInstanceId
+		);
 
-			if (anyRemoved) {
-				serializedPageContent = new SerializationHelper<JsonLdWebAnnotation>().serialize(currentAnnotations);
-				FileUtils.writeStringToFile(pageFile, serializedPageContent, StandardCharsets.UTF_8);
-			}
-			else {
-				logger.warning(String.format(
-						"Tag instances to be deleted were not found in the expected page. Collection ID: %1$s, tag instance IDs: %2$s",
-						collectionId,
-						String.join(",", tagInstanceUuidsToRemove)
-				));
-			}
+		if (!notFound.isEmpty()) {
+			logger.warning(String.format(
+					"Tag instances to be deleted were not found in the page files. Collection ID: %1$s, tag instance IDs: %2$s",
+					collectionId,
+					String.join(",", notFound)
+			));
 		}
 	}
 
+	/**
+	 * @return <code>true</code> if compacting the current user's annotation pages in the given collection would save
+	 *         enough page files to be worthwhile, this only looks at the sizes of the page files
+	 */
+	public boolean isAnnotationPageCompactionDue(String collectionId) {
+		return getAnnotationPageIndex(collectionId).isCompactionDue(username, maxPageSizeBytes);
+	}
+
+	/**
+	 * Moves the annotations of the current user in the given collection into as few page files as possible and
+	 * deletes the page files that are no longer needed, if this is due. Pages of other users are left alone, to avoid
+	 * merge conflicts.
+	 * <p>
+	 * Like annotation edits, this doesn't add or commit anything. Page locations of tag instances that have already
+	 * been loaded may be outdated afterwards, which is taken care of by the page index.
+	 *
+	 * @return <code>true</code> if any page files have been deleted
+	 */
+	public boolean compactAnnotationPages(String collectionId) throws IOException {
+		List<File> deletedPageFiles = getAnnotationPageIndex(collectionId).compact(username, maxPageSizeBytes);
+
+		if (!deletedPageFiles.isEmpty()) {
+			logger.info(String.format(
+					"Compacted the annotation pages of user \"%1$s\" in collection with ID %2$s, %3$d page file(s) deleted",
+					username,
+					collectionId,
+					deletedPageFiles.size()
+			));
+		}
+
+		return !deletedPageFiles.isEmpty();
+	}
+
 	public String removeCollection(AnnotationCollectionReference collection) throws IOException {
 		String collectionSubDir = String.format(
 				"%s/%s", 
@@ -523,6 +643,8 @@ public class GitAnnotationCollectionHandler {
 				collectionSubDir
 		).toFile();
 		
+		annotationPageIndexesByCollectionId.remove(collection.getId());
+
 		String projectRevision = this.localGitRepositoryManager.removeAndCommit(
 				targetCollectionFolderAbsolutePath, 
 				false, // do not delete the parent folder
@@ -549,6 +671,8 @@ public class GitAnnotationCollectionHandler {
 				collectionSubDir
 		).toFile();
 		
+		annotationPageIndexesByCollectionId.remove(collection.getId());
+
 		this.localGitRepositoryManager.remove(
 				targetCollectionFolderAbsolutePath); 
 	}
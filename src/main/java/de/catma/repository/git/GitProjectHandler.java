@@ -11,6 +11,7 @@ import de.catma.document.comment.Reply;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentInfo;
 import de.catma.document.source.SourceDocumentReference;
+import de.catma.indexer.DocumentIndex;
 import de.catma.indexer.TermInfo;
 import de.catma.project.CommitInfo;
 import de.catma.project.MergeRequestInfo;
@@ -34,6 +35,7 @@ import de.catma.util.Pair;
 import org.apache.commons.compress.utils.Lists;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.lib.Constants;
 
 import java.io.File;
@@ -42,6 +44,8 @@ import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -63,6 +67,9 @@ public class GitProjectHandler {
 	private final JGitCredentialsManager jGitCredentialsManager;
 	private GitProjectResourceProvider resourceProvider;
 
+	// shared by all GitAnnotationCollectionHandlers of this project
+	private final ConcurrentMap<String, AnnotationPageIndex> annotationPageIndexesByCollectionId = new ConcurrentHashMap<>();
+
 	public GitProjectHandler(
 			User user,
 			ProjectReference projectReference,
@@ -126,6 +133,39 @@ public class GitProjectHandler {
 		}
 	}
 
+	/**
+	 * Creates the given tagset including all of its tags with a single commit, instead of one commit per tag as with
+	 * {@link #createOrUpdateTag(String, TagDefinition, String)}.
+	 */
+	public String importTagset(TagsetDefinition tagsetDefinition) throws IOException {
+		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
+			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+
+			for (TagDefinition tagDefinition : tagsetDefinition) {
+				addAuthorPropertyDefinition(tagDefinition);
+			}
+
+			GitTagsetHandler gitTagsetHandler = new GitTagsetHandler(
+					localGitRepoManager,
+					projectPath,
+					remoteGitServerManager.getUsername(),
+					remoteGitServerManager.getEmail()
+			);
+
+			File tagsetDirectory = Paths.get(
+					projectPath.getAbsolutePath(),
+					TAGSETS_DIRECTORY_NAME,
+					tagsetDefinition.getUuid()
+			).toFile();
+
+			String projectRevisionHash = gitTagsetHandler.create(tagsetDirectory, tagsetDefinition);
+
+			localGitRepoManager.push(jGitCredentialsManager);
+
+			return projectRevisionHash;
+		}
+	}
+
 	public String updateTagset(TagsetDefinition tagsetDefinition) throws Exception {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
@@ -172,14 +212,7 @@ public class GitProjectHandler {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
 
-			if (tagDefinition.getPropertyDefinition(PropertyDefinition.SystemPropertyName.catma_markupauthor.name()) == null) {
-				PropertyDefinition authorPropertyDefinition = new PropertyDefinition(
-						idGenerator.generate(PropertyDefinition.SystemPropertyName.catma_markupauthor.name()),
-						PropertyDefinition.SystemPropertyName.catma_markupauthor.name(),
-						Collections.singleton(user.getIdentifier())
-				);
-				tagDefinition.addSystemPropertyDefinition(authorPropertyDefinition);
-			}
+			addAuthorPropertyDefinition(tagDefinition);
 
 			GitTagsetHandler gitTagsetHandler = new GitTagsetHandler(
 					localGitRepoManager,
@@ -196,6 +229,17 @@ public class GitProjectHandler {
 		}
 	}
 
+	private void addAuthorPropertyDefinition(TagDefinition tagDefinition) {
+		if (tagDefinition.getPropertyDefinition(PropertyDefinition.SystemPropertyName.catma_markupauthor.name()) == null) {
+			PropertyDefinition authorPropertyDefinition = new PropertyDefinition(
+					idGenerator.generate(PropertyDefinition.SystemPropertyName.catma_markupauthor.name()),
+					PropertyDefinition.SystemPropertyName.catma_markupauthor.name(),
+					Collections.singleton(user.getIdentifier())
+			);
+			tagDefinition.addSystemPropertyDefinition(authorPropertyDefinition);
+		}
+	}
+
 	public String removeTagAndAnnotations(TagDefinition tagDefinition, Multimap<String, TagInstance> tagInstancesByCollectionId) throws IOException {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
@@ -280,7 +324,8 @@ public class GitProjectHandler {
 					projectPath,
 					projectId,
 					remoteGitServerManager.getUsername(),
-					remoteGitServerManager.getEmail()
+					remoteGitServerManager.getEmail(),
+					annotationPageIndexesByCollectionId
 			);
 
 			File collectionDirectory = Paths.get(
@@ -316,7 +361,8 @@ public class GitProjectHandler {
 					projectPath,
 					projectId,
 					remoteGitServerManager.getUsername(),
-					remoteGitServerManager.getEmail()
+					remoteGitServerManager.getEmail(),
+					annotationPageIndexesByCollectionId
 			);
 
 			String projectRevision = gitAnnotationCollectionHandler.updateCollection(annotationCollectionReference);
@@ -336,7 +382,8 @@ public class GitProjectHandler {
 					projectPath,
 					projectId,
 					remoteGitServerManager.getUsername(),
-					remoteGitServerManager.getEmail()
+					remoteGitServerManager.getEmail(),
+					annotationPageIndexesByCollectionId
 			);
 
 			String projectRevision = gitAnnotationCollectionHandler.removeCollection(annotationCollectionReference);
@@ -353,7 +400,8 @@ public class GitProjectHandler {
 				projectPath,
 				projectId,
 				remoteGitServerManager.getUsername(),
-				remoteGitServerManager.getEmail()
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
 		);
 
 		Multimap<TagInstance, TagReference> tagReferencesByTagInstance = Multimaps.index(tagReferences, TagReference::getTagInstance);
@@ -384,7 +432,8 @@ public class GitProjectHandler {
 				projectPath,
 				projectId,
 				remoteGitServerManager.getUsername(),
-				remoteGitServerManager.getEmail()
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
 		);
 
 		JsonLdWebAnnotation annotation = new JsonLdWebAnnotation(
@@ -406,21 +455,123 @@ public class GitProjectHandler {
 		gitAnnotationCollectionHandler.updateTagInstance(collectionId, annotation);
 	}
 
+	/**
+	 * Updates the given tag instances in the repo (no commit), each affected annotation page file is rewritten once.
+	 *
+	 * @param tagReferencesByTagInstance the tag instances to update with all of their tag references
+	 */
+	public void updateTagInstances(
+			String collectionId,
+			Multimap<TagInstance, TagReference> tagReferencesByTagInstance,
+			TagLibrary tagLibrary
+	) throws IOException {
+		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
+				localGitRepositoryManager,
+				projectPath,
+				projectId,
+				remoteGitServerManager.getUsername(),
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
+		);
+
+		List<JsonLdWebAnnotation> annotations = new ArrayList<>();
+		for (TagInstance tagInstance : tagReferencesByTagInstance.keySet()) {
+			annotations.add(new JsonLdWebAnnotation(
+					tagReferencesByTagInstance.get(tagInstance),
+					tagLibrary,
+					tagInstance.getPageFilename()
+			));
+		}
+
+		gitAnnotationCollectionHandler.updateTagInstances(collectionId, annotations);
+	}
+
 	public void removeTagInstances(String collectionId, Collection<TagInstance> deletedTagInstances) throws IOException {
 		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
 				localGitRepositoryManager,
 				projectPath,
 				projectId,
 				remoteGitServerManager.getUsername(),
-				remoteGitServerManager.getEmail()
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
 		);
 
 		gitAnnotationCollectionHandler.removeTagInstances(collectionId, deletedTagInstances);
 	}
 
+	/**
+	 * Removes the orphaned annotations and properties that have been found while loading collections from the worktree
+	 * and commits and pushes the change.
+	 * <p>
+	 * Collection loads don't modify the worktree, this is the only place where orphans get removed. It must not run
+	 * concurrently with other operations that modify the worktree.
+	 *
+	 * @return <code>true</code> if any orphans have been removed
+	 */
+	public synchronized boolean removeOrphans(TagLibrary tagLibrary, ProgressListener progressListener) throws IOException {
+		Set<String> modifiedCollectionIds = resourceProvider.removeOrphans(tagLibrary, progressListener);
+		if (modifiedCollectionIds.isEmpty()) {
+			return false;
+		}
+
+		addCollectionsToStagedAndCommit(
+				modifiedCollectionIds,
+				"Auto-committing deletion of orphaned annotations and properties",
+				false,
+				true
+		);
+		return true;
+	}
+
+	/**
+	 * @see GitAnnotationCollectionHandler#isAnnotationPageCompactionDue(String)
+	 */
+	public boolean isAnnotationPageCompactionDue(String collectionId) {
+		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
+				localGitRepositoryManager,
+				projectPath,
+				projectId,
+				remoteGitServerManager.getUsername(),
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
+		);
+
+		return gitAnnotationCollectionHandler.isAnnotationPageCompactionDue(collectionId);
+	}
+
+	/**
+	 * Moves the current user's annotations in the given collection into as few page files as possible (no commit).
+	 *
+	 * @return <code>true</code> if any page files have been deleted
+	 * @see GitAnnotationCollectionHandler#compactAnnotationPages(String)
+	 */
+	public boolean compactAnnotationPages(String collectionId) throws IOException {
+		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
+				localGitRepositoryManager,
+				projectPath,
+				projectId,
+				remoteGitServerManager.getUsername(),
+				remoteGitServerManager.getEmail(),
+				annotationPageIndexesByCollectionId
+		);
+
+		return gitAnnotationCollectionHandler.compactAnnotationPages(collectionId);
+	}
+
 	private void addCollectionToStaged(String collectionId) throws IOException {
 		Path relativePath = Paths.get(ANNOTATION_COLLECTIONS_DIRECTORY_NAME, collectionId);
-		localGitRepositoryManager.add(relativePath.toFile());
+
+		AnnotationPageIndex annotationPageIndex = annotationPageIndexesByCollectionId.get(collectionId);
+		if (annotationPageIndex == null) {
+			localGitRepositoryManager.add(relativePath.toFile());
+			return;
+		}
+
+		// don't stage page files halfway through an edit or compaction, nor those left over from an interrupted compaction
+		synchronized (annotationPageIndex) {
+			annotationPageIndex.recoverFromInterruptedCompaction();
+			localGitRepositoryManager.add(relativePath.toFile());
+		}
 	}
 
 	public String addCollectionsToStagedAndCommit(
@@ -513,10 +664,19 @@ public class GitProjectHandler {
 		return resourceProvider.getDocument(documentId);
 	}
 
-	public Map getDocumentIndex(String documentId) throws IOException {
+	public DocumentIndex getDocumentIndex(String documentId) throws IOException {
 		return resourceProvider.getDocumentIndex(documentId);
 	}
 
+	public File getCorpusIndexFile() {
+		return new GitSourceDocumentHandler(
+				localGitRepositoryManager,
+				projectPath,
+				remoteGitServerManager.getUsername(),
+				remoteGitServerManager.getEmail()
+		).getCorpusIndexFile();
+	}
+
 	/**
 	 * Creates a new document within the project.
 	 *
@@ -599,7 +759,8 @@ public class GitProjectHandler {
 					projectPath,
 					projectId,
 					remoteGitServerManager.getUsername(),
-					remoteGitServerManager.getEmail()
+					remoteGitServerManager.getEmail(),
+					annotationPageIndexesByCollectionId
 			);
 
 			for (AnnotationCollectionReference collectionRef : sourceDocumentReference.getUserMarkupCollectionRefs()) {
@@ -725,6 +886,13 @@ public class GitProjectHandler {
 		}
 	}
 
+	public List<DiffEntry> getRevisionDifferences(String oldRevisionHash, String newRevisionHash) throws IOException {
+		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
+			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+			return localGitRepoManager.getRevisionDifferences(oldRevisionHash, newRevisionHash);
+		}
+	}
+
 	public Status getStatus() throws Exception {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
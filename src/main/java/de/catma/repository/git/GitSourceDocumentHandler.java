@@ -1,30 +1,50 @@
 package de.catma.repository.git;
 
 import com.google.common.collect.Maps;
-import com.google.gson.Gson;
+import com.google.common.io.BaseEncoding;
+import com.google.gson.stream.JsonReader;
 import de.catma.document.source.*;
 import de.catma.document.source.contenthandler.SourceContentHandler;
 import de.catma.document.source.contenthandler.StandardContentHandler;
+import de.catma.indexer.DocumentIndex;
+import de.catma.indexer.DocumentIndexWriter;
 import de.catma.indexer.TermInfo;
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
+import de.catma.repository.git.managers.jgit.RevisionReader;
+import de.catma.repository.git.resource.provider.RevisionContentHandler;
 import de.catma.repository.git.serialization.SerializationHelper;
 import de.catma.repository.git.serialization.model_wrappers.GitTermInfo;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.lib.Constants;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class GitSourceDocumentHandler {
 	private static final String HEADER_FILE_NAME = "header.json";
 	private static final String UTF8_CONVERSION_FILE_EXTENSION = "txt";
 	private static final String TOKENIZED_FILE_EXTENSION = "json";
+	private static final String BINARY_INDEX_FILE_EXTENSION = "idx";
+	// binary indexes are derived from the tokenized files and are local to each clone, therefore they live inside the
+	// .git directory where they are neither tracked nor reported as untracked changes
+	private static final String BINARY_INDEX_DIRECTORY_NAME = "catma-document-indexes";
+	private static final String CORPUS_INDEX_FILE_NAME = "corpus.cidx";
+
+	private final Logger logger = Logger.getLogger(GitSourceDocumentHandler.class.getName());
 
 	private final LocalGitRepositoryManager localGitRepositoryManager;
 	private final File projectDirectory;
@@ -61,19 +81,34 @@ public class GitSourceDocumentHandler {
 		File targetConvertedSourceDocumentFile = new File(sourceDocumentDirectory, convertedSourceDocumentFileName);
 		File targetTokenizedSourceDocumentFile = new File(sourceDocumentDirectory, tokenizedSourceDocumentFileName);
 
-		localGitRepositoryManager.add(targetOriginalSourceDocumentFile, IOUtils.toByteArray(originalSourceDocumentStream));
+		// all files are added at once further down, see LocalGitRepositoryManager.add(Map)
+		Map<File, byte[]> contentsByTargetFile = new LinkedHashMap<>();
+
+		contentsByTargetFile.put(targetOriginalSourceDocumentFile, IOUtils.toByteArray(originalSourceDocumentStream));
 		byte[] convertedSourceDocumentBytes = IOUtils.toByteArray(convertedSourceDocumentStream);
-		localGitRepositoryManager.add(targetConvertedSourceDocumentFile, convertedSourceDocumentBytes);
+		contentsByTargetFile.put(targetConvertedSourceDocumentFile, convertedSourceDocumentBytes);
 
 		Map<String, List<GitTermInfo>> gitTermInfos = Maps.newHashMap();
 		terms.forEach((term, termInfos) -> gitTermInfos.put(
 				term,
 				termInfos.stream().map(GitTermInfo::new).collect(Collectors.toList())
 		));
-		localGitRepositoryManager.add(
-				targetTokenizedSourceDocumentFile,
-				new SerializationHelper<Map<String, List<GitTermInfo>>>().serialize(gitTermInfos).getBytes(StandardCharsets.UTF_8)
-		);
+		byte[] tokenizedSourceDocumentBytes =
+				new SerializationHelper<Map<String, List<GitTermInfo>>>().serialize(gitTermInfos).getBytes(StandardCharsets.UTF_8);
+		contentsByTargetFile.put(targetTokenizedSourceDocumentFile, tokenizedSourceDocumentBytes);
+
+		// write the binary index (not part of the commit, see BINARY_INDEX_DIRECTORY_NAME)
+		try {
+			new DocumentIndexWriter(terms).write(
+					getBinaryIndexFile(sourceDocumentId),
+					tokenizedSourceDocumentBytes.length,
+					DocumentIndexWriter.createSourceDigest().digest(tokenizedSourceDocumentBytes)
+			);
+		}
+		catch (IOException e) {
+			// not fatal, the index is built lazily when it is first opened
+			logger.log(Level.WARNING, String.format("Failed to write binary index for document with ID %s", sourceDocumentId), e);
+		}
 
 		// write header.json into the local repo
 		File targetHeaderFile = new File(sourceDocumentDirectory, HEADER_FILE_NAME);
@@ -89,16 +124,16 @@ public class GitSourceDocumentHandler {
 		sourceDocumentInfo.getTechInfoSet().setURI(targetConvertedSourceDocumentFile.toURI());
 
 		String serializedSourceDocumentInfo = new SerializationHelper<SourceDocumentInfo>().serialize(sourceDocumentInfo);
-		localGitRepositoryManager.add(targetHeaderFile, serializedSourceDocumentInfo.getBytes(StandardCharsets.UTF_8));
+		contentsByTargetFile.put(targetHeaderFile, serializedSourceDocumentInfo.getBytes(StandardCharsets.UTF_8));
 
-		// commit newly added files
+		// add and commit the new files
 		String commitMessage = String.format(
 				"Created document \"%s\" with ID %s",
 				sourceDocumentInfo.getContentInfoSet().getTitle(), 
 				sourceDocumentId
 		);
 
-		String revisionHash = localGitRepositoryManager.commit(commitMessage, username, email, false);
+		String revisionHash = localGitRepositoryManager.addAndCommit(contentsByTargetFile, commitMessage, username, email);
 		return revisionHash;
 	}
 
@@ -129,14 +164,202 @@ public class GitSourceDocumentHandler {
 		return sourceDocument;
 	}
 
-	public Map openIndex(String sourceDocumentId) throws IOException {
+	/**
+	 * Opens the document identified by <code>sourceDocumentId</code> from the given revision instead of the worktree.
+	 * <p>
+	 * The content is read from the same revision when the document gets loaded.
+	 *
+	 * @param sourceDocumentId the ID of the document
+	 * @param revisionReader a {@link RevisionReader} for the revision to read from
+	 * @return the {@link SourceDocument}
+	 * @throws IOException if the document doesn't exist in the given revision or its header can't be read
+	 */
+	public SourceDocument open(String sourceDocumentId, RevisionReader revisionReader) throws IOException {
+		String sourceDocumentDirectory = String.format("%s/%s", GitProjectHandler.DOCUMENTS_DIRECTORY_NAME, sourceDocumentId);
+
+		String serializedHeaderFile;
+		try (InputStream inputStream = revisionReader.openFile(sourceDocumentDirectory + "/" + HEADER_FILE_NAME)) {
+			serializedHeaderFile = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+		}
+		SourceDocumentInfo sourceDocumentInfo = new SerializationHelper<SourceDocumentInfo>().deserialize(serializedHeaderFile, SourceDocumentInfo.class);
+
+		// the URI points to where the content would be in the worktree (also see open), the content itself is read
+		// by the RevisionContentHandler
+		File convertedSourceDocumentFile = Paths.get(
+				projectDirectory.getAbsolutePath(),
+				sourceDocumentDirectory,
+				sourceDocumentId + "." + UTF8_CONVERSION_FILE_EXTENSION
+		).toFile();
+		sourceDocumentInfo.getTechInfoSet().setURI(convertedSourceDocumentFile.toURI());
+
+		SourceContentHandler sourceContentHandler = new RevisionContentHandler(
+				projectDirectory,
+				revisionReader.getCommitHash(),
+				sourceDocumentDirectory + "/" + sourceDocumentId + "." + UTF8_CONVERSION_FILE_EXTENSION
+		);
+		sourceContentHandler.setSourceDocumentInfo(sourceDocumentInfo);
+
+		SourceDocumentHandler sourceDocumentHandler = new SourceDocumentHandler();
+		return sourceDocumentHandler.loadSourceDocument(sourceDocumentId, sourceContentHandler);
+	}
+
+	/**
+	 * Opens the binary index for the given document.
+	 * <p>
+	 * If there is no binary index yet, or if it is outdated, it is built from the tokenized file first. The returned
+	 * index is memory-mapped where possible.
+	 *
+	 * @param sourceDocumentId the ID of the document
+	 * @return the {@link DocumentIndex}
+	 * @throws IOException if neither the binary index nor the tokenized file can be read
+	 */
+	public DocumentIndex openIndex(String sourceDocumentId) throws IOException {
 		String sourceDocumentDirectory = String.format("%s/%s", GitProjectHandler.DOCUMENTS_DIRECTORY_NAME, sourceDocumentId);
-		File indexFile = Paths.get(
+		File tokenizedFile = Paths.get(
 				projectDirectory.getAbsolutePath(),
 				sourceDocumentDirectory,
 				sourceDocumentId + "." + TOKENIZED_FILE_EXTENSION
 		).toFile();
-		return new Gson().fromJson(FileUtils.readFileToString(indexFile, StandardCharsets.UTF_8), Map.class);
+		File binaryIndexFile = getBinaryIndexFile(sourceDocumentId);
+
+		if (binaryIndexFile.exists()) {
+			try {
+				DocumentIndex documentIndex = DocumentIndex.map(binaryIndexFile);
+				// the length is a cheap first check, only the digest tells whether the index belongs to the current
+				// tokenized file, e.g. after a merge or a reset
+				if (documentIndex.getSourceLength() == tokenizedFile.length()
+						&& documentIndex.getSourceDigest().equals(getSourceDigest(tokenizedFile))) {
+					return documentIndex;
+				}
+				logger.info(String.format("Binary index for document with ID %s is outdated, rebuilding", sourceDocumentId));
+			}
+			catch (IOException e) {
+				logger.log(
+						Level.WARNING,
+						String.format("Failed to open binary index for document with ID %s, rebuilding", sourceDocumentId),
+						e
+				);
+			}
+		}
+
+		MessageDigest sourceDigest = DocumentIndexWriter.createSourceDigest();
+		DocumentIndexWriter documentIndexWriter = readTokenizedFile(Files.newInputStream(tokenizedFile.toPath()), sourceDigest);
+		byte[] digest = sourceDigest.digest();
+
+		try {
+			documentIndexWriter.write(binaryIndexFile, tokenizedFile.length(), digest);
+			return DocumentIndex.map(binaryIndexFile);
+		}
+		catch (IOException e) {
+			logger.log(
+					Level.WARNING,
+					String.format("Failed to write binary index for document with ID %s, using an in-memory index", sourceDocumentId),
+					e
+			);
+			return new DocumentIndex(documentIndexWriter.toByteBuffer(tokenizedFile.length(), digest));
+		}
+	}
+
+	/**
+	 * Builds an in-memory index for the document identified by <code>sourceDocumentId</code> from the tokenized file of
+	 * the given revision. Unlike {@link #openIndex(String)} the index is not persisted, as persisted indexes belong to
+	 * the worktree.
+	 *
+	 * @param sourceDocumentId the ID of the document
+	 * @param revisionReader a {@link RevisionReader} for the revision to read from
+	 * @return the {@link DocumentIndex}
+	 * @throws IOException if the tokenized file doesn't exist in the given revision or can't be read
+	 */
+	public DocumentIndex openIndex(String sourceDocumentId, RevisionReader revisionReader) throws IOException {
+		String tokenizedFilePath = String.format(
+				"%s/%s/%s.%s", GitProjectHandler.DOCUMENTS_DIRECTORY_NAME, sourceDocumentId, sourceDocumentId, TOKENIZED_FILE_EXTENSION
+		);
+		long tokenizedFileLength = revisionReader.getFileSize(tokenizedFilePath);
+
+		MessageDigest sourceDigest = DocumentIndexWriter.createSourceDigest();
+		DocumentIndexWriter documentIndexWriter = readTokenizedFile(revisionReader.openFile(tokenizedFilePath), sourceDigest);
+
+		return new DocumentIndex(documentIndexWriter.toByteBuffer(tokenizedFileLength, sourceDigest.digest()));
+	}
+
+	private String getSourceDigest(File tokenizedFile) throws IOException {
+		MessageDigest sourceDigest = DocumentIndexWriter.createSourceDigest();
+		try (InputStream inputStream = new DigestInputStream(Files.newInputStream(tokenizedFile.toPath()), sourceDigest)) {
+			IOUtils.skip(inputStream, Long.MAX_VALUE);
+		}
+		return BaseEncoding.base16().lowerCase().encode(sourceDigest.digest());
+	}
+
+	private File getBinaryIndexFile(String sourceDocumentId) {
+		return Paths.get(
+				projectDirectory.getAbsolutePath(),
+				Constants.DOT_GIT,
+				BINARY_INDEX_DIRECTORY_NAME,
+				sourceDocumentId + "." + BINARY_INDEX_FILE_EXTENSION
+		).toFile();
+	}
+
+	/**
+	 * @return the file the project-level corpus index is persisted to, next to the binary document indexes
+	 */
+	public File getCorpusIndexFile() {
+		return Paths.get(
+				projectDirectory.getAbsolutePath(),
+				Constants.DOT_GIT,
+				BINARY_INDEX_DIRECTORY_NAME,
+				CORPUS_INDEX_FILE_NAME
+		).toFile();
+	}
+
+	/**
+	 * Streams the tokenized file ({@link GitTermInfo}s by term) into a {@link DocumentIndexWriter} without building an
+	 * intermediate object tree. The given digest is updated with the raw content of the file along the way. The stream
+	 * is closed afterwards.
+	 */
+	private DocumentIndexWriter readTokenizedFile(InputStream tokenizedFileInputStream, MessageDigest sourceDigest) throws IOException {
+		DocumentIndexWriter documentIndexWriter = new DocumentIndexWriter();
+
+		try (DigestInputStream digestInputStream = new DigestInputStream(tokenizedFileInputStream, sourceDigest);
+				JsonReader jsonReader = new JsonReader(new InputStreamReader(digestInputStream, StandardCharsets.UTF_8))) {
+			jsonReader.beginObject();
+			while (jsonReader.hasNext()) {
+				String term = jsonReader.nextName();
+
+				jsonReader.beginArray();
+				while (jsonReader.hasNext()) {
+					int startOffset = 0;
+					int endOffset = 0;
+					int tokenOffset = 0;
+
+					jsonReader.beginObject();
+					while (jsonReader.hasNext()) {
+						switch (jsonReader.nextName()) {
+							case "startOffset":
+								startOffset = jsonReader.nextInt();
+								break;
+							case "endOffset":
+								endOffset = jsonReader.nextInt();
+								break;
+							case "tokenOffset":
+								tokenOffset = jsonReader.nextInt();
+								break;
+							default:
+								jsonReader.skipValue();
+						}
+					}
+					jsonReader.endObject();
+
+					documentIndexWriter.addPosition(term, startOffset, endOffset, tokenOffset);
+				}
+				jsonReader.endArray();
+			}
+			jsonReader.endObject();
+
+			// the reader stops at the end of the JSON document, the digest has to cover the entire file
+			IOUtils.skip(digestInputStream, Long.MAX_VALUE);
+		}
+
+		return documentIndexWriter;
 	}
 
 	public String update(SourceDocumentReference sourceDocumentRef) throws IOException {
@@ -2,6 +2,7 @@ package de.catma.repository.git;
 
 import de.catma.document.source.ContentInfoSet;
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
+import de.catma.repository.git.managers.jgit.RevisionReader;
 import de.catma.repository.git.serialization.SerializationHelper;
 import de.catma.repository.git.serialization.model_wrappers.GitTagDefinition;
 import de.catma.repository.git.serialization.models.GitTagsetHeader;
@@ -9,15 +10,19 @@ import de.catma.tag.PropertyDefinition;
 import de.catma.tag.TagDefinition;
 import de.catma.tag.TagsetDefinition;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 public class GitTagsetHandler {
@@ -84,6 +89,72 @@ public class GitTagsetHandler {
 		return revisionHash;
 	}
 
+	/**
+	 * Creates a tagset including all of its tag definitions with a single commit.
+	 * The localGitRepositoryManager needs to be attached to a project Git
+	 * repository!
+	 * 
+	 * @param tagsetFolder The folder of the new tagset.
+	 * @param tagsetDefinition The tagset to create, the responsible user is taken from here.
+	 * @return the new revision hash of the project
+	 * @throws IOException in case of errors
+	 */
+	public String create(File tagsetFolder, TagsetDefinition tagsetDefinition) throws IOException {
+		tagsetFolder.mkdirs();
+
+		Map<File, byte[]> contentsByTargetFile = new LinkedHashMap<>();
+
+		GitTagsetHeader header = 
+				new GitTagsetHeader(
+						tagsetDefinition.getName(),
+						tagsetDefinition.getDescription(),
+						tagsetDefinition.getResponsibleUser(),
+						tagsetDefinition.getForkedFromCommitURL(),
+						new TreeSet<>(tagsetDefinition.getDeletedDefinitions()));
+		String serializedHeader = new SerializationHelper<GitTagsetHeader>().serialize(header);
+		contentsByTargetFile.put(new File(tagsetFolder, HEADER_FILE_NAME), serializedHeader.getBytes(StandardCharsets.UTF_8));
+
+		for (TagDefinition tagDefinition : tagsetDefinition) {
+			String serializedGitTagDefinition = 
+					new SerializationHelper<GitTagDefinition>().serialize(new GitTagDefinition(tagDefinition));
+			contentsByTargetFile.put(
+					getPropertyDefinitionsFile(tagsetDefinition.getUuid(), tagDefinition),
+					serializedGitTagDefinition.getBytes(StandardCharsets.UTF_8)
+			);
+		}
+
+		String revisionHash = this.localGitRepositoryManager.addAndCommit(
+				contentsByTargetFile,
+				String.format(
+						"Created tagset \"%s\" with ID %s including %d tag(s)",
+						tagsetDefinition.getName(),
+						tagsetDefinition.getUuid(),
+						tagsetDefinition.size()
+				),
+				this.username,
+				this.email
+		);
+
+		return revisionHash;
+	}
+
+	private File getPropertyDefinitionsFile(String tagsetId, TagDefinition tagDefinition) {
+		String targetPropertyDefinitionsFileRelativePath =
+			(StringUtils.isEmpty(tagDefinition.getParentUuid()) ? "" : (tagDefinition.getParentUuid() + "/"))
+			+ tagDefinition.getUuid()
+			+ "/propertydefs.json";
+		
+		String tagsetSubdir = String.format(
+				"%s/%s", GitProjectHandler.TAGSETS_DIRECTORY_NAME, tagsetId
+		);
+
+		return Paths.get(
+				this.projectDirectory.getAbsolutePath(),
+				tagsetSubdir,
+				targetPropertyDefinitionsFileRelativePath
+		).toFile();
+	}
+
 	private ArrayList<TagDefinition> openTagDefinitions(File parentDirectory) throws IOException {
 		ArrayList<TagDefinition> tagDefinitions = new ArrayList<>();
 
@@ -126,10 +197,50 @@ public class GitTagsetHandler {
 				HEADER_FILE_NAME
 		).toFile();
 
-		String serialized = FileUtils.readFileToString(tagsetHeaderFile, StandardCharsets.UTF_8);
+		return createTagset(
+				tagsetId,
+				FileUtils.readFileToString(tagsetHeaderFile, StandardCharsets.UTF_8),
+				this.openTagDefinitions(tagsetHeaderFile.getParentFile())
+		);
+	}
+
+	/**
+	 * Reads the tagset identified by <code>tagsetId</code> from the given revision instead of the worktree.
+	 *
+	 * @param tagsetId the ID of the tagset
+	 * @param revisionReader a {@link RevisionReader} for the revision to read from
+	 * @return the {@link TagsetDefinition}
+	 * @throws IOException if the tagset doesn't exist in the given revision or can't be read
+	 */
+	public TagsetDefinition getTagset(String tagsetId, RevisionReader revisionReader) throws IOException {
+		String tagsetSubdir = String.format(
+				"%s/%s", GitProjectHandler.TAGSETS_DIRECTORY_NAME, tagsetId
+		);
+
+		ArrayList<TagDefinition> tagDefinitions = new ArrayList<>();
+		for (String path : revisionReader.listFiles(tagsetSubdir)) {
+			if (path.toLowerCase().endsWith("/propertydefs.json")) {
+				try (InputStream inputStream = revisionReader.openFile(path)) {
+					GitTagDefinition gitTagDefinition = new SerializationHelper<GitTagDefinition>()
+							.deserialize(
+									IOUtils.toString(inputStream, StandardCharsets.UTF_8),
+									GitTagDefinition.class
+							);
+
+					tagDefinitions.add(gitTagDefinition.getTagDefinition());
+				}
+			}
+		}
+
+		try (InputStream inputStream = revisionReader.openFile(tagsetSubdir + "/" + HEADER_FILE_NAME)) {
+			return createTagset(tagsetId, IOUtils.toString(inputStream, StandardCharsets.UTF_8), tagDefinitions);
+		}
+	}
+
+	private TagsetDefinition createTagset(String tagsetId, String serializedHeader, List<TagDefinition> tagDefinitions) {
 		GitTagsetHeader gitTagsetHeader = new SerializationHelper<GitTagsetHeader>()
 				.deserialize(
-						serialized,
+						serializedHeader,
 						GitTagsetHeader.class
 				);
 
@@ -139,7 +250,6 @@ public class GitTagsetHandler {
 		tagsetDefinition.setForkedFromCommitURL(gitTagsetHeader.getForkedFromCommitURL());
 		tagsetDefinition.setResponsibleUser(gitTagsetHeader.getResponsibleUser());
 		tagsetDefinition.setDescription(gitTagsetHeader.getDescription());
-		ArrayList<TagDefinition> tagDefinitions = this.openTagDefinitions(tagsetHeaderFile.getParentFile());
 
 		for(TagDefinition tagdefinition : tagDefinitions){
 			tagsetDefinition.addTagDefinition(tagdefinition);
@@ -187,20 +297,7 @@ public class GitTagsetHandler {
 			String commitMsg
 	) throws IOException {
 
-		String targetPropertyDefinitionsFileRelativePath =
-			(StringUtils.isEmpty(tagDefinition.getParentUuid()) ? "" : (tagDefinition.getParentUuid() + "/"))
-			+ tagDefinition.getUuid()
-			+ "/propertydefs.json";
-		
-		String tagsetSubdir = String.format(
-				"%s/%s", GitProjectHandler.TAGSETS_DIRECTORY_NAME, tagsetId
-		);
-
-		File targetPropertyDefinitionsFileAbsolutePath = Paths.get(
-				this.projectDirectory.getAbsolutePath(),
-				tagsetSubdir,
-				targetPropertyDefinitionsFileRelativePath
-		).toFile();
+		File targetPropertyDefinitionsFileAbsolutePath = getPropertyDefinitionsFile(tagsetId, tagDefinition);
 
 		GitTagDefinition gitTagDefinition = new GitTagDefinition(tagDefinition);
 		String serializedGitTagDefinition = 
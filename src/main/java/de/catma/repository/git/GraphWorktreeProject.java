@@ -4,9 +4,12 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.eventbus.EventBus;
 import com.vaadin.ui.UI;
+import de.catma.backgroundservice.BackgroundJobClass;
+import de.catma.backgroundservice.BackgroundJobPriority;
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
+import de.catma.backgroundservice.LogProgressListener;
 import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
@@ -16,6 +19,7 @@ import de.catma.document.comment.Reply;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
 import de.catma.document.source.contenthandler.StandardContentHandler;
+import de.catma.indexer.DocumentIndex;
 import de.catma.indexer.IndexedProject;
 import de.catma.indexer.Indexer;
 import de.catma.indexer.TermExtractor;
@@ -51,6 +55,7 @@ import de.catma.util.IDGenerator;
 import de.catma.util.Pair;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tika.mime.MediaType;
+import org.eclipse.jgit.diff.DiffEntry;
 
 import javax.lang.model.type.NullType;
 import java.beans.PropertyChangeEvent;
@@ -128,9 +133,14 @@ public class GraphWorktreeProject implements IndexedProject {
 				},
 				new DocumentIndexProvider() {
 					@Override
-					public Map getDocumentIndex(String documentId) throws IOException {
+					public DocumentIndex getDocumentIndex(String documentId) throws IOException {
 						return GraphWorktreeProject.this.gitProjectHandler.getDocumentIndex(documentId);
 					}
+
+					@Override
+					public File getCorpusIndexFile() {
+						return GraphWorktreeProject.this.gitProjectHandler.getCorpusIndexFile();
+					}
 				},
 				new CommentsProvider() {
 					@Override
@@ -143,6 +153,12 @@ public class GraphWorktreeProject implements IndexedProject {
 					public AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary) throws IOException {
 						return GraphWorktreeProject.this.gitProjectHandler.getCollection(collectionId, tagLibrary);
 					}
+				},
+				new RevisionDifferencesProvider() {
+					@Override
+					public List<DiffEntry> getRevisionDifferences(String oldRevisionHash, String newRevisionHash) throws IOException {
+						return GraphWorktreeProject.this.gitProjectHandler.getRevisionDifferences(oldRevisionHash, newRevisionHash);
+					}
 				}
 		);
 
@@ -308,11 +324,10 @@ public class GraphWorktreeProject implements IndexedProject {
 			graphProjectHandler.ensureProjectRevisionIsLoaded(
 					rootRevisionHash,
 					true, // forceGraphReload
-					// TODO: unfortunately we can't pass the CollectionsProvider into the LazyGraphProjectHandler ctor (yet) because of the ProgressListener
 					new CollectionsProvider() {
 						@Override
-						public List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException {
-							return gitProjectHandler.getCollections(tagLibrary, progressListener, true);
+						public List<AnnotationCollectionReference> getCollectionReferences() {
+							return gitProjectHandler.getCollectionReferences();
 						}
 					},
 					backgroundService,
@@ -501,11 +516,10 @@ public class GraphWorktreeProject implements IndexedProject {
 			graphProjectHandler.ensureProjectRevisionIsLoaded(
 					rootRevisionHash,
 					forceGraphReload,
-					// TODO: unfortunately we can't pass the CollectionsProvider into the LazyGraphProjectHandler ctor (yet) because of the ProgressListener
 					new CollectionsProvider() {
 						@Override
-						public List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException {
-							return gitProjectHandler.getCollections(tagLibrary, progressListener, true);
+						public List<AnnotationCollectionReference> getCollectionReferences() {
+							return gitProjectHandler.getCollectionReferences();
 						}
 					},
 					backgroundService,
@@ -603,6 +617,28 @@ public class GraphWorktreeProject implements IndexedProject {
 		graphProjectHandler.updateProjectRevision(oldRootRevisionHash, rootRevisionHash);
 	}
 
+	private void importTagsetDefinition(TagsetDefinition tagsetDefinition) throws Exception {
+		if (isReadOnly()) {
+			throw new IllegalStateException(
+					String.format(
+							"Project \"%s\" is in read-only mode! Cannot create tagset \"%s\".",
+							projectReference.getName(),
+							tagsetDefinition.getName()
+					)
+			);
+		}
+
+		tagsetDefinition.setResponsibleUser(user.getIdentifier());
+
+		String oldRootRevisionHash = rootRevisionHash;
+
+		// create tagset including its tags in repo and commit
+		rootRevisionHash = gitProjectHandler.importTagset(tagsetDefinition);
+
+		// update revision hash on GraphProjectHandler
+		graphProjectHandler.updateProjectRevision(oldRootRevisionHash, rootRevisionHash);
+	}
+
 	private void updateTagsetDefinition(TagsetDefinition tagsetDefinition) throws Exception {
 		if (isReadOnly()) {
 			throw new IllegalStateException(
@@ -862,25 +898,17 @@ public class GraphWorktreeProject implements IndexedProject {
 
 		// delete properties from corresponding annotations in repo (no commit)
 		for (String collectionId : tagReferencesByCollectionId.keySet()) {
-			Collection<TagReference> tagReferences = tagReferencesByCollectionId.get(collectionId);
-			Set<TagInstance> tagInstances = tagReferences.stream()
-					.map(TagReference::getTagInstance)
-					.collect(Collectors.toSet());
+			Multimap<TagInstance, TagReference> tagReferencesByTagInstance = Multimaps.index(
+					tagReferencesByCollectionId.get(collectionId),
+					TagReference::getTagInstance
+			);
 
-			tagInstances.forEach(
+			tagReferencesByTagInstance.keySet().forEach(
 					tagInstance -> tagInstance.removeUserDefinedProperty(propertyDefinition.getUuid())
 			);
 
-			for (TagInstance tagInstance : tagInstances) {
-				gitProjectHandler.updateTagInstance(
-						collectionId,
-						tagInstance,
-						tagReferences.stream()
-								.filter(tagRef -> tagRef.getTagInstanceId().equals(tagInstance.getUuid()))
-								.collect(Collectors.toList()),
-						tagManager.getTagLibrary()
-				);
-			}
+			// one rewrite per affected page file rather than one per annotation
+			gitProjectHandler.updateTagInstances(collectionId, tagReferencesByTagInstance, tagManager.getTagLibrary());
 		}
 
 		String oldRootRevisionHash = rootRevisionHash;
@@ -940,10 +968,17 @@ public class GraphWorktreeProject implements IndexedProject {
 			if (!tagsetDefinitionImportStatus.isCurrent()) { // new tagset
 				try {
 					// disable listeners that would otherwise interfere with the import process
+					// the tagset is written with all of its tags at once, rather than with one commit per tag
 					tagManagerListenersEnabled = false;
 
-					addTagsetDefinition(tagset);
+					importTagsetDefinition(tagset);
 					tagManager.addTagsetDefinition(tagset);
+
+					for (TagDefinition tag : tagset.getRootTagDefinitions()) {
+						// the tags are already part of the tagset, this only raises the events for them
+						tagManager.addTagDefinition(tagset, tag);
+						importTagHierarchy(tag, tagset, tagset);
+					}
 				}
 				catch (Exception e) {
 					throw new IOException(
@@ -954,12 +989,6 @@ public class GraphWorktreeProject implements IndexedProject {
 				finally {
 					tagManagerListenersEnabled = true;
 				}
-
-				for (TagDefinition tag : tagset.getRootTagDefinitions()) {
-					// TODO: not clear what these are doing (other than raising events) as source and destination tagsets are the same, test
-					tagManager.addTagDefinition(tagset, tag);
-					importTagHierarchy(tag, tagset, tagset);
-				}
 			}
 			else { // tagset already exists in project
 				try {
@@ -1159,6 +1188,7 @@ public class GraphWorktreeProject implements IndexedProject {
 
 			// add annotations to repo (no commit - annotations are committed in bulk later on)
 			gitProjectHandler.addTagReferencesToCollection(annotationCollection.getUuid(), tagReferences, tagManager.getTagLibrary());
+			graphProjectHandler.annotationCollectionChanged(annotationCollection.getUuid());
 
 			// fire annotation change event for the collection
 			propertyChangeSupport.firePropertyChange(
@@ -1199,6 +1229,10 @@ public class GraphWorktreeProject implements IndexedProject {
 			// delete annotations from repo (no commit - annotations are committed in bulk later on)
 			Collection<TagInstance> tagInstances = tagReferences.stream().map(TagReference::getTagInstance).collect(Collectors.toSet());
 			gitProjectHandler.removeTagInstances(annotationCollection.getUuid(), tagInstances);
+			graphProjectHandler.annotationCollectionChanged(annotationCollection.getUuid());
+			if (gitProjectHandler.isAnnotationPageCompactionDue(annotationCollection.getUuid())) {
+				compactAnnotationPagesInBackground(annotationCollection.getUuid());
+			}
 
 			// fire annotation change event for the collection
 			Collection<String> tagInstanceIds = tagInstances.stream().map(TagInstance::getUuid).collect(Collectors.toList());
@@ -1217,6 +1251,40 @@ public class GraphWorktreeProject implements IndexedProject {
 		}
 	}
 
+	/**
+	 * Removing annotations leaves gaps in the page files, so the pages are compacted in the background once the gaps
+	 * add up to enough pages. The result is committed with the next bulk commit of annotations.
+	 */
+	private void compactAnnotationPagesInBackground(final String collectionId) {
+		backgroundService.submit(
+				BackgroundJobClass.SYNC,
+				BackgroundJobPriority.LOW,
+				new DefaultProgressCallable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						return gitProjectHandler.compactAnnotationPages(collectionId);
+					}
+				},
+				new ExecutionListener<Boolean>() {
+					@Override
+					public void done(Boolean result) {
+						// nothing to do
+					}
+
+					@Override
+					public void error(Throwable t) {
+						// not fatal, the pages just stay as they are
+						logger.log(
+								Level.WARNING,
+								String.format("Failed to compact the annotation pages of collection with ID %s", collectionId),
+								t
+						);
+					}
+				},
+				new LogProgressListener()
+		);
+	}
+
 	@Override
 	public void updateTagInstanceProperties(AnnotationCollection annotationCollection, TagInstance tagInstance, Collection<Property> properties) {
 		if (isReadOnly()) {
@@ -1489,6 +1557,8 @@ public class GraphWorktreeProject implements IndexedProject {
 						oldRootRevisionHash,
 						rootRevisionHash
 				);
+
+				indexer.index(sourceDocument, backgroundService);
 			}
 
 			if (deleteTempFile) {
@@ -1561,6 +1631,8 @@ public class GraphWorktreeProject implements IndexedProject {
 
 		graphProjectHandler.removeSourceDocument(sourceDocumentRef, oldRootRevisionHash, rootRevisionHash);
 
+		indexer.removeSourceDocument(sourceDocumentRef.getUuid());
+
 		eventBus.post(new DocumentChangeEvent(sourceDocumentRef, ChangeType.DELETED));
 	}
 
@@ -1669,6 +1741,7 @@ public class GraphWorktreeProject implements IndexedProject {
 
 		String oldRootRevisionHash = rootRevisionHash;
 
+		gitProjectHandler.removeOrphans(tagManager.getTagLibrary(), new LogProgressListener());
 		rootRevisionHash = gitProjectHandler.commitAndPushProject(commitMessage);
 
 		graphProjectHandler.updateProjectRevision(oldRootRevisionHash, rootRevisionHash);
@@ -1695,10 +1768,13 @@ public class GraphWorktreeProject implements IndexedProject {
 
 		// TODO: graphProjectHandler.ensureProjectRevisionIsLoaded uses the BackgroundService anyway, do we need to sync in the background too?
 		backgroundService.submit(
+				BackgroundJobClass.SYNC,
+				BackgroundJobPriority.NORMAL,
 				new DefaultProgressCallable<Boolean>() {
 					@Override
 					public Boolean call() throws Exception {
 						try {
+							gitProjectHandler.removeOrphans(tagManager.getTagLibrary(), progressListener);
 							progressListener.setProgress("Synchronizing...");
 							boolean success = gitProjectHandler.synchronizeWithRemote();
 							progressListener.setProgress("Synchronization " + (success ? "completed" : "failed"));
@@ -1753,12 +1829,10 @@ public class GraphWorktreeProject implements IndexedProject {
 							graphProjectHandler.ensureProjectRevisionIsLoaded(
 									rootRevisionHash,
 									false, // forceGraphReload
-									// TODO: unfortunately we can't pass the CollectionsProvider into the LazyGraphProjectHandler ctor (yet) because of the
-									//       ProgressListener
 									new CollectionsProvider() {
 										@Override
-										public List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException {
-											return gitProjectHandler.getCollections(tagLibrary, progressListener, true);
+										public List<AnnotationCollectionReference> getCollectionReferences() {
+											return gitProjectHandler.getCollectionReferences();
 										}
 									},
 									backgroundService,
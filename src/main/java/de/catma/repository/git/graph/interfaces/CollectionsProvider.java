@@ -1,11 +1,10 @@
 package de.catma.repository.git.graph.interfaces;
 
-import de.catma.document.annotation.AnnotationCollection;
-import de.catma.tag.TagLibrary;
+import de.catma.document.annotation.AnnotationCollectionReference;
 
 import java.io.IOException;
 import java.util.List;
 
 public interface CollectionsProvider {
-    List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException;
+    List<AnnotationCollectionReference> getCollectionReferences() throws IOException;
 }
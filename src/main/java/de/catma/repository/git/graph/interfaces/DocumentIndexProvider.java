@@ -1,8 +1,18 @@
 package de.catma.repository.git.graph.interfaces;
 
+import de.catma.indexer.DocumentIndex;
+
+import java.io.File;
 import java.io.IOException;
-import java.util.Map;
 
 public interface DocumentIndexProvider {
-    Map getDocumentIndex(String documentId) throws IOException;
+    DocumentIndex getDocumentIndex(String documentId) throws IOException;
+
+    /**
+     * @return the file the project-level corpus index is persisted to, or <code>null</code> if it should be kept in
+     *         memory only
+     */
+    default File getCorpusIndexFile() {
+        return null;
+    }
 }
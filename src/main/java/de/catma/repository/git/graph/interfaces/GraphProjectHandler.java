@@ -45,6 +45,12 @@ public interface GraphProjectHandler {
 
 	void removeAnnotationCollection(AnnotationCollectionReference annotationCollectionRef, String oldRevisionHash, String newRevisionHash);
 
+	/**
+	 * To be called after tag references have been added to or removed from a collection that has been obtained via
+	 * {@link #getAnnotationCollection(AnnotationCollectionReference)}.
+	 */
+	void annotationCollectionChanged(String annotationCollectionId);
+
 	Multimap<String, TagReference> getTagReferencesByCollectionId(TagsetDefinition tagsetDefinition) throws Exception;
 
 	Multimap<String, TagReference> getTagReferencesByCollectionId(TagDefinition tag) throws Exception;
@@ -0,0 +1,10 @@
+package de.catma.repository.git.graph.interfaces;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface RevisionDifferencesProvider {
+    List<DiffEntry> getRevisionDifferences(String oldRevisionHash, String newRevisionHash) throws IOException;
+}
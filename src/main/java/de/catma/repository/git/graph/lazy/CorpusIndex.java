@@ -0,0 +1,383 @@
+package de.catma.repository.git.graph.lazy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import de.catma.indexer.DocumentIndex;
+import de.catma.indexer.WildcardTermPattern;
+
+/**
+ * A project-level inverted index that maps each term to the documents that contain it, together with the frequency of
+ * the term in each document.
+ * <p>
+ * It is used to narrow a query down to the candidate documents before any document index is loaded, the positional
+ * postings themselves stay in the per-document indexes. Documents are registered with the revision of their content
+ * (see {@link DocumentIndex#getSourceDigest()}) and can be added and removed incrementally.
+ * <p>
+ * The binary layout written by {@link #write(File)}:
+ * <pre>
+ * header:    magic, version, documentCount
+ * documents: documentCount x (documentId, revision) as modified UTF-8
+ * terms:     termCount, termCount x (literalLength, literal as UTF-8, pairCount, pairCount x (documentNumber, frequency))
+ * </pre>
+ */
+class CorpusIndex {
+	private static final int MAGIC = 0x43434958; // "CCIX"
+	private static final int VERSION = 1;
+
+	// indexed by document number, null for documents that have been removed
+	private final List<String> documentIds = new ArrayList<>();
+	private final List<String> documentRevisions = new ArrayList<>();
+	private final Map<String, Integer> documentNumbers = new HashMap<>();
+
+	// term -> interleaved (documentNumber, frequency) pairs, ascending by document number
+	private final TreeMap<String, int[]> postingsByTerm = new TreeMap<>();
+
+	private boolean modified = false;
+
+	/**
+	 * @return the index stored in the given file or an empty index if the file does not exist
+	 * @throws IOException if the file cannot be read or does not contain a valid index
+	 */
+	static CorpusIndex load(File indexFile) throws IOException {
+		CorpusIndex corpusIndex = new CorpusIndex();
+
+		if (!indexFile.exists()) {
+			return corpusIndex;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a corpus index");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(String.format("Unsupported corpus index version %d", version));
+			}
+
+			int documentCount = in.readInt();
+			for (int documentNumber = 0; documentNumber < documentCount; documentNumber++) {
+				String documentId = in.readUTF();
+				corpusIndex.documentIds.add(documentId);
+				corpusIndex.documentRevisions.add(in.readUTF());
+				corpusIndex.documentNumbers.put(documentId, documentNumber);
+			}
+
+			int termCount = in.readInt();
+			for (int i = 0; i < termCount; i++) {
+				byte[] literal = new byte[in.readInt()];
+				in.readFully(literal);
+
+				int[] pairs = new int[2 * in.readInt()];
+				for (int j = 0; j < pairs.length; j++) {
+					pairs[j] = in.readInt();
+				}
+
+				corpusIndex.postingsByTerm.put(new String(literal, StandardCharsets.UTF_8), pairs);
+			}
+		}
+
+		return corpusIndex;
+	}
+
+	/**
+	 * Writes the index to the given file, removed documents are dropped and the remaining ones are renumbered. The index
+	 * is written to a temporary file first and then moved into place.
+	 */
+	synchronized void write(File indexFile) throws IOException {
+		int[] newDocumentNumbers = new int[documentIds.size()];
+		int documentCount = 0;
+		for (int documentNumber = 0; documentNumber < documentIds.size(); documentNumber++) {
+			newDocumentNumbers[documentNumber] = documentIds.get(documentNumber) == null ? -1 : documentCount++;
+		}
+
+		File parentDirectory = indexFile.getAbsoluteFile().getParentFile();
+		if (!parentDirectory.exists() && !parentDirectory.mkdirs()) {
+			throw new IOException(String.format("Unable to create directory %s", parentDirectory));
+		}
+
+		File tempFile = File.createTempFile(indexFile.getName(), ".tmp", parentDirectory);
+
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+
+				out.writeInt(documentCount);
+				for (int documentNumber = 0; documentNumber < documentIds.size(); documentNumber++) {
+					if (documentIds.get(documentNumber) != null) {
+						out.writeUTF(documentIds.get(documentNumber));
+						out.writeUTF(documentRevisions.get(documentNumber));
+					}
+				}
+
+				out.writeInt(postingsByTerm.size());
+				for (Map.Entry<String, int[]> entry : postingsByTerm.entrySet()) {
+					byte[] literal = entry.getKey().getBytes(StandardCharsets.UTF_8);
+					out.writeInt(literal.length);
+					out.write(literal);
+
+					int[] pairs = entry.getValue();
+					out.writeInt(pairs.length / 2);
+					for (int i = 0; i < pairs.length; i += 2) {
+						out.writeInt(newDocumentNumbers[pairs[i]]);
+						out.writeInt(pairs[i + 1]);
+					}
+				}
+			}
+
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+
+		modified = false;
+	}
+
+	/**
+	 * @return <code>true</code> if the index has been modified since it was loaded or last written
+	 */
+	synchronized boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * @return the revision the given document has been indexed with or <code>null</code> if it is not part of the index
+	 */
+	synchronized String getDocumentRevision(String documentId) {
+		Integer documentNumber = documentNumbers.get(documentId);
+		return documentNumber == null ? null : documentRevisions.get(documentNumber);
+	}
+
+	/**
+	 * Adds the terms of the given document, a document that is already part of the index with a different revision
+	 * is replaced.
+	 */
+	synchronized void addDocument(String documentId, DocumentIndex documentIndex) {
+		String revision = documentIndex.getSourceDigest();
+
+		if (documentNumbers.containsKey(documentId)) {
+			if (revision.equals(getDocumentRevision(documentId))) {
+				return;
+			}
+			removeDocument(documentId);
+		}
+
+		int documentNumber = documentIds.size();
+		documentIds.add(documentId);
+		documentRevisions.add(revision);
+		documentNumbers.put(documentId, documentNumber);
+
+		// the new document has the highest number, so appending keeps the pairs sorted
+		for (int termId = 0; termId < documentIndex.getTermCount(); termId++) {
+			int[] pairs = postingsByTerm.get(documentIndex.getTerm(termId));
+			if (pairs == null) {
+				pairs = new int[2];
+			}
+			else {
+				pairs = Arrays.copyOf(pairs, pairs.length + 2);
+			}
+			pairs[pairs.length - 2] = documentNumber;
+			pairs[pairs.length - 1] = documentIndex.getFrequency(termId);
+
+			postingsByTerm.put(documentIndex.getTerm(termId), pairs);
+		}
+
+		modified = true;
+	}
+
+	synchronized void removeDocument(String documentId) {
+		Integer documentNumber = documentNumbers.remove(documentId);
+		if (documentNumber == null) {
+			return;
+		}
+
+		documentIds.set(documentNumber, null);
+		documentRevisions.set(documentNumber, null);
+
+		Iterator<Map.Entry<String, int[]>> iterator = postingsByTerm.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, int[]> entry = iterator.next();
+			int[] pairs = entry.getValue();
+
+			int idx = indexOf(pairs, documentNumber);
+			if (idx == -1) {
+				continue;
+			}
+
+			if (pairs.length == 2) {
+				iterator.remove();
+			}
+			else {
+				int[] newPairs = new int[pairs.length - 2];
+				System.arraycopy(pairs, 0, newPairs, 0, idx);
+				System.arraycopy(pairs, idx + 2, newPairs, idx, pairs.length - idx - 2);
+				entry.setValue(newPairs);
+			}
+		}
+
+		modified = true;
+	}
+
+	/**
+	 * @return the position of the pair of the given document within the given pairs or -1
+	 */
+	private static int indexOf(int[] pairs, int documentNumber) {
+		int low = 0;
+		int high = pairs.length / 2 - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midDocumentNumber = pairs[2 * mid];
+			if (midDocumentNumber < documentNumber) {
+				low = mid + 1;
+			}
+			else if (midDocumentNumber > documentNumber) {
+				high = mid - 1;
+			}
+			else {
+				return 2 * mid;
+			}
+		}
+
+		return -1;
+	}
+
+	private static void addDocuments(BitSet documents, int[] pairs) {
+		for (int i = 0; i < pairs.length; i += 2) {
+			documents.set(pairs[i]);
+		}
+	}
+
+	/**
+	 * @return the numbers of the documents that contain the given term
+	 */
+	synchronized BitSet getDocuments(String term) {
+		BitSet documents = new BitSet();
+		int[] pairs = postingsByTerm.get(term);
+		if (pairs != null) {
+			addDocuments(documents, pairs);
+		}
+		return documents;
+	}
+
+	/**
+	 * @return the numbers of the documents that contain at least one term that matches the given pattern
+	 */
+	synchronized BitSet getDocuments(WildcardTermPattern pattern) {
+		if (pattern.isLiteral()) {
+			return getDocuments(pattern.getLiteralPrefix());
+		}
+
+		BitSet documents = new BitSet();
+
+		// the dictionary is sorted, so all candidates are found in the range of terms that start with the literal prefix
+		String prefix = pattern.getLiteralPrefix();
+		for (Map.Entry<String, int[]> entry : postingsByTerm.tailMap(prefix, true).entrySet()) {
+			if (!entry.getKey().startsWith(prefix)) {
+				break;
+			}
+			if (pattern.isPrefixOnly() || pattern.matches(entry.getKey())) {
+				addDocuments(documents, entry.getValue());
+			}
+		}
+
+		return documents;
+	}
+
+	/**
+	 * @return the numbers of the documents that contain at least one term with a frequency that satisfies the given
+	 *         filter
+	 */
+	synchronized BitSet getDocuments(IntPredicate frequencyFilter) {
+		BitSet documents = new BitSet();
+
+		for (int[] pairs : postingsByTerm.values()) {
+			for (int i = 0; i < pairs.length; i += 2) {
+				if (frequencyFilter.test(pairs[i + 1])) {
+					documents.set(pairs[i]);
+				}
+			}
+		}
+
+		return documents;
+	}
+
+	/**
+	 * @return the numbers of the documents that contain at least one of the given terms
+	 */
+	synchronized BitSet getDocuments(Collection<String> terms) {
+		BitSet documents = new BitSet();
+
+		for (String term : terms) {
+			int[] pairs = postingsByTerm.get(term);
+			if (pairs != null) {
+				addDocuments(documents, pairs);
+			}
+		}
+
+		return documents;
+	}
+
+	/**
+	 * @return the terms of the corpus that satisfy the given filter, the filter is tested once per term
+	 */
+	synchronized Set<String> getTerms(Predicate<String> termFilter) {
+		Set<String> terms = new HashSet<>();
+
+		for (String term : postingsByTerm.keySet()) {
+			if (termFilter.test(term)) {
+				terms.add(term);
+			}
+		}
+
+		return terms;
+	}
+
+	/**
+	 * @param documentIds the IDs of the documents of interest
+	 * @param documents a set of document numbers as returned by one of the <code>getDocuments</code> methods
+	 * @return those of the given document IDs that are in the given set, in their original order
+	 */
+	synchronized List<String> filter(List<String> documentIds, BitSet documents) {
+		List<String> result = new ArrayList<>();
+
+		for (String documentId : documentIds) {
+			Integer documentNumber = documentNumbers.get(documentId);
+			if (documentNumber != null && documents.get(documentNumber)) {
+				result.add(documentId);
+			}
+		}
+
+		return result;
+	}
+
+	synchronized int getDocumentCount() {
+		return documentNumbers.size();
+	}
+
+	synchronized int getTermCount() {
+		return postingsByTerm.size();
+	}
+}
@@ -0,0 +1,197 @@
+package de.catma.repository.git.graph.lazy;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import de.catma.document.Range;
+import de.catma.indexer.DocumentIndex;
+import de.catma.indexer.DocumentTokens;
+import de.catma.indexer.WildcardTermPattern;
+
+/**
+ * A columnar, primitive-array based in-memory representation of the tokens of a single document.
+ * <p>
+ * Token attributes are stored in arrays indexed by token offset, so walking adjacent tokens is plain index arithmetic.
+ * The term dictionary is sorted and the postings of all terms are stored back to back in a single array.
+ */
+class DocumentTokenStore implements DocumentTokens {
+
+	private final String[] terms;
+	private final int[] postingsOffsets; // termCount + 1 entries, the postings of term i are [postingsOffsets[i], postingsOffsets[i+1])
+	private final int[] postings;
+
+	private final int[] startOffsets;
+	private final int[] endOffsets;
+	private final int[] termIds;
+
+	private DocumentTokenStore(
+			String[] terms, int[] postingsOffsets, int[] postings, int[] startOffsets, int[] endOffsets, int[] termIds
+	) {
+		this.terms = terms;
+		this.postingsOffsets = postingsOffsets;
+		this.postings = postings;
+		this.startOffsets = startOffsets;
+		this.endOffsets = endOffsets;
+		this.termIds = termIds;
+	}
+
+	static DocumentTokenStore load(DocumentIndex documentIndex) {
+		int termCount = documentIndex.getTermCount();
+		int tokenCount = documentIndex.getTokenCount();
+
+		String[] terms = new String[termCount];
+		int[] postingsOffsets = new int[termCount + 1];
+		for (int termId = 0; termId < termCount; termId++) {
+			terms[termId] = documentIndex.getTerm(termId);
+			postingsOffsets[termId + 1] = postingsOffsets[termId] + documentIndex.getFrequency(termId);
+		}
+
+		int[] postings = new int[postingsOffsets[termCount]];
+		for (int termId = 0; termId < termCount; termId++) {
+			int[] termPostings = documentIndex.getPostings(termId);
+			System.arraycopy(termPostings, 0, postings, postingsOffsets[termId], termPostings.length);
+		}
+
+		int[] startOffsets = new int[tokenCount];
+		int[] endOffsets = new int[tokenCount];
+		int[] termIds = new int[tokenCount];
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			startOffsets[tokenOffset] = documentIndex.getStartOffset(tokenOffset);
+			endOffsets[tokenOffset] = documentIndex.getEndOffset(tokenOffset);
+			termIds[tokenOffset] = documentIndex.getTermId(tokenOffset);
+		}
+
+		return new DocumentTokenStore(terms, postingsOffsets, postings, startOffsets, endOffsets, termIds);
+	}
+
+	@Override
+	public int getTokenCount() {
+		return termIds.length;
+	}
+
+	int getTermCount() {
+		return terms.length;
+	}
+
+	/**
+	 * @return <code>true</code> if there is a token at the given offset
+	 */
+	@Override
+	public boolean hasToken(int tokenOffset) {
+		return tokenOffset >= 0 && tokenOffset < termIds.length && termIds[tokenOffset] != -1;
+	}
+
+	@Override
+	public int getStartOffset(int tokenOffset) {
+		return startOffsets[tokenOffset];
+	}
+
+	@Override
+	public int getEndOffset(int tokenOffset) {
+		return endOffsets[tokenOffset];
+	}
+
+	int getTermId(int tokenOffset) {
+		return termIds[tokenOffset];
+	}
+
+	@Override
+	public String getTermLiteral(int tokenOffset) {
+		return terms[termIds[tokenOffset]];
+	}
+
+	String getTerm(int termId) {
+		return terms[termId];
+	}
+
+	int getFrequency(int termId) {
+		return postingsOffsets[termId + 1] - postingsOffsets[termId];
+	}
+
+	/**
+	 * @return the token offset of the <code>idx</code>th occurrence of the given term
+	 */
+	int getPosting(int termId, int idx) {
+		return postings[postingsOffsets[termId] + idx];
+	}
+
+	/**
+	 * @return the ID of the given term or -1 if the document does not contain it
+	 */
+	int findTermId(String term) {
+		int idx = Arrays.binarySearch(terms, term);
+		return idx < 0 ? -1 : idx;
+	}
+
+	/**
+	 * @return the IDs of all terms that match the given pattern in ascending order
+	 */
+	int[] findTermIds(WildcardTermPattern pattern) {
+		if (pattern.isLiteral()) {
+			int termId = findTermId(pattern.getLiteralPrefix());
+			return termId == -1 ? new int[0] : new int[] {termId};
+		}
+
+		// the dictionary is sorted, so all candidates are found in the range of terms that start with the literal prefix
+		String prefix = pattern.getLiteralPrefix();
+		int idx = Arrays.binarySearch(terms, prefix);
+		int first = idx < 0 ? -idx - 1 : idx;
+
+		IntStream.Builder termIds = IntStream.builder();
+		for (int termId = first; termId < terms.length && terms[termId].startsWith(prefix); termId++) {
+			if (pattern.isPrefixOnly() || pattern.matches(terms[termId])) {
+				termIds.add(termId);
+			}
+		}
+
+		return termIds.build().toArray();
+	}
+
+	/**
+	 * @return the offsets of the first and the last token that overlap the given range or <code>null</code> if no
+	 *         token overlaps it
+	 */
+	int[] getTokenOffsetsOverlapping(Range range) {
+		// start and end offsets grow with the token offset, so we can look for the first token that could overlap...
+		int low = 0;
+		int high = endOffsets.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (endOffsets[mid] < range.getStartPoint()) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		// ...and then test candidates until we are past the range
+		int first = -1;
+		int last = -1;
+		for (int tokenOffset = low; tokenOffset < startOffsets.length && startOffsets[tokenOffset] <= range.getEndPoint(); tokenOffset++) {
+			if (termIds[tokenOffset] != -1
+					&& range.hasOverlappingRange(new Range(startOffsets[tokenOffset], endOffsets[tokenOffset]))) {
+				if (first == -1) {
+					first = tokenOffset;
+				}
+				last = tokenOffset;
+			}
+		}
+
+		return first == -1 ? null : new int[] {first, last};
+	}
+
+	/**
+	 * @return the approximate heap size of this store in bytes
+	 */
+	long estimateSizeInBytes() {
+		long size = 16L * 6 // array headers
+				+ 4L * (postingsOffsets.length + postings.length + startOffsets.length + endOffsets.length + termIds.length);
+
+		for (String term : terms) {
+			size += 40 + 2L * term.length(); // String + char/byte array overhead, a generous estimate
+		}
+
+		return size;
+	}
+}
@@ -1,10 +1,10 @@
 package de.catma.repository.git.graph.lazy;
 
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 import de.catma.queryengine.CompareOperator;
 
-public class FrequencyFilter implements Predicate<Term> {
+public class FrequencyFilter implements IntPredicate {
 
 	private CompareOperator comp1;
 	private int freq1;
@@ -19,9 +19,7 @@ public class FrequencyFilter implements Predicate<Term> {
 	}
 
 	@Override
-	public boolean test(Term t) {
-		int freq = t.getFrequency();
-		
+	public boolean test(int freq) {
 		if (comp1.getCondition().isTrue(freq, freq1)) {
 			if (comp2 == null) {
 				return true;
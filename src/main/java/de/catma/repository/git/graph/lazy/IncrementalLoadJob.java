@@ -0,0 +1,131 @@
+package de.catma.repository.git.graph.lazy;
+
+import com.google.common.collect.Maps;
+import de.catma.backgroundservice.DefaultProgressCallable;
+import de.catma.document.annotation.AnnotationCollectionReference;
+import de.catma.document.source.SourceDocumentReference;
+import de.catma.project.ProjectReference;
+import de.catma.repository.git.graph.interfaces.CollectionsProvider;
+import de.catma.repository.git.graph.interfaces.DocumentProvider;
+import de.catma.repository.git.graph.interfaces.RevisionDifferencesProvider;
+import de.catma.repository.git.graph.interfaces.TagsetsProvider;
+import de.catma.tag.TagManager;
+
+import java.util.Map;
+
+/**
+ * Brings an already loaded project from one revision to another by reloading only those tagsets, documents and
+ * collection references that differ between the two revisions, see {@link LoadJob} for a full reload.
+ * <p>
+ * The references of unchanged documents are carried over. The references passed in are published to the UI and are
+ * never modified, references whose collections change are replaced with new instances. The caller is responsible for
+ * invalidating cached documents and collections according to the returned {@link Result#getChanges() changes}.
+ */
+class IncrementalLoadJob extends DefaultProgressCallable<IncrementalLoadJob.Result> {
+	static class Result {
+		private final Map<String, SourceDocumentReference> sourceDocumentRefsById;
+		private final ProjectRevisionChanges changes;
+
+		Result(Map<String, SourceDocumentReference> sourceDocumentRefsById, ProjectRevisionChanges changes) {
+			this.sourceDocumentRefsById = sourceDocumentRefsById;
+			this.changes = changes;
+		}
+
+		Map<String, SourceDocumentReference> getSourceDocumentRefsById() {
+			return sourceDocumentRefsById;
+		}
+
+		ProjectRevisionChanges getChanges() {
+			return changes;
+		}
+	}
+
+	private final ProjectReference projectReference;
+	private final String oldRevisionHash;
+	private final String newRevisionHash;
+	private final Map<String, SourceDocumentReference> oldSourceDocumentRefsById;
+	private final TagManager tagManager;
+	private final TagsetsProvider tagsetsProvider;
+	private final DocumentProvider documentProvider;
+	private final CollectionsProvider collectionsProvider;
+	private final RevisionDifferencesProvider revisionDifferencesProvider;
+
+	public IncrementalLoadJob(
+			ProjectReference projectReference,
+			String oldRevisionHash,
+			String newRevisionHash,
+			Map<String, SourceDocumentReference> oldSourceDocumentRefsById,
+			TagManager tagManager,
+			TagsetsProvider tagsetsProvider,
+			DocumentProvider documentProvider,
+			CollectionsProvider collectionsProvider,
+			RevisionDifferencesProvider revisionDifferencesProvider
+	) {
+		this.projectReference = projectReference;
+		this.oldRevisionHash = oldRevisionHash;
+		this.newRevisionHash = newRevisionHash;
+		this.oldSourceDocumentRefsById = oldSourceDocumentRefsById;
+		this.tagManager = tagManager;
+		this.tagsetsProvider = tagsetsProvider;
+		this.documentProvider = documentProvider;
+		this.collectionsProvider = collectionsProvider;
+		this.revisionDifferencesProvider = revisionDifferencesProvider;
+	}
+
+	@Override
+	public Result call() throws Exception {
+		getProgressListener().setProgress(
+				"Loading changes for project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId()
+		);
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(
+				revisionDifferencesProvider.getRevisionDifferences(oldRevisionHash, newRevisionHash)
+		);
+
+		Map<String, SourceDocumentReference> sourceDocumentRefsById = Maps.newHashMap(oldSourceDocumentRefsById);
+
+		if (changes.isTagsetsChanged()) {
+			// tagsets are small, so we don't bother with loading only the changed ones
+			getProgressListener().setProgress(
+					"Loading tagsets for project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId()
+			);
+			tagManager.load(tagsetsProvider.getTagsets());
+		}
+
+		if (!changes.getDocumentIds().isEmpty()) {
+			getProgressListener().setProgress(
+					"Loading %d changed document(s) for project \"%s\" with ID %s",
+					changes.getDocumentIds().size(), projectReference.getName(), projectReference.getProjectId()
+			);
+
+			for (String documentId : changes.getDocumentIds()) {
+				SourceDocumentReference oldSourceDocumentRef = sourceDocumentRefsById.remove(documentId);
+				if (changes.isDocumentRemoved(documentId)) {
+					continue;
+				}
+
+				SourceDocumentReference sourceDocumentRef = new SourceDocumentReference(documentProvider.getDocument(documentId));
+				if (oldSourceDocumentRef != null && !changes.isCollectionHeadersChanged()) {
+					oldSourceDocumentRef.getUserMarkupCollectionRefs().forEach(sourceDocumentRef::addUserMarkupCollectionReference);
+				}
+				sourceDocumentRefsById.put(documentId, sourceDocumentRef);
+			}
+		}
+
+		if (changes.isCollectionHeadersChanged()) {
+			// only the collection headers are read here, the annotations are loaded on demand by the collection cache
+			getProgressListener().setProgress(
+					"Loading collections for project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId()
+			);
+
+			sourceDocumentRefsById.replaceAll(
+					(documentId, sourceDocumentRef) -> sourceDocumentRef.copyWithoutCollectionReferences()
+			);
+
+			for (AnnotationCollectionReference collectionReference : collectionsProvider.getCollectionReferences()) {
+				sourceDocumentRefsById.get(collectionReference.getSourceDocumentId()).addUserMarkupCollectionReference(collectionReference);
+			}
+		}
+
+		return new Result(sourceDocumentRefsById, changes);
+	}
+}
@@ -7,6 +7,7 @@ import com.google.common.collect.Multimap;
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.SharedWorkerPool;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.annotation.TagReference;
@@ -15,20 +16,40 @@ import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
 import de.catma.indexer.Indexer;
 import de.catma.project.ProjectReference;
+import de.catma.properties.CATMAPropertyKey;
 import de.catma.repository.git.graph.interfaces.*;
 import de.catma.tag.*;
 import de.catma.user.User;
 
 import javax.lang.model.type.NullType;
+import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class LazyGraphProjectHandler implements GraphProjectHandler {
 	private final Logger logger = Logger.getLogger(LazyGraphProjectHandler.class.getName());
 
+	// documents and collections are mutable and read from the user's own clone, so unlike the document indexes
+	// (see SharedDocumentIndexCache) they are cached per opened project, bounded by their estimated heap size
+	// the caches use a single segment, Guava splits the maximum weight evenly between the segments and an entry that
+	// exceeds the share of its segment would never be cached, for the same reason a single entry weighs at most half
+	// of the maximum
+	private static final long MAX_DOCUMENT_CACHE_SIZE_BYTES = 64L * 1024L * 1024L;
+	private static final long MAX_COLLECTION_CACHE_SIZE_BYTES = 64L * 1024L * 1024L;
+	private static final int ESTIMATED_TAG_REFERENCE_SIZE_BYTES = 512;
+
+	// loads annotation collections for the collection caches of all opened projects
+	private static final SharedWorkerPool<ExecutorService> COLLECTION_LOADER_POOL =
+			SharedWorkerPool.threadPool("catma-collection-loader-", CATMAPropertyKey.COLLECTION_LOAD_PARALLELISM);
+
 	private final ProjectReference projectReference;
 	private final User user;
 
@@ -43,10 +64,15 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 
 	private final CollectionProvider collectionProvider;
 
+	private final RevisionDifferencesProvider revisionDifferencesProvider;
+
 	private final LoadingCache<String, SourceDocument> documentCache;
 	private final LoadingCache<String, AnnotationCollection> collectionCache;
+	// the weights the cached collections have been inserted with, collections are modified in place
+	private final Map<String, Integer> collectionWeights = new ConcurrentHashMap<>();
 
-	private Map<String, SourceDocumentReference> sourceDocumentRefsById = Maps.newHashMap();
+	// replaced as a whole when a revision has been loaded, the references in the map are never modified by the load jobs
+	private volatile Map<String, SourceDocumentReference> sourceDocumentRefsById = Maps.newHashMap();
 	private String revisionHash = "";
 
 	public LazyGraphProjectHandler(
@@ -58,7 +84,8 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 			DocumentProvider documentProvider,
 			DocumentIndexProvider documentIndexProvider,
 			CommentsProvider commentsProvider,
-			CollectionProvider collectionProvider
+			CollectionProvider collectionProvider,
+			RevisionDifferencesProvider revisionDifferencesProvider
 	) {
 		this.projectReference = projectReference;
 		this.user = user;
@@ -69,9 +96,12 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 		this.documentIndexProvider = documentIndexProvider;
 		this.commentsProvider = commentsProvider;
 		this.collectionProvider = collectionProvider;
+		this.revisionDifferencesProvider = revisionDifferencesProvider;
 
 		this.documentCache = CacheBuilder.newBuilder()
-				.maximumSize(10)
+				.concurrencyLevel(1)
+				.maximumWeight(MAX_DOCUMENT_CACHE_SIZE_BYTES)
+				.weigher((String key, SourceDocument sourceDocument) -> estimateSizeInBytes(sourceDocument))
 				.removalListener(
 						new RemovalListener<String, SourceDocument>() {
 							@Override
@@ -90,7 +120,23 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				);
 
 		this.collectionCache = CacheBuilder.newBuilder()
-				.maximumSize(20)
+				.concurrencyLevel(1)
+				.maximumWeight(MAX_COLLECTION_CACHE_SIZE_BYTES)
+				.weigher((String key, AnnotationCollection collection) -> {
+					int weight = estimateSizeInBytes(collection);
+					collectionWeights.put(key, weight);
+					return weight;
+				})
+				.removalListener(
+						new RemovalListener<String, AnnotationCollection>() {
+							@Override
+							public void onRemoval(RemovalNotification<String, AnnotationCollection> notification) {
+								if (notification.getCause() != RemovalCause.REPLACED) {
+									collectionWeights.remove(notification.getKey());
+								}
+							}
+						}
+				)
 				.build(
 						new CacheLoader<String, AnnotationCollection>() {
 							@Override
@@ -99,13 +145,95 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 										key, LazyGraphProjectHandler.this.tagManager.getTagLibrary()
 								);
 							}
+
+							@Override
+							public Map<String, AnnotationCollection> loadAll(Iterable<? extends String> keys) throws Exception {
+								return loadCollections(keys);
+							}
 						}
 				);
 	}
 
+	/**
+	 * Estimates the heap size of a document from the size of its content file, the content itself is loaded lazily
+	 * and might not have been loaded yet.
+	 */
+	private int estimateSizeInBytes(SourceDocument sourceDocument) {
+		URI uri = sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getTechInfoSet().getURI();
+		if (uri == null || !"file".equals(uri.getScheme())) {
+			return 1;
+		}
+
+		// UTF-8 bytes to UTF-16 chars, generously
+		return (int) Math.min(MAX_DOCUMENT_CACHE_SIZE_BYTES / 2, 2 * new File(uri).length() + 1);
+	}
+
+	/**
+	 * Loads the given collections in parallel on the {@link #COLLECTION_LOADER_POOL}.
+	 */
+	private Map<String, AnnotationCollection> loadCollections(Iterable<? extends String> collectionIds) throws Exception {
+		TagLibrary tagLibrary = tagManager.getTagLibrary();
+		Map<String, AnnotationCollection> result = Maps.newHashMap();
+
+		ExecutorService executor = COLLECTION_LOADER_POOL.get();
+		if (executor == null) {
+			for (String collectionId : collectionIds) {
+				AnnotationCollection collection = collectionProvider.getCollection(collectionId, tagLibrary);
+				if (collection != null) {
+					result.put(collectionId, collection);
+				}
+			}
+			return result;
+		}
+
+		Map<String, Future<AnnotationCollection>> futures = new LinkedHashMap<>();
+		for (String collectionId : collectionIds) {
+			futures.put(collectionId, executor.submit(() -> collectionProvider.getCollection(collectionId, tagLibrary)));
+		}
+
+		try {
+			for (Map.Entry<String, Future<AnnotationCollection>> entry : futures.entrySet()) {
+				AnnotationCollection collection = entry.getValue().get();
+				if (collection != null) {
+					result.put(entry.getKey(), collection);
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		finally {
+			// nothing to wait for anymore if one of the loads has failed or we have been interrupted
+			futures.values().forEach(future -> future.cancel(true));
+		}
+
+		return result;
+	}
+
+	private int estimateSizeInBytes(AnnotationCollection collection) {
+		return (int) Math.min(
+				MAX_COLLECTION_CACHE_SIZE_BYTES / 2,
+				(long) ESTIMATED_TAG_REFERENCE_SIZE_BYTES * collection.getTagReferenceCount() + 1
+		);
+	}
+
+	/**
+	 * Puts the given collection into the cache again if its estimated size has changed since it has been cached, so
+	 * that its weight gets recomputed.
+	 */
+	private void updateCollectionWeight(String collectionId) {
+		AnnotationCollection collection = collectionCache.getIfPresent(collectionId);
+		Integer weight = collectionWeights.get(collectionId);
+		if (collection != null && (weight == null || weight != estimateSizeInBytes(collection))) {
+			collectionCache.asMap().replace(collectionId, collection, collection);
+		}
+	}
+
 	@Override
 	public Indexer createIndexer() {
 		return new LazyGraphProjectIndexer(
+				projectReference.getProjectId(),
+				SharedDocumentIndexCache.getInstance(),
 				commentsProvider,
 				new DocumentProvider() {
 					@Override
@@ -153,6 +281,21 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 			return;
 		}
 
+		if (!forceGraphReload && !this.revisionHash.isEmpty()) {
+			reloadChangedResources(revisionHash, collectionsProvider, backgroundService, openProjectListener, progressListener);
+		}
+		else {
+			loadProject(revisionHash, collectionsProvider, backgroundService, openProjectListener, progressListener);
+		}
+	}
+
+	private void loadProject(
+			String revisionHash,
+			CollectionsProvider collectionsProvider,
+			BackgroundService backgroundService,
+			ExecutionListener<NullType> openProjectListener,
+			ProgressListener progressListener
+	) {
 		LoadJob loadJob = new LoadJob(
 				projectReference,
 				tagManager,
@@ -191,8 +334,92 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 		);
 	}
 
+	/**
+	 * Reloads only those resources that differ between the loaded revision and the given one. Cached documents and
+	 * collections that haven't changed stay cached. Falls back to a full reload if the changes cannot be determined.
+	 */
+	private void reloadChangedResources(
+			String revisionHash,
+			CollectionsProvider collectionsProvider,
+			BackgroundService backgroundService,
+			ExecutionListener<NullType> openProjectListener,
+			ProgressListener progressListener
+	) {
+		String oldRevisionHash = this.revisionHash;
+
+		IncrementalLoadJob incrementalLoadJob = new IncrementalLoadJob(
+				projectReference,
+				oldRevisionHash,
+				revisionHash,
+				// copied here, the job runs in the background
+				Maps.newHashMap(sourceDocumentRefsById),
+				tagManager,
+				tagsetsProvider,
+				documentProvider,
+				collectionsProvider,
+				revisionDifferencesProvider
+		);
+
+		backgroundService.submit(
+				incrementalLoadJob,
+				new ExecutionListener<IncrementalLoadJob.Result>() {
+					@Override
+					public void done(IncrementalLoadJob.Result result) {
+						ProjectRevisionChanges changes = result.getChanges();
+
+						logger.info(
+								String.format(
+										"IncrementalLoadJob has finished for project \"%1$s\" with ID %2$s. Old: %3$s, New: %4$s, "
+												+ "changed documents: %5$d, changed collections: %6$d, tagsets changed: %7$b",
+										projectReference.getName(),
+										projectReference.getProjectId(),
+										oldRevisionHash,
+										revisionHash,
+										changes.getDocumentIds().size(),
+										changes.getCollectionIds().size(),
+										changes.isTagsetsChanged()
+								)
+						);
+
+						LazyGraphProjectHandler.this.sourceDocumentRefsById = result.getSourceDocumentRefsById();
+						LazyGraphProjectHandler.this.revisionHash = revisionHash;
+
+						documentCache.invalidateAll(changes.getDocumentIds());
+						if (changes.isTagsetsChanged()) {
+							// orphaned annotations are removed when a collection is loaded, which depends on the tagsets
+							collectionCache.invalidateAll();
+						}
+						else {
+							collectionCache.invalidateAll(changes.getCollectionIds());
+						}
+
+						openProjectListener.done(null);
+					}
+					@Override
+					public void error(Throwable t) {
+						logger.log(
+								Level.WARNING,
+								String.format(
+										"Failed to reload changes for project \"%s\" with ID %s, falling back to a full reload",
+										projectReference.getName(),
+										projectReference.getProjectId()
+								),
+								t
+						);
+						loadProject(revisionHash, collectionsProvider, backgroundService, openProjectListener, progressListener);
+					}
+				},
+				progressListener
+		);
+	}
+
 	@Override
 	public void updateProjectRevision(String oldRevisionHash, String newRevisionHash) {
+		// some operations like tag deletion modify several cached collections at once
+		for (String collectionId : collectionCache.asMap().keySet()) {
+			updateCollectionWeight(collectionId);
+		}
+
 		if (newRevisionHash.equals(oldRevisionHash)) {
 			logger.info(
 					String.format("No changes in project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId())
@@ -257,6 +484,11 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 		updateProjectRevision(oldRevisionHash, newRevisionHash);
 	}
 
+	@Override
+	public void annotationCollectionChanged(String annotationCollectionId) {
+		updateCollectionWeight(annotationCollectionId);
+	}
+
 	@Override
 	public Multimap<String, TagReference> getTagReferencesByCollectionId(TagsetDefinition tagsetDefinition) throws Exception {
 		Multimap<String, TagReference> result = ArrayListMultimap.create();
@@ -267,11 +499,15 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				.flatMap(Collection::stream)
 				.collect(Collectors.toSet());
 
-		for (AnnotationCollectionReference collectionReference : collectionReferences) {
-			AnnotationCollection collection = collectionCache.get(collectionReference.getId());
+		// collections that are not cached yet are loaded in parallel
+		Map<String, AnnotationCollection> collectionsById = collectionCache.getAll(
+				collectionReferences.stream().map(AnnotationCollectionReference::getId).collect(Collectors.toList())
+		);
+
+		for (AnnotationCollection collection : collectionsById.values()) {
 			collection.getTagReferences(tagsetDefinition)
 					.stream()
-					.forEach(tagReference -> result.put(collectionReference.getId(), tagReference));
+					.forEach(tagReference -> result.put(collection.getId(), tagReference));
 		}
 
 		return result;
@@ -287,11 +523,15 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				.flatMap(Collection::stream)
 				.collect(Collectors.toSet());
 
-		for (AnnotationCollectionReference collectionReference : collectionReferences) {
-			AnnotationCollection collection = collectionCache.get(collectionReference.getId());
+		// collections that are not cached yet are loaded in parallel
+		Map<String, AnnotationCollection> collectionsById = collectionCache.getAll(
+				collectionReferences.stream().map(AnnotationCollectionReference::getId).collect(Collectors.toList())
+		);
+
+		for (AnnotationCollection collection : collectionsById.values()) {
 			collection.getTagReferences(tag)
 					.stream()
-					.forEach(tagReference -> result.put(collectionReference.getId(), tagReference));
+					.forEach(tagReference -> result.put(collection.getId(), tagReference));
 		}
 
 		return result;
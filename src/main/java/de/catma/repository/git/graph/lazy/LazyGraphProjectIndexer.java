@@ -1,9 +1,7 @@
 package de.catma.repository.git.graph.lazy;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import de.catma.backgroundservice.BackgroundService;
@@ -24,15 +22,146 @@ import de.catma.tag.PropertyDefinition.SystemPropertyName;
 import de.catma.util.IDGenerator;
 import de.catma.util.Pair;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class LazyGraphProjectIndexer implements Indexer {
+	/**
+	 * Searches a single document and adds its matches to the given result.
+	 */
+	private interface DocumentSearch {
+		void search(String documentId, QueryResultRowArray result) throws ExecutionException;
+	}
+
+	private static class DocumentSearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 7386621528419375018L;
+
+		private final String documentId;
+		private final DocumentSearch documentSearch;
+		private final QueryResultRowArray result = new QueryResultRowArray();
+		private ExecutionException exception;
+
+		DocumentSearchTask(String documentId, DocumentSearch documentSearch) {
+			this.documentId = documentId;
+			this.documentSearch = documentSearch;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				documentSearch.search(documentId, result);
+			}
+			catch (ExecutionException e) {
+				exception = e;
+			}
+		}
+	}
+
+	/**
+	 * Produces the rows of the types of a document that satisfy a frequency filter from the token store of the
+	 * document. Types are filtered on the dictionary of the document, postings are expanded only for matching types. All
+	 * rows of a document are ordered by type and then by position.
+	 */
+	private class TypeRowSource implements PagedQueryResult.DocumentRowSource {
+		private final QueryId queryId;
+		private final IntPredicate frequencyFilter;
+		private final Set<String> types; // null for all types
+
+		TypeRowSource(QueryId queryId, IntPredicate frequencyFilter, Set<String> types) {
+			this.queryId = queryId;
+			this.frequencyFilter = frequencyFilter;
+			this.types = types;
+		}
+
+		private DocumentTokenStore getTokenStore(String documentId) throws IOException {
+			try {
+				return getDocumentTokenStore(documentId);
+			}
+			catch (ExecutionException e) {
+				throw new IOException(e);
+			}
+		}
+
+		/**
+		 * @return the IDs of the matching types of the given document in ascending order
+		 */
+		private int[] getTermIds(DocumentTokenStore documentTokenStore) {
+			IntStream termIds;
+			if (types == null) {
+				termIds = IntStream.range(0, documentTokenStore.getTermCount());
+			}
+			else {
+				// the types have been selected on the corpus dictionary, we just look them up in the document's dictionary
+				termIds = types.stream().mapToInt(documentTokenStore::findTermId).filter(termId -> termId != -1).sorted();
+			}
+
+			return termIds.filter(termId -> frequencyFilter.test(documentTokenStore.getFrequency(termId))).toArray();
+		}
+
+		@Override
+		public QueryResultRowArray getRows(String documentId, String phrase) throws IOException {
+			DocumentTokenStore documentTokenStore = getTokenStore(documentId);
+			QueryResultRowArray result = new QueryResultRowArray();
+
+			if (phrase != null) {
+				int termId = documentTokenStore.findTermId(phrase);
+				if (termId != -1 
+						&& (types == null || types.contains(phrase))
+						&& frequencyFilter.test(documentTokenStore.getFrequency(termId))) {
+					addRows(documentId, documentTokenStore, termId, result);
+				}
+				return result;
+			}
+
+			for (int termId : getTermIds(documentTokenStore)) {
+				addRows(documentId, documentTokenStore, termId, result);
+			}
+
+			return result;
+		}
+
+		private void addRows(String documentId, DocumentTokenStore documentTokenStore, int termId, QueryResultRowArray result) {
+			String literal = documentTokenStore.getTerm(termId);
+
+			for (int i = 0; i < documentTokenStore.getFrequency(termId); i++) {
+				int tokenOffset = documentTokenStore.getPosting(termId, i);
+				result.add(
+					new QueryResultRow(
+						queryId,
+						documentId,
+						new Range(
+							documentTokenStore.getStartOffset(tokenOffset),
+							documentTokenStore.getEndOffset(tokenOffset)),
+						literal));
+			}
+		}
+
+		@Override
+		public Map<String, Integer> getPhraseFrequencies(String documentId) throws IOException {
+			DocumentTokenStore documentTokenStore = getTokenStore(documentId);
+			Map<String, Integer> phraseFrequencies = new LinkedHashMap<>();
+
+			for (int termId : getTermIds(documentTokenStore)) {
+				phraseFrequencies.put(documentTokenStore.getTerm(termId), documentTokenStore.getFrequency(termId));
+			}
+
+			return phraseFrequencies;
+		}
+	}
+
 	private final Logger logger = Logger.getLogger(LazyGraphProjectIndexer.class.getName());
 
 	private final CommentsProvider commentsProvider;
@@ -40,76 +169,170 @@ public class LazyGraphProjectIndexer implements Indexer {
 	private final CollectionProvider collectionProvider;
 	private final TagLibraryProvider tagLibraryProvider;
 
-	private final LoadingCache<String, Set<Term>> documentIndexCache;
+	private final String projectId;
+	private final SharedDocumentIndexCache documentIndexCache;
+	private CorpusIndex corpusIndex; // loaded lazily, see getCorpusIndex
 
 	private final IDGenerator idGenerator = new IDGenerator();
 
+	// the git based providers read from the worktree and must not be accessed concurrently
+	private final Object documentIndexProviderLock = new Object();
+
 	public LazyGraphProjectIndexer(
+			String projectId,
+			SharedDocumentIndexCache documentIndexCache,
 			CommentsProvider commentsProvider,
 			DocumentProvider documentProvider,
 			DocumentIndexProvider documentIndexProvider,
 			CollectionProvider collectionProvider,
 			TagLibraryProvider tagLibraryProvider
 	) {
+		this.projectId = projectId;
+		this.documentIndexCache = documentIndexCache;
 		this.documentIndexProvider = documentIndexProvider;
 		this.commentsProvider = commentsProvider;
 		this.collectionProvider = collectionProvider;
 		this.tagLibraryProvider = tagLibraryProvider;
+	}
 
-		this.documentIndexCache = CacheBuilder.newBuilder().maximumSize(10).build(
-				new CacheLoader<String, Set<Term>>() {
-					@Override
-					public Set<Term> load(String key) throws Exception {
-						return loadDocumentIndex(key);
-					}
+	private synchronized CorpusIndex getCorpusIndex() {
+		if (corpusIndex == null) {
+			File corpusIndexFile = documentIndexProvider.getCorpusIndexFile();
+
+			if (corpusIndexFile != null) {
+				try {
+					corpusIndex = CorpusIndex.load(corpusIndexFile);
 				}
-		);
-	}
+				catch (IOException e) {
+					logger.log(Level.WARNING, String.format("Failed to load corpus index of project %s, rebuilding", projectId), e);
+				}
+			}
 
-	@SuppressWarnings({ "rawtypes" })
-	private Set<Term> loadDocumentIndex(String documentId) throws Exception {
-		Map documentIndexContent = documentIndexProvider.getDocumentIndex(documentId);
+			if (corpusIndex == null) {
+				corpusIndex = new CorpusIndex();
+			}
+		}
 
-		Set<Term> terms = new HashSet<>();
-		Map<Integer, Position> adjacencyMap = new HashMap<>();
+		return corpusIndex;
+	}
 
-		for (Object entry : documentIndexContent.entrySet()) {
-			String literal = (String)((Map.Entry) entry).getKey();
-			List positions = (List)((Map.Entry) entry).getValue();
-			Term term = new Term(literal, positions.size());
-			terms.add(term);
+	private void writeCorpusIndex() {
+		File corpusIndexFile = documentIndexProvider.getCorpusIndexFile();
 
-			for (Object positionEntry : positions) {
-				int startOffset = ((Double) ((Map) positionEntry).get("startOffset")).intValue();
-				int endOffset = ((Double) ((Map) positionEntry).get("endOffset")).intValue();
-				int tokenOffset = ((Double) ((Map) positionEntry).get("tokenOffset")).intValue();
+		if (corpusIndexFile != null && getCorpusIndex().isModified()) {
+			try {
+				getCorpusIndex().write(corpusIndexFile);
+			}
+			catch (IOException e) {
+				// not fatal, missing documents are added again when they are first queried
+				logger.log(Level.WARNING, String.format("Failed to write corpus index of project %s", projectId), e);
+			}
+		}
+	}
 
-				Position position = new Position(startOffset, endOffset, tokenOffset, term);
-				term.addPosition(position);
-				adjacencyMap.put(tokenOffset, position);
+	/**
+	 * Adds the given document to the corpus index if it is not part of it yet.
+	 *
+	 * @return the revision of the document content
+	 */
+	private String ensureIndexed(String documentId) throws ExecutionException {
+		String revision = getCorpusIndex().getDocumentRevision(documentId);
+
+		if (revision == null) {
+			try {
+				DocumentIndex documentIndex = getDocumentIndex(documentId);
+				getCorpusIndex().addDocument(documentId, documentIndex);
+				revision = documentIndex.getSourceDigest();
+			}
+			catch (IOException e) {
+				throw new ExecutionException(e);
 			}
 		}
 
-		for (int i = 0; i < adjacencyMap.size(); i++) {
-			Position position = adjacencyMap.get(i);
+		return revision;
+	}
 
-			if (i < adjacencyMap.size() - 1) {
-				position.setForwardAdjacentPostion(adjacencyMap.get(i + 1));
-			}
+	/**
+	 * Narrows the given documents down to the ones that can contain matches according to the corpus index, without
+	 * loading any of the document indexes that are already part of the corpus index.
+	 *
+	 * @param documentFilter selects the numbers of the candidate documents from the corpus index
+	 * @return the candidate documents in their original order
+	 */
+	private List<String> getCandidateDocumentIds(List<String> documentIdList, Function<CorpusIndex, BitSet> documentFilter)
+			throws ExecutionException {
+		for (String documentId : documentIdList) {
+			ensureIndexed(documentId);
+		}
+		writeCorpusIndex();
 
-			if (i > 0) {
-				position.setBackwardAdjacentPosition(adjacencyMap.get(i - 1));
+		CorpusIndex corpusIndex = getCorpusIndex();
+		return corpusIndex.filter(documentIdList, documentFilter.apply(corpusIndex));
+	}
+
+	private DocumentIndex getDocumentIndex(String documentId) throws IOException {
+		synchronized (documentIndexProviderLock) {
+			return documentIndexProvider.getDocumentIndex(documentId);
+		}
+	}
+
+	private DocumentTokenStore getDocumentTokenStore(String documentId) throws ExecutionException {
+		// documents don't change once they have been created, so the revision of a document is looked up only once
+		String revision = ensureIndexed(documentId);
+
+		// the index is mapped while holding the provider lock, building the token store happens outside of it
+		return documentIndexCache.get(
+				projectId, documentId, revision, () -> DocumentTokenStore.load(getDocumentIndex(documentId))
+		);
+	}
+
+	/**
+	 * Runs the given search for each of the given documents. When called from within a fork/join pool (see
+	 * the query pool of {@link de.catma.queryengine.QueryJob}) each document is searched by its own task, so that idle workers
+	 * can steal documents from busy ones.
+	 *
+	 * @return the matches of all documents, in the order of the given documents
+	 */
+	private QueryResultRowArray searchDocuments(List<String> documentIds, DocumentSearch documentSearch)
+			throws ExecutionException {
+		QueryResultRowArray result = new QueryResultRowArray();
+
+		if (documentIds.size() < 2 || !ForkJoinTask.inForkJoinPool()) {
+			for (String documentId : documentIds) {
+				documentSearch.search(documentId, result);
 			}
+			return result;
 		}
 
-		logger.info(String.format("Finished adding document with ID %s to the graph", documentId));
+		List<DocumentSearchTask> tasks = documentIds.stream()
+				.map(documentId -> new DocumentSearchTask(documentId, documentSearch))
+				.collect(Collectors.toList());
+		ForkJoinTask.invokeAll(tasks);
 
-		return terms;
+		for (DocumentSearchTask task : tasks) {
+			if (task.exception != null) {
+				throw task.exception;
+			}
+			result.addAll(task.result);
+		}
+
+		return result;
 	}
 
 	@Override
 	public void index(SourceDocument sourceDocument, BackgroundService backgroundService) throws Exception {
-		// noop
+		try {
+			getCorpusIndex().addDocument(sourceDocument.getUuid(), getDocumentIndex(sourceDocument.getUuid()));
+			writeCorpusIndex();
+		}
+		catch (IOException e) {
+			// not fatal, the document is added when it is first queried
+			logger.log(
+					Level.WARNING,
+					String.format("Failed to add document with ID %s to the corpus index of project %s", sourceDocument.getUuid(), projectId),
+					e
+			);
+		}
 	}
 
 	@Override
@@ -120,7 +343,8 @@ public class LazyGraphProjectIndexer implements Indexer {
 
 	@Override
 	public void removeSourceDocument(String sourceDocumentID) throws IOException {
-		// noop 
+		getCorpusIndex().removeDocument(sourceDocumentID);
+		writeCorpusIndex();
 	}
 
 	@Override
@@ -136,71 +360,151 @@ public class LazyGraphProjectIndexer implements Indexer {
 	@Override
 	public QueryResult searchPhrase(QueryId queryId, List<String> documentIdList, String phrase, List<String> termList, int limit)
 			throws Exception {
+		QueryResultRowArray result = new QueryResultRowArray();
+
+		if (documentIdList.isEmpty() || termList.isEmpty()) {
+			return result;
+		}
 
-		return searchPhrase(queryId, documentIdList, phrase, termList, limit, (term1, term2) -> term1.equals(term2));
+		List<String> candidateDocumentIds = getCandidateDocumentIds(documentIdList, corpus -> {
+			// only documents that contain all terms of the phrase can contain the phrase
+			BitSet documents = corpus.getDocuments(termList.get(0));
+			for (int i = 1; i < termList.size() && !documents.isEmpty(); i++) {
+				documents.and(corpus.getDocuments(termList.get(i)));
+			}
+			return documents;
+		});
+
+		return searchDocuments(candidateDocumentIds, (sourceDocumentId, documentResult) -> {
+			DocumentTokenStore documentTokenStore = getDocumentTokenStore(sourceDocumentId);
+
+			// resolve all terms of the phrase upfront, a single missing term rules out the whole document
+			int[] searchTermIds = new int[termList.size()];
+			boolean allTermsFound = true;
+			for (int i = 0; i < termList.size() && allTermsFound; i++) {
+				searchTermIds[i] = documentTokenStore.findTermId(termList.get(i));
+				allTermsFound = searchTermIds[i] != -1;
+			}
+
+			if (!allTermsFound) {
+				return;
+			}
+
+			addPhraseMatches(
+					documentResult,
+					queryId,
+					sourceDocumentId,
+					phrase,
+					documentTokenStore,
+					new int[] {searchTermIds[0]},
+					termList.size(),
+					(tokenOffset, termIdx) -> documentTokenStore.getTermId(tokenOffset) == searchTermIds[termIdx]
+			);
+		});
 	}
 
-	private QueryResult searchPhrase(
-			QueryId queryId,
-			List<String> sourceDocumentIds,
-			String searchPhrase,
-			List<String> searchTerms,
-			int limit,
-			BiPredicate<String, String> termTestFunction
-	) throws Exception {
+	@Override
+	public QueryResult searchWildcardPhrase(QueryId queryId, List<String> documentIdList, List<String> termList, int limit)
+			throws Exception {
 		QueryResultRowArray result = new QueryResultRowArray();
 
-		if (sourceDocumentIds.isEmpty() || searchTerms.isEmpty()) {
+		if (documentIdList.isEmpty() || termList.isEmpty()) {
 			return result;
 		}
 
-		for (String sourceDocumentId : sourceDocumentIds) {
-			Set<Term> allDocumentTerms = documentIndexCache.get(sourceDocumentId);
+		// compile the patterns once for all documents
+		List<WildcardTermPattern> patterns = termList.stream().map(WildcardTermPattern::compile).collect(Collectors.toList());
 
-			// in the case of a phrase query there can be multiple search terms which need to appear in order, but only one match per term
-			// in the case of a wildcard query there will be only one search term, but potentially many matched terms
-			// the loop below is therefore only relevant to wildcard queries (phrase queries start with the first search term and pass the rest to
-			// Term.getPositions)
-			Set<Term> matchedTerms = allDocumentTerms.parallelStream()
-					.filter(term -> termTestFunction.test(term.getLiteral(), searchTerms.get(0)))
-					.collect(Collectors.toSet());
+		List<String> candidateDocumentIds = getCandidateDocumentIds(documentIdList, corpus -> {
+			BitSet documents = corpus.getDocuments(patterns.get(0));
+			for (int i = 1; i < patterns.size() && !documents.isEmpty(); i++) {
+				documents.and(corpus.getDocuments(patterns.get(i)));
+			}
+			return documents;
+		});
 
-			for (Term matchedTerm : matchedTerms) {
-				List<List<Position>> positionLists = matchedTerm.getPositions(
-						searchTerms.size() > 1 ? searchTerms.subList(1, searchTerms.size()) : Collections.emptyList(),
-						termTestFunction
-				);
+		return searchDocuments(candidateDocumentIds, (sourceDocumentId, documentResult) -> {
+			DocumentTokenStore documentTokenStore = getDocumentTokenStore(sourceDocumentId);
 
-				for (List<Position> positions : positionLists) {
+			// there can be many matching terms for a single wildcard term
+			int[] firstTermIds = documentTokenStore.findTermIds(patterns.get(0));
+			if (firstTermIds.length == 0) {
+				return;
+			}
+
+			// resolve the remaining patterns against the dictionary once, testing a token is then a plain lookup
+			boolean[][] matchingTerms = new boolean[patterns.size()][];
+			boolean allTermsFound = true;
+			for (int i = 1; i < patterns.size() && allTermsFound; i++) {
+				int[] termIds = documentTokenStore.findTermIds(patterns.get(i));
+				matchingTerms[i] = new boolean[documentTokenStore.getTermCount()];
+				for (int termId : termIds) {
+					matchingTerms[i][termId] = true;
+				}
+				allTermsFound = termIds.length > 0;
+			}
+
+			if (!allTermsFound) {
+				return;
+			}
+
+			addPhraseMatches(
+					documentResult,
+					queryId,
+					sourceDocumentId,
+					"", // phrase is added later in the processing
+					documentTokenStore,
+					firstTermIds,
+					termList.size(),
+					(tokenOffset, termIdx) -> matchingTerms[termIdx][documentTokenStore.getTermId(tokenOffset)]
+			);
+		});
+	}
+
+	/**
+	 * Adds a row for each occurrence of one of the given first terms that is followed by tokens satisfying the
+	 * remaining terms of the phrase.
+	 *
+	 * @param firstTermIds the IDs of the terms matching the first term of the phrase
+	 * @param termCount the number of terms of the phrase
+	 * @param tokenTestFunction tests whether the token at the given offset matches the phrase term at the given index
+	 */
+	private void addPhraseMatches(
+			QueryResultRowArray result,
+			QueryId queryId,
+			String sourceDocumentId,
+			String phrase,
+			DocumentTokenStore documentTokenStore,
+			int[] firstTermIds,
+			int termCount,
+			BiPredicate<Integer, Integer> tokenTestFunction
+	) {
+		for (int firstTermId : firstTermIds) {
+			for (int i = 0; i < documentTokenStore.getFrequency(firstTermId); i++) {
+				int startTokenOffset = documentTokenStore.getPosting(firstTermId, i);
+				int endTokenOffset = startTokenOffset + termCount - 1;
+
+				boolean match = true;
+				for (int termIdx = 1; termIdx < termCount && match; termIdx++) {
+					int tokenOffset = startTokenOffset + termIdx;
+					match = documentTokenStore.hasToken(tokenOffset) && tokenTestFunction.test(tokenOffset, termIdx);
+				}
+
+				if (match) {
 					result.add(
 							new QueryResultRow(
 									queryId,
 									sourceDocumentId,
 									new Range(
-											positions.get(0).getStartOffset(),
-											positions.get(positions.size() - 1).getEndOffset()
+											documentTokenStore.getStartOffset(startTokenOffset),
+											documentTokenStore.getEndOffset(endTokenOffset)
 									),
-									searchPhrase
+									phrase
 							)
 					);
 				}
 			}
 		}
-
-		return result;
-	}
-
-	@Override
-	public QueryResult searchWildcardPhrase(QueryId queryId, List<String> documentIdList, List<String> termList, int limit)
-			throws Exception {
-		
-		return searchPhrase(
-			queryId,
-			documentIdList, 
-			"", // phrase is added later in the processing
-			termList, 
-			limit, 
-			(term1, term2) -> term1.matches(SQLWildcard2RegexConverter.convert(term2)));
 	}
 
 	@Override
@@ -213,14 +517,14 @@ public class LazyGraphProjectIndexer implements Indexer {
 		}
 
 		final boolean isWildcardQuery = tagPathPattern.trim().matches("^/?%+$");
-		final String tagPathRegex = SQLWildcard2RegexConverter.convert(tagPathPattern);
+		final Pattern tagPathRegex = Pattern.compile(SQLWildcard2RegexConverter.convert(tagPathPattern));
 		Map<String, String> validTagIdToTagPathMapping = new HashMap<>();
 		Set<TagDefinition> validTagDefinitions = Sets.newHashSet();
 
 		for (TagsetDefinition tagsetDefinition : tagLibraryProvider.getTagLibrary()) {
 			for (TagDefinition tagDefinition : tagsetDefinition) {
 				String path = tagsetDefinition.getTagPath(tagDefinition);
-				if (isWildcardQuery || Pattern.matches(tagPathRegex, path)) {
+				if (isWildcardQuery || tagPathRegex.matcher(path).matches()) {
 					validTagIdToTagPathMapping.put(tagDefinition.getUuid(), path);
 					validTagDefinitions.add(tagDefinition);
 				}
@@ -275,14 +579,14 @@ public class LazyGraphProjectIndexer implements Indexer {
 		}
 
 		final boolean isWildcardQuery = tagPathPattern == null || tagPathPattern.trim().matches("^/?%+$");
-		final String tagPathRegex = tagPathPattern == null ? null : SQLWildcard2RegexConverter.convert(tagPathPattern);
+		final Pattern tagPathRegex = tagPathPattern == null ? null : Pattern.compile(SQLWildcard2RegexConverter.convert(tagPathPattern));
 		Map<String, String> validTagIdToTagPathMapping = new HashMap<>();
 		Set<TagDefinition> validTagDefinitions = Sets.newHashSet();
 
 		for (TagsetDefinition tagsetDefinition : tagLibraryProvider.getTagLibrary()) {
 			for (TagDefinition tagDefinition : tagsetDefinition) {
 				String path = tagsetDefinition.getTagPath(tagDefinition);
-				if (isWildcardQuery || Pattern.matches(tagPathRegex, path)) {
+				if (isWildcardQuery || tagPathRegex.matcher(path).matches()) {
 					validTagIdToTagPathMapping.put(tagDefinition.getUuid(), path);
 					validTagDefinitions.add(tagDefinition);
 				}
@@ -439,25 +743,33 @@ public class LazyGraphProjectIndexer implements Indexer {
 			CompareOperator comp1, int freq1,
 			CompareOperator comp2, int freq2) throws IOException {
 		try {
-			QueryResultRowArray result = new QueryResultRowArray();
-			
-			for (String documentId : documentIdList) {
-				Set<Term> terms = documentIndexCache.get(documentId);
-				terms.stream()
-					.filter(new FrequencyFilter(comp1, freq1, comp2, freq2))
-					.flatMap(term -> term.getPositions().stream())
-					.forEach(position -> {
-						result.add(
-							new QueryResultRow(
-								queryId,
-								documentId,
-								new Range(
-									position.getStartOffset(), 
-									position.getEndOffset()),
-								position.getTerm().getLiteral()));						
-					});
-			}
-			return result;
+			FrequencyFilter frequencyFilter = new FrequencyFilter(comp1, freq1, comp2, freq2);
+
+			List<String> candidateDocumentIds = getCandidateDocumentIds(
+					documentIdList, corpus -> corpus.getDocuments(frequencyFilter)
+			);
+
+			// the rows are produced per document when the result is iterated, grouping counts come from the dictionary
+			return new PagedQueryResult(candidateDocumentIds, new TypeRowSource(queryId, frequencyFilter, null));
+		}
+		catch (ExecutionException ee) {
+			throw new IOException(ee);
+		}
+	}
+
+	@Override
+	public QueryResult searchTypes(QueryId queryId, List<String> documentIdList, Predicate<String> typeFilter)
+			throws IOException {
+		try {
+			Set<String> types = new HashSet<>();
+
+			// the filter is tested once per type of the corpus dictionary rather than once per token
+			List<String> candidateDocumentIds = getCandidateDocumentIds(documentIdList, corpus -> {
+				types.addAll(corpus.getTerms(typeFilter));
+				return corpus.getDocuments(types);
+			});
+
+			return new PagedQueryResult(candidateDocumentIds, new TypeRowSource(queryId, frequency -> true, types));
 		}
 		catch (ExecutionException ee) {
 			throw new IOException(ee);
@@ -471,42 +783,26 @@ public class LazyGraphProjectIndexer implements Indexer {
 		SpanContext spanContext = new SpanContext(sourceDocumentId);
 
 		try {
-			SortedSet<Position> sortedPosition =
-				new TreeSet<Position>(
-					(pos1, pos2) -> Integer.compare(pos1.getTokenOffset(), pos2.getTokenOffset()));
-			for (Term term : documentIndexCache.get(sourceDocumentId)) {
-				sortedPosition.addAll(term.getPositions(range));
-			}
+			DocumentTokenStore documentTokenStore = getDocumentTokenStore(sourceDocumentId);
+			int[] overlappingTokenOffsets = documentTokenStore.getTokenOffsetsOverlapping(range);
 			
-			if (!sortedPosition.isEmpty()) {
-				Position firstPos = sortedPosition.first();
-				Position lastPos = sortedPosition.last();
+			if (overlappingTokenOffsets != null) {
+				int firstTokenOffset = overlappingTokenOffsets[0];
+				int lastTokenOffset = overlappingTokenOffsets[1];
 				
 				if (direction.equals(SpanDirection.BOTH) || direction.equals(SpanDirection.BACKWARD)) {
-					Position backwardPos = firstPos.getBackwardAdjacentPosition();
-					while (backwardPos != null && spanContext.getBackwardTokens().size() < spanContextSize) {
-						spanContext.addBackwardToken(
-								new TermInfo(
-										backwardPos.getTerm().getLiteral(),
-										backwardPos.getStartOffset(),
-										backwardPos.getEndOffset(),
-										backwardPos.getTokenOffset()
-								));
-						backwardPos = backwardPos.getBackwardAdjacentPosition();
+					int backwardTokenOffset = firstTokenOffset - 1;
+					while (documentTokenStore.hasToken(backwardTokenOffset) && spanContext.getBackwardTokens().size() < spanContextSize) {
+						spanContext.addBackwardToken(createTermInfo(documentTokenStore, backwardTokenOffset));
+						backwardTokenOffset--;
 					}
 				}
 				
 				if (direction.equals(SpanDirection.BOTH) || direction.equals(SpanDirection.FORWARD)) {
-					Position forwardPos = lastPos.getForwardAdjacentPostion();
-					while (forwardPos != null && spanContext.getForwardTokens().size() < spanContextSize) {
-						spanContext.addForwardToken(
-								new TermInfo(
-										forwardPos.getTerm().getLiteral(),
-										forwardPos.getStartOffset(),
-										forwardPos.getEndOffset(),
-										forwardPos.getTokenOffset()
-								));
-						forwardPos = forwardPos.getForwardAdjacentPostion();
+					int forwardTokenOffset = lastTokenOffset + 1;
+					while (documentTokenStore.hasToken(forwardTokenOffset) && spanContext.getForwardTokens().size() < spanContextSize) {
+						spanContext.addForwardToken(createTermInfo(documentTokenStore, forwardTokenOffset));
+						forwardTokenOffset++;
 					}
 				}
 			}
@@ -534,6 +830,25 @@ public class LazyGraphProjectIndexer implements Indexer {
 	}
 
 	
+	private TermInfo createTermInfo(DocumentTokenStore documentTokenStore, int tokenOffset) {
+		return new TermInfo(
+				documentTokenStore.getTermLiteral(tokenOffset),
+				documentTokenStore.getStartOffset(tokenOffset),
+				documentTokenStore.getEndOffset(tokenOffset),
+				tokenOffset
+		);
+	}
+
+	@Override
+	public DocumentTokens getDocumentTokens(String sourceDocumentId) throws IOException {
+		try {
+			return getDocumentTokenStore(sourceDocumentId);
+		}
+		catch (ExecutionException ee) {
+			throw new IOException(ee);
+		}
+	}
+
 	@Override
 	public QueryResult searchCollocation(
 			QueryId queryId, QueryResult baseResult, QueryResult collocationConditionResult,
@@ -551,34 +866,50 @@ public class LazyGraphProjectIndexer implements Indexer {
 			collocationConditionResult = bufferResult;
 		}
 		
-		Multimap<String, QueryResultRow> collocConditionResultBySourceDocumentId = 
-				ArrayListMultimap.create();
-		collocationConditionResult.forEach(
-			row -> collocConditionResultBySourceDocumentId.put(row.getSourceDocumentId(), row));
+		QueryResultRowIndex collocConditionResultIndex = new QueryResultRowIndex(collocationConditionResult);
 		
 		QueryResultRowArray matchingBaseRows = new QueryResultRowArray();
 		QueryResultRowArray matchingCollocConditionRows = new QueryResultRowArray();
+		
+		// QueryResultRow#equals only holds between rows with the same range, so lookups can be limited to those
+		ListMultimap<Range, QueryResultRow> matchingBaseRowsByRange = ArrayListMultimap.create();
+		ListMultimap<Range, QueryResultRow> matchingCollocConditionRowsByRange = ArrayListMultimap.create();
 
 		for (QueryResultRow row : baseResult) {
 			
-			if (collocConditionResultBySourceDocumentId.containsKey(row.getSourceDocumentId())) {
+			if (collocConditionResultIndex.anyRowInDocument(row.getSourceDocumentId(), position -> true)) {
 				SpanContext spanContext = 
 						getSpanContextFor(
 								row.getSourceDocumentId(), row.getRange(), spanContextSize, direction);
 
-				boolean baseMatch = matchingBaseRows.contains(row);
+				boolean baseMatch = containsRow(matchingBaseRowsByRange, row);
+				
+				// only rows that intersect the span can overlap it, visiting them in result order keeps the order of the matches
+				BitSet candidatePositions = new BitSet();
+				if ((spanContext.getForwardRange() != null) 
+						&& (direction.equals(SpanDirection.BOTH) || direction.equals(SpanDirection.FORWARD))) {
+					collocConditionResultIndex.addRowsIntersecting(
+							row.getSourceDocumentId(), spanContext.getForwardRange(), candidatePositions);
+				}
+				if ((spanContext.getBackwardRange() != null) 
+						&& (direction.equals(SpanDirection.BOTH) || direction.equals(SpanDirection.BACKWARD))) {
+					collocConditionResultIndex.addRowsIntersecting(
+							row.getSourceDocumentId(), spanContext.getBackwardRange(), candidatePositions);
+				}
 		
-				for (QueryResultRow collocConditionRow : 
-					collocConditionResultBySourceDocumentId.get(row.getSourceDocumentId()) ) {
-					boolean collocMatch = matchingCollocConditionRows.contains(collocConditionRow);
+				for (int position = candidatePositions.nextSetBit(0); position >= 0; position = candidatePositions.nextSetBit(position + 1)) {
+					QueryResultRow collocConditionRow = collocConditionResultIndex.getRow(position);
+					boolean collocMatch = containsRow(matchingCollocConditionRowsByRange, collocConditionRow);
 					if (!baseMatch || !collocMatch) {
 						if (spanContext.hasOverlappingRange(collocConditionRow.getRanges(), direction)) {
 							if (!baseMatch) {
 								matchingBaseRows.add(row);
+								matchingBaseRowsByRange.put(row.getRange(), row);
 								baseMatch = true;
 							}
 							if (!collocMatch) {
 								matchingCollocConditionRows.add(collocConditionRow);
+								matchingCollocConditionRowsByRange.put(collocConditionRow.getRange(), collocConditionRow);
 								collocMatch = true;
 							}
 						}
@@ -598,6 +929,19 @@ public class LazyGraphProjectIndexer implements Indexer {
 		return matchingBaseRows;
 	}
 
+	/**
+	 * @return <code>true</code> if one of the given rows is {@link QueryResultRow#equals(Object) equal} to the given
+	 *         row, same as {@link List#contains(Object)} on a list of these rows
+	 */
+	private boolean containsRow(ListMultimap<Range, QueryResultRow> rowsByRange, QueryResultRow row) {
+		for (QueryResultRow candidate : rowsByRange.get(row.getRange())) {
+			if (row.equals(candidate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void close() {
 		// noop
@@ -622,6 +966,7 @@ public class LazyGraphProjectIndexer implements Indexer {
 			Locale locale
 	) throws Exception {
 		List<Comment> comments = commentsProvider.getComments(documentIds);
+		List<WildcardTermPattern> patterns = terms.stream().map(WildcardTermPattern::compile).collect(Collectors.toList());
 
 		QueryResultRowArray result = new QueryResultRowArray();
 		for (Comment comment : comments) {
@@ -637,7 +982,7 @@ public class LazyGraphProjectIndexer implements Indexer {
 				);
 				List<String> commentTerms = termExtractor.getTermsInOrder();
 
-				if (matches(commentTerms, terms)) {
+				if (matches(commentTerms, patterns)) {
 					result.add(new CommentQueryResultRow(queryId, comment));
 				}
 				else {
@@ -650,7 +995,7 @@ public class LazyGraphProjectIndexer implements Indexer {
 						);
 						List<String> replyTerms = replyTermExtractor.getTermsInOrder();
 
-						if (matches(replyTerms, terms)) {
+						if (matches(replyTerms, patterns)) {
 							result.add(new CommentQueryResultRow(queryId, comment));
 							break;
 						}
@@ -662,13 +1007,13 @@ public class LazyGraphProjectIndexer implements Indexer {
 		return result;
 	}
 
-	private boolean matches(List<String> commentTerms, List<String> termList) {
+	private boolean matches(List<String> commentTerms, List<WildcardTermPattern> termList) {
 		int startIdx = -1;
 		
-		String firstQueryTermRegEx = SQLWildcard2RegexConverter.convert(termList.get(0));
+		WildcardTermPattern firstQueryTermPattern = termList.get(0);
 		
 		for (int idx=0; idx<commentTerms.size(); idx++) {
-			if (commentTerms.get(idx).matches(firstQueryTermRegEx)) {
+			if (firstQueryTermPattern.matches(commentTerms.get(idx))) {
 				startIdx = idx;
 				break;
 			}
@@ -679,11 +1024,11 @@ public class LazyGraphProjectIndexer implements Indexer {
 			
 			if (termList.size() > 1) {
 
-				List<String> remainingTerms = termList.subList(1, termList.size());
+				List<WildcardTermPattern> remainingTerms = termList.subList(1, termList.size());
 				List<String> remainingCommentTerms = commentTerms.subList(startIdx+1, commentTerms.size());
 				
 				for (int i=0; i<remainingTerms.size(); i++) {
-					if (!remainingCommentTerms.get(i).matches(SQLWildcard2RegexConverter.convert(remainingTerms.get(i)))) {
+					if (!remainingTerms.get(i).matches(remainingCommentTerms.get(i))) {
 						return false;
 					}
 				}
@@ -2,7 +2,6 @@ package de.catma.repository.git.graph.lazy;
 
 import com.google.common.collect.Maps;
 import de.catma.backgroundservice.DefaultProgressCallable;
-import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
@@ -54,8 +53,9 @@ class LoadJob extends DefaultProgressCallable<Map<String, SourceDocumentReferenc
 		getProgressListener().setProgress(
 				"Loading collections for project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId()
 		);
-		for (AnnotationCollection collection : collectionsProvider.getCollections(tagManager.getTagLibrary())) {
-			sourceDocumentRefsById.get(collection.getSourceDocumentId()).addUserMarkupCollectionReference(new AnnotationCollectionReference(collection));
+		// only the collection headers are read here, the annotations are loaded on demand by the collection cache
+		for (AnnotationCollectionReference collectionReference : collectionsProvider.getCollectionReferences()) {
+			sourceDocumentRefsById.get(collectionReference.getSourceDocumentId()).addUserMarkupCollectionReference(collectionReference);
 		}
 
 		return sourceDocumentRefsById;
@@ -0,0 +1,104 @@
+package de.catma.repository.git.graph.lazy;
+
+import de.catma.repository.git.GitProjectHandler;
+import org.eclipse.jgit.diff.DiffEntry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The tagsets, documents and collections that differ between two revisions of a project, derived from the paths of the
+ * files that have changed between the revisions.
+ */
+class ProjectRevisionChanges {
+	private static final String HEADER_FILE_NAME = "header.json";
+
+	private boolean tagsetsChanged = false;
+	private final Set<String> documentIds = new HashSet<>();
+	private final Set<String> removedDocumentIds = new HashSet<>();
+	private final Set<String> collectionIds = new HashSet<>();
+	private boolean collectionHeadersChanged = false;
+
+	static ProjectRevisionChanges of(Collection<DiffEntry> diffEntries) {
+		ProjectRevisionChanges changes = new ProjectRevisionChanges();
+
+		for (DiffEntry diffEntry : diffEntries) {
+			if (diffEntry.getChangeType() != DiffEntry.ChangeType.ADD) {
+				changes.addPath(diffEntry.getOldPath(), diffEntry.getChangeType() == DiffEntry.ChangeType.DELETE);
+			}
+			if (diffEntry.getChangeType() != DiffEntry.ChangeType.DELETE) {
+				changes.addPath(diffEntry.getNewPath(), false);
+			}
+		}
+
+		return changes;
+	}
+
+	private void addPath(String path, boolean deleted) {
+		// <resource type directory>/<resource ID>/<file or subdirectory>
+		String[] segments = path.split("/", 3);
+		if (segments.length < 3) {
+			return;
+		}
+
+		String resourceId = segments[1];
+		boolean isHeader = segments[2].equals(HEADER_FILE_NAME);
+
+		switch (segments[0]) {
+			case GitProjectHandler.TAGSETS_DIRECTORY_NAME:
+				tagsetsChanged = true;
+				break;
+			case GitProjectHandler.DOCUMENTS_DIRECTORY_NAME:
+				documentIds.add(resourceId);
+				if (isHeader && deleted) {
+					removedDocumentIds.add(resourceId);
+				}
+				break;
+			case GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME:
+				collectionIds.add(resourceId);
+				if (isHeader) {
+					collectionHeadersChanged = true;
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	boolean isEmpty() {
+		return !tagsetsChanged && documentIds.isEmpty() && collectionIds.isEmpty();
+	}
+
+	boolean isTagsetsChanged() {
+		return tagsetsChanged;
+	}
+
+	/**
+	 * @return the IDs of the documents that have been added, modified or removed
+	 */
+	Set<String> getDocumentIds() {
+		return Collections.unmodifiableSet(documentIds);
+	}
+
+	boolean isDocumentRemoved(String documentId) {
+		return removedDocumentIds.contains(documentId);
+	}
+
+	/**
+	 * @return the IDs of the collections that have been added, modified or removed, including those of which only
+	 *         annotation pages have changed
+	 */
+	Set<String> getCollectionIds() {
+		return Collections.unmodifiableSet(collectionIds);
+	}
+
+	/**
+	 * @return <code>true</code> if collections have been added or removed or their metadata has changed, which means
+	 *         that the collection references have to be reloaded
+	 */
+	boolean isCollectionHeadersChanged() {
+		return collectionHeadersChanged;
+	}
+}
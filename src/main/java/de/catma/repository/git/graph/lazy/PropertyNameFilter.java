@@ -1,6 +1,7 @@
 package de.catma.repository.git.graph.lazy;
 
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import de.catma.indexer.wildcard2regex.SQLWildcard2RegexConverter;
 import de.catma.tag.Property;
@@ -10,10 +11,10 @@ import de.catma.util.Pair;
 
 class PropertyNameFilter implements Predicate<Pair<Property, TagDefinition>> {
 
-	private String propertyNameRegex;
+	private Pattern propertyNameRegex;
 
 	public PropertyNameFilter(String propertyName) {
-		this.propertyNameRegex = propertyName==null?null:SQLWildcard2RegexConverter.convert(propertyName);
+		this.propertyNameRegex = propertyName==null?null:Pattern.compile(SQLWildcard2RegexConverter.convert(propertyName));
 	}
 
 	@Override
@@ -28,7 +29,7 @@ class PropertyNameFilter implements Predicate<Pair<Property, TagDefinition>> {
 						propertyTagPair.getFirst().getPropertyDefinitionId())
 				.getName();
 		
-		return propertyName.matches(propertyNameRegex);
+		return propertyNameRegex.matcher(propertyName).matches();
 	}
 	
 	public boolean testPropertyName(String propertyName) {
@@ -36,7 +37,7 @@ class PropertyNameFilter implements Predicate<Pair<Property, TagDefinition>> {
 			return true;
 		}
 		
-		return propertyName.matches(propertyNameRegex);
+		return propertyNameRegex.matcher(propertyName).matches();
 	}
 
 }
@@ -2,17 +2,18 @@ package de.catma.repository.git.graph.lazy;
 
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import de.catma.indexer.wildcard2regex.SQLWildcard2RegexConverter;
 import de.catma.tag.Property;
 
 public class PropertyValueFilter implements Predicate<Property> {
 
-	private String propertyValueRegex;
+	private Pattern propertyValueRegex;
 
 
 	public PropertyValueFilter(String propertyValue) {
-		this.propertyValueRegex = propertyValue==null?null:SQLWildcard2RegexConverter.convert(propertyValue);
+		this.propertyValueRegex = propertyValue==null?null:Pattern.compile(SQLWildcard2RegexConverter.convert(propertyValue));
 	}
 
 	
@@ -25,7 +26,7 @@ public class PropertyValueFilter implements Predicate<Property> {
 		List<String> values = property.getPropertyValueList();
 		
 		for (String value : values) {
-			if (value.matches(propertyValueRegex)) {
+			if (propertyValueRegex.matcher(value).matches()) {
 				return true;
 			}
 		}
@@ -37,6 +38,6 @@ public class PropertyValueFilter implements Predicate<Property> {
 		if (propertyValueRegex == null) {
 			return true;
 		}
-		return value.matches(propertyValueRegex);
+		return propertyValueRegex.matcher(value).matches();
 	}
 }
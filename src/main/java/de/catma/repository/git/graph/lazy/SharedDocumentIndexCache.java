@@ -0,0 +1,152 @@
+package de.catma.repository.git.graph.lazy;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * A server-wide cache of the in-memory token stores of documents, shared by all opened projects of all sessions.
+ * <p>
+ * Entries are keyed by project ID, document ID and the revision of the document content (see
+ * {@link de.catma.indexer.DocumentIndex#getSourceDigest()}), so users who read the same revision of a document share a
+ * single copy, no matter which branch or local clone they read it from. The cache is bounded by the estimated heap
+ * size of its entries rather than by their number.
+ */
+public class SharedDocumentIndexCache {
+	private static final Logger logger = Logger.getLogger(SharedDocumentIndexCache.class.getName());
+
+	private static final class InstanceHolder {
+		private static final SharedDocumentIndexCache INSTANCE = new SharedDocumentIndexCache(
+				CATMAPropertyKey.SHARED_DOCUMENT_INDEX_CACHE_SIZE_MB.getIntValue() * 1024L * 1024L
+		);
+	}
+
+	private static final class Key {
+		private final String projectId;
+		private final String documentId;
+		private final String revision;
+
+		private Key(String projectId, String documentId, String revision) {
+			this.projectId = projectId;
+			this.documentId = documentId;
+			this.revision = revision;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(projectId, documentId, revision);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equals(projectId, other.projectId)
+					&& Objects.equals(documentId, other.documentId)
+					&& Objects.equals(revision, other.revision);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s/%s@%s", projectId, documentId, revision);
+		}
+	}
+
+	private final long maximumSizeInBytes;
+	private final AtomicLong sizeInBytes = new AtomicLong();
+	private final Cache<Key, DocumentTokenStore> cache;
+
+	SharedDocumentIndexCache(long maximumSizeInBytes) {
+		this.maximumSizeInBytes = maximumSizeInBytes;
+		// a single segment, Guava splits the maximum weight evenly between the segments and an index that exceeds the
+		// share of its segment would never be cached, for the same reason a single entry weighs at most half of the maximum
+		this.cache = CacheBuilder.newBuilder()
+				.concurrencyLevel(1)
+				.maximumWeight(maximumSizeInBytes)
+				.weigher((Key key, DocumentTokenStore documentTokenStore) -> getWeight(documentTokenStore))
+				.removalListener(notification -> sizeInBytes.addAndGet(-getWeight(notification.getValue())))
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * @return the server-wide instance, sized by {@link CATMAPropertyKey#SHARED_DOCUMENT_INDEX_CACHE_SIZE_MB}
+	 */
+	public static SharedDocumentIndexCache getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private int getWeight(DocumentTokenStore documentTokenStore) {
+		return (int) Math.min(Math.min(Integer.MAX_VALUE, maximumSizeInBytes / 2), documentTokenStore.estimateSizeInBytes());
+	}
+
+	/**
+	 * Returns the token store of the given document revision, loading it with the given loader if it is not cached yet.
+	 * Concurrent requests for the same revision wait for a single load.
+	 */
+	DocumentTokenStore get(
+			String projectId, String documentId, String revision, Callable<DocumentTokenStore> loader
+	) throws ExecutionException {
+		Key key = new Key(projectId, documentId, revision);
+
+		return cache.get(key, () -> {
+			long startTime = System.nanoTime();
+			DocumentTokenStore documentTokenStore = loader.call();
+			long loadTimeMillis = (System.nanoTime() - startTime) / 1000000;
+
+			long size = sizeInBytes.addAndGet(getWeight(documentTokenStore));
+
+			if (logger.isLoggable(Level.FINE)) {
+				logger.fine(String.format(
+						"Loaded index of document %s in %d ms (%d bytes), shared index cache now holds %d bytes, %s",
+						key, loadTimeMillis, documentTokenStore.estimateSizeInBytes(), size, cache.stats()
+				));
+			}
+
+			return documentTokenStore;
+		});
+	}
+
+	/**
+	 * @return hit, miss, load time and eviction statistics since the cache was created
+	 */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	/**
+	 * @return the estimated heap size of all cached entries in bytes
+	 */
+	public long getSizeInBytes() {
+		return sizeInBytes.get();
+	}
+
+	public long getMaximumSizeInBytes() {
+		return maximumSizeInBytes;
+	}
+
+	public long getEntryCount() {
+		return cache.size();
+	}
+
+	/**
+	 * Drops all entries, for example to release memory on demand.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+}
@@ -17,8 +17,8 @@ import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.TransportException;
 import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffEntry.ChangeType;
 import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEditor;
 import org.eclipse.jgit.dircache.DirCacheEntry;
 import org.eclipse.jgit.errors.ConfigInvalidException;
 import org.eclipse.jgit.lib.*;
@@ -34,7 +34,6 @@ import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.util.FS;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -434,8 +433,15 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 		}
 
 		try {
+			String filepattern = FilenameUtils.separatorsToUnix(relativeTargetFile.toString());
+
+			gitApi.add()
+					.addFilepattern(filepattern)
+					.call();
+			// stage files that have been deleted within a directory too (e.g. compacted annotation pages)
 			gitApi.add()
-					.addFilepattern(FilenameUtils.separatorsToUnix(relativeTargetFile.toString()))
+					.addFilepattern(filepattern)
+					.setUpdate(true)
 					.call();
 		}
 		catch (GitAPIException e) {
@@ -449,16 +455,76 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 			throw new IllegalStateException("Can't call `add` on a detached instance");
 		}
 
-		try (FileOutputStream fileOutputStream = FileUtils.openOutputStream(targetFile)) {
-			fileOutputStream.write(bytes);
+		add(Collections.singletonMap(targetFile, bytes));
+	}
 
-			Path basePath = gitApi.getRepository().getWorkTree().toPath();
-			Path absoluteFilePath = Paths.get(targetFile.getAbsolutePath());
-			Path relativeFilePath = basePath.relativize(absoluteFilePath);
+	@Override
+	public void add(Map<File, byte[]> contentsByTargetFile) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `add` on a detached instance");
+		}
 
-			gitApi.add()
-					.addFilepattern(FilenameUtils.separatorsToUnix(relativeFilePath.toString()))
-					.call();
+		Repository repository = gitApi.getRepository();
+		Path basePath = repository.getWorkTree().toPath();
+
+		DirCache dirCache = repository.lockDirCache();
+		try (ObjectInserter objectInserter = repository.newObjectInserter()) {
+			if (dirCache.hasUnmergedPaths()) {
+				// path edits don't resolve conflicts, leave that to AddCommand
+				dirCache.unlock();
+				addFileByFile(contentsByTargetFile);
+				return;
+			}
+
+			DirCacheEditor dirCacheEditor = dirCache.editor();
+
+			for (Map.Entry<File, byte[]> entry : contentsByTargetFile.entrySet()) {
+				File targetFile = entry.getKey();
+				byte[] bytes = entry.getValue();
+
+				FileUtils.writeByteArrayToFile(targetFile, bytes);
+
+				ObjectId blobId = objectInserter.insert(Constants.OBJ_BLOB, bytes);
+				// with length and modification time in the index the file is considered unmodified without being read again
+				long lastModified = targetFile.lastModified();
+				Path relativeFilePath = basePath.relativize(Paths.get(targetFile.getAbsolutePath()));
+
+				dirCacheEditor.add(new DirCacheEditor.PathEdit(FilenameUtils.separatorsToUnix(relativeFilePath.toString())) {
+					@Override
+					public void apply(DirCacheEntry dirCacheEntry) {
+						dirCacheEntry.setFileMode(FileMode.REGULAR_FILE);
+						dirCacheEntry.setObjectId(blobId);
+						dirCacheEntry.setLength(bytes.length);
+						dirCacheEntry.setLastModified(lastModified);
+					}
+				});
+			}
+
+			// the blobs have to be in the object database before the index refers to them
+			objectInserter.flush();
+
+			if (!dirCacheEditor.commit()) {
+				throw new IOException("Failed to add, the index could not be written");
+			}
+		}
+		finally {
+			dirCache.unlock();
+		}
+	}
+
+	private void addFileByFile(Map<File, byte[]> contentsByTargetFile) throws IOException {
+		Path basePath = gitApi.getRepository().getWorkTree().toPath();
+
+		try {
+			for (Map.Entry<File, byte[]> entry : contentsByTargetFile.entrySet()) {
+				FileUtils.writeByteArrayToFile(entry.getKey(), entry.getValue());
+
+				Path relativeFilePath = basePath.relativize(Paths.get(entry.getKey().getAbsolutePath()));
+
+				gitApi.add()
+						.addFilepattern(FilenameUtils.separatorsToUnix(relativeFilePath.toString()))
+						.call();
+			}
 		}
 		catch (GitAPIException e) {
 			throw new IOException("Failed to add", e);
@@ -471,9 +537,23 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 			throw new IllegalStateException("Can't call `addAndCommit` on a detached instance");
 		}
 
+		return addAndCommit(Collections.singletonMap(targetFile, bytes), commitMsg, committerName, committerEmail);
+	}
+
+	@Override
+	public String addAndCommit(
+			Map<File, byte[]> contentsByTargetFile,
+			String commitMsg,
+			String committerName,
+			String committerEmail
+	) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `addAndCommit` on a detached instance");
+		}
+
 		try {
-			add(targetFile, bytes);
-			return commit(commitMsg, committerName, committerEmail, false);
+			add(contentsByTargetFile);
+			return commitIndex(commitMsg, committerName, committerEmail, false);
 		}
 		catch (IOException e) {
 			throw new IOException("Failed to add and commit", e);
@@ -490,24 +570,10 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 
 		try {
 			gitApi.add().addFilepattern(".").call();
+			// AddCommand either stages new files or deleted ones, so it takes two calls
+			gitApi.add().addFilepattern(".").setUpdate(true).call();
 
-			List<DiffEntry> diffEntries = gitApi.diff().call();
-			if (!diffEntries.isEmpty()) {
-				RmCommand rmCommand = gitApi.rm();
-				for (DiffEntry entry : diffEntries) {
-					if (entry.getChangeType().equals(ChangeType.DELETE)) {
-						rmCommand.addFilepattern(entry.getOldPath());
-					}
-				}
-				rmCommand.call();
-			}
-
-			if (force || gitApi.status().call().hasUncommittedChanges()) {
-				return commit(message, committerName, committerEmail, force);
-			}
-			else {
-				return getRevisionHash();
-			}
+			return commitIndex(message, committerName, committerEmail, force);
 		}
 		catch (GitAPIException | IOException e) {
 			throw new IOException("Failed to add all and commit", e);
@@ -603,6 +669,68 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 		}
 	}
 
+	/**
+	 * Commits the content of the index as it is, without the worktree scans that {@link #commit(String, String, String, boolean)}
+	 * and {@link CommitCommand} do.
+	 *
+	 * @return the revision hash of the new commit, or the current one if the index doesn't differ from HEAD and
+	 *         <code>force</code> is <code>false</code>
+	 */
+	private String commitIndex(String message, String committerName, String committerEmail, boolean force) throws IOException {
+		Repository repository = gitApi.getRepository();
+
+		if (repository.getRepositoryState() != RepositoryState.SAFE) {
+			// let CommitCommand deal with merge heads and the like
+			return commit(message, committerName, committerEmail, force);
+		}
+
+		try (ObjectInserter objectInserter = repository.newObjectInserter(); RevWalk revWalk = new RevWalk(repository)) {
+			DirCache dirCache = repository.readDirCache();
+			ObjectId headId = repository.resolve(Constants.HEAD);
+			RevCommit headCommit = headId == null ? null : revWalk.parseCommit(headId);
+
+			if (!force && headCommit == null && dirCache.getEntryCount() == 0) {
+				return getRevisionHash();
+			}
+
+			ObjectId treeId = dirCache.writeTree(objectInserter);
+
+			if (!force && headCommit != null && headCommit.getTree().getId().equals(treeId)) {
+				return headCommit.getName();
+			}
+
+			PersonIdent committer = new PersonIdent(committerName, committerEmail);
+
+			CommitBuilder commitBuilder = new CommitBuilder();
+			commitBuilder.setTreeId(treeId);
+			if (headCommit != null) {
+				commitBuilder.setParentId(headCommit);
+			}
+			commitBuilder.setAuthor(committer);
+			commitBuilder.setCommitter(committer);
+			commitBuilder.setMessage(message);
+
+			ObjectId commitId = objectInserter.insert(commitBuilder);
+			objectInserter.flush();
+
+			RefUpdate refUpdate = repository.updateRef(Constants.HEAD);
+			refUpdate.setNewObjectId(commitId);
+			refUpdate.setExpectedOldObjectId(headId == null ? ObjectId.zeroId() : headId);
+			refUpdate.setRefLogIdent(committer);
+			refUpdate.setRefLogMessage(
+					(headCommit == null ? "commit (initial): " : "commit: ") + revWalk.parseCommit(commitId).getShortMessage(),
+					false
+			);
+
+			RefUpdate.Result result = refUpdate.update(revWalk);
+			if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FAST_FORWARD) {
+				throw new IOException(String.format("Failed to commit, HEAD could not be updated: %s", result));
+			}
+
+			return commitId.getName();
+		}
+	}
+
 	@Override
 	public boolean canMerge(String branch) throws IOException {
 		if (!isAttached()) {
@@ -825,6 +953,39 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 		}
 	}
 
+	@Override
+	public List<DiffEntry> getRevisionDifferences(String oldRevisionHash, String newRevisionHash) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `getRevisionDifferences` on a detached instance");
+		}
+
+		try (ObjectReader reader = gitApi.getRepository().newObjectReader()) {
+			ObjectId oldRevisionTree = gitApi.getRepository().resolve(oldRevisionHash + "^{tree}");
+			ObjectId newRevisionTree = gitApi.getRepository().resolve(newRevisionHash + "^{tree}");
+
+			if (oldRevisionTree == null || newRevisionTree == null) {
+				throw new IOException(
+						String.format("Unknown revision %s", oldRevisionTree == null ? oldRevisionHash : newRevisionHash)
+				);
+			}
+
+			CanonicalTreeParser oldRevisionTreeParser = new CanonicalTreeParser();
+			oldRevisionTreeParser.reset(reader, oldRevisionTree);
+
+			CanonicalTreeParser newRevisionTreeParser = new CanonicalTreeParser();
+			newRevisionTreeParser.reset(reader, newRevisionTree);
+
+			return gitApi.diff()
+					.setOldTree(oldRevisionTreeParser)
+					.setNewTree(newRevisionTreeParser)
+					.setShowNameAndStatusOnly(true)
+					.call();
+		}
+		catch (GitAPIException e) {
+			throw new IOException("Failed to get revision differences", e);
+		}
+	}
+
 
 	@Override
 	public List<CommitInfo> getOurUnpublishedChanges() throws IOException {
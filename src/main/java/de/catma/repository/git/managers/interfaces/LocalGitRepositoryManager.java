@@ -5,11 +5,13 @@ import de.catma.repository.git.managers.JGitCredentialsManager;
 import de.catma.user.User;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.transport.PushResult;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface LocalGitRepositoryManager extends AutoCloseable {
@@ -158,7 +160,7 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	boolean hasUncommittedChanges() throws IOException;
 
 	/**
-	 * Adds the given file or directory.
+	 * Adds the given file or directory, including the removal of files that have been deleted from the directory.
 	 *
 	 * @param relativeTargetFile a {@link File} representing the relative file/directory path to add
 	 * @throws IOException if an error occurs when adding
@@ -194,6 +196,33 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	 */
 	String addAndCommit(File targetFile, byte[] bytes, String commitMsg, String committerName, String committerEmail) throws IOException;
 
+	/**
+	 * Writes new files with the given contents to disk and adds all of them with a single update of the index.
+	 * <p>
+	 * Prefer this over repeated calls to {@link #add(File, byte[])} when writing many files, as each of those
+	 * rewrites the whole index.
+	 * It's the caller's responsibility to call {@link #commit(String, String, String, boolean)}.
+	 * Alternatively, use {@link #addAndCommit(Map, String, String, String)}.
+	 *
+	 * @param contentsByTargetFile the file contents, keyed by {@link File}s representing the target paths
+	 * @throws IOException if an error occurs when adding
+	 */
+	void add(Map<File, byte[]> contentsByTargetFile) throws IOException;
+
+	/**
+	 * Writes new files with the given contents to disk, adds all of them with a single update of the index and commits.
+	 * <p>
+	 * The commit is created straight from the index, the worktree isn't scanned for other changes.
+	 *
+	 * @param contentsByTargetFile the file contents, keyed by {@link File}s representing the target paths
+	 * @param commitMsg the commit message
+	 * @param committerName the name of the committer
+	 * @param committerEmail the email address of the committer
+	 * @return the revision hash of the new commit, or the current one if the files didn't change anything
+	 * @throws IOException if an error occurs when adding or committing
+	 */
+	String addAndCommit(Map<File, byte[]> contentsByTargetFile, String commitMsg, String committerName, String committerEmail) throws IOException;
+
 	/**
 	 * Automatically stages all new, modified and deleted files and then commits.
 	 *
@@ -307,6 +336,16 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	 */
 	Set<String> getAdditiveBranchDifferences(String otherBranchName) throws IOException;
 
+	/**
+	 * Compares the trees of the two given revisions.
+	 *
+	 * @param oldRevisionHash the hash of the revision to compare from
+	 * @param newRevisionHash the hash of the revision to compare to
+	 * @return a {@link List<DiffEntry>} with one entry per added, modified or deleted file
+	 * @throws IOException if one of the revisions doesn't exist or an error occurs when comparing the revisions
+	 */
+	List<DiffEntry> getRevisionDifferences(String oldRevisionHash, String newRevisionHash) throws IOException;
+
 
 	/**
 	 * Gets a list of all commits from the user branch that have not been merged into origin/master.
@@ -0,0 +1,165 @@
+package de.catma.repository.git.managers.jgit;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+/**
+ * Reads files of a single revision of a repository straight from the object database, without touching the worktree
+ * or the index.
+ * <p>
+ * Each instance opens the repository on its own, so several instances can read different revisions of the same
+ * repository in parallel while it is being used by a {@link de.catma.repository.git.managers.JGitRepoManager}.
+ * Instances themselves are not thread-safe. Paths are relative to the root of the repository and use '/' as separator.
+ */
+public class RevisionReader implements AutoCloseable {
+	private final Repository repository;
+	private final ObjectReader objectReader;
+	private final ObjectId commitId;
+	private final RevTree tree;
+
+	private RevisionReader(Repository repository, ObjectId commitId, RevTree tree) {
+		this.repository = repository;
+		this.objectReader = repository.newObjectReader();
+		this.commitId = commitId;
+		this.tree = tree;
+	}
+
+	/**
+	 * @param repositoryDirectory the working directory of the repository
+	 * @param revision a branch name, commit hash or any other revision string that JGit can resolve to a commit
+	 * @return a reader for the given revision
+	 * @throws IOException if the repository cannot be opened or the revision cannot be resolved
+	 */
+	public static RevisionReader open(File repositoryDirectory, String revision) throws IOException {
+		Repository repository = new FileRepositoryBuilder().setWorkTree(repositoryDirectory).setMustExist(true).build();
+
+		try {
+			ObjectId commitId = repository.resolve(revision + "^{commit}");
+			if (commitId == null) {
+				throw new IOException(String.format("Unknown revision %s in repository at path %s", revision, repositoryDirectory));
+			}
+
+			try (RevWalk revWalk = new RevWalk(repository)) {
+				RevCommit commit = revWalk.parseCommit(commitId);
+				return new RevisionReader(repository, commit.getId(), commit.getTree());
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			repository.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the hash of the commit this reader reads from, which stays valid when the revision it has been opened
+	 *         with moves on
+	 */
+	public String getCommitHash() {
+		return commitId.getName();
+	}
+
+	private TreeWalk find(String path) throws IOException {
+		return TreeWalk.forPath(objectReader, path, tree);
+	}
+
+	public boolean exists(String path) throws IOException {
+		try (TreeWalk treeWalk = find(path)) {
+			return treeWalk != null;
+		}
+	}
+
+	public boolean isDirectory(String path) throws IOException {
+		try (TreeWalk treeWalk = find(path)) {
+			return treeWalk != null && treeWalk.getFileMode(0) == FileMode.TREE;
+		}
+	}
+
+	private ObjectId getFileId(String path) throws IOException {
+		try (TreeWalk treeWalk = find(path)) {
+			if (treeWalk == null || (treeWalk.getFileMode(0).getBits() & FileMode.TYPE_MASK) != FileMode.TYPE_FILE) {
+				throw new FileNotFoundException(String.format("No file at path %s in revision %s", path, getCommitHash()));
+			}
+			return treeWalk.getObjectId(0);
+		}
+	}
+
+	/**
+	 * @return the content of the file at the given path, the caller has to close the stream
+	 * @throws FileNotFoundException if there is no file at the given path
+	 */
+	public InputStream openFile(String path) throws IOException {
+		return objectReader.open(getFileId(path)).openStream();
+	}
+
+	/**
+	 * @return the size of the file at the given path in bytes
+	 * @throws FileNotFoundException if there is no file at the given path
+	 */
+	public long getFileSize(String path) throws IOException {
+		return objectReader.getObjectSize(getFileId(path), ObjectReader.OBJ_ANY);
+	}
+
+	/**
+	 * @return the names of the direct subdirectories of the directory at the given path, an empty list if there is no
+	 *         such directory
+	 */
+	public List<String> listDirectories(String directoryPath) throws IOException {
+		return list(directoryPath, false);
+	}
+
+	/**
+	 * @return the paths of all files within the directory at the given path and its subdirectories, an empty list if
+	 *         there is no such directory
+	 */
+	public List<String> listFiles(String directoryPath) throws IOException {
+		return list(directoryPath, true);
+	}
+
+	private List<String> list(String directoryPath, boolean recursive) throws IOException {
+		List<String> result = new ArrayList<>();
+
+		ObjectId directoryTreeId;
+		try (TreeWalk treeWalk = find(directoryPath)) {
+			if (treeWalk == null || treeWalk.getFileMode(0) != FileMode.TREE) {
+				return result;
+			}
+			directoryTreeId = treeWalk.getObjectId(0);
+		}
+
+		try (TreeWalk treeWalk = new TreeWalk(objectReader)) {
+			treeWalk.addTree(directoryTreeId);
+			treeWalk.setRecursive(recursive);
+
+			while (treeWalk.next()) {
+				if (recursive) {
+					result.add(directoryPath + "/" + treeWalk.getPathString());
+				}
+				else if (treeWalk.isSubtree()) {
+					result.add(treeWalk.getNameString());
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public void close() {
+		objectReader.close();
+		repository.close();
+	}
+}
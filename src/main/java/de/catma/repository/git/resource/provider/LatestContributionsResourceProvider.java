@@ -1,16 +1,21 @@
 package de.catma.repository.git.resource.provider;
 
+import com.google.common.collect.Iterables;
 import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.SharedWorkerPool;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.source.SourceDocument;
+import de.catma.indexer.DocumentIndex;
 import de.catma.project.ProjectReference;
+import de.catma.properties.CATMAPropertyKey;
 import de.catma.repository.git.GitAnnotationCollectionHandler;
 import de.catma.repository.git.GitProjectHandler;
 import de.catma.repository.git.GitSourceDocumentHandler;
 import de.catma.repository.git.GitTagsetHandler;
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
 import de.catma.repository.git.managers.interfaces.RemoteGitManagerRestricted;
+import de.catma.repository.git.managers.jgit.RevisionReader;
 import de.catma.repository.git.resource.provider.interfaces.GitProjectResourceProvider;
 import de.catma.tag.TagLibrary;
 import de.catma.tag.TagsetDefinition;
@@ -19,10 +24,32 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-
+import java.util.stream.Collectors;
+
+/**
+ * A read-only {@link GitProjectResourceProvider} that adds the latest contributions of other project members to the
+ * resources of the user's own worktree.
+ * <p>
+ * Contributions are read straight from the heads of the contributors' branches in the object database, nothing is
+ * checked out, so the branches are read in parallel on the {@link #CONTRIBUTION_LOADER_POOL} and the worktree stays
+ * untouched.
+ */
 public class LatestContributionsResourceProvider implements GitProjectResourceProvider {
+	private interface ContributionLoader<T> {
+		List<T> load(LatestContribution latestContribution, RevisionReader revisionReader) throws IOException;
+	}
+
+	// reading the branches is blocking git I/O, contributions are loaded from within collection loads, so they can't
+	// share the pool of the collection loaders
+	private static final SharedWorkerPool<ExecutorService> CONTRIBUTION_LOADER_POOL =
+			SharedWorkerPool.threadPool("catma-contribution-loader-", CATMAPropertyKey.CONTRIBUTION_LOAD_PARALLELISM);
+
 	private final Logger logger = Logger.getLogger(LatestContributionsResourceProvider.class.getName());
 
 	private final String projectId;
@@ -53,6 +80,100 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 		return true;
 	}
 
+	/**
+	 * Runs the given loader for each of the latest contributions that satisfies the filter, in parallel on the
+	 * {@link #CONTRIBUTION_LOADER_POOL}.
+	 * <p>
+	 * The loaders must not report progress themselves, progress is reported on the calling thread once a contribution
+	 * has been loaded.
+	 *
+	 * @return the results per contribution, in the iteration order of the latest contributions
+	 */
+	private <T> List<List<T>> loadLatestContributions(
+			Predicate<LatestContribution> filter,
+			ContributionLoader<T> loader,
+			ProgressListener progressListener
+	) {
+		List<LatestContribution> contributionsToLoad = latestContributions.stream()
+				.filter(filter)
+				.collect(Collectors.toList());
+		List<List<T>> result = new ArrayList<>();
+
+		ExecutorService executor = CONTRIBUTION_LOADER_POOL.get();
+		if (executor == null || contributionsToLoad.size() <= 1) {
+			for (LatestContribution latestContribution : contributionsToLoad) {
+				result.add(loadLatestContribution(latestContribution, loader));
+				progressListener.setProgress("Loaded latest contributions from branch \"%s\"", latestContribution.getBranch());
+			}
+			return result;
+		}
+
+		List<Future<List<T>>> futures = new ArrayList<>();
+		for (LatestContribution latestContribution : contributionsToLoad) {
+			futures.add(executor.submit(() -> loadLatestContribution(latestContribution, loader)));
+		}
+
+		try {
+			for (int i=0; i<futures.size(); i++) {
+				result.add(futures.get(i).get());
+				progressListener.setProgress(
+						"Loaded latest contributions from branch \"%s\"", contributionsToLoad.get(i).getBranch()
+				);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading latest contributions", e);
+		}
+		catch (ExecutionException e) {
+			// loadLatestContribution handles I/O errors itself, anything else is unexpected
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Failed to load latest contributions", e.getCause());
+		}
+		finally {
+			// nothing to wait for anymore if one of the loads has failed or we have been interrupted
+			futures.forEach(future -> future.cancel(true));
+		}
+
+		return result;
+	}
+
+	private <T> List<T> loadLatestContribution(LatestContribution latestContribution, ContributionLoader<T> loader) {
+		try (RevisionReader revisionReader = RevisionReader.open(projectPath, latestContribution.getBranch())) {
+			return loader.load(latestContribution, revisionReader);
+		}
+		catch (IOException e) {
+			logger.log(
+					Level.SEVERE,
+					String.format(
+							"Failed to load latest contributions for project \"%1$s\" with ID %2$s on branch \"%3$s\"",
+							projectReference.getName(),
+							projectId,
+							latestContribution.getBranch()
+					),
+					e
+			);
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * @return a listener that only logs, for the loaders, which run on the worker threads of the
+	 *         {@link #CONTRIBUTION_LOADER_POOL}, and for callers that don't report progress
+	 */
+	private ProgressListener createLoggingProgressListener() {
+		return new ProgressListener() {
+			@Override
+			public void setProgress(String value, Object... args) {
+				if (logger.isLoggable(Level.FINE)) {
+					logger.fine(String.format(value, args));
+				}
+			}
+		};
+	}
+
 	@Override
 	public List<TagsetDefinition> getTagsets() {
 		File tagsetsDirectory = Paths.get(
@@ -94,52 +215,43 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 			}
 		}
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
-
-			for (LatestContribution latestContribution : latestContributions) {
-				if (latestContribution.getTagsetIds().isEmpty()) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
-
-				for (String tagsetId : latestContribution.getTagsetIds()) {
-					try {
-						TagsetDefinition tagsetDefinition = gitTagsetHandler.getTagset(tagsetId);
+		List<List<TagsetDefinition>> contributedTagsets = loadLatestContributions(
+				latestContribution -> !latestContribution.getTagsetIds().isEmpty(),
+				(latestContribution, revisionReader) -> {
+					List<TagsetDefinition> tagsetDefinitions = new ArrayList<>();
 
-						if (tagsetsById.containsKey(tagsetDefinition.getUuid())) {
-							tagsetsById.get(tagsetDefinition.getUuid()).mergeAdditive(tagsetDefinition);
+					for (String tagsetId : latestContribution.getTagsetIds()) {
+						try {
+							tagsetDefinitions.add(gitTagsetHandler.getTagset(tagsetId, revisionReader));
 						}
-						else {
-							tagsetDefinition.setContribution(true);
-							tagsetsById.put(tagsetDefinition.getUuid(), tagsetDefinition);
+						catch (IOException e) {
+							logger.log(
+									Level.SEVERE,
+									String.format(
+											"Failed to load latest contributions for tagset with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+											tagsetId,
+											projectReference.getName(),
+											projectId,
+											latestContribution.getBranch()
+									),
+									e
+							);
 						}
 					}
-					catch (IOException e) {
-						logger.log(
-								Level.SEVERE,
-								String.format(
-										"Failed to load latest contributions for tagset with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
-										tagsetId,
-										projectReference.getName(),
-										projectId,
-										latestContribution.getBranch()
-								),
-								e
-						);
-					}
-				}
-			}
 
-			localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
-		}
-		catch (IOException e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load latest contributions for project \"%s\" with ID %s", projectReference.getName(), projectId),
-					e
-			);
+					return tagsetDefinitions;
+				},
+				createLoggingProgressListener()
+		);
+
+		for (TagsetDefinition tagsetDefinition : Iterables.concat(contributedTagsets)) {
+			if (tagsetsById.containsKey(tagsetDefinition.getUuid())) {
+				tagsetsById.get(tagsetDefinition.getUuid()).mergeAdditive(tagsetDefinition);
+			}
+			else {
+				tagsetDefinition.setContribution(true);
+				tagsetsById.put(tagsetDefinition.getUuid(), tagsetDefinition);
+			}
 		}
 
 		return new ArrayList<>(tagsetsById.values());
@@ -187,51 +299,43 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 			}
 		}
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
-
-			for (LatestContribution latestContribution : latestContributions) {
-				if (latestContribution.getCollectionIds().isEmpty()) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
+		List<List<AnnotationCollectionReference>> contributedCollectionReferences = loadLatestContributions(
+				latestContribution -> !latestContribution.getCollectionIds().isEmpty(),
+				(latestContribution, revisionReader) -> {
+					List<AnnotationCollectionReference> collectionReferences = new ArrayList<>();
 
-				for (String collectionId : latestContribution.getCollectionIds()) {
-					try {
-						if (collectionReferencesByCollectionId.containsKey(collectionId)) {
-							collectionReferencesByCollectionId.get(collectionId).setContribution(true);
+					for (String collectionId : latestContribution.getCollectionIds()) {
+						try {
+							collectionReferences.add(gitAnnotationCollectionHandler.getCollectionReference(collectionId, revisionReader));
 						}
-						else {
-							AnnotationCollectionReference collectionReference = gitAnnotationCollectionHandler.getCollectionReference(collectionId);
-							collectionReference.setContribution(true);
-							collectionReferencesByCollectionId.put(collectionId, collectionReference);
+						catch (IOException e) {
+							logger.log(
+									Level.SEVERE,
+									String.format(
+											"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+											collectionId,
+											projectReference.getName(),
+											projectId,
+											latestContribution.getBranch()
+									),
+									e
+							);
 						}
 					}
-					catch (IOException e) {
-						logger.log(
-								Level.SEVERE,
-								String.format(
-										"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
-										collectionId,
-										projectReference.getName(),
-										projectId,
-										latestContribution.getBranch()
-								),
-								e
-						);
-					}
-				}
-			}
 
-			localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
-		}
-		catch (IOException e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load latest contributions for project \"%s\" with ID %s", projectReference.getName(), projectId),
-					e
-			);
+					return collectionReferences;
+				},
+				createLoggingProgressListener()
+		);
+
+		for (AnnotationCollectionReference collectionReference : Iterables.concat(contributedCollectionReferences)) {
+			if (collectionReferencesByCollectionId.containsKey(collectionReference.getId())) {
+				collectionReferencesByCollectionId.get(collectionReference.getId()).setContribution(true);
+			}
+			else {
+				collectionReference.setContribution(true);
+				collectionReferencesByCollectionId.put(collectionReference.getId(), collectionReference);
+			}
 		}
 
 		return new ArrayList<>(collectionReferencesByCollectionId.values());
@@ -285,59 +389,58 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 			}
 		}
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+		ProgressListener loaderProgressListener = createLoggingProgressListener();
+		List<List<AnnotationCollection>> contributedCollections = loadLatestContributions(
+				latestContribution -> !latestContribution.getCollectionIds().isEmpty(),
+				(latestContribution, revisionReader) -> {
+					List<AnnotationCollection> collections = new ArrayList<>();
 
-			for (LatestContribution latestContribution : latestContributions) {
-				if (latestContribution.getCollectionIds().isEmpty()) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
-
-				for (String collectionId : latestContribution.getCollectionIds()) {
-					try {
-						AnnotationCollection collection = gitAnnotationCollectionHandler.getCollection(
-								collectionId, tagLibrary, progressListener, false
-						);
-						collection.setContribution(true);
-
-						if (collectionsById.containsKey(collectionId)) {
-							collectionsById.get(collectionId).mergeAdditive(collection);
+					for (String collectionId : latestContribution.getCollectionIds()) {
+						try {
+							AnnotationCollection collection = gitAnnotationCollectionHandler.getCollection(
+									collectionId, tagLibrary, loaderProgressListener, revisionReader
+							);
+							collection.setContribution(true);
+							collections.add(collection);
 						}
-						else {
-							collectionsById.put(collectionId, collection);
+						catch (IOException e) {
+							logger.log(
+									Level.SEVERE,
+									String.format(
+											"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+											collectionId,
+											projectReference.getName(),
+											projectId,
+											latestContribution.getBranch()
+									),
+									e
+							);
 						}
 					}
-					catch (IOException e) {
-						logger.log(
-								Level.SEVERE,
-								String.format(
-										"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
-										collectionId,
-										projectReference.getName(),
-										projectId,
-										latestContribution.getBranch()
-								),
-								e
-						);
-					}
-				}
-			}
 
-			localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
-		}
-		catch (IOException e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load latest contributions for project \"%s\" with ID %s", projectReference.getName(), projectId),
-					e
-			);
+					return collections;
+				},
+				progressListener
+		);
+
+		for (AnnotationCollection collection : Iterables.concat(contributedCollections)) {
+			if (collectionsById.containsKey(collection.getId())) {
+				collectionsById.get(collection.getId()).mergeAdditive(collection);
+			}
+			else {
+				collectionsById.put(collection.getId(), collection);
+			}
 		}
 
 		return new ArrayList<>(collectionsById.values());
 	}
 
+	@Override
+	public Set<String> removeOrphans(TagLibrary tagLibrary, ProgressListener progressListener) {
+		// read-only, nothing to remove
+		return Collections.emptySet();
+	}
+
 	@Override
 	public AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary) throws IOException {
 		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
@@ -364,68 +467,52 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 			);
 		}
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
-
-			for (LatestContribution latestContribution : latestContributions) {
-				if (!latestContribution.getCollectionIds().contains(collectionId)) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
-
-				logger.info(
-						String.format(
-								"Loading latest contributions for collection with ID %s from branch \"%s\"",
-								collectionId,
-								latestContribution.getBranch()
-						)
-				);
-
-				try {
-					AnnotationCollection collection = gitAnnotationCollectionHandler.getCollection(
-							collectionId,
-							tagLibrary,
-							new ProgressListener() {
-								@Override
-								public void setProgress(String value, Object... args) {
-									logger.info(String.format(value, args));
-								}
-							},
-							false
-					);
-					collection.setContribution(true);
-
-					if (collectionToReturn != null) {
-						collectionToReturn.mergeAdditive(collection);
-					}
-					else {
-						collectionToReturn = collection;
-					}
-				}
-				catch (IOException e) {
-					logger.log(
-							Level.SEVERE,
+		List<List<AnnotationCollection>> contributedCollections = loadLatestContributions(
+				latestContribution -> latestContribution.getCollectionIds().contains(collectionId),
+				(latestContribution, revisionReader) -> {
+					logger.info(
 							String.format(
-									"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+									"Loading latest contributions for collection with ID %s from branch \"%s\"",
 									collectionId,
-									projectReference.getName(),
-									projectId,
 									latestContribution.getBranch()
-							),
-							e
+							)
 					);
-				}
-			}
 
-			localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
-		}
-		catch (IOException e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load latest contributions for project \"%s\" with ID %s", projectReference.getName(), projectId),
-					e
-			);
+					try {
+						AnnotationCollection collection = gitAnnotationCollectionHandler.getCollection(
+								collectionId,
+								tagLibrary,
+								createLoggingProgressListener(),
+								revisionReader
+						);
+						collection.setContribution(true);
+						return Collections.singletonList(collection);
+					}
+					catch (IOException e) {
+						logger.log(
+								Level.SEVERE,
+								String.format(
+										"Failed to load latest contributions for collection with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+										collectionId,
+										projectReference.getName(),
+										projectId,
+										latestContribution.getBranch()
+								),
+								e
+						);
+						return Collections.emptyList();
+					}
+				},
+				createLoggingProgressListener()
+		);
+
+		for (AnnotationCollection collection : Iterables.concat(contributedCollections)) {
+			if (collectionToReturn != null) {
+				collectionToReturn.mergeAdditive(collection);
+			}
+			else {
+				collectionToReturn = collection;
+			}
 		}
 
 		return collectionToReturn;
@@ -472,59 +559,44 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 			}
 		}
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+		List<List<SourceDocument>> contributedDocuments = loadLatestContributions(
+				latestContribution -> !latestContribution.getDocumentIds().isEmpty(),
+				(latestContribution, revisionReader) -> {
+					List<SourceDocument> documents = new ArrayList<>();
 
-			for (LatestContribution latestContribution : latestContributions) {
-				if (latestContribution.getDocumentIds().isEmpty()) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
+					for (String documentId : latestContribution.getDocumentIds()) {
+						if (documentsById.containsKey(documentId)) {
+							continue;
+						}
 
-				for (String documentId : latestContribution.getDocumentIds()) {
-					try {
-						if (!documentsById.containsKey(documentId)) {
-							SourceDocument document = gitSourceDocumentHandler.open(documentId);
+						try {
+							// the content is read from the contributor's branch when the document gets loaded
+							SourceDocument document = gitSourceDocumentHandler.open(documentId, revisionReader);
 							document.setContribution(true);
-
-							BranchAwareStandardContentHandler branchAwareStandardContentHandler = new BranchAwareStandardContentHandler(
-									localGitRepositoryManager,
-									projectReference,
-									latestContribution.getBranch(),
-									remoteGitServerManager.getUsername()
+							documents.add(document);
+						}
+						catch (IOException e) {
+							logger.log(
+									Level.SEVERE,
+									String.format(
+											"Failed to load latest contributions for document with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
+											documentId,
+											projectReference.getName(),
+											projectId,
+											latestContribution.getBranch()
+									),
+									e
 							);
-							branchAwareStandardContentHandler.setSourceDocumentInfo(document.getSourceContentHandler().getSourceDocumentInfo());
-
-							document.setSourceContentHandler(branchAwareStandardContentHandler);
-
-							documentsById.put(document.getUuid(), document);
 						}
 					}
-					catch (IOException e) {
-						logger.log(
-								Level.SEVERE,
-								String.format(
-										"Failed to load latest contributions for document with ID %1$s in project \"%2$s\" with ID %3$s on branch \"%4$s\"",
-										documentId,
-										projectReference.getName(),
-										projectId,
-										latestContribution.getBranch()
-								),
-								e
-						);
-					}
-				}
-			}
 
-			localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
-		}
-		catch (IOException e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load latest contributions for project \"%s\" with ID %s", projectReference.getName(), projectId),
-					e
-			);
+					return documents;
+				},
+				createLoggingProgressListener()
+		);
+
+		for (SourceDocument document : Iterables.concat(contributedDocuments)) {
+			documentsById.putIfAbsent(document.getUuid(), document);
 		}
 
 		return new ArrayList<>(documentsById.values());
@@ -539,31 +611,13 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 				remoteGitServerManager.getEmail()
 		);
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
-
-			for (LatestContribution latestContribution : latestContributions) {
-				if (!latestContribution.getDocumentIds().contains(documentId)) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
-
-				SourceDocument document = gitSourceDocumentHandler.open(documentId);
-
-				BranchAwareStandardContentHandler branchAwareStandardContentHandler = new BranchAwareStandardContentHandler(
-						localGitRepositoryManager,
-						projectReference,
-						latestContribution.getBranch(),
-						remoteGitServerManager.getUsername()
-				);
-				branchAwareStandardContentHandler.setSourceDocumentInfo(document.getSourceContentHandler().getSourceDocumentInfo());
-
-				document.setSourceContentHandler(branchAwareStandardContentHandler);
-
-				localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
+		for (LatestContribution latestContribution : latestContributions) {
+			if (!latestContribution.getDocumentIds().contains(documentId)) {
+				continue;
+			}
 
-				return document;
+			try (RevisionReader revisionReader = RevisionReader.open(projectPath, latestContribution.getBranch())) {
+				return gitSourceDocumentHandler.open(documentId, revisionReader);
 			}
 		}
 
@@ -571,7 +625,7 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 	}
 
 	@Override
-	public Map getDocumentIndex(String documentId) throws IOException {
+	public DocumentIndex getDocumentIndex(String documentId) throws IOException {
 		GitSourceDocumentHandler gitSourceDocumentHandler = new GitSourceDocumentHandler(
 				localGitRepositoryManager,
 				projectPath,
@@ -579,21 +633,13 @@ public class LatestContributionsResourceProvider implements GitProjectResourcePr
 				remoteGitServerManager.getEmail()
 		);
 
-		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
-			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
-
-			for (LatestContribution latestContribution : latestContributions) {
-				if (!latestContribution.getDocumentIds().contains(documentId)) {
-					continue;
-				}
-
-				localGitRepoManager.checkout(latestContribution.getBranch(), false);
-
-				Map documentIndex = gitSourceDocumentHandler.openIndex(documentId);
-
-				localGitRepoManager.checkout(remoteGitServerManager.getUsername(), false);
+		for (LatestContribution latestContribution : latestContributions) {
+			if (!latestContribution.getDocumentIds().contains(documentId)) {
+				continue;
+			}
 
-				return documentIndex;
+			try (RevisionReader revisionReader = RevisionReader.open(projectPath, latestContribution.getBranch())) {
+				return gitSourceDocumentHandler.openIndex(documentId, revisionReader);
 			}
 		}
 
@@ -0,0 +1,37 @@
+package de.catma.repository.git.resource.provider;
+
+import de.catma.document.source.contenthandler.StandardContentHandler;
+import de.catma.repository.git.managers.jgit.RevisionReader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link StandardContentHandler} that loads the content from a file of a specific revision of the project repository
+ * instead of from the worktree.
+ */
+public class RevisionContentHandler extends StandardContentHandler {
+	private final File projectDirectory;
+	private final String revision;
+	private final String path;
+
+	/**
+	 * @param projectDirectory the directory of the project repository
+	 * @param revision the hash of the commit to read from
+	 * @param path the path of the content file within the repository
+	 */
+	public RevisionContentHandler(File projectDirectory, String revision, String path) {
+		this.projectDirectory = projectDirectory;
+		this.revision = revision;
+		this.path = path;
+	}
+
+	@Override
+	public void load() throws IOException {
+		try (RevisionReader revisionReader = RevisionReader.open(projectDirectory, revision);
+				BufferedInputStream bufferedInputStream = new BufferedInputStream(revisionReader.openFile(path))) {
+			load(bufferedInputStream);
+		}
+	}
+}
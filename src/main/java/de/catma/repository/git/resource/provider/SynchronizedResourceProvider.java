@@ -4,6 +4,7 @@ import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.source.SourceDocument;
+import de.catma.indexer.DocumentIndex;
 import de.catma.project.ProjectReference;
 import de.catma.repository.git.GitAnnotationCollectionHandler;
 import de.catma.repository.git.GitProjectHandler;
@@ -20,8 +21,10 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +38,9 @@ public class SynchronizedResourceProvider implements GitProjectResourceProvider
 	private final RemoteGitManagerRestricted remoteGitServerManager;
 	private final JGitCredentialsManager jGitCredentialsManager;
 
+	// collections that have been found to contain orphans when they were loaded, see removeOrphans
+	private final Set<String> collectionIdsWithOrphans = ConcurrentHashMap.newKeySet();
+
 	public SynchronizedResourceProvider(
 			String projectId,
 			ProjectReference projectReference,
@@ -214,6 +220,8 @@ public class SynchronizedResourceProvider implements GitProjectResourceProvider
 		return collections;
 	}
 
+	// collections are loaded on demand and possibly in parallel (see LazyGraphProjectHandler), so loading must not
+	// modify the worktree, orphaned annotations and properties are only left out and get removed by removeOrphans
 	@Override
 	public AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary) throws IOException {
 		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
@@ -224,19 +232,49 @@ public class SynchronizedResourceProvider implements GitProjectResourceProvider
 				remoteGitServerManager.getEmail()
 		);
 
-		return gitAnnotationCollectionHandler.getCollection(
+		return gitAnnotationCollectionHandler.getCollectionWithoutOrphans(
 				collectionId, 
 				tagLibrary, 
 				new ProgressListener() {
 					@Override
 					public void setProgress(String value, Object... args) {
-						logger.info(String.format(value, args));
+						logger.fine(String.format(value, args));
 					}
 				},
-				false
+				collectionIdsWithOrphans
 		);
 	}
 
+	@Override
+	public Set<String> removeOrphans(TagLibrary tagLibrary, ProgressListener progressListener) throws IOException {
+		Set<String> modifiedCollectionIds = new HashSet<>();
+		if (collectionIdsWithOrphans.isEmpty()) {
+			return modifiedCollectionIds;
+		}
+
+		GitAnnotationCollectionHandler gitAnnotationCollectionHandler = new GitAnnotationCollectionHandler(
+				localGitRepositoryManager,
+				projectPath,
+				projectId,
+				remoteGitServerManager.getUsername(),
+				remoteGitServerManager.getEmail()
+		);
+
+		for (String collectionId : new ArrayList<>(collectionIdsWithOrphans)) {
+			collectionIdsWithOrphans.remove(collectionId);
+
+			if (!gitAnnotationCollectionHandler.collectionExists(collectionId)) {
+				continue;
+			}
+
+			progressListener.setProgress("Removing orphaned annotations and properties from collection with ID %s", collectionId);
+			gitAnnotationCollectionHandler.getCollection(collectionId, tagLibrary, progressListener, true);
+			modifiedCollectionIds.add(collectionId);
+		}
+
+		return modifiedCollectionIds;
+	}
+
 	@Override
 	public List<SourceDocument> getDocuments() {
 		File documentsDirectory = Paths.get(
@@ -294,7 +332,7 @@ public class SynchronizedResourceProvider implements GitProjectResourceProvider
 	}
 
 	@Override
-	public Map getDocumentIndex(String documentId) throws IOException {
+	public DocumentIndex getDocumentIndex(String documentId) throws IOException {
 		GitSourceDocumentHandler gitSourceDocumentHandler = new GitSourceDocumentHandler(
 				localGitRepositoryManager,
 				projectPath,
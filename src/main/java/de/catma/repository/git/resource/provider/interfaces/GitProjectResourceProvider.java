@@ -4,12 +4,13 @@ import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.source.SourceDocument;
+import de.catma.indexer.DocumentIndex;
 import de.catma.tag.TagLibrary;
 import de.catma.tag.TagsetDefinition;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 public interface GitProjectResourceProvider {
 	boolean isReadOnly();
@@ -17,7 +18,14 @@ public interface GitProjectResourceProvider {
 	List<AnnotationCollectionReference> getCollectionReferences();
 	List<AnnotationCollection> getCollections(TagLibrary tagLibrary, ProgressListener progressListener, boolean withOrphansHandling) throws IOException;
 	AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary) throws IOException;
+	/**
+	 * Removes the orphaned annotations and properties that have been found while loading collections with
+	 * {@link #getCollection(String, TagLibrary)} from the worktree (no commit).
+	 *
+	 * @return the IDs of the collections that have been modified
+	 */
+	Set<String> removeOrphans(TagLibrary tagLibrary, ProgressListener progressListener) throws IOException;
 	List<SourceDocument> getDocuments();
 	SourceDocument getDocument(String documentId) throws IOException;
-	Map getDocumentIndex(String documentId) throws IOException;
+	DocumentIndex getDocumentIndex(String documentId) throws IOException;
 }
@@ -0,0 +1,145 @@
+package de.catma.repository.git.serialization;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
+
+/**
+ * Reads and writes annotation page files, JSON arrays of {@link JsonLdWebAnnotation}s, one annotation at a time.
+ * <p>
+ * Page files are streamed from and to the file channel, neither the file content nor the whole list of annotations
+ * needs to be held in memory. The output is identical to that of {@link SerializationHelper#serialize(Collection)}.
+ */
+public class AnnotationPageCodec {
+
+	private static final TypeAdapter<JsonLdWebAnnotation> READ_ADAPTER =
+			SerializationHelper.getReader().getAdapter(JsonLdWebAnnotation.class);
+	private static final TypeAdapter<JsonLdWebAnnotation> WRITE_ADAPTER =
+			SerializationHelper.getWriter().getAdapter(JsonLdWebAnnotation.class);
+
+	/**
+	 * Parses the given page file and passes each annotation to the given consumer as soon as it has been read.
+	 */
+	public void read(File pageFile, Consumer<JsonLdWebAnnotation> annotationConsumer) throws IOException {
+		read(Channels.newReader(FileChannel.open(pageFile.toPath(), StandardOpenOption.READ), createDecoder(), -1), pageFile, annotationConsumer);
+	}
+
+	/**
+	 * Parses the page file content from the given stream and passes each annotation to the given consumer as soon as it
+	 * has been read. The stream is closed afterwards.
+	 *
+	 * @param pageFileName the name of the page file, used in error messages
+	 */
+	public void read(InputStream inputStream, String pageFileName, Consumer<JsonLdWebAnnotation> annotationConsumer) throws IOException {
+		read(new InputStreamReader(inputStream, createDecoder()), pageFileName, annotationConsumer);
+	}
+
+	private CharsetDecoder createDecoder() {
+		// malformed input is replaced, as it is when the file is read into a String
+		return StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	private void read(Reader pageReader, Object pageFile, Consumer<JsonLdWebAnnotation> annotationConsumer) throws IOException {
+		try (JsonReader reader = new JsonReader(new BufferedReader(pageReader))) {
+			reader.setLenient(true); // as Gson#fromJson does
+			reader.beginArray();
+			while (reader.hasNext()) {
+				JsonLdWebAnnotation annotation = READ_ADAPTER.read(reader);
+				if (annotation != null) {
+					annotationConsumer.accept(annotation);
+				}
+			}
+			reader.endArray();
+		}
+		catch (IllegalStateException | JsonParseException e) {
+			throw new IOException(String.format("Invalid annotation page file %s", pageFile), e);
+		}
+	}
+
+	/**
+	 * Parses a single serialized annotation, e.g. one of the elements of a page file.
+	 */
+	public JsonLdWebAnnotation readAnnotation(byte[] bytes, int offset, int length) throws IOException {
+		try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(bytes, offset, length), createDecoder()))) {
+			reader.setLenient(true);
+			JsonLdWebAnnotation annotation = READ_ADAPTER.read(reader);
+			if (annotation == null) {
+				throw new IOException("Invalid annotation: null");
+			}
+			return annotation;
+		}
+		catch (IllegalStateException | JsonParseException e) {
+			throw new IOException("Invalid annotation", e);
+		}
+	}
+
+	/**
+	 * @return all annotations of the given page file
+	 */
+	public List<JsonLdWebAnnotation> readAll(File pageFile) throws IOException {
+		List<JsonLdWebAnnotation> annotations = new ArrayList<>();
+		read(pageFile, annotations::add);
+		return annotations;
+	}
+
+	/**
+	 * Replaces the content of the given page file with the given annotations.
+	 * <p>
+	 * The annotations are written to a temporary file next to the page file, which then replaces the page file
+	 * atomically. If writing fails the page file is left untouched.
+	 */
+	public void write(File pageFile, Collection<JsonLdWebAnnotation> annotations) throws IOException {
+		Gson gson = SerializationHelper.getWriter();
+
+		File tempFile = File.createTempFile("." + pageFile.getName(), ".tmp", pageFile.getAbsoluteFile().getParentFile());
+
+		try {
+			try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(Channels.newWriter(
+					FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+					StandardCharsets.UTF_8.newEncoder(), -1)))) {
+
+				// these are set by Gson#toJson but not by Gson#newJsonWriter
+				writer.setHtmlSafe(gson.htmlSafe());
+				writer.setLenient(true);
+
+				writer.beginArray();
+				for (JsonLdWebAnnotation annotation : annotations) {
+					WRITE_ADAPTER.write(writer, annotation);
+				}
+				writer.endArray();
+			}
+
+			Files.move(tempFile.toPath(), pageFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+}
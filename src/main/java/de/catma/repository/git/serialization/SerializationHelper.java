@@ -11,73 +11,68 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.internal.ConstructorConstructor;
 import com.google.gson.internal.Excluder;
+import com.google.gson.stream.JsonWriter;
 
 import de.catma.document.source.FileOSType;
 import de.catma.document.source.FileType;
 
 public class SerializationHelper<T> {
-	public String serialize(T object) {
-		return toJson(object);
-	}
+	// Gson instances are immutable and thread-safe, building them is expensive, so they are shared
+	private static final Gson SORTED_WRITER = createGsonBuilder()
+			.registerTypeAdapterFactory(
+				new SortedReflectiveTypeAdapterFactory(
+						new ConstructorConstructor(Collections.emptyMap()), 
+						FieldNamingPolicy.IDENTITY, 
+						Excluder.DEFAULT))
+			.setPrettyPrinting().serializeNulls().create();
+	private static final Gson WRITER = createGsonBuilder().setPrettyPrinting().serializeNulls().create();
+	private static final Gson READER = createGsonBuilder().create();
 
-	public String serialize(Collection<T> objects) {
-		return toJson(objects);
+	private static GsonBuilder createGsonBuilder() {
+		GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeAdapter(Charset.class, new CharsetAdapter());
+		gsonBuilder.registerTypeAdapter(Locale.class, new LocaleAdapter());
+		gsonBuilder.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
+		gsonBuilder.registerTypeAdapter(FileType.class, new FileTypeAdapter());
+		gsonBuilder.registerTypeAdapterFactory(new CharsetAdapterFactory());
+		return gsonBuilder;
 	}
 
-	public T deserialize(String serialized, Class<T> clazz) {
-		return fromJson(serialized, clazz);
+	/**
+	 * @return the shared instance that is used to serialize collections
+	 */
+	static Gson getWriter() {
+		return WRITER;
 	}
 
-	public T deserialize(String serialized, Type type) {
-		return fromJson(serialized, type);
+	/**
+	 * @return the shared instance that is used for deserialization
+	 */
+	static Gson getReader() {
+		return READER;
 	}
 
-	private String toJson(T object) {
-		GsonBuilder gson = new GsonBuilder();
-		gson.registerTypeAdapter(Charset.class, new CharsetAdapter());
-		gson.registerTypeAdapter(Locale.class, new LocaleAdapter());
-		gson.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
-		gson.registerTypeAdapter(FileType.class, new FileTypeAdapter());
-		gson.registerTypeAdapterFactory(new CharsetAdapterFactory());
-		gson.registerTypeAdapterFactory(
-			new SortedReflectiveTypeAdapterFactory(
-					new ConstructorConstructor(Collections.emptyMap()), 
-					FieldNamingPolicy.IDENTITY, 
-					Excluder.DEFAULT)); 
-		return gson.setPrettyPrinting().serializeNulls().create().toJson(object);
+	public String serialize(T object) {
+		return SORTED_WRITER.toJson(object);
 	}
-	
-	private T fromJson(String json, Class<T> clazz) {
-		GsonBuilder gson = new GsonBuilder();
-		gson.registerTypeAdapter(Charset.class, new CharsetAdapter());
-		gson.registerTypeAdapter(Locale.class, new LocaleAdapter());
-		gson.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
-		gson.registerTypeAdapter(FileType.class, new FileTypeAdapter());
-		gson.registerTypeAdapterFactory(new CharsetAdapterFactory());
-		
-		return gson.create().fromJson(json, clazz);
+
+	/**
+	 * Writes the given object to the given writer with the same field order as {@link #serialize(Object)}, formatting
+	 * is up to the writer.
+	 */
+	public void serialize(T object, JsonWriter jsonWriter) {
+		SORTED_WRITER.toJson(object, object.getClass(), jsonWriter);
 	}
-	
-	private T fromJson(String json, Type type) {
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(Charset.class, new CharsetAdapter());
-		gsonBuilder.registerTypeAdapter(Locale.class, new LocaleAdapter());
-		gsonBuilder.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
-		gsonBuilder.registerTypeAdapter(FileType.class, new FileTypeAdapter());
-		gsonBuilder.registerTypeAdapterFactory(new CharsetAdapterFactory());
-		Gson gson = gsonBuilder.create();
-		return gson.fromJson(json, type);		
+
+	public String serialize(Collection<T> objects) {
+		return WRITER.toJson(objects);
 	}
-	
-	private String toJson(Collection<T> objects) {
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(Charset.class, new CharsetAdapter());
-		gsonBuilder.registerTypeAdapter(Locale.class, new LocaleAdapter());
-		gsonBuilder.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
-		gsonBuilder.registerTypeAdapter(FileType.class, new FileTypeAdapter());
-		gsonBuilder.registerTypeAdapterFactory(new CharsetAdapterFactory());
-		Gson gson = gsonBuilder.setPrettyPrinting().serializeNulls().create();
-		return gson.toJson(objects);	
+
+	public T deserialize(String serialized, Class<T> clazz) {
+		return READER.fromJson(serialized, clazz);
 	}
 
+	public T deserialize(String serialized, Type type) {
+		return READER.fromJson(serialized, type);
+	}
 }
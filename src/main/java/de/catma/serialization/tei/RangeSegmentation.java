@@ -0,0 +1,88 @@
+package de.catma.serialization.tei;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import de.catma.document.Range;
+
+/**
+ * Splits a range into consecutive segments at the boundaries of a list of items with ranges, e.g. tag references,
+ * so that each segment is covered by the same items throughout.
+ * <p>
+ * This is a sweep over the sorted boundaries, which takes O(n log n) plus the size of the output. Items are clipped to
+ * the range, items that are empty after clipping are ignored.
+ */
+class RangeSegmentation {
+
+	interface SegmentHandler<T> {
+		/**
+		 * @param segment the current segment
+		 * @param items the items that cover the segment in the order of the original list, possibly empty
+		 */
+		void handle(Range segment, List<T> items) throws IOException;
+	}
+
+	/**
+	 * Passes the segments of the given range to the given handler in ascending order.
+	 */
+	static <T> void forEachSegment(
+			List<T> items, Function<T, Range> rangeProvider, Range range, SegmentHandler<T> segmentHandler) throws IOException {
+
+		int rangeStart = range.getStartPoint();
+		int rangeEnd = range.getEndPoint();
+
+		List<int[]> clippedRanges = new ArrayList<>(items.size()); // start, end, index within items
+		for (int idx = 0; idx < items.size(); idx++) {
+			Range itemRange = rangeProvider.apply(items.get(idx));
+			int start = Math.max(rangeStart, itemRange.getStartPoint());
+			int end = Math.min(rangeEnd, itemRange.getEndPoint());
+			if (start < end) {
+				clippedRanges.add(new int[] {start, end, idx});
+			}
+		}
+
+		int[] boundaries = new int[clippedRanges.size() * 2 + 2];
+		boundaries[0] = rangeStart;
+		boundaries[1] = rangeEnd;
+		int boundaryCount = 2;
+		for (int[] clippedRange : clippedRanges) {
+			boundaries[boundaryCount++] = clippedRange[0];
+			boundaries[boundaryCount++] = clippedRange[1];
+		}
+		Arrays.sort(boundaries);
+
+		List<int[]> byStart = new ArrayList<>(clippedRanges);
+		byStart.sort(Comparator.comparingInt(clippedRange -> clippedRange[0]));
+		List<int[]> byEnd = clippedRanges;
+		byEnd.sort(Comparator.comparingInt(clippedRange -> clippedRange[1]));
+
+		TreeMap<Integer, T> activeItemsByIndex = new TreeMap<>();
+		int startIdx = 0;
+		int endIdx = 0;
+		int segmentStart = boundaries[0];
+
+		for (int boundaryIdx = 1; boundaryIdx < boundaries.length; boundaryIdx++) {
+			int segmentEnd = boundaries[boundaryIdx];
+			if (segmentEnd == segmentStart) {
+				continue;
+			}
+
+			while (endIdx < byEnd.size() && byEnd.get(endIdx)[1] <= segmentStart) {
+				activeItemsByIndex.remove(byEnd.get(endIdx++)[2]);
+			}
+			while (startIdx < byStart.size() && byStart.get(startIdx)[0] <= segmentStart) {
+				int itemIdx = byStart.get(startIdx++)[2];
+				activeItemsByIndex.put(itemIdx, items.get(itemIdx));
+			}
+
+			segmentHandler.handle(new Range(segmentStart, segmentEnd), new ArrayList<>(activeItemsByIndex.values()));
+
+			segmentStart = segmentEnd;
+		}
+	}
+}
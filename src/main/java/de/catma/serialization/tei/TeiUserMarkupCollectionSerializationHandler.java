@@ -24,7 +24,6 @@ import java.io.OutputStream;
 
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.source.SourceDocument;
-import de.catma.serialization.DocumentSerializer;
 import de.catma.serialization.AnnotationCollectionSerializationHandler;
 import de.catma.tag.TagLibrary;
 import de.catma.tag.TagManager;
@@ -48,27 +47,8 @@ public class TeiUserMarkupCollectionSerializationHandler implements
 		AnnotationCollection userMarkupCollection,
 		SourceDocument sourceDocument,
 		OutputStream outputStream) throws IOException {
-		try {
-			TeiDocumentFactory factory = new TeiDocumentFactory();
-			TeiDocument teiDocument = 
-					factory.createEmptyDocument(userMarkupCollection.getId());
-			
-			teiDocument.getTeiHeader().setValues(
-				userMarkupCollection.getContentInfoSet());
-			
-			new TeiTagLibrarySerializationHandler(
-					teiDocument, tagManager, version).serialize(
-							userMarkupCollection.getTagLibrary());
-    		
-			new TeiUserMarkupCollectionSerializer(teiDocument, withText).serialize(
-    				userMarkupCollection, sourceDocument);
-			
-			new DocumentSerializer().serialize(
-				teiDocument.getDocument(), outputStream);
-		}
-		catch (Exception exc) {
-			throw new IOException(exc);
-		}
+		new TeiUserMarkupCollectionStreamSerializer(tagManager, version, withText).serialize(
+			userMarkupCollection, sourceDocument, outputStream);
 	}
 
 	public AnnotationCollection deserialize(
@@ -0,0 +1,394 @@
+package de.catma.serialization.tei;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.catma.document.Range;
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.TagReference;
+import de.catma.document.source.FileType;
+import de.catma.document.source.SourceDocument;
+import de.catma.tag.Property;
+import de.catma.tag.PropertyDefinition;
+import de.catma.tag.TagInstance;
+import de.catma.tag.TagLibrary;
+import de.catma.tag.TagManager;
+import nu.xom.Comment;
+import nu.xom.Element;
+import nu.xom.Node;
+import nu.xom.ParentNode;
+import nu.xom.Text;
+
+/**
+ * Writes the same TEI document as the former XOM based serializer did, but streams the segments and feature
+ * structures of the annotations with StAX instead of building them as a XOM tree.
+ * <p>
+ * Only the header and the tag library, which are small, are still built with XOM. Memory usage therefore doesn't
+ * depend on the number of annotations beyond the collection itself. Indentation follows
+ * {@link de.catma.serialization.DocumentSerializer} except within mixed content.
+ */
+public class TeiUserMarkupCollectionStreamSerializer {
+	private static final String INDENT = "    ";
+
+	private final TagManager tagManager;
+	private final String version;
+	private final boolean withText;
+
+	private XMLStreamWriter writer;
+
+	public TeiUserMarkupCollectionStreamSerializer(TagManager tagManager, String version, boolean withText) {
+		this.tagManager = tagManager;
+		this.version = version;
+		this.withText = withText;
+	}
+
+	public void serialize(
+			AnnotationCollection userMarkupCollection,
+			SourceDocument sourceDocument,
+			OutputStream outputStream) throws IOException {
+		try {
+			TeiDocument teiDocument =
+					new TeiDocumentFactory().createEmptyDocument(userMarkupCollection.getId());
+
+			teiDocument.getTeiHeader().setValues(
+				userMarkupCollection.getContentInfoSet());
+
+			new TeiTagLibrarySerializationHandler(
+					teiDocument, tagManager, version).serialize(
+							userMarkupCollection.getTagLibrary());
+
+			writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+			try {
+				writer.writeStartDocument("UTF-8", "1.0");
+				writeElement(
+					teiDocument.getDocument().getRootElement(), 0,
+					userMarkupCollection, sourceDocument);
+				writer.writeCharacters("\n");
+				writer.writeEndDocument();
+				writer.flush();
+			}
+			finally {
+				// does not close the underlying stream
+				writer.close();
+				writer = null;
+			}
+		}
+		catch (IOException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+
+	private void writeElement(
+			Element element, int depth,
+			AnnotationCollection userMarkupCollection, SourceDocument sourceDocument)
+					throws XMLStreamException, IOException {
+
+		boolean isAnnotationParent =
+				(element instanceof TeiElement)
+				&& ((TeiElement)element).is(TeiElementName.ab)
+				&& ((TeiElement)element).isCatmaElement();
+		boolean isTagInstanceParent =
+				(element instanceof TeiElement)
+				&& ((TeiElement)element).is(TeiElementName.text);
+		boolean hasAnnotations = !userMarkupCollection.isEmpty();
+
+		List<Node> children = new ArrayList<>();
+		// with text the segments are mixed with the text of unannotated ranges
+		boolean mixedContent = isAnnotationParent && hasAnnotations && withText;
+		for (int idx=0; idx<element.getChildCount(); idx++) {
+			Node child = element.getChild(idx);
+			if (child instanceof Text) {
+				if (child.getValue().trim().isEmpty()) {
+					continue; // indentation is ours
+				}
+				mixedContent = true;
+			}
+			children.add(child);
+		}
+
+		boolean isEmpty =
+				children.isEmpty()
+				&& !(hasAnnotations && (isAnnotationParent || isTagInstanceParent));
+
+		writeIndent(depth);
+		if (isEmpty) {
+			writer.writeEmptyElement(
+				element.getNamespacePrefix(), element.getLocalName(), element.getNamespaceURI());
+		}
+		else {
+			writer.writeStartElement(
+				element.getNamespacePrefix(), element.getLocalName(), element.getNamespaceURI());
+		}
+		writeNamespaceDeclarations(element);
+
+		for (int idx=0; idx<element.getAttributeCount(); idx++) {
+			nu.xom.Attribute attribute = element.getAttribute(idx);
+			if (attribute.getNamespaceURI().isEmpty()) {
+				writer.writeAttribute(attribute.getLocalName(), attribute.getValue());
+			}
+			else {
+				writer.writeAttribute(
+					attribute.getNamespacePrefix(), attribute.getNamespaceURI(),
+					attribute.getLocalName(), attribute.getValue());
+			}
+		}
+
+		if (isEmpty) {
+			return;
+		}
+
+		for (Node child : children) {
+			if (child instanceof Element) {
+				writeElement((Element)child, mixedContent?-1:depth+1, userMarkupCollection, sourceDocument);
+			}
+			else if (child instanceof Text) {
+				writer.writeCharacters(child.getValue());
+			}
+			else if (child instanceof Comment) {
+				writeIndent(mixedContent?-1:depth+1);
+				writer.writeComment(child.getValue());
+			}
+		}
+
+		if (hasAnnotations && isAnnotationParent) {
+			writeSegments(userMarkupCollection, sourceDocument, mixedContent?-1:depth+1);
+		}
+
+		if (hasAnnotations && isTagInstanceParent) {
+			for (TagInstance tagInstance : getTagInstancesInOrderOfAppearance(userMarkupCollection, sourceDocument)) {
+				writeTagInstance(tagInstance, userMarkupCollection.getTagLibrary(), depth+1);
+			}
+		}
+
+		if (!mixedContent) {
+			writeIndent(depth);
+		}
+		writer.writeEndElement();
+	}
+
+	private void writeNamespaceDeclarations(Element element) throws XMLStreamException {
+		ParentNode parent = element.getParent();
+
+		for (int idx=0; idx<element.getNamespaceDeclarationCount(); idx++) {
+			String prefix = element.getNamespacePrefix(idx);
+			String uri = element.getNamespaceURI(prefix);
+			if (prefix.equals(XMLConstants.XML_NS_PREFIX)
+					|| ((parent instanceof Element)
+							&& uri.equals(((Element)parent).getNamespaceURI(prefix)))) {
+				continue;
+			}
+			if (prefix.isEmpty()) {
+				writer.writeDefaultNamespace(uri);
+			}
+			else {
+				writer.writeNamespace(prefix, uri);
+			}
+		}
+	}
+
+	/**
+	 * A negative depth suppresses indentation, e.g. within mixed content.
+	 */
+	private void writeIndent(int depth) throws XMLStreamException {
+		if (depth < 0) {
+			return;
+		}
+		StringBuilder builder = new StringBuilder("\n");
+		for (int idx=0; idx<depth; idx++) {
+			builder.append(INDENT);
+		}
+		writer.writeCharacters(builder.toString());
+	}
+
+	private void writeSegments(
+			AnnotationCollection userMarkupCollection, SourceDocument sourceDocument,
+			int depth) throws IOException {
+
+		String targetURI = makeTargetURI(sourceDocument);
+		AnaValueHandler anaValueHandler = new AnaValueHandler();
+
+		RangeSegmentation.forEachSegment(
+			userMarkupCollection.getTagReferences(),
+			TagReference::getRange,
+			new Range(0, sourceDocument.getLength()),
+			(range, currentReferences) -> {
+				try {
+					if (currentReferences.isEmpty()) {
+						writeText(targetURI, range, sourceDocument, depth);
+					}
+					else {
+						writeIndent(depth);
+						writer.writeStartElement("", TeiElementName.seg.name(), TeiElement.TEINAMESPACE);
+						writer.writeAttribute(
+							Attribute.ana.getLocalName(),
+							anaValueHandler.makeValueFrom(
+								currentReferences.stream()
+								.map(TagReference::getTagInstance)
+								.collect(Collectors.toList())));
+						writeText(targetURI, range, sourceDocument, withText?-1:depth+1);
+						if (!withText) {
+							writeIndent(depth);
+						}
+						writer.writeEndElement();
+					}
+				}
+				catch (XMLStreamException e) {
+					throw new IOException(e);
+				}
+			});
+	}
+
+	/**
+	 * @return the tag instances in the order in which the XOM based serializer added them,
+	 * i.e. in the order of their first segment
+	 */
+	private List<TagInstance> getTagInstancesInOrderOfAppearance(
+			AnnotationCollection userMarkupCollection, SourceDocument sourceDocument) throws IOException {
+
+		List<TagReference> tagReferences = userMarkupCollection.getTagReferences();
+		int length = sourceDocument.getLength();
+
+		List<Integer> indices = new ArrayList<>();
+		for (int idx=0; idx<tagReferences.size(); idx++) {
+			Range range = tagReferences.get(idx).getRange();
+			if (Math.max(0, range.getStartPoint()) < Math.min(length, range.getEndPoint())) {
+				indices.add(idx);
+			}
+		}
+
+		// the sort is stable, references with the same start keep their order
+		indices.sort(Comparator.comparingInt(idx -> Math.max(0, tagReferences.get(idx).getRange().getStartPoint())));
+
+		Map<String, TagInstance> tagInstancesById = new LinkedHashMap<>();
+		for (Integer idx : indices) {
+			TagInstance tagInstance = tagReferences.get(idx).getTagInstance();
+			tagInstancesById.putIfAbsent(tagInstance.getUuid(), tagInstance);
+		}
+
+		return new ArrayList<>(tagInstancesById.values());
+	}
+
+	private void writeTagInstance(TagInstance tagInstance, TagLibrary tagLibrary, int depth) throws XMLStreamException {
+		writeIndent(depth);
+		writer.writeStartElement("", TeiElementName.fs.name(), TeiElement.TEINAMESPACE);
+		writer.writeAttribute(
+			XMLConstants.XML_NS_PREFIX, Attribute.xmlid.getNamespaceURI(),
+			Attribute.xmlid.getLocalName(), tagInstance.getUuid());
+		writer.writeAttribute(Attribute.type.getLocalName(), tagInstance.getTagDefinitionId());
+
+		writeProperty(
+			PropertyDefinition.SystemPropertyName.catma_markupauthor.name(),
+			tagInstance.getAuthor(), depth+1);
+		writeProperty(
+			PropertyDefinition.SystemPropertyName.catma_markuptimestamp.name(),
+			tagInstance.getTimestamp(), depth+1);
+		writeProperty(
+			PropertyDefinition.SystemPropertyName.catma_displaycolor.name(),
+			tagLibrary.getTagDefinition(tagInstance.getTagDefinitionId()).getColor(), depth+1);
+
+		for (Property p : tagInstance.getUserDefinedProperties()) {
+			writeProperty(p, tagInstance.getTagDefinitionId(), tagLibrary, depth+1);
+		}
+
+		writeIndent(depth);
+		writer.writeEndElement();
+	}
+
+	private void writeProperty(String propertyName, String value, int depth) throws XMLStreamException {
+		writeIndent(depth);
+		writer.writeStartElement("", TeiElementName.f.name(), TeiElement.TEINAMESPACE);
+		writer.writeAttribute(
+			Attribute.f_name.getLocalName(), Validator.SINGLETON.convertToXMLName(propertyName));
+		writeString(value, depth+1);
+		writeIndent(depth);
+		writer.writeEndElement();
+	}
+
+	private void writeProperty(Property property, String tagDefinitionId, TagLibrary tagLibrary, int depth) throws XMLStreamException {
+		String propertyName =
+			tagLibrary.getTagDefinition(tagDefinitionId).getPropertyDefinitionByUuid(property.getPropertyDefinitionId()).getName();
+		List<String> values = new ArrayList<>(property.getPropertyValueList());
+
+		writeIndent(depth);
+		if (values.isEmpty()) {
+			writer.writeEmptyElement("", TeiElementName.f.name(), TeiElement.TEINAMESPACE);
+		}
+		else {
+			writer.writeStartElement("", TeiElementName.f.name(), TeiElement.TEINAMESPACE);
+		}
+		writer.writeAttribute(
+			Attribute.f_name.getLocalName(), Validator.SINGLETON.convertToXMLName(propertyName));
+
+		if (values.isEmpty()) {
+			return;
+		}
+
+		if (values.size() > 1) {
+			writeIndent(depth+1);
+			writer.writeStartElement("", TeiElementName.vRange.name(), TeiElement.TEINAMESPACE);
+			writeIndent(depth+2);
+			writer.writeStartElement("", TeiElementName.vColl.name(), TeiElement.TEINAMESPACE);
+			for (String value : values) {
+				writeString(value, depth+3);
+			}
+			writeIndent(depth+2);
+			writer.writeEndElement();
+			writeIndent(depth+1);
+			writer.writeEndElement();
+		}
+		else {
+			writeString(values.get(0), depth+1);
+		}
+
+		writeIndent(depth);
+		writer.writeEndElement();
+	}
+
+	private void writeString(String value, int depth) throws XMLStreamException {
+		writeIndent(depth);
+		writer.writeStartElement("", TeiElementName.string.name(), TeiElement.TEINAMESPACE);
+		if (value != null) {
+			writer.writeCharacters(value);
+		}
+		writer.writeEndElement();
+	}
+
+	private void writeText(String uri, Range range, SourceDocument sourceDocument, int depth)
+			throws IOException, XMLStreamException {
+		if (withText) {
+			writer.writeCharacters(sourceDocument.getContent(range));
+		}
+		else {
+			writeIndent(depth);
+			writer.writeEmptyElement("", TeiElementName.ptr.name(), TeiElement.TEINAMESPACE);
+			writer.writeAttribute(
+				Attribute.ptr_target.getLocalName(), new PtrValueHandler().makeTargetFrom(range, uri));
+			writer.writeAttribute(
+				Attribute.type.getLocalName(), AttributeValue.type_inclusion.getValueName());
+		}
+	}
+
+	private String makeTargetURI(SourceDocument sourceDocument) {
+		if ((!sourceDocument.getSourceContentHandler().getSourceDocumentInfo().
+				getTechInfoSet().getFileType().equals(FileType.TEXT))
+			&& (sourceDocument.getUuid().startsWith("http"))) {
+			return sourceDocument.getUuid().replaceFirst("http", "catma");
+
+		}
+		return sourceDocument.getUuid();
+	}
+}
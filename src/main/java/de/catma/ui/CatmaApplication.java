@@ -65,6 +65,8 @@ import com.vaadin.ui.Notification;
 import com.vaadin.ui.Notification.Type;
 import com.vaadin.ui.UI;
 
+import de.catma.backgroundservice.BackgroundJobClass;
+import de.catma.backgroundservice.BackgroundJobPriority;
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.ExecutionListener;
@@ -221,8 +223,14 @@ public class CatmaApplication extends UI implements KeyValueStorage, BackgroundS
 	}
 
 	public <T> void submit(String caption, final ProgressCallable<T> callable, final ExecutionListener<T> listener) {
-		logger.info("Submitting job '" + caption + "' " + callable); //$NON-NLS-1$ //$NON-NLS-2$
-		acquireBackgroundService().submit(callable, new ExecutionListener<T>() {
+		submit(caption, BackgroundJobClass.INTERACTIVE, callable, listener);
+	}
+
+	@Override
+	public <T> void submit(String caption, BackgroundJobClass jobClass, final ProgressCallable<T> callable,
+			final ExecutionListener<T> listener) {
+		logger.info("Submitting " + jobClass + " job '" + caption + "' " + callable); //$NON-NLS-1$ //$NON-NLS-2$
+		acquireBackgroundService().submit(jobClass, BackgroundJobPriority.NORMAL, callable, new ExecutionListener<T>() {
 			public void done(T result) {
 				listener.done(result);
 			};
@@ -1,19 +1,31 @@
 package de.catma.ui;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.vaadin.server.VaadinSession;
+import com.vaadin.server.WrappedSession;
 import com.vaadin.ui.UI;
 
+import de.catma.backgroundservice.BackgroundJob;
+import de.catma.backgroundservice.BackgroundJobClass;
+import de.catma.backgroundservice.BackgroundJobPriority;
+import de.catma.backgroundservice.BackgroundJobScheduler;
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.backgroundservice.ProgressCallable;
 import de.catma.backgroundservice.ProgressListener;
 
+/**
+ * The {@link BackgroundService} of a single UI. Jobs run on the server-wide {@link BackgroundJobScheduler}, the
+ * HTTP session counts as owner for the turns that users take. Results are delivered with {@link UI#access(Runnable)}
+ * followed by a push.
+ */
 public class UIBackgroundService implements BackgroundService {
 	
 	public static class UIProgressListener implements ProgressListener {
@@ -33,65 +45,81 @@ public class UIBackgroundService implements BackgroundService {
 				ui.push();
 			});
 		}
+
+		@Override
+		public boolean isCancelled() {
+			// nobody is waiting for the result anymore once the UI has been closed
+			return (ui != null && !ui.isAttached()) || delegate.isCancelled();
+		}
 	}
 
-	private ScheduledExecutorService backgroundThread;
 	private boolean background;
+	private final Set<BackgroundJob> jobs = ConcurrentHashMap.newKeySet();
+	private final Set<ScheduledFuture<?>> periodicTasks = ConcurrentHashMap.newKeySet();
 	
 	public UIBackgroundService(boolean background) {
 		this.background = background;
-		if (background) {
-			backgroundThread = Executors.newScheduledThreadPool(2);
-		}
 	}
 
 
 	@Override
 	public <T> void submit(final ProgressCallable<T> callable,
 			final ExecutionListener<T> listener, final ProgressListener progressListener) {
+		submit(BackgroundJobClass.INTERACTIVE, BackgroundJobPriority.NORMAL, callable, listener, progressListener);
+	}
+	
+	@Override
+	public <T> void submit(BackgroundJobClass jobClass, BackgroundJobPriority priority, 
+			final ProgressCallable<T> callable,
+			final ExecutionListener<T> listener, final ProgressListener progressListener) {
         if (background) {
         	final UI ui = UI.getCurrent();
-            backgroundThread.submit( new Runnable() {
-                public void run() {
-                    try {
-                        callable.setProgressListener( progressListener );
-                        final T result = callable.call();
-                        if (ui != null && ui.isAttached()) {
-	                        ui.access(new Runnable() {
-	                        	public void run() {
-	                        		try {
-	                        			listener.done(result);
-	                        		}
-	                        		finally {
-		                        		ui.push();
-	                        		}
-	                        	}
-	                        });
-                        }                        
-                    } catch (final Throwable t) {
-                        try {
-                        	Logger.getLogger(
-                        			getClass().getName()).log(
-                        					Level.SEVERE, "Error", t); //$NON-NLS-1$
-                        	if (ui != null && ui.isAttached()) {
-	                            ui.access(new Runnable() {
-	                            	public void run() {
-	                            		try {
-	                            			listener.error(t);
-	                            		}
-	                            		finally {
-		                            		ui.push();
-	                            		}
-	                            	}
-	                            });
+            BackgroundJob job = BackgroundJobScheduler.INSTANCE.submit(jobClass, priority, getOwner(ui), currentJob -> {
+                try {
+                    callable.setProgressListener( currentJob.withCancellation(progressListener) );
+                    final T result = callable.call();
+                    if (ui != null && ui.isAttached()) {
+                        ui.access(new Runnable() {
+                        	public void run() {
+                        		try {
+                        			listener.done(result);
+                        		}
+                        		finally {
+	                        		ui.push();
+                        		}
                         	}
-                        }
-                        catch(Throwable t2) {
-                        	t2.printStackTrace();
-                        }
+                        });
+                    }                        
+                } catch (final Throwable t) {
+                    try {
+                    	Logger.getLogger(
+                    			getClass().getName()).log(
+                    					Level.SEVERE, "Error", t); //$NON-NLS-1$
+                    	if (ui != null && ui.isAttached()) {
+                            ui.access(new Runnable() {
+                            	public void run() {
+                            		try {
+                            			listener.error(t);
+                            		}
+                            		finally {
+	                            		ui.push();
+                            		}
+                            	}
+                            });
+                    	}
+                    }
+                    catch(Throwable t2) {
+                    	t2.printStackTrace();
                     }
                 }
-            } );
+                finally {
+                	jobs.remove(currentJob);
+                }
+            });
+            jobs.add(job);
+            if (job.isDone()) {
+            	jobs.remove(job);
+            }
         }
         else {
             try {
@@ -107,18 +135,40 @@ public class UIBackgroundService implements BackgroundService {
         }
 	}
 
+	private String getOwner(UI ui) {
+		VaadinSession session = (ui == null) ? VaadinSession.getCurrent() : ui.getSession();
+		WrappedSession wrappedSession = (session == null) ? null : session.getSession();
+		return (wrappedSession == null) ? "anonymous" : wrappedSession.getId();
+	}
+
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
 			long initialDelay, long delay, TimeUnit unit) {
-		return backgroundThread.scheduleWithFixedDelay(command, initialDelay,
-				delay, unit);
+		ScheduledFuture<?> periodicTask = BackgroundJobScheduler.INSTANCE.getTimer().scheduleWithFixedDelay(
+				command, initialDelay, delay, unit);
+		periodicTasks.removeIf(Future::isDone);
+		periodicTasks.add(periodicTask);
+		return periodicTask;
 	}
 	
 	public ScheduledFuture<?> schedule(Runnable command,
 			long delay, TimeUnit unit) {
-		return backgroundThread.schedule(command, delay, unit);
+		return BackgroundJobScheduler.INSTANCE.getTimer().schedule(command, delay, unit);
 	}
 	
+	/**
+	 * Cancels periodic tasks and queued jobs of {@link BackgroundJobClass#isReadOnly() read-only} classes, 
+	 * all other jobs and delayed tasks still run.
+	 */
 	public void shutdown() {
-		backgroundThread.shutdown();
+		for (ScheduledFuture<?> periodicTask : periodicTasks) {
+			periodicTask.cancel(false);
+		}
+		periodicTasks.clear();
+		
+		for (BackgroundJob job : jobs) {
+			if (job.getJobClass().isReadOnly()) {
+				job.cancel();
+			}
+		}
 	}
 }
@@ -16,4 +16,5 @@ public interface TaggerClientRpc extends ClientRpc {
 	public void updateComment(String uuid, String body, int startPos);
 	public void removeComment(String uuid, int startPos);
 	public void setReplies(String uuid, int startPos, String repliesJsonArrayString);
+	public void setTooltipInfo(String tagInstanceId, int revision, String tooltipInfo);
 }
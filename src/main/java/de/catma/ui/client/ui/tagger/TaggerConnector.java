@@ -90,6 +90,11 @@ public class TaggerConnector extends AbstractComponentConnector {
 			public void setReplies(String uuid, int startPos, String replies) {
 				getWidget().setReplies(uuid, startPos, new ClientCommentReplyJSONSerializer().fromJSONArray(replies));
 			}
+			
+			@Override
+			public void setTooltipInfo(String tagInstanceId, int revision, String tooltipInfo) {
+				getWidget().setTooltipInfo(tagInstanceId, revision, tooltipInfo);
+			}
 		});
 	}
 	
@@ -173,6 +178,11 @@ public class TaggerConnector extends AbstractComponentConnector {
 			public void loadReplies(String uuid) {
 				rpc.loadReplies(uuid);	
 			}
+			
+			@Override
+			public void tooltipInfoRequested(String tagInstanceId) {
+				rpc.requestTooltipInfo(tagInstanceId);
+			}
 		});
 
 		return tagger;
@@ -185,10 +195,16 @@ public class TaggerConnector extends AbstractComponentConnector {
 	
     public TooltipInfo getTooltipInfo(Element element) {
     	if (element.getId().startsWith("CATMA")) {
-    		String tooltipInfo = getState().tagInstanceIdToTooltipInfo.get(
-    				ClientTagInstance.getTagInstanceIDFromPartId(element.getId()));
-    		if (tooltipInfo == null) {
-    			tooltipInfo = "N/A";
+    		String tagInstanceId = ClientTagInstance.getTagInstanceIDFromPartId(element.getId());
+    		Integer revision = getState().tagInstanceIdToTooltipRevision.get(tagInstanceId);
+    		String tooltipInfo = "N/A";
+    		if (revision != null) {
+    			tooltipInfo = getWidget().getTooltipInfo(tagInstanceId, revision);
+    			if (tooltipInfo == null) {
+    				// has been requested from the server, the tooltip gets replaced
+    				// with the next mouse move after the response arrived
+    				tooltipInfo = "...";
+    			}
     		}
     		return new TooltipInfo(tooltipInfo, ContentMode.HTML, getState().errorMessage);
     	}
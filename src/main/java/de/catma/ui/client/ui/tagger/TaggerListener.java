@@ -20,4 +20,5 @@ public interface TaggerListener {
 	public void loadReplies(String uuid);
 	public void editReply(ClientComment comment, ClientCommentReply reply, int x, int y);
 	public void removeReply(ClientComment comment, ClientCommentReply reply);
+	public void tooltipInfoRequested(String tagInstanceId);
 }
@@ -15,4 +15,5 @@ public interface TaggerServerRpc extends ServerRpc {
 	public void editReply(String commentUuid, String replyUuid, int x, int y);
 	public void removeReply(String commentUuid, String replyUuid);
 	public void loadReplies(String uuid);
+	public void requestTooltipInfo(String tagInstanceId);
 }
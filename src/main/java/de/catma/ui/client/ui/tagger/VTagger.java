@@ -19,7 +19,10 @@
 package de.catma.ui.client.ui.tagger;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import com.google.gwt.event.dom.client.ClickEvent;
@@ -49,6 +52,8 @@ public class VTagger extends Composite {
 	
 	private static Logger logger = Logger.getLogger(VTagger.class.getName());
 	
+	private static final int TOOLTIP_INFO_CACHE_SIZE = 100;
+	
 	private TaggerEditor taggerEditor;
 	private ClientTagInstanceJSONSerializer tagInstanceJSONSerializer;
 	private ClientTagDefinitionJSONSerializer tagDefinitionJSONSerializer;
@@ -60,6 +65,9 @@ public class VTagger extends Composite {
 
 	private FlowPanel taggerPanel;
 	
+	private Map<String, String> tooltipInfoCache; // LRU, tagInstanceId@revision -> tooltip HTML
+	private Set<String> pendingTooltipInfoRequests;
+	
 	/**
 	 * The constructor should first call super() to initialize the component and
 	 * then handle any initialization relevant to Vaadin.
@@ -68,6 +76,13 @@ public class VTagger extends Composite {
 		this.tagInstanceJSONSerializer = new ClientTagInstanceJSONSerializer();
 		this.tagDefinitionJSONSerializer = new ClientTagDefinitionJSONSerializer();
 		this.textRangeJSONSerializer = new TextRangeJSONSerializer();
+		this.tooltipInfoCache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > TOOLTIP_INFO_CACHE_SIZE;
+			}
+		};
+		this.pendingTooltipInfoRequests = new HashSet<String>();
 		initComponents();
 		initActions();
 	}
@@ -297,4 +312,23 @@ public class VTagger extends Composite {
 			}
 		}		
 	}
+
+	/**
+	 * @param tagInstanceId the annotation to get the tooltip for
+	 * @param revision the current revision of the annotation's tooltip
+	 * @return the tooltip HTML or <code>null</code> if it is not available yet and 
+	 * has been requested from the server
+	 */
+	public String getTooltipInfo(String tagInstanceId, int revision) {
+		String tooltipInfo = tooltipInfoCache.get(tagInstanceId + "@" + revision);
+		if ((tooltipInfo == null) && pendingTooltipInfoRequests.add(tagInstanceId)) {
+			taggerListener.tooltipInfoRequested(tagInstanceId);
+		}
+		return tooltipInfo;
+	}
+
+	public void setTooltipInfo(String tagInstanceId, int revision, String tooltipInfo) {
+		pendingTooltipInfoRequests.remove(tagInstanceId);
+		tooltipInfoCache.put(tagInstanceId + "@" + revision, tooltipInfo);
+	}
 }
@@ -1,67 +1,123 @@
 package de.catma.ui.client.ui.tagger.shared;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
-import com.google.common.collect.TreeMultimap;
 
+/**
+ * Assigns the annotations of a line to annotation layers (rows). 
+ * <p>
+ * The range parts of the line are swept from left to right, each annotation range occupies 
+ * the lowest layer that is free at its first covered range part and keeps that layer for all 
+ * following range parts it covers (greedy interval colouring). At equal start positions annotations 
+ * with longer ranges get the lower layers. 
+ */
 public class AnnotationLayerBuilder {
 
 	private List<TextRange> rangeParts;
-	private Multimap<TextRange, ClientTagInstance> relativeTagInstanceByTextRange;
 	private Table<Integer, TextRange, ClientTagInstance> layerTable; // rowIdx (zero-based), textRange, tagInstance 
 
 	public AnnotationLayerBuilder(
 			Collection<ClientTagInstance> relativeTagInstances, 
 			List<TextRange> rangeParts) {
 
-		this.rangeParts = rangeParts;
-		
-		relativeTagInstanceByTextRange = TreeMultimap.create(new Comparator<TextRange>() {
-			@Override
-			public int compare(TextRange o1, TextRange o2) {
-				return o1.compareTo(o2);
-			}
-		},
-		new Comparator<ClientTagInstance>() {
-			@Override
-			public int compare(ClientTagInstance o1, ClientTagInstance o2) {
-				int result = o2.getLongestRangeSize()-o1.getLongestRangeSize();
-				if (result == 0) {
-					return 1; //equal sized longest range
-				}
-				return result;
-			}
-		});
-		
+		this.rangeParts = new ArrayList<TextRange>(new TreeSet<TextRange>(rangeParts));
 		
+		build(collectLayerIntervals(relativeTagInstances));
+	}
+
+	/**
+	 * @return one interval per annotation range that covers at least one range part, 
+	 * ordered by the first covered range part, longest range size (descending) and the original order
+	 */
+	private List<LayerInterval> collectLayerIntervals(Collection<ClientTagInstance> relativeTagInstances) {
+		List<LayerInterval> layerIntervals = new ArrayList<LayerInterval>();
+		int order = 0;
 		for (ClientTagInstance relativeTagInstance : relativeTagInstances) {
+			int longestRangeSize = -1;
 			for (TextRange textRange : relativeTagInstance.getRanges()) {
-				for (TextRange rangePart : rangeParts) {
+				LayerInterval layerInterval = null;
+				// only range parts starting within the text range can be covered by it
+				for (int partIdx = getFirstPartIndexStartingAtOrAfter(textRange.getStartPos()); 
+						partIdx < rangeParts.size() && rangeParts.get(partIdx).getStartPos() < textRange.getEndPos(); 
+						partIdx++) {
+					TextRange rangePart = rangeParts.get(partIdx);
 					if (rangePart.isCoveredBy(textRange)) {
-						relativeTagInstanceByTextRange.put(rangePart, relativeTagInstance);
+						if (layerInterval == null) {
+							if (longestRangeSize == -1) {
+								longestRangeSize = relativeTagInstance.getLongestRangeSize();
+							}
+							layerInterval = new LayerInterval(relativeTagInstance, longestRangeSize, order++);
+							layerIntervals.add(layerInterval);
+						}
+						layerInterval.coveredPartIndices.add(partIdx);
 					}
 				}
 			}
 		}
 		
-		build();
+		Collections.sort(layerIntervals, new Comparator<LayerInterval>() {
+			@Override
+			public int compare(LayerInterval o1, LayerInterval o2) {
+				if (o1.getFirstPartIdx() != o2.getFirstPartIdx()) {
+					return o1.getFirstPartIdx() - o2.getFirstPartIdx();
+				}
+				if (o1.longestRangeSize != o2.longestRangeSize) {
+					return o2.longestRangeSize - o1.longestRangeSize;
+				}
+				return o1.order - o2.order;
+			}
+		});
+		
+		return layerIntervals;
+	}
+	
+	private int getFirstPartIndexStartingAtOrAfter(int pos) {
+		int low = 0;
+		int high = rangeParts.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (rangeParts.get(mid).getStartPos() < pos) {
+				low = mid+1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
 	}
 
-	private void build() {
+	private void build(List<LayerInterval> layerIntervals) {
 		layerTable = HashBasedTable.create(); 
-		for (TextRange textRange : rangeParts) {
-			for (ClientTagInstance relativeTagInstance : relativeTagInstanceByTextRange.get(textRange)) {
-				int rowIdx = 0;
-				while (layerTable.contains(rowIdx, textRange)) {
-					rowIdx++;
+		
+		PriorityQueue<LayerInterval> activeIntervals = new PriorityQueue<LayerInterval>(
+			11, new Comparator<LayerInterval>() {
+				@Override
+				public int compare(LayerInterval o1, LayerInterval o2) {
+					return o1.getLastPartIdx() - o2.getLastPartIdx();
 				}
-				
-				layerTable.put(rowIdx, textRange, relativeTagInstance);
+			});
+		PriorityQueue<Integer> freeRows = new PriorityQueue<Integer>();
+		int rowCount = 0;
+		
+		for (LayerInterval layerInterval : layerIntervals) {
+			while (!activeIntervals.isEmpty() 
+					&& activeIntervals.peek().getLastPartIdx() < layerInterval.getFirstPartIdx()) {
+				freeRows.add(activeIntervals.poll().rowIdx);
+			}
+			
+			layerInterval.rowIdx = freeRows.isEmpty()?rowCount++:freeRows.poll();
+			activeIntervals.add(layerInterval);
+			
+			for (Integer partIdx : layerInterval.coveredPartIndices) {
+				layerTable.put(layerInterval.rowIdx, rangeParts.get(partIdx), layerInterval.relativeTagInstance);
 			}
 		}
 	}
@@ -70,5 +126,28 @@ public class AnnotationLayerBuilder {
 		return layerTable;
 	}
 	
+	private static class LayerInterval {
+		private final ClientTagInstance relativeTagInstance;
+		private final int longestRangeSize;
+		private final int order;
+		private final List<Integer> coveredPartIndices;
+		private int rowIdx;
+		
+		public LayerInterval(
+				ClientTagInstance relativeTagInstance, int longestRangeSize, int order) {
+			this.relativeTagInstance = relativeTagInstance;
+			this.longestRangeSize = longestRangeSize;
+			this.order = order;
+			this.coveredPartIndices = new ArrayList<Integer>();
+		}
+		
+		int getFirstPartIdx() {
+			return coveredPartIndices.get(0);
+		}
+		
+		int getLastPartIdx() {
+			return coveredPartIndices.get(coveredPartIndices.size()-1);
+		}
+	}
 
 }
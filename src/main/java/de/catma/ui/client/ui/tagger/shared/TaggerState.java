@@ -5,5 +5,7 @@ import java.util.Map;
 import com.vaadin.shared.AbstractComponentState;
 
 public class TaggerState extends AbstractComponentState {
-	public Map<String,String> tagInstanceIdToTooltipInfo;
+	// revisions of the tooltips of the annotations of the current page, 
+	// the tooltips themselves are requested on demand
+	public Map<String,Integer> tagInstanceIdToTooltipRevision;
 }
@@ -39,6 +39,7 @@ import com.vaadin.ui.ProgressBar;
 import com.vaadin.ui.UI;
 import com.vaadin.ui.VerticalLayout;
 
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.document.corpus.Corpus;
@@ -618,7 +619,7 @@ public class AnalyzeView extends HorizontalLayout
 		
 		showProgress(true);
 		
-		((BackgroundServiceProvider) UI.getCurrent()).submit("search",
+		((BackgroundServiceProvider) UI.getCurrent()).submit("search", BackgroundJobClass.QUERY,
 				job, new ExecutionListener<QueryResult>() {
 					public void done(QueryResult result) {
 						try {
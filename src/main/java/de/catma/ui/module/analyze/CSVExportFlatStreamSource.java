@@ -1,5 +1,6 @@
 package de.catma.ui.module.analyze;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PipedInputStream;
@@ -23,6 +24,7 @@ import com.google.common.cache.LoadingCache;
 import com.vaadin.server.StreamResource.StreamSource;
 import com.vaadin.ui.UI;
 
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
@@ -57,15 +59,23 @@ public class CSVExportFlatStreamSource implements StreamSource {
 	public InputStream getStream() {
 		final QueryResult queryResult = queryResultSupplier.get();
         final PipedInputStream in = new PipedInputStream();
+        final PipedOutputStream out;
+        try {
+        	// connected before the job starts, the download must not find an unconnected pipe
+        	out = new PipedOutputStream(in);
+        }
+        catch (IOException e) {
+        	Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error creating CSV export pipe", e);
+        	return null;
+        }
         final UI ui = UI.getCurrent();
         final Lock lock = new ReentrantLock();
         final Condition sending  = lock.newCondition();
         lock.lock();
 
-        backgroundServiceProvider.submit("csv-export", new DefaultProgressCallable<Void>() {
+        backgroundServiceProvider.submit("csv-export", BackgroundJobClass.EXPORT, new DefaultProgressCallable<Void>() {
         	@Override
         	public Void call() throws Exception {
-            	PipedOutputStream out = new PipedOutputStream(in);
             	OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8");
         		LoadingCache<String, String> colorCache = 
         				CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
@@ -82,8 +92,10 @@ public class CSVExportFlatStreamSource implements StreamSource {
     	            		TagQueryResultRow tRow = (TagQueryResultRow) row;
     	    				List<Range> mergedRanges = 
     	    						Range.mergeRanges(new TreeSet<>((tRow).getRanges()));
-    	            		for (Range range : mergedRanges) {
-    	            			KeywordInSpanContext kwic = kwicProvider.getKwic(range, 5);
+    	    				List<KeywordInSpanContext> kwics = kwicProvider.getKwic(mergedRanges, 5);
+    	            		for (int i=0; i<mergedRanges.size(); i++) {
+    	            			Range range = mergedRanges.get(i);
+    	            			KeywordInSpanContext kwic = kwics.get(i);
         	            		csvPrinter.printRecord(
         	            				row.getQueryId().toSerializedString(),
         	            				row.getSourceDocumentId(),
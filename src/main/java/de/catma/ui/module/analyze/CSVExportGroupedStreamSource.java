@@ -23,11 +23,14 @@ import com.google.common.collect.Table;
 import com.vaadin.server.StreamResource.StreamSource;
 import com.vaadin.ui.UI;
 
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.indexer.KwicProvider;
 import de.catma.project.Project;
+import de.catma.queryengine.result.GroupedQueryResult;
+import de.catma.queryengine.result.PagedQueryResult;
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.TagQueryResultRow;
@@ -69,70 +72,92 @@ public class CSVExportGroupedStreamSource implements StreamSource {
 		final Multimap<String, String> collectionIdByDocumentId = ArrayListMultimap.create();
 		final Table<String, String, Integer> groupings = HashBasedTable.create();
 		
-		for (QueryResultRow row : queryResult) {
-			
-			String group = row.getPhrase();
-			if (groupByTagSupplier.get()) {
-				if (row instanceof TagQueryResultRow) {
-					group = ((TagQueryResultRow) row).getTagDefinitionPath();
-				}
-				else {
-					group = TagQueryResultRowItem.getNoTagAvailableKey();
+		if (queryResult instanceof PagedQueryResult && !groupByTagSupplier.get()) {
+			// paged results provide their phrase counts without producing the rows
+			for (GroupedQueryResult groupedQueryResult : queryResult.asGroupedSet()) {
+				String group = groupedQueryResult.getGroup().toString();
+				groupings.put(group, "Total", groupedQueryResult.getTotalFrequency());
+				for (String documentId : groupedQueryResult.getSourceDocumentIDs()) {
+					groupings.put(group, documentId, groupedQueryResult.getFrequency(documentId));
+					documentIds.add(documentId);
 				}
 			}
+		}
+		else {
+			for (QueryResultRow row : queryResult) {
 			
-			groupings.put(group, "Total", getValue(groupings, group, "Total")+1);
-			groupings.put(group, row.getSourceDocumentId(), getValue(groupings, group, row.getSourceDocumentId())+1);
-			documentIds.add(row.getSourceDocumentId());
+				String group = row.getPhrase();
+				if (groupByTagSupplier.get()) {
+					if (row instanceof TagQueryResultRow) {
+						group = ((TagQueryResultRow) row).getTagDefinitionPath();
+					}
+					else {
+						group = TagQueryResultRowItem.getNoTagAvailableKey();
+					}
+				}
+			
+				groupings.put(group, "Total", getValue(groupings, group, "Total")+1);
+				groupings.put(group, row.getSourceDocumentId(), getValue(groupings, group, row.getSourceDocumentId())+1);
+				documentIds.add(row.getSourceDocumentId());
 			
-			if (row instanceof TagQueryResultRow) {
-				collectionIdByDocumentId.put(row.getSourceDocumentId(), ((TagQueryResultRow)row).getMarkupCollectionId());
-				groupings.put(
-						group, 
-						((TagQueryResultRow)row).getMarkupCollectionId(), 
-						getValue(groupings, group, 
-								((TagQueryResultRow)row).getMarkupCollectionId())+1);
+				if (row instanceof TagQueryResultRow) {
+					collectionIdByDocumentId.put(row.getSourceDocumentId(), ((TagQueryResultRow)row).getMarkupCollectionId());
+					groupings.put(
+							group, 
+							((TagQueryResultRow)row).getMarkupCollectionId(), 
+							getValue(groupings, group, 
+									((TagQueryResultRow)row).getMarkupCollectionId())+1);
+				}
 			}
 		}
 		
         final PipedInputStream in = new PipedInputStream();
+        final PipedOutputStream out;
+        try {
+        	// connected before the job starts, the download must not find an unconnected pipe
+        	out = new PipedOutputStream(in);
+        }
+        catch (IOException e) {
+        	Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error creating CSV export pipe", e);
+        	return null;
+        }
         final UI ui = UI.getCurrent();
-        backgroundServiceProvider.submit("csv-export", new DefaultProgressCallable<Void>() {
+        backgroundServiceProvider.submit("csv-export", BackgroundJobClass.EXPORT, new DefaultProgressCallable<Void>() {
         	@Override
         	public Void call() throws Exception {
-            	PipedOutputStream out = new PipedOutputStream(in);
-            	OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8");
-            	
-            	ArrayList<String> header = new ArrayList<>();
-            	header.add("Group");
-            	header.add("Total");
-            	
-            	for (String documentId : documentIds) {
-            		KwicProvider kwicProvider = kwicProviderCache.get(documentId);
-            		header.add(kwicProvider.getSourceDocumentName() + " (" + documentId + ")");
-            		for (String collectionId : new TreeSet<String>(collectionIdByDocumentId.get(documentId))) {
-            			
-            			header.add(kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(collectionId).toString() + " (" +collectionId + ")");
-            		}
-            	}
-
-                try (CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.EXCEL.withDelimiter(';').withHeader(header.toArray(new String[]{})))) {
+            	// closing the writer in any case lets the download finish instead of waiting for more data
+            	try (OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8")) {
+	            	ArrayList<String> header = new ArrayList<>();
+	            	header.add("Group");
+	            	header.add("Total");
+	            	
+	            	for (String documentId : documentIds) {
+	            		KwicProvider kwicProvider = kwicProviderCache.get(documentId);
+	            		header.add(kwicProvider.getSourceDocumentName() + " (" + documentId + ")");
+	            		for (String collectionId : new TreeSet<String>(collectionIdByDocumentId.get(documentId))) {
+	            			
+	            			header.add(kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(collectionId).toString() + " (" +collectionId + ")");
+	            		}
+	            	}
+	
+	                try (CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.EXCEL.withDelimiter(';').withHeader(header.toArray(new String[]{})))) {
                 	
-                	for (String group : new TreeSet<String>(groupings.rowKeySet())) {
-                		csvPrinter.print(group);
-                		csvPrinter.print(groupings.get(group, "Total"));
-                		for (String documentId : documentIds) {
-                			csvPrinter.print(groupings.get(group, documentId));
-                			for (String collectionId : new TreeSet<String>(collectionIdByDocumentId.get(documentId))) {
-                				csvPrinter.print(groupings.get(group, collectionId));
-                			}
-                		}
-                		csvPrinter.println();
-                	}
+	                	for (String group : new TreeSet<String>(groupings.rowKeySet())) {
+	                		csvPrinter.print(group);
+	                		csvPrinter.print(groupings.get(group, "Total"));
+	                		for (String documentId : documentIds) {
+	                			csvPrinter.print(groupings.get(group, documentId));
+	                			for (String collectionId : new TreeSet<String>(collectionIdByDocumentId.get(documentId))) {
+	                				csvPrinter.print(groupings.get(group, collectionId));
+	                			}
+	                		}
+	                		csvPrinter.println();
+	                	}
     	
-    	            csvPrinter.flush();  
+	    	            csvPrinter.flush();  
     	            
-                }
+	                }
+            	}
 
         		return null; //intended
         	}
@@ -819,7 +819,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		StreamResource csvFlatExportResource = new StreamResource(
 					new CSVExportFlatStreamSource(
-						() -> getFilteredQueryResult(), 
+						() -> getFilteredQueryResultForExport(), 
 						project, 
 						kwicProviderCache, 
 						((BackgroundServiceProvider)UI.getCurrent())),
@@ -836,7 +836,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		StreamResource csvGroupedByPhraseExportResource = new StreamResource(
 					new CSVExportGroupedStreamSource(
-						() -> getFilteredQueryResult(), 
+						() -> getFilteredQueryResultForExport(), 
 						project, 
 						() -> getDisplaySetting().equals(DisplaySetting.GROUPED_BY_TAG),
 						kwicProviderCache, 
@@ -915,6 +915,20 @@ public class QueryResultPanel extends VerticalLayout {
 		return result;
 	}
 	
+	/**
+	 * @return the query result itself as long as no item is filtered out, so that paged results are exported document
+	 *         by document without materializing their rows
+	 */
+	private QueryResult getFilteredQueryResultForExport() {
+		@SuppressWarnings("unchecked")
+		final TreeDataProvider<QueryResultRowItem> dataProvider = 
+				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
+		if (getFilteredQueryResultRowItems().size() == dataProvider.getTreeData().getRootItems().size()) {
+			return queryResult;
+		}
+		return getFilteredQueryResult();
+	}
+
 	private List<QueryResultRowItem> getFilteredQueryResultRowItems() {
 		@SuppressWarnings("unchecked")
 		final TreeDataProvider<QueryResultRowItem> dataProvider = 
@@ -928,14 +942,25 @@ public class QueryResultPanel extends VerticalLayout {
 		return queryId;
 	}
 
+	/**
+	 * Paged results produce their rows on demand, they get materialized as soon as rows are added or removed.
+	 */
+	private QueryResultRowArray getModifiableQueryResult() {
+		if (!(queryResult instanceof QueryResultRowArray)) {
+			queryResult = queryResult.asQueryResultRowArray();
+		}
+		return (QueryResultRowArray) queryResult;
+	}
+
 	public void addQueryResultRows(QueryResultRowArray rows) {
 		@SuppressWarnings("unchecked")
 		final TreeDataProvider<QueryResultRowItem> dataProvider = 
 				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
 		boolean rowsAdded = false;
+		QueryResultRowArray queryResultRows = getModifiableQueryResult();
 		for (QueryResultRow row : rows) {
-			if (!((QueryResultRowArray)queryResult).contains(row)) {
-				((QueryResultRowArray)queryResult).add(row);
+			if (!queryResultRows.contains(row)) {
+				queryResultRows.add(row);
 				rowsAdded = true;
 				// update existing items
 				dataProvider.getTreeData().getRootItems().forEach(
@@ -959,7 +984,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		// add new root items
 		displaySetting.addQueryResultRootItems(this, rows);
-		tokenCount = ((QueryResultRowArray)queryResult).size();
+		tokenCount = queryResultRows.size();
 		dataProvider.refreshAll();
 		
 		if (!dataProvider.getTreeData().getRootItems().isEmpty() 
@@ -1121,8 +1146,9 @@ public class QueryResultPanel extends VerticalLayout {
 		final TreeDataProvider<QueryResultRowItem> dataProvider = 
 				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
 		
-		if (((QueryResultRowArray)queryResult).removeAll(rows)) {
-			tokenCount = ((QueryResultRowArray)queryResult).size();
+		QueryResultRowArray queryResultRows = getModifiableQueryResult();
+		if (queryResultRows.removeAll(rows)) {
+			tokenCount = queryResultRows.size();
 			if (!dataProvider.getTreeData().equals(phraseBasedTreeData)) {
 				phraseBasedTreeData = null;
 			}
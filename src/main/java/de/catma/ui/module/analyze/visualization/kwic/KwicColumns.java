@@ -0,0 +1,222 @@
+package de.catma.ui.module.analyze.visualization.kwic;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import de.catma.queryengine.result.QueryResultRow;
+
+/**
+ * Columnar store of the precomputed KWIC values of the rows of a {@link KwicPanel}. Each row occupies a slot
+ * in a set of parallel arrays, slots of removed rows get reused.
+ * <p>
+ * Filtering and sorting only read from the store, the contexts of a row are computed once when it gets
+ * materialized, see {@link KwicItemHandler#materialize(Iterable)}.
+ */
+final class KwicColumns {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final char FIELD_SEPARATOR = '\u0000';
+
+	/**
+	 * The precomputed values of a single row, used to transfer the results of the materialization into the store.
+	 */
+	static final class RowValues {
+		private final QueryResultRow row;
+		private final String documentName;
+		private final String backwardContext;
+		private final String forwardContext;
+		private final boolean rightToLeft;
+		private final String searchText;
+
+		/**
+		 * @param searchableValues further values of the row the search filter should match, <code>null</code>s are
+		 * ignored
+		 */
+		RowValues(
+				QueryResultRow row, String documentName,
+				String backwardContext, String forwardContext, boolean rightToLeft,
+				String... searchableValues) {
+			this.row = row;
+			this.documentName = documentName;
+			this.backwardContext = backwardContext;
+			this.forwardContext = forwardContext;
+			this.rightToLeft = rightToLeft;
+
+			StringBuilder builder = new StringBuilder();
+			builder.append(documentName).append(FIELD_SEPARATOR);
+			builder.append(backwardContext).append(FIELD_SEPARATOR);
+			builder.append(forwardContext);
+			for (String value : searchableValues) {
+				if (value != null) {
+					builder.append(FIELD_SEPARATOR).append(value);
+				}
+			}
+			this.searchText = builder.toString().toLowerCase();
+		}
+
+		QueryResultRow getRow() {
+			return row;
+		}
+	}
+
+	private final Map<QueryResultRow, Integer> slotsByRow = new HashMap<>();
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+	private int slotCount = 0;
+
+	private String[] documentNames = new String[0];
+	private String[] backwardContexts = new String[0];
+	private String[] forwardContexts = new String[0];
+	private String[] backwardContextSortKeys = new String[0];
+	private String[] forwardContextSortKeys = new String[0];
+	private String[] searchTexts = new String[0];
+	private final BitSet rightToLeft = new BitSet();
+
+	boolean contains(QueryResultRow row) {
+		return slotsByRow.containsKey(row);
+	}
+
+	int size() {
+		return slotsByRow.size();
+	}
+
+	void add(RowValues values) {
+		Integer slot = slotsByRow.get(values.row);
+		if (slot == null) {
+			slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+			ensureCapacity(slotCount);
+			slotsByRow.put(values.row, slot);
+		}
+
+		documentNames[slot] = values.documentName;
+		backwardContexts[slot] = values.backwardContext;
+		forwardContexts[slot] = values.forwardContext;
+		backwardContextSortKeys[slot] = createBackwardContextSortKey(values.backwardContext);
+		forwardContextSortKeys[slot] = values.forwardContext.toLowerCase();
+		searchTexts[slot] = values.searchText;
+		rightToLeft.set(slot, values.rightToLeft);
+	}
+
+	void remove(QueryResultRow row) {
+		Integer slot = slotsByRow.remove(row);
+		if (slot != null) {
+			documentNames[slot] = null;
+			backwardContexts[slot] = null;
+			forwardContexts[slot] = null;
+			backwardContextSortKeys[slot] = null;
+			forwardContextSortKeys[slot] = null;
+			searchTexts[slot] = null;
+			rightToLeft.clear(slot);
+			freeSlots.push(slot);
+		}
+	}
+
+	void clear() {
+		slotsByRow.clear();
+		freeSlots.clear();
+		slotCount = 0;
+		documentNames = new String[0];
+		backwardContexts = new String[0];
+		forwardContexts = new String[0];
+		backwardContextSortKeys = new String[0];
+		forwardContextSortKeys = new String[0];
+		searchTexts = new String[0];
+		rightToLeft.clear();
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > documentNames.length) {
+			int newCapacity = Math.max(capacity, Math.max(16, documentNames.length + (documentNames.length >> 1)));
+			documentNames = Arrays.copyOf(documentNames, newCapacity);
+			backwardContexts = Arrays.copyOf(backwardContexts, newCapacity);
+			forwardContexts = Arrays.copyOf(forwardContexts, newCapacity);
+			backwardContextSortKeys = Arrays.copyOf(backwardContextSortKeys, newCapacity);
+			forwardContextSortKeys = Arrays.copyOf(forwardContextSortKeys, newCapacity);
+			searchTexts = Arrays.copyOf(searchTexts, newCapacity);
+		}
+	}
+
+	/**
+	 * @return the slot of the given row or -1 if the row has not been materialized
+	 */
+	private int getSlot(QueryResultRow row) {
+		Integer slot = slotsByRow.get(row);
+		return slot == null ? -1 : slot;
+	}
+
+	String getDocumentName(QueryResultRow row) {
+		int slot = getSlot(row);
+		return slot == -1 ? null : documentNames[slot];
+	}
+
+	String getBackwardContext(QueryResultRow row) {
+		int slot = getSlot(row);
+		return slot == -1 ? null : backwardContexts[slot];
+	}
+
+	String getForwardContext(QueryResultRow row) {
+		int slot = getSlot(row);
+		return slot == -1 ? null : forwardContexts[slot];
+	}
+
+	/**
+	 * @return <code>null</code> if the row has not been materialized
+	 */
+	Boolean isRightToLeft(QueryResultRow row) {
+		int slot = getSlot(row);
+		return slot == -1 ? null : rightToLeft.get(slot);
+	}
+
+	/**
+	 * @param lowerCaseSearchInput the search input, already in lower case
+	 * @return <code>true</code> if any of the searchable values of the row contains the input
+	 */
+	boolean containsSearchInput(QueryResultRow row, String lowerCaseSearchInput) {
+		int slot = getSlot(row);
+		return slot != -1 && searchTexts[slot].contains(lowerCaseSearchInput);
+	}
+
+	/**
+	 * Compares the left contexts of two rows starting with the word right before the keyword, rows that have not been
+	 * materialized go last.
+	 */
+	int compareBackwardContexts(QueryResultRow row1, QueryResultRow row2) {
+		return compareSortKeys(backwardContextSortKeys, getSlot(row1), getSlot(row2));
+	}
+
+	/**
+	 * Compares the right contexts of two rows case insensitively, rows that have not been materialized go last.
+	 */
+	int compareForwardContexts(QueryResultRow row1, QueryResultRow row2) {
+		return compareSortKeys(forwardContextSortKeys, getSlot(row1), getSlot(row2));
+	}
+
+	private int compareSortKeys(String[] sortKeys, int slot1, int slot2) {
+		if (slot1 == -1 || slot2 == -1) {
+			return Boolean.compare(slot1 == -1, slot2 == -1);
+		}
+		return sortKeys[slot1].compareTo(sortKeys[slot2]);
+	}
+
+	/**
+	 * @return the words of the given left context in reverse order and in lower case, so that the left context
+	 * sorts by the word closest to the keyword first
+	 */
+	static String createBackwardContextSortKey(String backwardContext) {
+		String[] words = WHITESPACE.split(backwardContext.trim());
+		StringBuilder builder = new StringBuilder(backwardContext.length());
+		for (int i=words.length-1; i>=0; i--) {
+			if (!words[i].isEmpty()) {
+				if (builder.length() > 0) {
+					builder.append(' ');
+				}
+				builder.append(words[i]);
+			}
+		}
+		return builder.toString().toLowerCase();
+	}
+}
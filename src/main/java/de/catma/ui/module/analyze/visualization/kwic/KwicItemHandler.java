@@ -1,14 +1,18 @@
 package de.catma.ui.module.analyze.visualization.kwic;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+import de.catma.backgroundservice.DefaultProgressCallable;
+import de.catma.backgroundservice.ProgressCallable;
+import de.catma.document.Range;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.comment.Comment;
 import de.catma.indexer.KeywordInSpanContext;
@@ -27,24 +31,142 @@ public class KwicItemHandler {
 	private int contextSize = 5; 
 
 	private LoadingCache<String, KwicProvider> kwicProviderCache;
-	private LoadingCache<QueryResultRow, KeywordInSpanContext> spanContextCache;
+	private final KwicColumns kwicColumns = new KwicColumns();
 	private Project project;
 	
 	public KwicItemHandler(Project project, LoadingCache<String, KwicProvider> kwicProviderCache) {
 		super();
 		this.project = project;
 		this.kwicProviderCache = kwicProviderCache;
-		this.spanContextCache = CacheBuilder.newBuilder().build(new CacheLoader<QueryResultRow, KeywordInSpanContext>() {
+	}
+	
+	/**
+	 * Computes the contexts and the searchable values of the given rows once and keeps them for display, 
+	 * filtering and sorting. The documents of the rows are processed one after another, the rows of a 
+	 * document with a single pass over its tokens. 
+	 * <p>
+	 * Rows that have already been materialized are skipped. Larger numbers of rows should be materialized 
+	 * in the background, see {@link #createMaterializationJob(Iterable)}.
+	 */
+	public void materialize(Iterable<QueryResultRow> rows) {
+		List<KwicColumns.RowValues> rowValues = new ArrayList<>();
+		for (List<QueryResultRow> documentRows : getUnmaterializedRowsByDocumentId(rows).values()) {
+			rowValues.addAll(createRowValues(documentRows));
+		}
+		addRowValues(rowValues);
+	}
+	
+	/**
+	 * Like {@link #materialize(Iterable)} but the values are computed by the returned job which does not 
+	 * touch the state of this handler. The result of the job has to be handed over to 
+	 * {@link #addRowValues(List)} by the UI thread.
+	 */
+	ProgressCallable<List<KwicColumns.RowValues>> createMaterializationJob(Iterable<QueryResultRow> rows) {
+		final Map<String, List<QueryResultRow>> rowsByDocumentId = getUnmaterializedRowsByDocumentId(rows);
+		
+		return new DefaultProgressCallable<List<KwicColumns.RowValues>>() {
 			@Override
-			public KeywordInSpanContext load(QueryResultRow row) throws Exception {
-				KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
-				return kwicProvider.getKwic(row.getRange(), contextSize);
+			public List<KwicColumns.RowValues> call() throws Exception {
+				List<KwicColumns.RowValues> rowValues = new ArrayList<>();
+				for (List<QueryResultRow> documentRows : rowsByDocumentId.values()) {
+					if (getProgressListener().isCancelled()) {
+						break;
+					}
+					rowValues.addAll(createRowValues(documentRows));
+				}
+				return rowValues;
+			}
+		};
+	}
+	
+	/**
+	 * Keeps the values computed by a {@link #createMaterializationJob(Iterable) materialization job}.
+	 */
+	void addRowValues(List<KwicColumns.RowValues> rowValues) {
+		for (KwicColumns.RowValues values : rowValues) {
+			kwicColumns.add(values);
+		}
+	}
+	
+	private Map<String, List<QueryResultRow>> getUnmaterializedRowsByDocumentId(Iterable<QueryResultRow> rows) {
+		Map<String, List<QueryResultRow>> rowsByDocumentId = new LinkedHashMap<>();
+		for (QueryResultRow row : rows) {
+			if (!kwicColumns.contains(row)) {
+				rowsByDocumentId.computeIfAbsent(row.getSourceDocumentId(), documentId -> new ArrayList<>()).add(row);
 			}
-		});
+		}
+		return rowsByDocumentId;
+	}
+	
+	/**
+	 * Drops the precomputed values of the given rows.
+	 */
+	public void release(Iterable<QueryResultRow> rows) {
+		for (QueryResultRow row : rows) {
+			kwicColumns.remove(row);
+		}
+	}
+	
+	/**
+	 * Drops the precomputed values of all rows.
+	 */
+	public void releaseAll() {
+		kwicColumns.clear();
+	}
+	
+	/**
+	 * @param documentRows rows that all belong to the same document
+	 */
+	private List<KwicColumns.RowValues> createRowValues(List<QueryResultRow> documentRows) {
+		List<KwicColumns.RowValues> result = new ArrayList<>(documentRows.size());
+		
+		String documentName = "N/A";
+		List<KeywordInSpanContext> kwics = null;
+		try {
+			KwicProvider kwicProvider = kwicProviderCache.get(documentRows.get(0).getSourceDocumentId());
+			documentName = kwicProvider.getSourceDocumentName();
+			
+			List<Range> ranges = new ArrayList<>(documentRows.size());
+			for (QueryResultRow row : documentRows) {
+				ranges.add(row.getRange());
+			}
+			kwics = kwicProvider.getKwic(ranges, contextSize);
+		}
+		catch (Exception e) {
+			logger.log(
+				Level.SEVERE, 
+				"Error retrieving keywords in context for document " + documentRows.get(0).getSourceDocumentId(), e);
+		}
+		
+		for (int i=0; i<documentRows.size(); i++) {
+			QueryResultRow row = documentRows.get(i);
+			KeywordInSpanContext kwic = (kwics == null) ? null : kwics.get(i);
+			result.add(new KwicColumns.RowValues(
+				row, 
+				documentName,
+				(kwic == null) ? "N/A" : kwic.getBackwardContext(),
+				(kwic == null) ? "N/A" : kwic.getForwardContext(),
+				(kwic == null) ? false : kwic.isRightToLeft(),
+				getKeywordDescription(row),
+				getTagPath(row),
+				getCollectionName(row),
+				getPropertyName(row),
+				getPropertyValueDescription(row)));
+		}
+		
+		return result;
+	}
+	
+	private KeywordInSpanContext getKwic(QueryResultRow row) throws Exception {
+		return kwicProviderCache.get(row.getSourceDocumentId()).getKwic(row.getRange(), contextSize);
 	}
 
 	public String getDocumentName(QueryResultRow row) {
-		String name = "N/A";
+		String name = kwicColumns.getDocumentName(row);
+		if (name != null) {
+			return name;
+		}
+		name = "N/A";
 		try {
 			KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
 			if (kwicProvider != null) {
@@ -57,9 +179,13 @@ public class KwicItemHandler {
 	}
 	
 	public String getBackwardContext(QueryResultRow row) {
-		String backwardContext = "N/A";
+		String backwardContext = kwicColumns.getBackwardContext(row);
+		if (backwardContext != null) {
+			return backwardContext;
+		}
+		backwardContext = "N/A";
 		try {
-			backwardContext = spanContextCache.get(row).getBackwardContext();
+			backwardContext = getKwic(row).getBackwardContext();
 		} catch (Exception e) {
 			logger.log(Level.SEVERE, "Error retrieving backward context for " + row, e);
 		}
@@ -67,9 +193,13 @@ public class KwicItemHandler {
 	}
 	
 	public String getForwardContext(QueryResultRow row) {
-		String forwardContext = "N/A";
+		String forwardContext = kwicColumns.getForwardContext(row);
+		if (forwardContext != null) {
+			return forwardContext;
+		}
+		forwardContext = "N/A";
 		try {
-			forwardContext = spanContextCache.get(row).getForwardContext();
+			forwardContext = getKwic(row).getForwardContext();
 		} catch (Exception e) {
 			logger.log(Level.SEVERE, "Error retrieving forward context for " + row, e);
 		}
@@ -178,6 +308,10 @@ public class KwicItemHandler {
 	public boolean containsSearchInput(QueryResultRow row, String searchInput) {
 		searchInput = searchInput.toLowerCase();
 		
+		if (kwicColumns.contains(row)) {
+			return kwicColumns.containsSearchInput(row, searchInput);
+		}
+		
 		if (getDocumentName(row).toLowerCase().contains(searchInput)) {
 			return true;
 		}
@@ -216,10 +350,32 @@ public class KwicItemHandler {
 		
 		return false;
 	}
+	
+	/**
+	 * Compares the left contexts of two materialized rows starting with the word right before the keyword.
+	 */
+	public int compareBackwardContexts(QueryResultRow row1, QueryResultRow row2) {
+		return kwicColumns.compareBackwardContexts(row1, row2);
+	}
+
+	/**
+	 * Compares the right contexts of two materialized rows.
+	 */
+	public int compareForwardContexts(QueryResultRow row1, QueryResultRow row2) {
+		return kwicColumns.compareForwardContexts(row1, row2);
+	}
+	
+	private boolean isRightToLeft(QueryResultRow row) throws Exception {
+		Boolean rightToLeft = kwicColumns.isRightToLeft(row);
+		if (rightToLeft != null) {
+			return rightToLeft;
+		}
+		return getKwic(row).isRightToLeft();
+	}
 
 	public String getKeywordStyle(QueryResultRow row) {
 		try {
-			if (spanContextCache.get(row).isRightToLeft()) {
+			if (isRightToLeft(row)) {
 				return "kwic-panel-keyword-rtl";
 			}
 		} catch (Exception e) {
@@ -231,7 +387,7 @@ public class KwicItemHandler {
 
 	public String getBackwardContextStyle(QueryResultRow row) {
 		try {
-			if (spanContextCache.get(row).isRightToLeft()) {
+			if (isRightToLeft(row)) {
 				return "kwic-panel-backwardctx-rtl";
 			}
 		} catch (Exception e) {
@@ -243,7 +399,7 @@ public class KwicItemHandler {
 	
 	public String getForwardContextStyle(QueryResultRow row) {
 		try {
-			if (spanContextCache.get(row).isRightToLeft()) {
+			if (isRightToLeft(row)) {
 				return "kwic-panel-forwardctx-rtl";
 			}
 		} catch (Exception e) {
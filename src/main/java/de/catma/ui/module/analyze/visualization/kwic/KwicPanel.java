@@ -39,7 +39,9 @@ import com.vaadin.ui.VerticalLayout;
 import com.vaadin.ui.components.grid.ItemClickListener;
 import com.vaadin.ui.renderers.HtmlRenderer;
 
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
+import de.catma.backgroundservice.ExecutionListener;
 import de.catma.document.Range;
 import de.catma.document.annotation.AnnotationCollectionManager;
 import de.catma.document.annotation.AnnotationCollectionReference;
@@ -73,6 +75,9 @@ import de.catma.util.IDGenerator;
 
 
 public class KwicPanel extends VerticalLayout implements Visualization {
+	// more rows get materialized in the background to keep the UI responsive
+	private static final int MAX_ROWS_MATERIALIZED_ON_REQUEST = 500;
+	
 	private enum ColumnId {
 		COLLECION_NAME, TAG, PROPERTY_NAME, PROPERTY_VALUE, START_POS,
 		;
@@ -274,6 +279,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 			
 			collectionManager.removeTagInstances(tagInstanceIdsToBeRemoved, true);
 			kwicDataProvider.getItems().removeAll(rowsToBeRemoved);
+			kwicItemHandler.release(rowsToBeRemoved);
 			kwicDataProvider.refreshAll();
 		}
 		catch (Exception e) {
@@ -442,6 +448,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		Column<QueryResultRow, ?> backwardCtxColumn = kwicGrid.addColumn(row -> kwicItemHandler.getBackwardContext(row))
 				.setCaption("Left Context")
 				.setStyleGenerator(row -> kwicItemHandler.getBackwardContextStyle(row))
+				.setComparator((r1, r2) -> kwicItemHandler.compareBackwardContexts(r1, r2))
 				.setWidth(200);
 
 		Column<QueryResultRow, ?> keywordColumn = kwicGrid.addColumn(row -> kwicItemHandler.getKeyword(row))
@@ -454,6 +461,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		kwicGrid.addColumn(row -> kwicItemHandler.getForwardContext(row))
 				.setCaption("Right Context")
 				.setStyleGenerator(row -> kwicItemHandler.getForwardContextStyle(row))
+				.setComparator((r1, r2) -> kwicItemHandler.compareForwardContexts(r1, r2))
 				.setWidth(200);
 
 		Column<QueryResultRow, ?> startPointColumn = kwicGrid.addColumn(row -> row.getRange().getStartPoint())
@@ -513,9 +521,11 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		
 		boolean showTagColumns = false;
 		boolean showPropertyColumns = false;
+		List<QueryResultRow> addedRows = new ArrayList<>();
 		
 		for (QueryResultRow row : queryResult) {
 			if (kwicDataProvider.getItems().add(row)) {
+				addedRows.add(row);
 				if (row instanceof TagQueryResultRow) {
 					showTagColumns = true;
 					
@@ -536,13 +546,44 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 			miRemoveAnnotations.setEnabled(!project.isReadOnly());
 		}
 		
+		if (addedRows.size() <= MAX_ROWS_MATERIALIZED_ON_REQUEST) {
+			kwicItemHandler.materialize(addedRows);
+		}
+		else {
+			materializeInBackground(addedRows);
+		}
+		
 		kwicGrid.getDataProvider().refreshAll();
 	}
+	
+	private void materializeInBackground(List<QueryResultRow> rows) {
+		// until the job is done the values of the visible rows are computed on demand
+		((BackgroundServiceProvider) UI.getCurrent()).submit(
+				"kwic-materialization", BackgroundJobClass.QUERY, 
+				kwicItemHandler.createMaterializationJob(rows), 
+				new ExecutionListener<List<KwicColumns.RowValues>>() {
+					@Override
+					public void done(List<KwicColumns.RowValues> result) {
+						// rows might have been removed in the meantime
+						kwicItemHandler.addRowValues(
+							result.stream()
+							.filter(rowValues -> kwicDataProvider.getItems().contains(rowValues.getRow()))
+							.collect(Collectors.toList()));
+						kwicGrid.getDataProvider().refreshAll();
+					}
+					
+					@Override
+					public void error(Throwable t) {
+						((ErrorHandler) UI.getCurrent()).showAndLogError("Error computing keywords in context", t);
+					}
+				});
+	}
 
 	public void removeQueryResultRows(Iterable<QueryResultRow> queryResult) {
 		for (QueryResultRow row : queryResult) {
 			kwicDataProvider.getItems().remove(row);
 		}
+		kwicItemHandler.release(queryResult);
 		kwicGrid.getDataProvider().refreshAll();
 	}
 
@@ -573,6 +614,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 	
 	public void clear() {
 		kwicDataProvider.getItems().clear();
+		kwicItemHandler.releaseAll();
 		kwicGrid.getDataProvider().refreshAll();
 	}
 	
@@ -7,7 +7,6 @@ import java.util.Collection;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vaadin.server.RequestHandler;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
@@ -76,14 +75,14 @@ public class JSONQueryResultRequestHandler implements RequestHandler {
 	private void writeResponse(Iterable<QueryResultRow> queryResult, VaadinResponse response) throws IOException {
 		//TODO:
 //		response.setContentType("json");
-		OutputStream outputStream = response.getOutputStream();
-		ArrayNode jsonValues = 
-				new JSONQueryResultBuilder().createJSONQueryResult(
-						queryResult, 
-						queryOptionsProvider.getQueryOptions().getRepository());
 		response.setCacheTime(-1);
 		response.setHeader("Access-Control-Allow-Origin", "https://vega.github.io");
-		outputStream.write(jsonValues.toString().getBytes("UTF-8"));
+		OutputStream outputStream = response.getOutputStream();
+		// rows are written as they are produced, paged results are never materialized as a whole
+		new JSONQueryResultBuilder().writeJSONQueryResult(
+				queryResult, 
+				queryOptionsProvider.getQueryOptions().getRepository(),
+				outputStream);
 	}
 
 	public void addQuerResultRows(Iterable<QueryResultRow> rows) {
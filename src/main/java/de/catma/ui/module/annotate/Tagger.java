@@ -27,6 +27,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.vaadin.ui.AbstractComponent;
 import com.vaadin.ui.UI;
 
@@ -73,6 +75,8 @@ public class Tagger extends AbstractComponent {
 	
 	private static final long serialVersionUID = 1L;
 	
+	private static final int TOOLTIP_INFO_CACHE_SIZE = 200;
+	
 	private TaggerServerRpc rpc = new TaggerServerRpc() {
 		
 		@Override
@@ -111,6 +115,7 @@ public class Tagger extends AbstractComponent {
 							tagInstanceJSONSerializer.fromJSON(tagInstanceJson);
 					
 					pager.getCurrentPage().addRelativeTagInstance(tagInstance);
+					updateTooltipRevisions();
 					taggerListener.tagInstanceAdded(
 							pager.getCurrentPage().getAbsoluteTagInstance(tagInstance));
 				} catch (IOException e) {
@@ -192,12 +197,31 @@ public class Tagger extends AbstractComponent {
 			Optional<Comment> optionalComment = pager.getComment(uuid);
 			taggerListener.loadReplies(optionalComment);
 		}
+		
+		@Override
+		public void requestTooltipInfo(String tagInstanceId) {
+			String tooltipInfo = tooltipInfoCache.getIfPresent(tagInstanceId);
+			if (tooltipInfo == null) {
+				Annotation annotation = taggerListener.getTagInstanceInfo(tagInstanceId);
+				if (annotation != null) {
+					tooltipInfo = tagInstanceInfoHTMLSerializer.toHTML(annotation);
+					tooltipInfoCache.put(tagInstanceId, tooltipInfo);
+				}
+				else {
+					tooltipInfo = "N/A";
+				}
+			}
+			getRpcProxy(TaggerClientRpc.class).setTooltipInfo(
+					tagInstanceId, getTooltipRevision(tagInstanceId), tooltipInfo);
+		}
 	};
 
 	private Pager pager;
 	private TaggerListener taggerListener;
 	private ClientTagInstanceJSONSerializer tagInstanceJSONSerializer;
 	private TagInstanceInfoHTMLSerializer tagInstanceInfoHTMLSerializer;
+	private Cache<String, String> tooltipInfoCache;
+	private Map<String, Integer> tooltipRevisionByAnnotationId;
 	private String taggerID;
 	private Project project;
 
@@ -210,21 +234,43 @@ public class Tagger extends AbstractComponent {
 		this.project = project;
 		this.tagInstanceJSONSerializer = new ClientTagInstanceJSONSerializer();
 		this.tagInstanceInfoHTMLSerializer = new TagInstanceInfoHTMLSerializer(project);
+		this.tooltipInfoCache = CacheBuilder.newBuilder().maximumSize(TOOLTIP_INFO_CACHE_SIZE).build();
+		this.tooltipRevisionByAnnotationId = new HashMap<>();
 		this.taggerID = String.valueOf(taggerID);
 		getRpcProxy(TaggerClientRpc.class).setTaggerId(this.taggerID);
-		getState().tagInstanceIdToTooltipInfo = new HashMap<>();
+		getState().tagInstanceIdToTooltipRevision = new HashMap<>();
 	}
 	
+	/**
+	 * Invalidates the tooltip of the given annotation, the client requests 
+	 * the updated tooltip the next time it is shown.
+	 */
 	public void updateAnnotation(String annotationId) {
-		Annotation annotation = 
-				taggerListener.getTagInstanceInfo(annotationId);
-		if (annotation != null) {
-			getState().tagInstanceIdToTooltipInfo.put(
-				annotationId, 
-				tagInstanceInfoHTMLSerializer.toHTML(annotation));
+		tooltipInfoCache.invalidate(annotationId);
+		tooltipRevisionByAnnotationId.merge(annotationId, 1, Integer::sum);
+		if (getState(false).tagInstanceIdToTooltipRevision.containsKey(annotationId)) {
+			getState().tagInstanceIdToTooltipRevision.put(annotationId, getTooltipRevision(annotationId));
 		}
-		else {
-			getState().tagInstanceIdToTooltipInfo.remove(annotationId);
+	}
+	
+	private int getTooltipRevision(String annotationId) {
+		return tooltipRevisionByAnnotationId.getOrDefault(annotationId, 0);
+	}
+	
+	/**
+	 * Limits the shared state to the tooltip revisions of the annotations of the current page.
+	 */
+	private void updateTooltipRevisions() {
+		Map<String, Integer> tagInstanceIdToTooltipRevision = new HashMap<>();
+		if (pager.hasPages()) {
+			for (ClientTagInstance relativeTagInstance : pager.getCurrentPage().getRelativeTagInstances()) {
+				tagInstanceIdToTooltipRevision.put(
+					relativeTagInstance.getInstanceID(), 
+					getTooltipRevision(relativeTagInstance.getInstanceID()));
+			}
+		}
+		if (!tagInstanceIdToTooltipRevision.equals(getState(false).tagInstanceIdToTooltipRevision)) {
+			getState().tagInstanceIdToTooltipRevision = tagInstanceIdToTooltipRevision;
 		}
 	}
 	
@@ -247,6 +293,7 @@ public class Tagger extends AbstractComponent {
 					"Error serializing comments", e);
 		}
 		
+		updateTooltipRevisions();
 		getRpcProxy(TaggerClientRpc.class).setTaggerId(this.taggerID);
 		getRpcProxy(TaggerClientRpc.class).setPage(
 				pageContent, 
@@ -254,9 +301,9 @@ public class Tagger extends AbstractComponent {
 				serializedComments);
 	}
 	
-	public void setText(String text, Collection<Comment> comments) {
+	public void setText(String sourceDocumentId, String text, Collection<Comment> comments) {
 		this.forceClientRefresh  = true;
-		pager.setText(text, comments);
+		pager.setText(sourceDocumentId, text, comments);
 	}
 	
 	public void setPage(int pageNumber) {
@@ -270,7 +317,7 @@ public class Tagger extends AbstractComponent {
 				for (Page page : pager.getPagesForAnnotationId(annotationId)) {
 					page.removeRelativeTagInstance(annotationId);
 				}
-				getState().tagInstanceIdToTooltipInfo.remove(annotationId);
+				tooltipInfoCache.invalidate(annotationId);
 			}
 			if (pager.getCurrentPage().isDirty()) {
 				setPage(
@@ -292,22 +339,12 @@ public class Tagger extends AbstractComponent {
 						for (Page page : pages) {
 							page.addAbsoluteTagInstance(ti);
 						}
-						Annotation tagInstanceInfo = 
-								taggerListener.getTagInstanceInfo(ti.getInstanceID());
-						if (tagInstanceInfo != null) {
-							getState().tagInstanceIdToTooltipInfo.put(
-								ti.getInstanceID(), 
-								tagInstanceInfoHTMLSerializer.toHTML(tagInstanceInfo));
-						}
-						else {
-							getState().tagInstanceIdToTooltipInfo.remove(ti.getInstanceID());
-						}
 					}
 					else {
 						for (Page page : pages) {
 							page.removeRelativeTagInstance(ti.getInstanceID());
 						}
-						getState().tagInstanceIdToTooltipInfo.remove(ti.getInstanceID());
+						tooltipInfoCache.invalidate(ti.getInstanceID());
 					}
 				}	
 			}
@@ -402,6 +439,11 @@ public class Tagger extends AbstractComponent {
 	protected TaggerState getState() {
 		return (TaggerState)super.getState();
 	}
+	
+	@Override
+	protected TaggerState getState(boolean markAsDirty) {
+		return (TaggerState)super.getState(markAsDirty);
+	}
 
 	public void addComment(Comment comment) throws IOException {
 		ClientComment relativeClientComment = pager.addComment(comment);
@@ -265,7 +265,7 @@ public class TaggerView extends HorizontalLayout
 							TaggerView.this.comments.clear();
 							TaggerView.this.comments.addAll(TaggerView.this.project.getComments(sourceDocument.getUuid()));
 
-							tagger.setText(sourceDocument.getContent(), TaggerView.this.comments);
+							tagger.setText(sourceDocument.getUuid(), sourceDocument.getContent(), TaggerView.this.comments);
 							
 							totalLineCount = pager.getTotalLineCount();
 							try {
@@ -533,7 +533,7 @@ public class TaggerView extends HorizontalLayout
 				if (pager.hasPages()) {
 					//recalculate pages
 					try {
-						pager.setText(sourceDocument.getContent(), comments);
+						pager.setText(sourceDocument.getUuid(), sourceDocument.getContent(), comments);
 						int previousPageNumber = pager.getPageNumberFor(currentPage.getPageStart());
 						tagger.setPage(previousPageNumber);					
 						tagger.setTagInstancesVisible(absoluteTagInstances, true);
@@ -804,7 +804,7 @@ public class TaggerView extends HorizontalLayout
 				if (pager.hasPages()) {
 					//recalculate pages
 					try {
-						pager.setText(sourceDocument.getContent(), comments);
+						pager.setText(sourceDocument.getUuid(), sourceDocument.getContent(), comments);
 						int previousPageNumber = pager.getPageNumberFor(currentPage.getPageStart());
 						tagger.setPage(previousPageNumber);					
 						tagger.setTagInstancesVisible(absoluteTagInstances, true);
@@ -1014,7 +1014,7 @@ public class TaggerView extends HorizontalLayout
 				while(startPage != endPage) {
 					pager.setMaxPageLengthInLines(pager.getMaxPageLengthInLines()+5);
 					try {
-						pager.setText(sourceDocument.getContent(), comments);
+						pager.setText(sourceDocument.getUuid(), sourceDocument.getContent(), comments);
 					} catch (IOException e) {
 						logger.log(Level.SEVERE, "Error adjusting page zoom", e); //$NON-NLS-1$
 					}
@@ -195,7 +195,9 @@ public class AnnotationDetailsPanel extends VerticalLayout {
 	}
 
 	public void setDocument(SourceDocumentReference sdRef) throws Exception {
-		this.kwicProvider = new KwicProvider(project.getSourceDocument(sdRef.getUuid()), sdRef);
+		this.kwicProvider = new KwicProvider(
+				project.getSourceDocument(sdRef.getUuid()), sdRef, 
+				KwicProvider.getDocumentTokens(project, sdRef.getUuid()));
 		handleClearSelected();
 	}
 	
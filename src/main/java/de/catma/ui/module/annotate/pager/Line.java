@@ -94,6 +94,10 @@ public class Line {
 		}
 	}
 
+	public TextRange getTextRange() {
+		return textRange;
+	}
+
 	public boolean containsTextRange(TextRange tr) {
 		return tr.hasOverlappingRange(this.textRange);
 	}
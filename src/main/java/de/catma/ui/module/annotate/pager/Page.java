@@ -31,7 +31,6 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import de.catma.document.Range;
@@ -85,32 +84,52 @@ public class Page {
 	}
 	
 
+	private Pager pager;
 	private int taggerID;
 	private int pageStart;
 	private int pageEnd;
 	private int approxMaxLineLength;
-	private String text;
+	private String text; // the text of the page or the whole text, see textStart and textEnd
+	private int textStart;
+	private int textEnd;
 	private Map<String, ClientTagInstance> relativeTagInstances = 
 			new HashMap<String,ClientTagInstance>();
 	private int lineCount;
 	private boolean rightToLeftWriting;
-	private ArrayList<Line> lines;
+	private ArrayList<Line> lines; // contiguous and ordered by position, lineId equals index
 	private Element pageDiv;
 	private Set<Comment> absoluteComments;
 	
 	public Page(int taggerID, String text, int pageStart, int pageEnd, int approxMaxLineLength, boolean rightToLeftWriting) {
+		this(null, taggerID, text, 0, text.length(), pageStart, pageEnd, approxMaxLineLength, rightToLeftWriting);
+	}
+	
+	/**
+	 * @param pager the pager that keeps track of the annotations and the materialized pages
+	 * @param documentText the whole text, the content of the page is only extracted when it gets displayed
+	 */
+	Page(Pager pager, int taggerID, String documentText, int pageStart, int pageEnd, int approxMaxLineLength, boolean rightToLeftWriting) {
+		this(pager, taggerID, documentText, pageStart, pageEnd, pageStart, pageEnd, approxMaxLineLength, rightToLeftWriting);
+	}
+	
+	private Page(
+			Pager pager, int taggerID, String text, int textStart, int textEnd, 
+			int pageStart, int pageEnd, int approxMaxLineLength, boolean rightToLeftWriting) {
+		this.pager = pager;
 		this.taggerID = taggerID;
 		this.pageStart = pageStart;
 		this.pageEnd = pageEnd;
 		this.approxMaxLineLength = approxMaxLineLength;
 		this.text = text;
+		this.textStart = textStart;
+		this.textEnd = textEnd;
 		this.rightToLeftWriting = rightToLeftWriting;
 		this.absoluteComments = new HashSet<Comment>();
 	}
 	
 	@Override
 	public String toString() {
-		return "Page["+pageStart+","+pageEnd+"]\n"+text; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return "Page["+pageStart+","+pageEnd+"]\n"+text.substring(textStart, textEnd); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
 	
 	private ArrayList<Line> getLines() {
@@ -119,6 +138,9 @@ public class Page {
 			for (ClientTagInstance relativeTagInstance : relativeTagInstances.values()) {
 				addRelativeTagInstanceToLine(relativeTagInstance);
 			}
+			if (pager != null) {
+				pager.pageMaterialized(this);
+			}
 		}
 		
 		return lines;
@@ -127,7 +149,7 @@ public class Page {
 	private void buildLines() {
 		this.lines = new ArrayList<>();
 		
-		Matcher matcher = Pattern.compile(Pager.LINE_CONTENT_PATTERN).matcher(text);
+		Matcher matcher = Pager.LINE_CONTENT.matcher(text).region(textStart, textEnd);
 		
 		Line currentLine = new Line(rightToLeftWriting);
 		int lineLength = 0;
@@ -227,6 +249,9 @@ public class Page {
 		else {
 			this.relativeTagInstances.put(
 					relativeTagInstance.getInstanceID(),relativeTagInstance);
+			if (pager != null) {
+				pager.annotationAdded(relativeTagInstance.getInstanceID(), this);
+			}
 		}
 		
 		if (this.lines != null) {
@@ -235,8 +260,12 @@ public class Page {
 	}
 	
 	private void addRelativeTagInstanceToLine(ClientTagInstance relativeTagInstance) {
+		List<Line> pageLines = getLines();
 		for (TextRange tr : relativeTagInstance.getRanges()) {
-			for (Line line : getLines()) {
+			for (int lineIdx = getFirstLineIndexEndingAtOrAfter(tr.getStartPos()); 
+					lineIdx < pageLines.size() && pageLines.get(lineIdx).getTextRange().getStartPos() <= tr.getEndPos(); 
+					lineIdx++) {
+				Line line = pageLines.get(lineIdx);
 				if (line.containsTextRange(tr)) {
 					line.addRelativeTagInstanceTextRange(tr, relativeTagInstance);
 				}
@@ -244,11 +273,34 @@ public class Page {
 		}
 		
 	}
+	
+	/**
+	 * @param relativePos a position relative to the start of this page
+	 * @return the index of the first line that ends at or after the given position, 
+	 * the number of lines if there is no such line
+	 */
+	private int getFirstLineIndexEndingAtOrAfter(int relativePos) {
+		List<Line> pageLines = getLines();
+		int low = 0;
+		int high = pageLines.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (pageLines.get(mid).getTextRange().getEndPos() < relativePos) {
+				low = mid+1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 
 
 	public void removeRelativeTagInstance(String tagInstanceID) {
 		pageDiv = null; // page needs rebuild
-		this.relativeTagInstances.remove(tagInstanceID);
+		if ((this.relativeTagInstances.remove(tagInstanceID) != null) && (pager != null)) {
+			pager.annotationRemoved(tagInstanceID, this);
+		}
 		if (this.lines != null) {
 			removeRelativeTagInstanceFromLine(tagInstanceID);
 		}
@@ -302,9 +354,16 @@ public class Page {
 	public void clearRelativeTagInstances() {
 		pageDiv = null; // page needs rebuild
 		
+		if (pager != null) {
+			for (String tagInstanceID : relativeTagInstances.keySet()) {
+				pager.annotationRemoved(tagInstanceID, this);
+			}
+		}
 		relativeTagInstances.clear();
-		for (Line line : getLines()) {
-			line.clearRelativeTagInstanes();
+		if (lines != null) {
+			for (Line line : lines) {
+				line.clearRelativeTagInstanes();
+			}
 		}
 	}
 
@@ -340,7 +399,12 @@ public class Page {
 					iterator.next();
 			if (tagDefUUIds.contains(entry.getValue().getTagDefinitionID())) {
 				iterator.remove();
-				removeRelativeTagInstanceFromLine(entry.getKey());
+				if (pager != null) {
+					pager.annotationRemoved(entry.getKey(), this);
+				}
+				if (lines != null) {
+					removeRelativeTagInstanceFromLine(entry.getKey());
+				}
 			}
 		}
 	}
@@ -382,8 +446,12 @@ public class Page {
 		Line firstLine = null;
 		
 		TextRange highlightedRelativeRange = getRelativeRangeFor(highlightedAbsoluteRange);
+		List<Line> pageLines = getLines();
 		
-		for (Line line : getLines()) {
+		for (int lineIdx = getFirstLineIndexEndingAtOrAfter(highlightedRelativeRange.getStartPos()); 
+				lineIdx < pageLines.size() && pageLines.get(lineIdx).getTextRange().getStartPos() <= highlightedRelativeRange.getEndPos(); 
+				lineIdx++) {
+			Line line = pageLines.get(lineIdx);
 			TextRange overlappingRange = line.getOverlappingRange(highlightedRelativeRange);
 			if (overlappingRange != null) {
 				line.addHighlight(overlappingRange);
@@ -403,20 +471,40 @@ public class Page {
 	}
 
 	public void removeHighlights() {
-		for (Line line : getLines()) {
-			if (line.hasHighlights()) {
-				line.removeHighlights();
-				pageDiv = null;
+		if (lines != null) {
+			for (Line line : lines) {
+				if (line.hasHighlights()) {
+					line.removeHighlights();
+					pageDiv = null;
+				}
 			}
 		}
 	}
+	
+	/**
+	 * Releases the lines and the HTML of this page, they get rebuilt on demand. 
+	 * Pages with highlights keep their content.
+	 * @return <code>true</code> if the content has been released
+	 */
+	boolean release() {
+		if (lines != null) {
+			for (Line line : lines) {
+				if (line.hasHighlights()) {
+					return false;
+				}
+			}
+		}
+		lines = null;
+		pageDiv = null;
+		return true;
+	}
 
 	public boolean contains(String annotationId) {
 		return this.relativeTagInstances.containsKey(annotationId);
 	}
 
 	public boolean hasLine(int lineId) {
-		return getLines().stream().filter(line -> line.getLineId() == lineId).findAny().isPresent();
+		return (lineId >= 0) && (lineId < getLines().size());
 	}
 
 	public void addAbsoluteComment(Comment absoluteComment) {
@@ -0,0 +1,223 @@
+package de.catma.ui.module.annotate.pager;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * The page boundaries and the line count of a text for a given page layout, computed in a single pass 
+ * without materializing any {@link Page} content.
+ * <p>
+ * Text is broken into lines and pages exactly like {@link Pager#LINE_CONTENT_PATTERN} tokenizes it: runs of 
+ * non-whitespace, runs of blanks and line separators, other whitespace characters are skipped. 
+ * Indices are shared server-wide, keyed by the document and the layout, so sessions viewing the same 
+ * document with the same layout compute it only once. A shared index is only reused if the text still matches 
+ * the text it has been computed for.
+ */
+public class PageIndex {
+	
+	private static final int CACHE_SIZE = 100;
+	
+	private static final Cache<Key, Entry> cache = 
+			CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+	
+	private static final class Key {
+		private final String sourceDocumentId;
+		private final int approxMaxLineLength;
+		private final int maxPageLengthInLines;
+		
+		private Key(String sourceDocumentId, int approxMaxLineLength, int maxPageLengthInLines) {
+			this.sourceDocumentId = sourceDocumentId;
+			this.approxMaxLineLength = approxMaxLineLength;
+			this.maxPageLengthInLines = maxPageLengthInLines;
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(sourceDocumentId, approxMaxLineLength, maxPageLengthInLines);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return sourceDocumentId.equals(other.sourceDocumentId)
+					&& approxMaxLineLength == other.approxMaxLineLength
+					&& maxPageLengthInLines == other.maxPageLengthInLines;
+		}
+	}
+	
+	private static final class Entry {
+		// the cache should not keep the texts of closed documents in memory
+		private final WeakReference<String> textReference;
+		private final int textLength;
+		private final int textHashCode;
+		private final PageIndex pageIndex;
+		
+		private Entry(String text, PageIndex pageIndex) {
+			this.textReference = new WeakReference<>(text);
+			this.textLength = text.length();
+			this.textHashCode = text.hashCode();
+			this.pageIndex = pageIndex;
+		}
+		
+		private boolean isIndexOf(String text) {
+			String indexedText = textReference.get();
+			if (indexedText != null) {
+				// comparing copies of the text is still much cheaper than computing the index
+				return indexedText.equals(text);
+			}
+			
+			return textLength == text.length() && textHashCode == text.hashCode();
+		}
+	}
+
+	private final int[] pageEnds; // page i spans [pageEnds[i-1], pageEnds[i]), the first page starts at 0
+	private final int totalLineCount;
+	
+	private PageIndex(int[] pageEnds, int totalLineCount) {
+		this.pageEnds = pageEnds;
+		this.totalLineCount = totalLineCount;
+	}
+	
+	/**
+	 * @param sourceDocumentId the document the text belongs to
+	 * @return the cached index for the given document and layout, computed if not present or if it had been 
+	 * computed for a different text
+	 */
+	public static PageIndex get(String sourceDocumentId, String text, int approxMaxLineLength, int maxPageLengthInLines) {
+		Key key = new Key(sourceDocumentId, approxMaxLineLength, maxPageLengthInLines);
+		try {
+			Entry entry = cache.get(
+				key, 
+				() -> new Entry(text, create(text, approxMaxLineLength, maxPageLengthInLines)));
+			
+			if (!entry.isIndexOf(text)) {
+				entry = new Entry(text, create(text, approxMaxLineLength, maxPageLengthInLines));
+				cache.put(key, entry);
+			}
+			
+			return entry.pageIndex;
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	static PageIndex create(CharSequence text, int approxMaxLineLength, int maxPageLengthInLines) {
+		int[] pageEnds = new int[16];
+		int pageCount = 0;
+		
+		int pageEnd = 0;
+		int pageLines = 0;
+		int lineLength = 0;
+		int totalLineCount = 0;
+		
+		int length = text.length();
+		int pos = 0;
+		while (pos < length) {
+			char c = text.charAt(pos);
+			int tokenStart = pos;
+			boolean lineSeparator = false;
+			
+			if ((c == ' ') || (c == '\t')) {
+				do {
+					pos++;
+				}
+				while ((pos < length) && ((text.charAt(pos) == ' ') || (text.charAt(pos) == '\t')));
+			}
+			else if (c == '\r') {
+				pos += ((pos+1 < length) && (text.charAt(pos+1) == '\n'))?2:1;
+				lineSeparator = true;
+			}
+			else if (c == '\n') {
+				pos++;
+				lineSeparator = true;
+			}
+			else if ((c == '\u000B') || (c == '\f')) {
+				// whitespace that is neither blank nor a line separator is not part of any token
+				pos++;
+				continue;
+			}
+			else {
+				do {
+					pos++;
+				}
+				while ((pos < length) && !isWhitespace(text.charAt(pos)));
+			}
+			
+			int tokenLength = pos-tokenStart;
+			
+			if (lineLength + tokenLength > approxMaxLineLength) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd+=lineLength;
+				lineLength = 0;
+			}
+			
+			if (pageLines >= maxPageLengthInLines) {
+				if (pageCount == pageEnds.length) {
+					pageEnds = Arrays.copyOf(pageEnds, pageCount*2);
+				}
+				pageEnds[pageCount++] = pageEnd;
+				pageLines = 0;
+			}
+			
+			lineLength += tokenLength;
+			
+			if (lineSeparator) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd+=lineLength;
+				lineLength = 0;
+			}
+		}
+		
+		if (lineLength != 0) {
+			pageEnd+=lineLength;
+			pageLines++;
+			totalLineCount++;
+		}
+		
+		if (pageLines != 0) {
+			if (pageCount == pageEnds.length) {
+				pageEnds = Arrays.copyOf(pageEnds, pageCount+1);
+			}
+			pageEnds[pageCount++] = pageEnd;
+		}
+		
+		return new PageIndex(Arrays.copyOf(pageEnds, pageCount), totalLineCount);
+	}
+	
+	/**
+	 * @return <code>true</code> for the characters matched by <code>\s</code>
+	 */
+	private static boolean isWhitespace(char c) {
+		return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+	}
+	
+	public int getPageCount() {
+		return pageEnds.length;
+	}
+	
+	public int getPageStart(int pageIndex) {
+		return (pageIndex == 0)?0:pageEnds[pageIndex-1];
+	}
+	
+	public int getPageEnd(int pageIndex) {
+		return pageEnds[pageIndex];
+	}
+	
+	public int getTotalLineCount() {
+		return totalLineCount;
+	}
+}
@@ -19,16 +19,19 @@
 package de.catma.ui.module.annotate.pager;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.CRC32;
 
 import de.catma.document.Range;
 import de.catma.document.comment.Comment;
@@ -50,18 +53,26 @@ public class Pager implements Iterable<Page> {
 	static final String LINE_CONTENT_PATTERN = 
 			"(\\S+)|(\\p{Blank}+)|(\r\n|[\n\r\u2028\u2029\u0085])"; //$NON-NLS-1$
 	
+	static final Pattern LINE_CONTENT = Pattern.compile(LINE_CONTENT_PATTERN);
+	
+	// pages further away from the current page release their lines and HTML
+	private static final int MATERIALIZED_PAGE_DISTANCE = 2;
+	
 	static int WORDCHARACTER_GROUP = 1;
 	static int WHITESPACE_GROUP = 2;
 	static int LINE_SEPARATOR_GROUP = 3;
 
 
-	private ArrayList<Page> pages;
+	private ArrayList<Page> pages; // contiguous and ordered by position
+	private Map<String, Set<Page>> pagesByAnnotationId;
+	private Set<Page> materializedPages;
 	private int currentPageIndex=0;
 
 	private int approxMaxLineLength;
 	private int maxPageLengthInLines;
 	private PagerListener pagerListener;
-	private Long checksum = null;
+	private String sourceDocumentId;
+	private String text;
 	private int taggerID;
 	private int totalLineCount = 0;
 
@@ -69,16 +80,22 @@ public class Pager implements Iterable<Page> {
 	
 	public Pager(int taggerID, int approxMaxLineLength, int maxPageLengthInLines, boolean rightToLeftWriting) {
 		pages = new ArrayList<Page>();
+		pagesByAnnotationId = new HashMap<String, Set<Page>>();
+		materializedPages = new LinkedHashSet<Page>();
 		this.taggerID = taggerID;
 		this.approxMaxLineLength = approxMaxLineLength;
 		this.maxPageLengthInLines = maxPageLengthInLines;
 		this.rightToLeftWriting = rightToLeftWriting;
 	}
 	
-	public void setText(String text, Collection<Comment> comments) {
-		if (!matchChecksum(text)) {
+	public void setText(String sourceDocumentId, String text, Collection<Comment> comments) {
+		if (!isCurrentText(text)) {
+			this.sourceDocumentId = sourceDocumentId;
+			this.text = text;
 			currentPageIndex = 0;
 			pages.clear();
+			pagesByAnnotationId.clear();
+			materializedPages.clear();
 			buildPages(text);
 			this.setComments(comments);
 			if (pagerListener != null) {
@@ -92,75 +109,24 @@ public class Pager implements Iterable<Page> {
 		return !pages.isEmpty();
 	}
 
-	private boolean matchChecksum(String text) {
-		
-		CRC32 crc32 = new CRC32();
-		crc32.update(text.getBytes());
-		if ( (checksum != null) && (crc32.getValue() == checksum)) {
-			return true;
-		}
-		
-		checksum = crc32.getValue();
-
-		return false;
+	private boolean isCurrentText(String text) {
+		return (this.text != null) && this.text.equals(text);
 	}
 
 	private void buildPages(String text) {
+		PageIndex pageIndex = PageIndex.get(sourceDocumentId, text, approxMaxLineLength, maxPageLengthInLines);
 		
-		//TODO: always break after blanks and directly before the next word
-		
-		Matcher matcher = Pattern.compile(LINE_CONTENT_PATTERN).matcher(text);
-
-		int pageStart = 0;
-		int pageEnd = 0;
-		int pageLines = 0;
-		
-		int lineLength = 0;
-		
-		totalLineCount = 0;
-		
-		while(matcher.find()) {
-			if (lineLength + matcher.group().length()>approxMaxLineLength) {
-				pageLines++;
-				totalLineCount++;
-				pageEnd+=lineLength;
-				lineLength = 0;
-			}			
-			
-			if (pageLines >= maxPageLengthInLines) {
-				pages.add(new Page(
-						taggerID, 
-						text.substring(pageStart, pageEnd), 
-						pageStart, pageEnd, approxMaxLineLength,
-						rightToLeftWriting));
-				pageLines = 0;
-				pageStart = pageEnd;
-			}
-
-			lineLength += matcher.group().length();
-			
-			if (matcher.group(LINE_SEPARATOR_GROUP) != null) {
-				pageLines++;
-				totalLineCount++;
-				pageEnd+=lineLength;
-				lineLength = 0;
-			}
-		}
-		
-		if (lineLength != 0) {
-			pageEnd+=lineLength;
-			pageLines++;
-			totalLineCount++;
-		}
-		
-		if (pageLines != 0) {
-			pages.add(
-				new Page(
+		pages.ensureCapacity(pageIndex.getPageCount());
+		for (int pageIdx = 0; pageIdx < pageIndex.getPageCount(); pageIdx++) {
+			pages.add(new Page(
+					this,
 					taggerID, 
-					text.substring(pageStart, pageEnd), 
-					pageStart, pageEnd, approxMaxLineLength,
+					text, 
+					pageIndex.getPageStart(pageIdx), pageIndex.getPageEnd(pageIdx), approxMaxLineLength,
 					rightToLeftWriting));
-		}		
+		}
+		
+		totalLineCount = pageIndex.getTotalLineCount();
 	}
 	
 	@Override
@@ -189,8 +155,25 @@ public class Pager implements Iterable<Page> {
 			index = pages.size()-1;
 		}
 		currentPageIndex = index;
+		releaseDistantPages();
 		return pages.get(index);
 	}
+	
+	void pageMaterialized(Page page) {
+		materializedPages.add(page);
+	}
+	
+	private void releaseDistantPages() {
+		Iterator<Page> materializedPageIterator = materializedPages.iterator();
+		while (materializedPageIterator.hasNext()) {
+			Page page = materializedPageIterator.next();
+			// the first page ending after the start of a (non empty) page is the page itself
+			int pageIdx = Math.min(getFirstPageIndexEndingAtOrAfter(page.getPageStart()+1), pages.size()-1);
+			if ((Math.abs(pageIdx-currentPageIndex) > MATERIALIZED_PAGE_DISTANCE) && page.release()) {
+				materializedPageIterator.remove();
+			}
+		}
+	}
 
 	public boolean isEmpty() {
 		return pages.isEmpty();
@@ -204,27 +187,51 @@ public class Pager implements Iterable<Page> {
 		this.pagerListener = pagerListener;
 	}
 
-	public List<Page> getPagesForAbsoluteTagInstance(ClientTagInstance absoluteTagInstance) {
-		List<Page> result = new ArrayList<Page>();
-		
-		for (Page p : pages) {
-			if (p.hasOverlappingRange(absoluteTagInstance)) {
-				result.add(p);
+	/**
+	 * @param point an absolute position
+	 * @return the index of the first page that ends at or after the given point, 
+	 * <code>pages.size()</code> if there is no such page
+	 */
+	private int getFirstPageIndexEndingAtOrAfter(int point) {
+		int low = 0;
+		int high = pages.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (pages.get(mid).getPageEnd() < point) {
+				low = mid+1;
+			}
+			else {
+				high = mid;
 			}
 		}
-		
-		return result;
+		return low;
+	}
+	
+	public List<Page> getPagesForAbsoluteTagInstance(ClientTagInstance absoluteTagInstance) {
+		return getPagesForAbsoluteTextRanges(absoluteTagInstance.getRanges());
 	}
 	
 	public List<Page> getPagesForAbsoluteTextRanges(List<TextRange> textRanges) {
-		List<Page> result = new ArrayList<Page>();
+		// pages are contiguous, so only the pages between the first page ending at or after
+		// the start of a range and the last page starting at or before its end are candidates
+		BitSet pageIndices = new BitSet(pages.size());
 		
-		for (Page p : pages) {
-			if (p.hasOverlappingRange(textRanges)) {
-				result.add(p);
+		for (TextRange textRange : textRanges) {
+			for (int pageIdx = getFirstPageIndexEndingAtOrAfter(textRange.getStartPos()); 
+					pageIdx < pages.size() && pages.get(pageIdx).getPageStart() <= textRange.getEndPos(); 
+					pageIdx++) {
+				if (!pageIndices.get(pageIdx) 
+						&& pages.get(pageIdx).hasOverlappingRange(Collections.singletonList(textRange))) {
+					pageIndices.set(pageIdx);
+				}
 			}
 		}
 		
+		List<Page> result = new ArrayList<Page>(pageIndices.cardinality());
+		for (int pageIdx = pageIndices.nextSetBit(0); pageIdx >= 0; pageIdx = pageIndices.nextSetBit(pageIdx+1)) {
+			result.add(pages.get(pageIdx));
+		}
+		
 		return result;
 	}
 	
@@ -244,11 +251,9 @@ public class Pager implements Iterable<Page> {
 	}
 
 	public int getPageNumberFor(int point) {
-		
-		for (Page p: pages) {
-			if (p.hasPoint(point)) {
-				return pages.indexOf(p)+1;
-			}
+		int pageIdx = getFirstPageIndexEndingAtOrAfter(point);
+		if (pageIdx < pages.size() && pages.get(pageIdx).hasPoint(point)) {
+			return pageIdx+1;
 		}
 		return -1;
 	}
@@ -258,13 +263,13 @@ public class Pager implements Iterable<Page> {
 	}
 	
 	public void setMaxPageLengthInLines(int maxPageLengthInLines) {
-		this.checksum = null; //recalculate pages
+		this.text = null; //recalculate pages
 		this.maxPageLengthInLines = maxPageLengthInLines;
 		this.currentPageIndex = 0;
 	}
 	
 	public void setApproxMaxLineLength(int approxMaxLineLength) {
-		this.checksum = null; //recalculate pages
+		this.text = null; //recalculate pages
 		this.approxMaxLineLength = approxMaxLineLength;
 		this.currentPageIndex = 0;
 	}
@@ -291,8 +296,11 @@ public class Pager implements Iterable<Page> {
 	public int highlight(Range absoluteHighlightRange) {
 		int firstLineId = -1;
 		
-		for (Page page : pages) {
-
+		for (int pageIdx = getFirstPageIndexEndingAtOrAfter(absoluteHighlightRange.getStartPoint()); 
+				pageIdx < pages.size() && pages.get(pageIdx).getPageStart() <= absoluteHighlightRange.getEndPoint(); 
+				pageIdx++) {
+			Page page = pages.get(pageIdx);
+			
 			Range overlappingAbsoluteRange = page.getOverlappingRange(absoluteHighlightRange);
 			if (overlappingAbsoluteRange != null) {
 				int lineId = page.addHighlight(overlappingAbsoluteRange);
@@ -315,15 +323,29 @@ public class Pager implements Iterable<Page> {
 	}
 
 	public List<Page> getPagesForAnnotationId(String annotationId) {
-		List<Page> result = new ArrayList<>();
-		for (Page page : pages) {
-			if (page.contains(annotationId)) {
-				result.add(page);
-			}
+		Set<Page> annotationPages = pagesByAnnotationId.get(annotationId);
+		if (annotationPages == null) {
+			return new ArrayList<>();
 		}
+		List<Page> result = new ArrayList<>(annotationPages);
+		result.sort(Comparator.comparingInt(Page::getPageStart));
 		
 		return result;
 	}
+	
+	void annotationAdded(String annotationId, Page page) {
+		pagesByAnnotationId.computeIfAbsent(annotationId, key -> new LinkedHashSet<>()).add(page);
+	}
+	
+	void annotationRemoved(String annotationId, Page page) {
+		Set<Page> annotationPages = pagesByAnnotationId.get(annotationId);
+		if (annotationPages != null) {
+			annotationPages.remove(page);
+			if (annotationPages.isEmpty()) {
+				pagesByAnnotationId.remove(annotationId);
+			}
+		}
+	}
 
 	public void setRightToLeftWriting(boolean rightToLeftWriting) {
 		this.rightToLeftWriting = rightToLeftWriting;
@@ -869,6 +869,8 @@ public class ProjectView extends HugeCard implements CanReloadAll {
 		BackgroundService backgroundService = backgroundServiceProvider.acquireBackgroundService();
 
 		backgroundService.submit(
+				BackgroundJobClass.IMPORT,
+				BackgroundJobPriority.NORMAL,
 				new DefaultProgressCallable<Void>() {
 					@SuppressWarnings("unchecked")
 					@Override
@@ -7,6 +7,7 @@ import com.vaadin.ui.*;
 import com.vaadin.ui.Grid.SelectionMode;
 import com.vaadin.ui.Notification.Type;
 import com.vaadin.ui.renderers.HtmlRenderer;
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
@@ -226,6 +227,7 @@ public class ImportIntrinsicMarkupStep extends VerticalLayout implements WizardS
 
 		backgroundServiceProvider.submit(
 				"inspecting-intrinsic-markup",
+				BackgroundJobClass.IMPORT,
 				new DefaultProgressCallable<List<UploadFile>>() {
 					@Override
 					public List<UploadFile> call() throws Exception {
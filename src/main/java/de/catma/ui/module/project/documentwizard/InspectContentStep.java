@@ -4,6 +4,7 @@ import com.vaadin.data.Binder.Binding;
 import com.vaadin.data.provider.ListDataProvider;
 import com.vaadin.ui.*;
 import com.vaadin.ui.Notification.Type;
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
@@ -313,6 +314,7 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 
 		backgroundServiceProvider.submit(
 				"inspecting-files",
+				BackgroundJobClass.IMPORT,
 				new DefaultProgressCallable<List<UploadFile>>() {
 					@Override
 					public List<UploadFile> call() throws Exception {
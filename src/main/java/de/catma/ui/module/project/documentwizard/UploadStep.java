@@ -69,6 +69,7 @@ import com.wcs.wcslib.vaadin.widget.multifileupload.ui.UploadStatePanel;
 import com.wcs.wcslib.vaadin.widget.multifileupload.ui.UploadStateWindow;
 import com.wcs.wcslib.vaadin.widget.multifileupload.ui.UploadStateWindow.WindowPosition;
 
+import de.catma.backgroundservice.BackgroundJobClass;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
@@ -164,7 +165,7 @@ class UploadStep extends VerticalLayout implements WizardStep {
 				progressBar.setVisible(true);
 				
 				BackgroundServiceProvider backgroundServiceProvider = (BackgroundServiceProvider)UI.getCurrent();
-				backgroundServiceProvider.submit("fetch-url", new DefaultProgressCallable<Long>() {
+				backgroundServiceProvider.submit("fetch-url", BackgroundJobClass.IMPORT, new DefaultProgressCallable<Long>() {
 					@Override
 					public Long call() throws Exception {
 						ReadableByteChannel readableByteChannel = Channels.newChannel(url.openStream());
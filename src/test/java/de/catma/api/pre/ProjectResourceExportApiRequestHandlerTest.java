@@ -0,0 +1,178 @@
+package de.catma.api.pre;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+
+import de.catma.document.source.SourceDocument;
+import de.catma.document.source.SourceDocumentReference;
+import de.catma.project.Project;
+import de.catma.properties.CATMAProperties;
+import de.catma.properties.CATMAPropertyKey;
+
+class ProjectResourceExportApiRequestHandlerTest {
+
+    private static final String REVISION = "0123456789abcdef";
+
+    private Project project;
+    private ProjectResourceExportApiRequestHandler handler;
+    private VaadinRequest request;
+    private VaadinResponse response;
+    private ByteArrayOutputStream responseBody;
+
+    @BeforeAll
+    static void setUpProperties() {
+        if (CATMAProperties.INSTANCE.getProperties() == null) {
+            CATMAProperties.INSTANCE.setProperties(new Properties());
+        }
+    }
+
+    private static SourceDocumentReference createSourceDocumentReference(String uuid) {
+        SourceDocumentReference sourceDocumentRef = mock(SourceDocumentReference.class);
+        when(sourceDocumentRef.getUuid()).thenReturn(uuid);
+        return sourceDocumentRef;
+    }
+
+    private static SourceDocument createSourceDocument(String uuid) throws Exception {
+        SourceDocument sourceDocument = mock(SourceDocument.class, RETURNS_DEEP_STUBS);
+        when(sourceDocument.getUuid()).thenReturn(uuid);
+        when(sourceDocument.getContent()).thenReturn("Content of " + uuid);
+        return sourceDocument;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        project = mock(Project.class);
+        when(project.getVersion()).thenReturn(REVISION);
+        List<SourceDocumentReference> sourceDocumentRefs = Arrays.asList(
+                createSourceDocumentReference("D_3"), createSourceDocumentReference("D_1"), createSourceDocumentReference("D_2")
+        );
+        when(project.getSourceDocumentReferences()).thenReturn(sourceDocumentRefs);
+        for (String uuid : Arrays.asList("D_1", "D_2", "D_3")) {
+            SourceDocument sourceDocument = createSourceDocument(uuid);
+            when(project.getSourceDocument(uuid)).thenReturn(sourceDocument);
+        }
+
+        handler = new ProjectResourceExportApiRequestHandler(project);
+
+        request = mock(VaadinRequest.class);
+        String baseUrl = CATMAPropertyKey.BASE_URL.getValue();
+        when(request.getPathInfo()).thenReturn("/" + handler.getHandlerUrl().substring(baseUrl.length()));
+
+        response = mock(VaadinResponse.class);
+        responseBody = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(responseBody);
+    }
+
+    private String handleRequest() throws Exception {
+        assertTrue(handler.handleRequest(null, request, response));
+        return new String(responseBody.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String getSourceDocumentId(JsonObject exportDocument) {
+        return exportDocument.getAsJsonObject("sourceDocument").get("id").getAsString();
+    }
+
+    @Test
+    void testNdjsonExport() throws Exception {
+        when(request.getParameter("format")).thenReturn("ndjson");
+
+        String[] lines = handleRequest().split("\n");
+
+        verify(response).setContentType("application/x-ndjson; charset=UTF-8");
+        assertEquals(3, lines.length);
+        // documents are ordered by their ID
+        for (int idx = 0; idx < lines.length; idx++) {
+            JsonObject exportDocument = JsonParser.parseString(lines[idx]).getAsJsonObject();
+            assertEquals("D_" + (idx + 1), getSourceDocumentId(exportDocument));
+            assertEquals(0, exportDocument.getAsJsonArray("annotations").size());
+        }
+    }
+
+    @Test
+    void testPagedExport() throws Exception {
+        when(request.getParameter("page")).thenReturn("2");
+        when(request.getParameter("pageSize")).thenReturn("2");
+
+        JsonObject export = JsonParser.parseString(handleRequest()).getAsJsonObject();
+
+        verify(response).setContentType("application/json; charset=UTF-8");
+        assertEquals(1, export.getAsJsonArray("exportDocuments").size());
+        assertEquals("D_3", getSourceDocumentId(export.getAsJsonArray("exportDocuments").get(0).getAsJsonObject()));
+        assertEquals(2, export.get("page").getAsInt());
+        assertEquals(2, export.get("pageSize").getAsInt());
+        assertEquals(2, export.get("totalPages").getAsInt());
+        assertNotNull(export.get("exportId"));
+    }
+
+    @Test
+    void testUnchangedProjectIsNotExportedAgain() throws Exception {
+        handleRequest();
+        verify(response).setHeader("ETag", "W/\"" + REVISION + "\"");
+
+        for (String ifNoneMatch : Arrays.asList("W/\"" + REVISION + "\"", "\"" + REVISION + "\"", "\"other\", W/\"" + REVISION + "\"")) {
+            response = mock(VaadinResponse.class);
+            responseBody = new ByteArrayOutputStream();
+            when(response.getOutputStream()).thenReturn(responseBody);
+            when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+
+            assertEquals("", handleRequest());
+            verify(response).setStatus(304);
+        }
+    }
+
+    @Test
+    void testChangedProjectIsExported() throws Exception {
+        when(request.getHeader("If-None-Match")).thenReturn("W/\"other\"");
+
+        assertFalse(handleRequest().isEmpty());
+        verify(response, never()).setStatus(304);
+    }
+
+    @Test
+    void testUncommittedChangesAreNeverCached() throws Exception {
+        when(project.hasUncommittedChanges()).thenReturn(true);
+        when(request.getHeader("If-None-Match")).thenReturn("W/\"" + REVISION + "\"");
+
+        assertFalse(handleRequest().isEmpty());
+        verify(response).setNoCacheHeaders();
+        verify(response, never()).setHeader(eq("ETag"), anyString());
+        verify(response, never()).setStatus(304);
+    }
+
+    @Test
+    void testInvalidPaginationIsRejected() throws Exception {
+        when(request.getParameter("pageSize")).thenReturn("0");
+        assertEquals("", handleRequest());
+        verify(response).sendError(eq(400), anyString());
+
+        response = mock(VaadinResponse.class);
+        when(request.getParameter("pageSize")).thenReturn(null);
+        when(request.getParameter("page")).thenReturn("1");
+        assertEquals("", handleRequest());
+        verify(response).sendError(eq(400), anyString());
+
+        response = mock(VaadinResponse.class);
+        when(request.getParameter("page")).thenReturn("first");
+        when(request.getParameter("pageSize")).thenReturn("10");
+        assertEquals("", handleRequest());
+        verify(response).sendError(eq(400), anyString());
+        verify(response, never()).setStatus(anyInt());
+    }
+}
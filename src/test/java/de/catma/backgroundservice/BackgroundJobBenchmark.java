@@ -0,0 +1,200 @@
+package de.catma.backgroundservice;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many project-open and synchronization operations per second a {@link BackgroundJobPool} of the
+ * {@link BackgroundJobClass#SYNC SYNC} class gets through when many users submit them at once, on platform threads
+ * and on virtual threads. Both modes run with the same <code>threadLimit</code>, so that the thread mode is the only
+ * difference, the limits correspond to the default thread count of the class and the default virtual thread limit.
+ * <p>
+ * A local bare repository stands in for the GitLab remote, opening a project clones it and synchronizing fetches from
+ * it. Local git transport hardly blocks, so each operation additionally sleeps <code>remoteLatencyMillis</code> per
+ * round trip to stand in for network and GitLab REST latency.
+ * <p>
+ * Virtual threads require a JDK 21+ runtime, on older runtimes the virtual mode falls back to platform threads.
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.catma.backgroundservice.BackgroundJobBenchmark</code> or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BackgroundJobBenchmark {
+
+	private static final int ROUND_TRIPS_PER_OPERATION = 3;
+	private static final int CONCURRENT_OPERATIONS = 64;
+
+	@Param({"platform", "virtual"})
+	private String threadMode;
+
+	@Param({"4", "64"})
+	private int threadLimit;
+
+	@Param({"0", "20"})
+	private int remoteLatencyMillis;
+
+	private File baseDirectory;
+	private File remoteDirectory;
+	private List<File> projectDirectories;
+	private BackgroundJobPool pool;
+	private final AtomicInteger cloneCount = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		baseDirectory = Files.createTempDirectory("backgroundjobbenchmark").toFile();
+		remoteDirectory = new File(baseDirectory, "remote.git");
+		Git.init().setDirectory(remoteDirectory).setBare(true).call().close();
+
+		File seedDirectory = new File(baseDirectory, "seed");
+		try (Git git = Git.cloneRepository().setURI(remoteDirectory.toURI().toString()).setDirectory(seedDirectory).call()) {
+			for (int i=0; i<20; i++) {
+				Files.write(
+						new File(seedDirectory, "annotations_" + i + ".json").toPath(),
+						("[{\"page\":" + i + "}]").getBytes(StandardCharsets.UTF_8));
+				git.add().addFilepattern(".").call();
+				git.commit().setMessage("Page " + i).setCommitter("tester", "tester@catma.de").call();
+			}
+			git.push().call();
+		}
+
+		projectDirectories = new ArrayList<>();
+		for (int i=0; i<CONCURRENT_OPERATIONS; i++) {
+			File projectDirectory = new File(baseDirectory, "project_" + i);
+			Git.cloneRepository().setURI(remoteDirectory.toURI().toString()).setDirectory(projectDirectory).call().close();
+			projectDirectories.add(projectDirectory);
+		}
+
+		ThreadFactory threadFactory = threadMode.equals("virtual") ? VirtualThreads.newThreadFactory("benchmark-") : null;
+		if (threadFactory == null) {
+			if (threadMode.equals("virtual")) {
+				System.err.println("Virtual threads are not supported by this JDK, falling back to platform threads");
+			}
+			threadFactory = BackgroundJobScheduler.newPlatformThreadFactory("benchmark-");
+		}
+		pool = new BackgroundJobPool(BackgroundJobClass.SYNC, threadLimit, threadFactory);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.out.println(pool.getMetrics());
+		FileUtils.deleteDirectory(baseDirectory);
+	}
+
+	private void simulateRoundTrip() throws InterruptedException {
+		if (remoteLatencyMillis > 0) {
+			Thread.sleep(remoteLatencyMillis);
+		}
+	}
+
+	private void runConcurrently(List<GitOperation> operations) throws Exception {
+		CountDownLatch done = new CountDownLatch(operations.size());
+		AtomicReference<Exception> error = new AtomicReference<>();
+		int owner = 0;
+		for (GitOperation operation : operations) {
+			pool.submit(new BackgroundJob(
+					BackgroundJobClass.SYNC, BackgroundJobPriority.NORMAL, "user_" + (owner++),
+					job -> {
+						try {
+							operation.run();
+						}
+						catch (Exception e) {
+							error.compareAndSet(null, e);
+						}
+						finally {
+							done.countDown();
+						}
+					},
+					pool
+			));
+		}
+		done.await();
+		if (error.get() != null) {
+			throw error.get();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_OPERATIONS)
+	public void openProjects() throws Exception {
+		List<GitOperation> operations = new ArrayList<>();
+		for (int i=0; i<CONCURRENT_OPERATIONS; i++) {
+			operations.add(() -> {
+				File cloneDirectory = new File(baseDirectory, "clone_" + cloneCount.getAndIncrement());
+				try {
+					for (int roundTrip=0; roundTrip<ROUND_TRIPS_PER_OPERATION; roundTrip++) {
+						simulateRoundTrip();
+					}
+					try (Git git = Git.cloneRepository()
+							.setURI(remoteDirectory.toURI().toString())
+							.setDirectory(cloneDirectory)
+							.call()) {
+						git.log().setMaxCount(1).call();
+					}
+				}
+				finally {
+					FileUtils.deleteDirectory(cloneDirectory);
+				}
+			});
+		}
+		runConcurrently(operations);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_OPERATIONS)
+	public void synchronizeProjects() throws Exception {
+		List<GitOperation> operations = new ArrayList<>();
+		for (File projectDirectory : projectDirectories) {
+			operations.add(() -> {
+				for (int roundTrip=0; roundTrip<ROUND_TRIPS_PER_OPERATION; roundTrip++) {
+					simulateRoundTrip();
+				}
+				try (Git git = Git.open(projectDirectory)) {
+					git.fetch().call();
+					git.status().call();
+				}
+			});
+		}
+		runConcurrently(operations);
+	}
+
+	private interface GitOperation {
+		void run() throws Exception;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BackgroundJobBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,114 @@
+package de.catma.backgroundservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BackgroundJobPoolTest {
+
+	private BackgroundJob submit(
+			BackgroundJobPool pool, BackgroundJobPriority priority, String owner, String name,
+			List<String> started, CountDownLatch done) {
+		BackgroundJob job = new BackgroundJob(
+				BackgroundJobClass.INTERACTIVE, priority, owner,
+				currentJob -> {
+					started.add(name);
+					done.countDown();
+				},
+				pool
+		);
+		pool.submit(job);
+		return job;
+	}
+
+	@Test
+	void testOwnersTakeTurnsAndPriorityComesFirst() throws InterruptedException {
+		BackgroundJobPool pool = new BackgroundJobPool(
+				BackgroundJobClass.INTERACTIVE, 1, BackgroundJobScheduler.newPlatformThreadFactory("test-"));
+		List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+		// keep the single worker busy until everything has been queued
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch blockerStarted = new CountDownLatch(1);
+		pool.submit(new BackgroundJob(
+				BackgroundJobClass.INTERACTIVE, BackgroundJobPriority.NORMAL, "a",
+				currentJob -> {
+					blockerStarted.countDown();
+					try {
+						release.await();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				},
+				pool
+		));
+		assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+
+		CountDownLatch done = new CountDownLatch(5);
+		submit(pool, BackgroundJobPriority.NORMAL, "a", "a1", started, done);
+		submit(pool, BackgroundJobPriority.NORMAL, "a", "a2", started, done);
+		submit(pool, BackgroundJobPriority.NORMAL, "a", "a3", started, done);
+		submit(pool, BackgroundJobPriority.NORMAL, "b", "b1", started, done);
+		submit(pool, BackgroundJobPriority.HIGH, "b", "b2", started, done);
+		BackgroundJob cancelled = submit(pool, BackgroundJobPriority.HIGH, "c", "c1", started, new CountDownLatch(1));
+
+		assertTrue(cancelled.cancel());
+		assertTrue(cancelled.isDone());
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		assertEquals(Arrays.asList("b2", "a1", "b1", "a2", "a3"), started);
+
+		BackgroundJobMetrics metrics = pool.getMetrics();
+		assertEquals(7, metrics.getSubmitted());
+		assertEquals(1, metrics.getCancelled());
+		assertEquals(0, metrics.getQueued());
+		assertFalse(started.contains("c1"));
+	}
+
+	@Test
+	void testExportJobsNeverQueue() throws InterruptedException {
+		BackgroundJobPool pool = new BackgroundJobPool(
+				BackgroundJobClass.EXPORT, BackgroundJobClass.EXPORT.getMaxThreads(),
+				BackgroundJobScheduler.newPlatformThreadFactory("test-"));
+
+		// exports block until the download has been read, none of them may wait for another one
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(5);
+		for (int idx=0; idx<5; idx++) {
+			pool.submit(new BackgroundJob(
+					BackgroundJobClass.EXPORT, BackgroundJobPriority.NORMAL, "a",
+					currentJob -> {
+						started.countDown();
+						try {
+							release.await();
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					},
+					pool
+			));
+		}
+
+		try {
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			assertEquals(0, pool.getMetrics().getQueued());
+			assertEquals(5, pool.getMetrics().getRunning());
+		}
+		finally {
+			release.countDown();
+		}
+	}
+}
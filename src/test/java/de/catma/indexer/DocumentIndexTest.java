@@ -0,0 +1,82 @@
+package de.catma.indexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+class DocumentIndexTest {
+
+	private static final String CONTENT = "The cat sat on the mat. The cat, however, did not sit on the dog.";
+
+	private static byte[] digest(String content) {
+		return DocumentIndexWriter.createSourceDigest().digest(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private DocumentIndex createIndex() throws IOException {
+		TermExtractor termExtractor = new TermExtractor(CONTENT, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		ByteBuffer buffer = new DocumentIndexWriter(termExtractor.getTerms()).toByteBuffer(CONTENT.length(), digest(CONTENT));
+		return new DocumentIndex(buffer);
+	}
+
+	@Test
+	void testTokensMatchTermExtractor() throws IOException {
+		TermExtractor termExtractor = new TermExtractor(CONTENT, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		DocumentIndex documentIndex = createIndex();
+
+		assertEquals(termExtractor.getTermsInOrder().size(), documentIndex.getTokenCount());
+		assertEquals(termExtractor.getTerms().size(), documentIndex.getTermCount());
+
+		for (List<TermInfo> termInfos : termExtractor.getTerms().values()) {
+			for (TermInfo termInfo : termInfos) {
+				int tokenOffset = termInfo.getTokenOffset();
+				assertEquals(termInfo.getTerm(), documentIndex.getTerm(documentIndex.getTermId(tokenOffset)));
+				assertEquals(termInfo.getRange().getStartPoint(), documentIndex.getStartOffset(tokenOffset));
+				assertEquals(termInfo.getRange().getEndPoint(), documentIndex.getEndOffset(tokenOffset));
+			}
+		}
+	}
+
+	@Test
+	void testTermLookup() throws IOException {
+		DocumentIndex documentIndex = createIndex();
+
+		int catTermId = documentIndex.findTermId("cat");
+		assertNotEquals(-1, catTermId);
+		assertEquals(2, documentIndex.getFrequency(catTermId));
+		assertArrayEquals(new int[] {1, 8}, documentIndex.getPostings(catTermId));
+
+		assertEquals(-1, documentIndex.findTermId("bird"));
+
+		for (int termId = 1; termId < documentIndex.getTermCount(); termId++) {
+			assertTrue(documentIndex.getTerm(termId - 1).compareTo(documentIndex.getTerm(termId)) < 0);
+		}
+	}
+
+	@Test
+	void testMappedIndex() throws IOException {
+		TermExtractor termExtractor = new TermExtractor(CONTENT, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		File indexFile = File.createTempFile("documentindex", ".idx");
+
+		try {
+			new DocumentIndexWriter(termExtractor.getTerms()).write(indexFile, 42, digest(CONTENT));
+			DocumentIndex documentIndex = DocumentIndex.map(indexFile);
+
+			assertEquals(42, documentIndex.getSourceLength());
+			assertEquals("d2d245466719fec2d6248b8958c84f779e68b0a2", documentIndex.getSourceDigest());
+			assertEquals(Files.size(indexFile.toPath()), documentIndex.getSizeInBytes());
+			assertEquals(1, documentIndex.getFrequency(documentIndex.findTermId("sat")));
+		}
+		finally {
+			indexFile.delete();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package de.catma.indexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.document.source.ContentInfoSet;
+import de.catma.document.source.IndexInfoSet;
+import de.catma.document.source.SourceDocument;
+import de.catma.document.source.SourceDocumentInfo;
+import de.catma.document.source.contenthandler.AbstractSourceContentHandler;
+
+class KwicProviderTest {
+
+	private static final String CONTENT = 
+			"The cat sat on the mat. The cat, however, did not sit on the dog!  Then the cat slept... "
+			+ "\"Why?\" asked the dog (politely), and went on sleeping as well.";
+
+	private static SourceDocument createSourceDocument() {
+		AbstractSourceContentHandler handler = new AbstractSourceContentHandler() {
+			@Override
+			public void load() throws IOException {
+				setContent(CONTENT);
+			}
+		};
+		handler.setSourceDocumentInfo(new SourceDocumentInfo(
+				new IndexInfoSet(Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH), 
+				new ContentInfoSet(), 
+				null));
+		return new SourceDocument("D_1", handler);
+	}
+
+	private static DocumentTokens createDocumentTokens() throws IOException {
+		TermExtractor termExtractor = new TermExtractor(CONTENT, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		DocumentIndex documentIndex = new DocumentIndex(
+				new DocumentIndexWriter(termExtractor.getTerms()).toByteBuffer(
+						CONTENT.length(), 
+						DocumentIndexWriter.createSourceDigest().digest(CONTENT.getBytes(StandardCharsets.UTF_8))));
+
+		return new DocumentTokens() {
+			@Override
+			public int getTokenCount() {
+				return documentIndex.getTokenCount();
+			}
+			@Override
+			public boolean hasToken(int tokenOffset) {
+				return documentIndex.getTermId(tokenOffset) != -1;
+			}
+			@Override
+			public int getStartOffset(int tokenOffset) {
+				return documentIndex.getStartOffset(tokenOffset);
+			}
+			@Override
+			public int getEndOffset(int tokenOffset) {
+				return documentIndex.getEndOffset(tokenOffset);
+			}
+			@Override
+			public String getTermLiteral(int tokenOffset) {
+				return documentIndex.getTerm(documentIndex.getTermId(tokenOffset));
+			}
+		};
+	}
+
+	private static String toString(List<TermInfo> tokens) {
+		return tokens.stream().map(token -> token.getTerm() + token.getRange()).collect(Collectors.joining(" "));
+	}
+
+	private static void assertSameSpanContext(SpanContext expected, SpanContext actual, String message) {
+		assertEquals(expected.getForward(), actual.getForward(), message);
+		assertEquals(expected.getForwardRange(), actual.getForwardRange(), message);
+		assertEquals(toString(expected.getForwardTokens()), toString(actual.getForwardTokens()), message);
+		assertEquals(expected.getBackward(), actual.getBackward(), message);
+		assertEquals(expected.getBackwardRange(), actual.getBackwardRange(), message);
+		assertEquals(toString(expected.getBackwardTokens()), toString(actual.getBackwardTokens()), message);
+	}
+
+	@Test
+	void testIndexedTokensYieldSameKwicAsAnalyzer() throws IOException {
+		KwicProvider analyzerKwicProvider = new KwicProvider(createSourceDocument(), null);
+		KwicProvider indexedKwicProvider = new KwicProvider(createSourceDocument(), null, createDocumentTokens());
+
+		List<Range> ranges = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			int startPoint = random.nextInt(CONTENT.length());
+			ranges.add(new Range(startPoint, Math.min(CONTENT.length(), startPoint + random.nextInt(15))));
+		}
+
+		for (int span : new int[] {0, 1, 5}) {
+			List<KeywordInSpanContext> batch = indexedKwicProvider.getKwic(ranges, span);
+
+			for (int i = 0; i < ranges.size(); i++) {
+				Range range = ranges.get(i);
+				KeywordInSpanContext expected = analyzerKwicProvider.getKwic(range, span);
+
+				assertEquals(expected.toString(), batch.get(i).toString(), range + " span " + span);
+				assertSameSpanContext(expected.getSpanContext(), batch.get(i).getSpanContext(), range + " span " + span);
+				assertSameSpanContext(
+						analyzerKwicProvider.getSpanContextFor(range, span, SpanDirection.FORWARD), 
+						indexedKwicProvider.getSpanContextFor(range, span, SpanDirection.FORWARD),
+						range + " forward span " + span);
+			}
+		}
+	}
+}
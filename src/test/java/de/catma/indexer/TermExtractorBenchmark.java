@@ -0,0 +1,99 @@
+package de.catma.indexer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Tokenizes generated corpora of 1 MB and 20 MB of text with the {@link TermExtractor}, as a whole on the calling
+ * thread and in chunks on a fork/join pool with one worker per available processor.
+ * <p>
+ * The text mixes plain words with punctuation, unseparable character sequences and user defined separating
+ * characters, so that all paths of the {@link PunctuationTokenizer} are taken.
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.catma.indexer.TermExtractorBenchmark</code> or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TermExtractorBenchmark {
+
+	private static final String[] WORDS = {
+			"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog.", "It's", "(really)", "\"quoted\"",
+			"self-made", "z.B.", "e.g.", "1.000,5", "and/or", "naïve", "Straße,", "...", "-"
+	};
+
+	@Param({"1", "20"})
+	private int contentSizeMb;
+
+	private String content;
+	private List<String> unseparableCharacterSequences = Arrays.asList("z.B.", "e.g.");
+	private List<Character> userDefinedSeparatingCharacters = Arrays.asList('-', '/');
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		StringBuilder builder = new StringBuilder();
+		while (builder.length() < contentSizeMb * 1024 * 1024) {
+			builder.append(WORDS[random.nextInt(WORDS.length)]);
+			builder.append(random.nextInt(12) == 0 ? '\n' : ' ');
+		}
+		content = builder.toString();
+		pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public TermExtractor tokenizeWhole() throws IOException {
+		return new TermExtractor(
+				content, unseparableCharacterSequences, userDefinedSeparatingCharacters, Locale.ENGLISH,
+				null, TermExtractor.DEFAULT_CHUNK_SIZE);
+	}
+
+	@Benchmark
+	public TermExtractor tokenizeChunked() throws IOException {
+		return new TermExtractor(
+				content, unseparableCharacterSequences, userDefinedSeparatingCharacters, Locale.ENGLISH,
+				pool, TermExtractor.DEFAULT_CHUNK_SIZE);
+	}
+
+	@Benchmark
+	public TermExtractor tokenizeWithoutUnseparableCharacterSequences() throws IOException {
+		return new TermExtractor(
+				content, Collections.<String>emptyList(), Collections.<Character>emptyList(), Locale.ENGLISH,
+				pool, TermExtractor.DEFAULT_CHUNK_SIZE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TermExtractorBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,87 @@
+package de.catma.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class TermExtractorTest {
+
+	private static final String[] WORDS = {
+			"The", "cat", "sat", "on", "the", "mat.", "z.B.", "e.g.", "self-made", "(however)", "\"quoted\"",
+			"don't", "1.000,5", "a/b", "...", "-", "naïve", "😀", "\n", "\t"
+	};
+
+	private String createContent(long seed, int wordCount) {
+		Random random = new Random(seed);
+		StringBuilder builder = new StringBuilder();
+		for (int i=0; i<wordCount; i++) {
+			builder.append(WORDS[random.nextInt(WORDS.length)]);
+			if (random.nextInt(5) > 0) {
+				builder.append(' ');
+			}
+		}
+		return builder.toString();
+	}
+
+	private void assertSameTerms(TermExtractor expected, TermExtractor actual) {
+		assertEquals(expected.getTermsInOrder(), actual.getTermsInOrder());
+		assertEquals(expected.getTerms().keySet(), actual.getTerms().keySet());
+		for (String term : expected.getTerms().keySet()) {
+			List<TermInfo> expectedTermInfos = expected.getTerms().get(term);
+			List<TermInfo> actualTermInfos = actual.getTerms().get(term);
+			assertEquals(expectedTermInfos, actualTermInfos);
+			for (int i=0; i<expectedTermInfos.size(); i++) {
+				assertEquals(expectedTermInfos.get(i).getTokenOffset(), actualTermInfos.get(i).getTokenOffset());
+			}
+		}
+	}
+
+	@Test
+	void testChunkedTokenizationMatchesWholeContent() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			List<List<String>> unseparableCharacterSequenceLists = Arrays.asList(
+					Collections.<String>emptyList(), Arrays.asList("z.B.", "e.g."));
+			List<List<Character>> separatingCharacterLists = Arrays.asList(
+					Collections.<Character>emptyList(), Arrays.asList('-', '/'));
+
+			for (int seed=0; seed<5; seed++) {
+				String content = createContent(seed, 2000);
+				for (List<String> unseparableCharacterSequences : unseparableCharacterSequenceLists) {
+					for (List<Character> separatingCharacters : separatingCharacterLists) {
+						TermExtractor whole = new TermExtractor(
+								content, unseparableCharacterSequences, separatingCharacters, Locale.GERMAN, null, 0);
+						TermExtractor chunked = new TermExtractor(
+								content, unseparableCharacterSequences, separatingCharacters, Locale.GERMAN, pool, 100 + seed*37);
+
+						assertSameTerms(whole, chunked);
+					}
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testChunksEndWithWhitespace() {
+		String content = createContent(42, 500);
+		int[] chunkStarts = TermExtractor.getChunkStarts(content, 64);
+
+		assertEquals(0, chunkStarts[0]);
+		for (int i=1; i<chunkStarts.length; i++) {
+			assertTrue(chunkStarts[i] - chunkStarts[i-1] >= 64);
+			assertTrue(Character.isWhitespace(content.charAt(chunkStarts[i]-1)));
+		}
+	}
+}
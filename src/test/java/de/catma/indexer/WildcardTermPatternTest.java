@@ -0,0 +1,53 @@
+package de.catma.indexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.indexer.wildcard2regex.SQLWildcard2RegexConverter;
+
+class WildcardTermPatternTest {
+
+	private static final List<String> TERMS = Arrays.asList(
+			"", "a", "ab", "abc", "Achtung", "ung", "Wohnung", "Zeitungen", "100%", "1000", "a_b", "axb", "\\", "?", "*"
+	);
+
+	@Test
+	void testMatchesLikeRegexConversion() {
+		List<String> wildcardTerms = Arrays.asList(
+				"%", "%ung", "a%", "a_", "_", "%tung%", "a%b%", "100\\%", "a\\_b", "a_b", "ab", "\\\\", "?", "*", "%\\%"
+		);
+
+		for (String wildcardTerm : wildcardTerms) {
+			WildcardTermPattern pattern = WildcardTermPattern.compile(wildcardTerm);
+			String regex = SQLWildcard2RegexConverter.convert(wildcardTerm);
+
+			for (String term : TERMS) {
+				assertEquals(term.matches(regex), pattern.matches(term), String.format("%s vs. %s", wildcardTerm, term));
+			}
+		}
+	}
+
+	@Test
+	void testLiteralPrefix() {
+		WildcardTermPattern pattern = WildcardTermPattern.compile("Ach%");
+		assertEquals("Ach", pattern.getLiteralPrefix());
+		assertTrue(pattern.isPrefixOnly());
+		assertFalse(pattern.isLiteral());
+
+		pattern = WildcardTermPattern.compile("a\\%b_c");
+		assertEquals("a%b", pattern.getLiteralPrefix());
+		assertFalse(pattern.isPrefixOnly());
+
+		pattern = WildcardTermPattern.compile("%ung");
+		assertEquals("", pattern.getLiteralPrefix());
+		assertFalse(pattern.isPrefixOnly());
+
+		pattern = WildcardTermPattern.compile("100\\%");
+		assertEquals("100%", pattern.getLiteralPrefix());
+		assertTrue(pattern.isLiteral());
+	}
+}
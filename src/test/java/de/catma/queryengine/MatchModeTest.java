@@ -0,0 +1,71 @@
+package de.catma.queryengine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.QueryResultRowArray;
+import de.catma.queryengine.result.QueryResultRowIndex;
+import de.catma.queryengine.result.TagQueryResultRow;
+
+class MatchModeTest {
+
+	private static final QueryId QUERY_ID = new QueryId("test");
+
+	private static Range createRange(Random random) {
+		int startPoint = random.nextInt(200);
+		return new Range(startPoint, startPoint + random.nextInt(20));
+	}
+
+	private static QueryResultRowArray createResult(Random random, int size) {
+		QueryResultRowArray result = new QueryResultRowArray();
+
+		for (int i = 0; i < size; i++) {
+			String documentId = "D_" + random.nextInt(3);
+
+			if (random.nextBoolean()) {
+				result.add(new QueryResultRow(QUERY_ID, documentId, createRange(random)));
+			}
+			else {
+				List<Range> ranges = new ArrayList<>();
+				for (int j = 0; j <= random.nextInt(3); j++) {
+					ranges.add(createRange(random));
+				}
+				result.add(new TagQueryResultRow(QUERY_ID, documentId, ranges, "C_1", "T_1", "/tag", null, "TI_" + i));
+			}
+		}
+
+		return result;
+	}
+
+	@Test
+	void testIndexedMatchEqualsComparatorMatch() {
+		Random random = new Random(42);
+
+		for (int round = 0; round < 20; round++) {
+			QueryResultRowArray result1 = createResult(random, 300);
+			QueryResultRowArray result2 = createResult(random, 300);
+
+			// make sure there are exact matches as well
+			result2.addAll(result1.subList(0, 30));
+
+			QueryResultRowIndex index = new QueryResultRowIndex(result2);
+
+			for (MatchMode matchMode : MatchMode.values()) {
+				for (QueryResultRow row : result1) {
+					assertEquals(
+							row.existsIn(result2, matchMode.getComparator()),
+							matchMode.existsIn(row, index),
+							matchMode + " " + row
+					);
+				}
+			}
+		}
+	}
+}
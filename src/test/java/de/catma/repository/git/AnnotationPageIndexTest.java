@@ -0,0 +1,248 @@
+package de.catma.repository.git;
+
+import static de.catma.repository.git.serialization.AnnotationPageFixture.createAnnotation;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.catma.repository.git.serialization.AnnotationPageCodec;
+import de.catma.repository.git.serialization.AnnotationPageFixture;
+import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
+
+class AnnotationPageIndexTest {
+
+	private final AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+
+	private File annotationsDirectory;
+	private AnnotationPageIndex annotationPageIndex;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		annotationsDirectory = Files.createTempDirectory("annotations").toFile();
+		annotationPageIndex = new AnnotationPageIndex(annotationsDirectory);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		FileUtils.deleteDirectory(annotationsDirectory);
+	}
+
+	private void writePage(String pageFilename, int... numbers) throws IOException {
+		String[] annotations = new String[numbers.length];
+		for (int i = 0; i < numbers.length; i++) {
+			annotations[i] = createAnnotation(numbers[i], "value " + numbers[i] + " with {braces} and \\\"quotes\\\"");
+		}
+		Files.write(
+				new File(annotationsDirectory, pageFilename).toPath(),
+				AnnotationPageFixture.createPage(annotations).getBytes(StandardCharsets.UTF_8)
+		);
+	}
+
+	private List<JsonLdWebAnnotation> readPage(String pageFilename) throws IOException {
+		return annotationPageCodec.readAll(new File(annotationsDirectory, pageFilename));
+	}
+
+	private List<String> getTagInstanceIds(String pageFilename) throws IOException {
+		return readPage(pageFilename).stream().map(JsonLdWebAnnotation::getTagInstanceUuid).collect(Collectors.toList());
+	}
+
+	private JsonLdWebAnnotation parse(String serializedAnnotation) throws IOException {
+		byte[] bytes = serializedAnnotation.getBytes(StandardCharsets.UTF_8);
+		return annotationPageCodec.readAnnotation(bytes, 0, bytes.length);
+	}
+
+	@Test
+	void testFindAnnotations() throws IOException {
+		String page = "[\n" + createAnnotation(0, "}]{[") + ",\n" + createAnnotation(1, "\\\\") + "\n]";
+		byte[] content = page.getBytes(StandardCharsets.UTF_8);
+
+		List<int[]> spans = AnnotationPageIndex.findAnnotations(content);
+
+		assertEquals(2, spans.size());
+		assertEquals(createAnnotation(0, "}]{["), new String(content, spans.get(0)[0], spans.get(0)[1], StandardCharsets.UTF_8));
+		assertEquals(createAnnotation(1, "\\\\"), new String(content, spans.get(1)[0], spans.get(1)[1], StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testEdit() throws IOException {
+		writePage("tester_0.json", 0, 1, 2, 3, 4);
+
+		Set<String> notFound = annotationPageIndex.edit(
+				Collections.singletonMap("CATMA_1", parse(createAnnotation(1, "updated"))),
+				Collections.singleton("CATMA_3"),
+				Collections.singletonMap("CATMA_1", "tester_0.json")
+		);
+
+		assertTrue(notFound.isEmpty());
+
+		List<JsonLdWebAnnotation> annotations = readPage("tester_0.json");
+		assertEquals(4, annotations.size());
+		assertEquals("CATMA_1", annotations.get(1).getTagInstanceUuid());
+		assertEquals(
+				Collections.singleton("updated"),
+				annotations.get(1).getBody().getProperties().get("user").get("PD_2")
+		);
+		assertEquals(
+				"value 2 with {braces} and \"quotes\"",
+				annotations.get(2).getBody().getProperties().get("user").get("PD_2").first()
+		);
+
+		// the index has been updated in place, further edits don't depend on a rescan
+		notFound = annotationPageIndex.edit(Collections.emptyMap(), Arrays.asList("CATMA_0", "CATMA_4"), Collections.emptyMap());
+
+		assertTrue(notFound.isEmpty());
+		assertEquals(Arrays.asList("CATMA_1", "CATMA_2"), getTagInstanceIds("tester_0.json"));
+
+		notFound = annotationPageIndex.edit(Collections.emptyMap(), Arrays.asList("CATMA_1", "CATMA_2"), Collections.emptyMap());
+
+		assertTrue(notFound.isEmpty());
+		assertEquals("[]", new String(Files.readAllBytes(new File(annotationsDirectory, "tester_0.json").toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testEditWithOutdatedPageFilenames() throws IOException {
+		writePage("tester_0.json", 0, 1);
+		writePage("other_0.json", 2, 3);
+
+		// index the first page, then move one of its annotations to another page behind the index's back
+		annotationPageIndex.edit(Collections.emptyMap(), Collections.singleton("CATMA_0"), Collections.singletonMap("CATMA_0", "tester_0.json"));
+		writePage("tester_1.json", 1);
+		writePage("tester_0.json");
+
+		Set<String> notFound = annotationPageIndex.edit(
+				Collections.emptyMap(),
+				Arrays.asList("CATMA_1", "CATMA_3", "CATMA_99"),
+				Collections.singletonMap("CATMA_1", "tester_0.json")
+		);
+
+		assertEquals(Collections.singleton("CATMA_99"), notFound);
+		assertTrue(getTagInstanceIds("tester_1.json").isEmpty());
+		assertEquals(Collections.singletonList("CATMA_2"), getTagInstanceIds("other_0.json"));
+	}
+
+	@Test
+	void testCompact() throws IOException {
+		writePage("tester_0.json", 0, 1);
+		writePage("tester_1.json");
+		writePage("tester_3.json", 2);
+		writePage("other_0.json", 3);
+		writePage("other_1.json", 4);
+
+		assertTrue(annotationPageIndex.isCompactionDue("tester", 100000));
+		List<File> deletedPageFiles = annotationPageIndex.compact("tester", 100000);
+
+		assertEquals(3, deletedPageFiles.size());
+		// the packed pages go behind the existing ones
+		assertEquals(Arrays.asList("CATMA_0", "CATMA_1", "CATMA_2"), getTagInstanceIds("tester_4.json"));
+		assertFalse(new File(annotationsDirectory, "tester_0.json").exists());
+		assertFalse(new File(annotationsDirectory, "tester_1.json").exists());
+		assertFalse(new File(annotationsDirectory, "tester_3.json").exists());
+		// pages of other users are left alone
+		assertTrue(new File(annotationsDirectory, "other_1.json").exists());
+		// no markers or temporary files are left behind
+		assertEquals(3, annotationsDirectory.list().length);
+
+		assertEquals("tester_4.json", annotationPageIndex.getCurrentPageFilename("tester", 100000, false));
+		assertFalse(annotationPageIndex.isCompactionDue("tester", 100000));
+		assertTrue(annotationPageIndex.compact("tester", 100000).isEmpty());
+	}
+
+	@Test
+	void testCompactRespectsMaxPageSize() throws IOException {
+		writePage("tester_0.json", 0);
+		writePage("tester_1.json", 1);
+		writePage("tester_2.json", 2);
+		writePage("tester_3.json", 3);
+
+		int annotationSize = createAnnotation(0, "value 0 with {braces} and \\\"quotes\\\"").length();
+		List<File> deletedPageFiles = annotationPageIndex.compact("tester", 2 * annotationSize + 20);
+
+		assertEquals(4, deletedPageFiles.size());
+		assertEquals(Arrays.asList("CATMA_0", "CATMA_1"), getTagInstanceIds("tester_4.json"));
+		assertEquals(Arrays.asList("CATMA_2", "CATMA_3"), getTagInstanceIds("tester_5.json"));
+		assertEquals("tester_6.json", annotationPageIndex.getCurrentPageFilename("tester", 2 * annotationSize + 20, true));
+	}
+
+	@Test
+	void testCompactOnlyWhenDue() throws IOException {
+		int annotationSize = createAnnotation(0, "value 0 with {braces} and \\\"quotes\\\"").length();
+		int maxPageSizeBytes = 2 * annotationSize + 20;
+
+		// mostly full pages are not worth compacting
+		writePage("tester_0.json", 0);
+		writePage("tester_1.json", 1);
+
+		assertFalse(annotationPageIndex.isCompactionDue("tester", annotationSize + 20));
+		assertTrue(annotationPageIndex.compact("tester", annotationSize + 20).isEmpty());
+
+		// the full leading page is kept, only the pages behind it are rewritten
+		writePage("tester_0.json", 0, 1);
+		writePage("tester_1.json", 2);
+		writePage("tester_2.json", 3);
+		long lastModified = new File(annotationsDirectory, "tester_0.json").lastModified();
+
+		assertTrue(annotationPageIndex.isCompactionDue("tester", maxPageSizeBytes));
+		assertEquals(2, annotationPageIndex.compact("tester", maxPageSizeBytes).size());
+		assertEquals(Arrays.asList("CATMA_0", "CATMA_1"), getTagInstanceIds("tester_0.json"));
+		assertEquals(lastModified, new File(annotationsDirectory, "tester_0.json").lastModified());
+		assertEquals(Arrays.asList("CATMA_2", "CATMA_3"), getTagInstanceIds("tester_3.json"));
+	}
+
+	@Test
+	void testRecoveryFromInterruptedCompaction() throws IOException {
+		// interrupted while writing the new pages, they get discarded
+		writePage("tester_0.json", 0);
+		writePage("tester_1.json", 1);
+		writePage("tester_2.json", 0);
+		Files.write(
+				new File(annotationsDirectory, AnnotationPageIndex.NEW_PAGES_MARKER_FILENAME).toPath(),
+				"tester_2.json\ntester_3.json".getBytes(StandardCharsets.UTF_8)
+		);
+
+		assertEquals(
+				new HashSet<>(Arrays.asList("tester_2.json", "tester_3.json")),
+				AnnotationPageIndex.getObsoletePageFilenames(annotationsDirectory)
+		);
+		annotationPageIndex.recoverFromInterruptedCompaction();
+
+		assertFalse(new File(annotationsDirectory, "tester_2.json").exists());
+		assertEquals(Collections.singletonList("CATMA_1"), getTagInstanceIds("tester_1.json"));
+		assertEquals(2, annotationsDirectory.list().length);
+
+		// interrupted while deleting the old pages, which get deleted before the next edit
+		writePage("tester_2.json", 0, 1);
+		Files.write(
+				new File(annotationsDirectory, AnnotationPageIndex.NEW_PAGES_MARKER_FILENAME).toPath(),
+				"tester_2.json".getBytes(StandardCharsets.UTF_8)
+		);
+		Files.write(
+				new File(annotationsDirectory, AnnotationPageIndex.OLD_PAGES_MARKER_FILENAME).toPath(),
+				"tester_0.json\ntester_1.json".getBytes(StandardCharsets.UTF_8)
+		);
+
+		assertEquals(
+				new HashSet<>(Arrays.asList("tester_0.json", "tester_1.json")),
+				AnnotationPageIndex.getObsoletePageFilenames(annotationsDirectory)
+		);
+
+		Set<String> notFound = annotationPageIndex.edit(Collections.emptyMap(), Collections.singleton("CATMA_0"), Collections.emptyMap());
+
+		assertTrue(notFound.isEmpty());
+		assertEquals(Collections.singletonList("tester_2.json"), Arrays.asList(annotationsDirectory.list()));
+		assertEquals(Collections.singletonList("CATMA_1"), getTagInstanceIds("tester_2.json"));
+	}
+}
@@ -0,0 +1,65 @@
+package de.catma.repository.git;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.catma.indexer.DocumentIndex;
+
+class GitSourceDocumentHandlerIndexTest {
+
+	private static final String DOCUMENT_ID = "D_1";
+
+	private File projectDirectory;
+	private File tokenizedFile;
+	private GitSourceDocumentHandler gitSourceDocumentHandler;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		projectDirectory = Files.createTempDirectory("project").toFile();
+		File documentDirectory = new File(new File(projectDirectory, GitProjectHandler.DOCUMENTS_DIRECTORY_NAME), DOCUMENT_ID);
+		assertTrue(documentDirectory.mkdirs());
+		tokenizedFile = new File(documentDirectory, DOCUMENT_ID + ".json");
+		gitSourceDocumentHandler = new GitSourceDocumentHandler(null, projectDirectory, "tester", "tester@example.org");
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		FileUtils.deleteDirectory(projectDirectory);
+	}
+
+	private void writeTokenizedFile(String firstTerm, String secondTerm) throws IOException {
+		Files.write(
+				tokenizedFile.toPath(),
+				String.format(
+						"{\"%s\":[{\"startOffset\":0,\"endOffset\":3,\"tokenOffset\":0}],"
+						+ "\"%s\":[{\"startOffset\":4,\"endOffset\":7,\"tokenOffset\":1}]}",
+						firstTerm, secondTerm
+				).getBytes(StandardCharsets.UTF_8)
+		);
+	}
+
+	@Test
+	void testIndexIsRebuiltIfTheTokenizedFileChangesWithoutChangingItsLength() throws IOException {
+		writeTokenizedFile("The", "cat");
+		DocumentIndex documentIndex = gitSourceDocumentHandler.openIndex(DOCUMENT_ID);
+		assertEquals("cat", documentIndex.getTerm(documentIndex.getTermId(1)));
+
+		writeTokenizedFile("The", "dog");
+		DocumentIndex changedDocumentIndex = gitSourceDocumentHandler.openIndex(DOCUMENT_ID);
+		assertEquals(documentIndex.getSourceLength(), changedDocumentIndex.getSourceLength());
+		assertNotEquals(documentIndex.getSourceDigest(), changedDocumentIndex.getSourceDigest());
+		assertEquals("dog", changedDocumentIndex.getTerm(changedDocumentIndex.getTermId(1)));
+
+		// an unchanged file reuses the persisted index
+		assertEquals(changedDocumentIndex.getSourceDigest(), gitSourceDocumentHandler.openIndex(DOCUMENT_ID).getSourceDigest());
+	}
+}
@@ -0,0 +1,88 @@
+package de.catma.repository.git.graph.lazy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.indexer.DocumentIndex;
+import de.catma.indexer.DocumentIndexWriter;
+import de.catma.indexer.TermExtractor;
+import de.catma.indexer.WildcardTermPattern;
+
+class CorpusIndexTest {
+
+	private static final List<String> DOCUMENT_IDS = Arrays.asList("D_1", "D_2", "D_3");
+
+	private DocumentIndex createIndex(String content) throws IOException {
+		TermExtractor termExtractor = new TermExtractor(content, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		byte[] sourceDigest = DocumentIndexWriter.createSourceDigest().digest(content.getBytes(StandardCharsets.UTF_8));
+		return new DocumentIndex(new DocumentIndexWriter(termExtractor.getTerms()).toByteBuffer(content.length(), sourceDigest));
+	}
+
+	private CorpusIndex createCorpusIndex() throws IOException {
+		CorpusIndex corpusIndex = new CorpusIndex();
+		corpusIndex.addDocument("D_1", createIndex("The cat sat on the mat."));
+		corpusIndex.addDocument("D_2", createIndex("The dog sat on the cat, the cat did not like it."));
+		corpusIndex.addDocument("D_3", createIndex("Warnung: Achtung!"));
+		return corpusIndex;
+	}
+
+	@Test
+	void testCandidateDocuments() throws IOException {
+		CorpusIndex corpusIndex = createCorpusIndex();
+
+		assertEquals(Arrays.asList("D_1", "D_2"), corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments("cat")));
+		assertEquals(Collections.singletonList("D_2"), corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments("dog")));
+		assertEquals(
+				Collections.singletonList("D_3"),
+				corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments(WildcardTermPattern.compile("%ung")))
+		);
+		assertEquals(
+				Arrays.asList("D_1", "D_2"),
+				corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments(WildcardTermPattern.compile("s%")))
+		);
+		// only D_2 contains terms that occur more than once
+		assertEquals(Collections.singletonList("D_2"), corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments(freq -> freq >= 2)));
+		// candidates are restricted to the given documents
+		assertEquals(Collections.singletonList("D_2"), corpusIndex.filter(Arrays.asList("D_2", "D_3"), corpusIndex.getDocuments("cat")));
+	}
+
+	@Test
+	void testRemoveAndPersist() throws IOException {
+		CorpusIndex corpusIndex = createCorpusIndex();
+		corpusIndex.removeDocument("D_1");
+
+		assertNull(corpusIndex.getDocumentRevision("D_1"));
+		assertEquals(Collections.singletonList("D_2"), corpusIndex.filter(DOCUMENT_IDS, corpusIndex.getDocuments("cat")));
+		assertTrue(corpusIndex.getDocuments("mat").isEmpty());
+
+		File indexFile = File.createTempFile("corpusindex", ".cidx");
+		try {
+			corpusIndex.write(indexFile);
+			assertFalse(corpusIndex.isModified());
+
+			CorpusIndex loadedCorpusIndex = CorpusIndex.load(indexFile);
+
+			assertEquals(2, loadedCorpusIndex.getDocumentCount());
+			assertEquals(corpusIndex.getTermCount(), loadedCorpusIndex.getTermCount());
+			assertEquals(corpusIndex.getDocumentRevision("D_2"), loadedCorpusIndex.getDocumentRevision("D_2"));
+			assertEquals(Collections.singletonList("D_2"), loadedCorpusIndex.filter(DOCUMENT_IDS, loadedCorpusIndex.getDocuments("cat")));
+			assertEquals(Collections.singletonList("D_3"), loadedCorpusIndex.filter(DOCUMENT_IDS, loadedCorpusIndex.getDocuments("Achtung")));
+
+			// adding to a loaded index continues the document numbering
+			loadedCorpusIndex.addDocument("D_1", createIndex("The cat sat on the mat."));
+			assertEquals(Arrays.asList("D_1", "D_2"), loadedCorpusIndex.filter(DOCUMENT_IDS, loadedCorpusIndex.getDocuments("cat")));
+		}
+		finally {
+			indexFile.delete();
+		}
+	}
+}
@@ -0,0 +1,324 @@
+package de.catma.repository.git.graph.lazy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.indexer.DocumentIndex;
+import de.catma.indexer.DocumentIndexWriter;
+import de.catma.indexer.SpanContext;
+import de.catma.indexer.SpanDirection;
+import de.catma.indexer.TermExtractor;
+import de.catma.indexer.TermInfo;
+import de.catma.indexer.IndexedProject;
+import de.catma.queryengine.CompareOperator;
+import de.catma.queryengine.FreqQuery;
+import de.catma.queryengine.MatchMode;
+import de.catma.queryengine.Phrase;
+import de.catma.queryengine.Query;
+import de.catma.queryengine.QueryId;
+import de.catma.queryengine.QueryOptions;
+import de.catma.queryengine.QueryRefinement;
+import de.catma.queryengine.SimilQuery;
+import de.catma.queryengine.result.GroupedQueryResult;
+import de.catma.queryengine.result.PagedQueryResult;
+import de.catma.queryengine.result.PhraseResult;
+import de.catma.queryengine.result.QueryResult;
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.QueryResultRowArray;
+
+class LazyGraphProjectIndexerTest {
+
+	private static final String DOCUMENT_ID = "D_1";
+	private static final String CONTENT = "The cat sat on the mat. The cat, however, did not sit on the dog. Then the cat slept.";
+
+	private DocumentIndex documentIndex;
+	private SharedDocumentIndexCache documentIndexCache;
+	private LazyGraphProjectIndexer indexer;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		TermExtractor termExtractor = new TermExtractor(CONTENT, Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH);
+		byte[] sourceDigest = DocumentIndexWriter.createSourceDigest().digest(CONTENT.getBytes(StandardCharsets.UTF_8));
+		documentIndex = new DocumentIndex(
+				new DocumentIndexWriter(termExtractor.getTerms()).toByteBuffer(CONTENT.length(), sourceDigest)
+		);
+
+		documentIndexCache = new SharedDocumentIndexCache(1024 * 1024);
+		indexer = new LazyGraphProjectIndexer("P_1", documentIndexCache, null, null, documentId -> documentIndex, null, null);
+	}
+
+	private Set<String> toPhrases(QueryResult result) {
+		Set<String> phrases = new HashSet<>();
+		for (QueryResultRow row : result) {
+			phrases.add(CONTENT.substring(row.getRange().getStartPoint(), row.getRange().getEndPoint()) + "@" + row.getRange().getStartPoint());
+		}
+		return phrases;
+	}
+
+	@Test
+	void testSearchPhrase() throws Exception {
+		QueryId queryId = new QueryId("test");
+
+		QueryResult result = indexer.searchPhrase(
+				queryId, Collections.singletonList(DOCUMENT_ID), "the cat", Arrays.asList("the", "cat"), 0
+		);
+		assertEquals(Collections.singleton("the cat@71"), toPhrases(result));
+
+		assertEquals(0, indexer.searchPhrase(
+				queryId, Collections.singletonList(DOCUMENT_ID), "the bird", Arrays.asList("the", "bird"), 0
+		).size());
+	}
+
+	@Test
+	void testSearchWildcardPhrase() throws Exception {
+		QueryResult result = indexer.searchWildcardPhrase(
+				new QueryId("test"), Collections.singletonList(DOCUMENT_ID), Arrays.asList("%he", "cat"), 0
+		);
+		assertEquals(
+				Arrays.stream(new String[] {"The cat@0", "The cat@24", "the cat@71"}).collect(Collectors.toSet()),
+				toPhrases(result)
+		);
+	}
+
+	@Test
+	void testSearchPrefixWildcardPhrase() throws Exception {
+		QueryId queryId = new QueryId("test");
+
+		QueryResult result = indexer.searchWildcardPhrase(
+				queryId, Collections.singletonList(DOCUMENT_ID), Arrays.asList("s%", "on"), 0
+		);
+		assertEquals(new HashSet<>(Arrays.asList("sat on@8", "sit on@50")), toPhrases(result));
+
+		result = indexer.searchWildcardPhrase(queryId, Collections.singletonList(DOCUMENT_ID), Arrays.asList("s_t", "%"), 0);
+		assertEquals(new HashSet<>(Arrays.asList("sat on@8", "sit on@50")), toPhrases(result));
+
+		result = indexer.searchWildcardPhrase(queryId, Collections.singletonList(DOCUMENT_ID), Arrays.asList("cat", "x%"), 0);
+		assertTrue(toPhrases(result).isEmpty());
+	}
+
+	@Test
+	void testSearchFrequency() throws Exception {
+		QueryResult result = indexer.searchFrequency(
+				new QueryId("test"), Collections.singletonList(DOCUMENT_ID), CompareOperator.EQUAL, 3, null, 0
+		);
+		List<String> literals = result.asQueryResultRowArray().stream().map(QueryResultRow::getPhrase).distinct().sorted().collect(Collectors.toList());
+		assertEquals(Arrays.asList(".", "cat", "the"), literals);
+	}
+
+	@Test
+	void testPagedFrequencyResult() throws Exception {
+		List<String> documentIds = Arrays.asList("D_1", "D_2");
+		QueryResult result = indexer.searchFrequency(
+				new QueryId("test"), documentIds, CompareOperator.EQUAL, 3, null, 0
+		);
+
+		QueryResultRowArray rows = result.asQueryResultRowArray();
+		assertEquals(rows.size(), result.size());
+		assertEquals(18, rows.size());
+
+		List<QueryResultRow> iteratedRows = new ArrayList<>();
+		result.forEach(iteratedRows::add);
+		assertEquals(rows, iteratedRows);
+
+		for (GroupedQueryResult groupedQueryResult : result.asGroupedSet()) {
+			PhraseResult expected = new PhraseResult(groupedQueryResult.getGroup());
+			rows.stream().filter(row -> row.getPhrase().equals(groupedQueryResult.getGroup())).forEach(expected::add);
+
+			assertEquals(expected.getTotalFrequency(), groupedQueryResult.getTotalFrequency());
+			assertEquals(expected.getSourceDocumentIDs(), groupedQueryResult.getSourceDocumentIDs());
+			for (String documentId : documentIds) {
+				assertEquals(3, groupedQueryResult.getFrequency(documentId));
+				assertEquals(3, groupedQueryResult.getSubResult(documentId).getTotalFrequency());
+			}
+
+			List<QueryResultRow> groupRows = new ArrayList<>();
+			groupedQueryResult.forEach(groupRows::add);
+			assertEquals(expected.getTotalFrequency(), groupRows.size());
+			groupRows.forEach(row -> assertTrue(expected.contains(row)));
+		}
+	}
+
+	@Test
+	void testSearchTypes() throws Exception {
+		List<String> documentIds = Arrays.asList("D_1", "D_2");
+		QueryId queryId = new QueryId("test");
+
+		QueryResult result = indexer.searchTypes(queryId, documentIds, type -> type.startsWith("s"));
+
+		Set<QueryResultRow> expected = indexer.searchFrequency(queryId, documentIds, CompareOperator.GREATERTHAN, 0, null, 0)
+				.asQueryResultRowArray().stream().filter(row -> row.getPhrase().startsWith("s")).collect(Collectors.toSet());
+
+		assertEquals(expected, new HashSet<>(result.asQueryResultRowArray()));
+		assertEquals(6, result.size()); // sat, sit and slept in each document
+	}
+
+	@Test
+	void testSpanContext() throws Exception {
+		SpanContext spanContext = indexer.getSpanContextFor(DOCUMENT_ID, new Range(28, 31), 2, SpanDirection.BOTH);
+
+		assertEquals(
+				Arrays.asList(".", "The"),
+				spanContext.getBackwardTokens().stream().map(TermInfo::getTerm).collect(Collectors.toList())
+		);
+		assertEquals(
+				Arrays.asList(",", "however"),
+				spanContext.getForwardTokens().stream().map(TermInfo::getTerm).collect(Collectors.toList())
+		);
+		assertEquals(new Range(22, 23), spanContext.getBackwardTokens().get(0).getRange());
+	}
+
+	@Test
+	void testSearchCollocation() throws Exception {
+		QueryId queryId = new QueryId("test");
+		List<String> documentIds = Collections.singletonList(DOCUMENT_ID);
+
+		QueryResult cats = indexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+		QueryResult sats = indexer.searchPhrase(queryId, documentIds, "sat", Collections.singletonList("sat"), 0);
+		QueryResult thes = indexer.searchWildcardPhrase(queryId, documentIds, Collections.singletonList("%he"), 0);
+
+		assertEquals(Collections.singleton("cat@4"), toPhrases(indexer.searchCollocation(queryId, cats, sats, 1, SpanDirection.BOTH)));
+		// matching rows are returned in the order of the base result
+		assertEquals(
+				Arrays.asList("The@0", "The@24", "the@71"),
+				indexer.searchCollocation(queryId, thes, cats, 1, SpanDirection.BOTH).asQueryResultRowArray().stream()
+					.map(row -> CONTENT.substring(row.getRange().getStartPoint(), row.getRange().getEndPoint()) + "@" + row.getRange().getStartPoint())
+					.collect(Collectors.toList())
+		);
+	}
+
+	@Test
+	void testIndexIsSharedBetweenIndexers() throws Exception {
+		AtomicInteger indexRequests = new AtomicInteger();
+		LazyGraphProjectIndexer otherIndexer = new LazyGraphProjectIndexer(
+				"P_1", documentIndexCache, null, null, documentId -> {
+					indexRequests.incrementAndGet();
+					return documentIndex;
+				}, null, null
+		);
+
+		QueryId queryId = new QueryId("test");
+		List<String> documentIds = Collections.singletonList(DOCUMENT_ID);
+
+		indexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+		QueryResult result = otherIndexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+		otherIndexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+
+		assertEquals(3, result.asQueryResultRowArray().size());
+		assertEquals(1, documentIndexCache.getEntryCount());
+		assertEquals(1, documentIndexCache.getStats().missCount());
+		assertEquals(2, documentIndexCache.getStats().hitCount());
+		assertTrue(documentIndexCache.getSizeInBytes() > 0);
+		// the revision has to be looked up once per indexer, the token store is loaded only once
+		assertEquals(1, indexRequests.get());
+	}
+
+	@Test
+	void testIndexAboveASegmentShareIsCached() throws Exception {
+		QueryId queryId = new QueryId("test");
+		List<String> documentIds = Collections.singletonList(DOCUMENT_ID);
+
+		indexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+		long indexSize = documentIndexCache.getSizeInBytes();
+
+		// with Guava's default four segments an index above a quarter of the maximum would never be cached
+		SharedDocumentIndexCache smallCache = new SharedDocumentIndexCache(3 * indexSize);
+		LazyGraphProjectIndexer otherIndexer = new LazyGraphProjectIndexer(
+				"P_1", smallCache, null, null, documentId -> documentIndex, null, null
+		);
+		otherIndexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+		otherIndexer.searchPhrase(queryId, documentIds, "cat", Collections.singletonList("cat"), 0);
+
+		assertEquals(1, smallCache.getEntryCount());
+		assertEquals(1, smallCache.getStats().hitCount());
+		assertEquals(indexSize, smallCache.getSizeInBytes());
+	}
+
+	@Test
+	void testParallelSearchKeepsDocumentOrder() throws Exception {
+		List<String> documentIds = Arrays.asList("D_1", "D_2", "D_3", "D_4");
+		QueryId queryId = new QueryId("test");
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			QueryResult result = pool.submit(
+					() -> indexer.searchPhrase(queryId, documentIds, "the cat", Arrays.asList("the", "cat"), 0)
+			).get();
+
+			assertEquals(
+					documentIds,
+					result.asQueryResultRowArray().stream().map(QueryResultRow::getSourceDocumentId).collect(Collectors.toList())
+			);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	private QueryOptions createQueryOptions() {
+		IndexedProject project = (IndexedProject) Proxy.newProxyInstance(
+				IndexedProject.class.getClassLoader(),
+				new Class<?>[] {IndexedProject.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("getIndexer")) {
+						return indexer;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				}
+		);
+		return new QueryOptions(
+				new QueryId("test"), Collections.singletonList(DOCUMENT_ID),
+				Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH, project
+		);
+	}
+
+	private List<String> getRefinedPhrases(Query query) throws Exception {
+		QueryOptions queryOptions = createQueryOptions();
+		query.setQueryOptions(queryOptions);
+		query.setRefinement(new QueryRefinement(new Phrase("\"cat\""), MatchMode.EXACT.name()));
+
+		return query.getResult().asQueryResultRowArray().stream()
+				.map(row -> row.getPhrase() + "@" + row.getRange().getStartPoint())
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	void testRefineFrequencyQuery() throws Exception {
+		FreqQuery freqQuery = new FreqQuery("=", "3");
+		freqQuery.setQueryOptions(createQueryOptions());
+		assertTrue(freqQuery.getResult() instanceof PagedQueryResult);
+
+		assertEquals(Arrays.asList("cat@28", "cat@4", "cat@75"), getRefinedPhrases(new FreqQuery("=", "3")));
+	}
+
+	@Test
+	void testRefineSimilarityQuery() throws Exception {
+		SimilQuery similQuery = new SimilQuery(new Phrase("\"cat\""), "60");
+		similQuery.setQueryOptions(createQueryOptions());
+		QueryResult result = similQuery.getResult();
+		assertTrue(result instanceof PagedQueryResult);
+		assertTrue(result.asQueryResultRowArray().stream().anyMatch(row -> row.getPhrase().equals("sat")));
+
+		assertEquals(
+				Arrays.asList("cat@28", "cat@4", "cat@75"),
+				getRefinedPhrases(new SimilQuery(new Phrase("\"cat\""), "60"))
+		);
+	}
+}
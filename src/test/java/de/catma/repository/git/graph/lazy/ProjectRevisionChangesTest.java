@@ -0,0 +1,121 @@
+package de.catma.repository.git.graph.lazy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.junit.jupiter.api.Test;
+
+class ProjectRevisionChangesTest {
+
+	private static DiffEntry createDiffEntry(ChangeType type, String oldFilePath, String newFilePath) {
+		return new DiffEntry() {
+			{
+				changeType = type;
+				oldPath = oldFilePath;
+				newPath = newFilePath;
+			}
+		};
+	}
+
+	private static DiffEntry add(String path) {
+		return createDiffEntry(ChangeType.ADD, DiffEntry.DEV_NULL, path);
+	}
+
+	private static DiffEntry modify(String path) {
+		return createDiffEntry(ChangeType.MODIFY, path, path);
+	}
+
+	private static DiffEntry delete(String path) {
+		return createDiffEntry(ChangeType.DELETE, path, DiffEntry.DEV_NULL);
+	}
+
+	@Test
+	void testNoChanges() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Collections.<DiffEntry>emptyList());
+
+		assertTrue(changes.isEmpty());
+		assertFalse(changes.isTagsetsChanged());
+		assertFalse(changes.isCollectionHeadersChanged());
+	}
+
+	@Test
+	void testAnnotationPageChangesKeepCollectionReferences() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Arrays.asList(
+				modify("collections/C_1/annotations/user_0.json"),
+				add("collections/C_2/annotations/user_1.json"),
+				delete("collections/C_3/annotations/user_0.json")
+		));
+
+		assertFalse(changes.isEmpty());
+		assertEquals(new HashSet<>(Arrays.asList("C_1", "C_2", "C_3")), changes.getCollectionIds());
+		assertFalse(changes.isCollectionHeadersChanged());
+		assertFalse(changes.isTagsetsChanged());
+		assertTrue(changes.getDocumentIds().isEmpty());
+	}
+
+	@Test
+	void testCollectionHeaderChanges() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Arrays.asList(
+				modify("collections/C_1/header.json")
+		));
+		assertEquals(Collections.singleton("C_1"), changes.getCollectionIds());
+		assertTrue(changes.isCollectionHeadersChanged());
+
+		changes = ProjectRevisionChanges.of(Arrays.asList(
+				delete("collections/C_2/header.json"),
+				delete("collections/C_2/annotations/user_0.json")
+		));
+		assertEquals(Collections.singleton("C_2"), changes.getCollectionIds());
+		assertTrue(changes.isCollectionHeadersChanged());
+	}
+
+	@Test
+	void testDocumentChanges() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Arrays.asList(
+				add("documents/D_1/header.json"),
+				add("documents/D_1/D_1.txt"),
+				modify("documents/D_2/D_2.txt"),
+				delete("documents/D_3/header.json"),
+				delete("documents/D_3/D_3.txt")
+		));
+
+		assertEquals(new HashSet<>(Arrays.asList("D_1", "D_2", "D_3")), changes.getDocumentIds());
+		assertFalse(changes.isDocumentRemoved("D_1"));
+		assertFalse(changes.isDocumentRemoved("D_2"));
+		assertTrue(changes.isDocumentRemoved("D_3"));
+		assertTrue(changes.getCollectionIds().isEmpty());
+	}
+
+	@Test
+	void testTagsetChangesAndIgnoredPaths() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Arrays.asList(
+				modify("tagsets/T_1/header.json"),
+				modify("README.md"),
+				modify("collections/header.json"),
+				modify("other/X_1/file.json")
+		));
+
+		assertTrue(changes.isTagsetsChanged());
+		assertTrue(changes.getDocumentIds().isEmpty());
+		assertTrue(changes.getCollectionIds().isEmpty());
+		assertFalse(changes.isCollectionHeadersChanged());
+	}
+
+	@Test
+	void testRenameCountsForBothPaths() {
+		ProjectRevisionChanges changes = ProjectRevisionChanges.of(Arrays.asList(
+				createDiffEntry(
+						ChangeType.RENAME, "collections/C_1/annotations/user_0.json", "collections/C_2/annotations/user_0.json"
+				)
+		));
+
+		assertEquals(new HashSet<>(Arrays.asList("C_1", "C_2")), changes.getCollectionIds());
+	}
+}
@@ -1,7 +1,22 @@
 package de.catma.repository.git.managers;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.junit.jupiter.api.*;
 
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
@@ -9,6 +24,9 @@ import de.catma.user.User;
 
 class JGitRepoManagerTest {
 
+	private File repositoryBasePath;
+	private File repositoryPath;
+
 	@BeforeAll
 	static void setUpBeforeClass() throws Exception {
 	}
@@ -19,10 +37,111 @@ class JGitRepoManagerTest {
 
 	@BeforeEach
 	void setUp() throws Exception {
+		repositoryBasePath = Files.createTempDirectory("jgitrepomanagertest").toFile();
+		repositoryPath = new File(repositoryBasePath, "tester/namespace/project");
+
+		try (Git git = Git.init().setDirectory(repositoryPath).call()) {
+			Files.write(new File(repositoryPath, "existing.txt").toPath(), "existing".getBytes(StandardCharsets.UTF_8));
+			git.add().addFilepattern(".").call();
+			git.commit().setMessage("Initial commit").setCommitter("tester", "tester@catma.de").call();
+		}
 	}
 
 	@AfterEach
 	void tearDown() throws Exception {
+		FileUtils.deleteDirectory(repositoryBasePath);
+	}
+
+	private JGitRepoManager openRepoManager() throws IOException {
+		JGitRepoManager repoManager = new JGitRepoManager(
+			repositoryBasePath.getAbsolutePath(),
+			new User() {
+				@Override
+				public Long getUserId() {return null;}
+				@Override
+				public String getName() {return null;}
+				@Override
+				public String getEmail() {return null;}
+				
+				@Override
+				public String getIdentifier() {
+					return "tester";
+				}
+				
+			});
+		repoManager.open("namespace", "project");
+		return repoManager;
+	}
+
+	private int countFiles(Git git, String revision) throws IOException {
+		try (RevWalk revWalk = new RevWalk(git.getRepository()); TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+			treeWalk.addTree(revWalk.parseCommit(git.getRepository().resolve(revision)).getTree());
+			treeWalk.setRecursive(true);
+
+			int count = 0;
+			while (treeWalk.next()) {
+				count++;
+			}
+			return count;
+		}
+	}
+
+	@Test
+	void testAddAndCommitBatch() throws Exception {
+		try (JGitRepoManager repoManager = openRepoManager()) {
+			String oldRevisionHash = repoManager.getRevisionHash();
+
+			Map<File, byte[]> contentsByTargetFile = new LinkedHashMap<>();
+			for (int i = 0; i < 20; i++) {
+				contentsByTargetFile.put(
+						new File(repositoryPath, String.format("tagsets/T_1/tag_%d/propertydefs.json", i)),
+						String.format("{\"tag\": %d}", i).getBytes(StandardCharsets.UTF_8)
+				);
+			}
+
+			String revisionHash = repoManager.addAndCommit(contentsByTargetFile, "Batch", "tester", "tester@catma.de");
+
+			assertNotEquals(oldRevisionHash, revisionHash);
+			assertEquals(revisionHash, repoManager.getRevisionHash());
+
+			Git git = repoManager.getGitApi();
+			assertEquals(21, countFiles(git, Constants.HEAD));
+
+			try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+				RevCommit commit = revWalk.parseCommit(git.getRepository().resolve(revisionHash));
+				assertEquals(1, commit.getParentCount());
+				assertEquals(oldRevisionHash, commit.getParent(0).getName());
+				assertEquals("Batch", commit.getFullMessage());
+				assertEquals("tester", commit.getCommitterIdent().getName());
+			}
+
+			// the worktree and the index have to agree with the new commit
+			Status status = git.status().call();
+			assertTrue(status.isClean(), status.getUncommittedChanges().toString() + status.getUntracked());
+			assertEquals(
+					"{\"tag\": 7}",
+					new String(Files.readAllBytes(new File(repositoryPath, "tagsets/T_1/tag_7/propertydefs.json").toPath()), StandardCharsets.UTF_8)
+			);
+
+			// writing the same content again doesn't produce an empty commit
+			assertEquals(revisionHash, repoManager.addAndCommit(contentsByTargetFile, "Batch again", "tester", "tester@catma.de"));
+		}
+	}
+
+	@Test
+	void testAddAllAndCommit() throws Exception {
+		try (JGitRepoManager repoManager = openRepoManager()) {
+			Files.write(new File(repositoryPath, "new.txt").toPath(), "new".getBytes(StandardCharsets.UTF_8));
+			assertTrue(new File(repositoryPath, "existing.txt").delete());
+
+			String revisionHash = repoManager.addAllAndCommit("All", "tester", "tester@catma.de", false);
+
+			Git git = repoManager.getGitApi();
+			assertEquals(1, countFiles(git, revisionHash));
+			assertTrue(git.status().call().isClean());
+
+			assertEquals(revisionHash, repoManager.addAllAndCommit("Nothing", "tester", "tester@catma.de", false));
+		}
 	}
 
 	@Test
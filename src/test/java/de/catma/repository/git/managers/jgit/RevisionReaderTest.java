@@ -0,0 +1,142 @@
+package de.catma.repository.git.managers.jgit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RevisionReaderTest {
+
+	private File repositoryPath;
+	private String firstCommitHash;
+	private String secondCommitHash;
+
+	private void writeFile(String path, String content) throws IOException {
+		File file = new File(repositoryPath, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repositoryPath = Files.createTempDirectory("revisionreadertest").toFile();
+
+		try (Git git = Git.init().setDirectory(repositoryPath).call()) {
+			writeFile("readme.txt", "first");
+			writeFile("tagsets/TS_1/header.json", "{\"name\":\"TS_1\"}");
+			writeFile("tagsets/TS_1/T_1/propertydefs.json", "T_1");
+			writeFile("tagsets/TS_1/T_1/T_2/propertydefs.json", "T_2");
+			writeFile("tagsets/TS_2/header.json", "{\"name\":\"TS_2\"}");
+			git.add().addFilepattern(".").call();
+			firstCommitHash = git.commit().setMessage("First commit").setCommitter("tester", "tester@catma.de").call().getName();
+
+			writeFile("readme.txt", "second");
+			FileUtils.deleteDirectory(new File(repositoryPath, "tagsets/TS_2"));
+			writeFile("tagsets/TS_3/header.json", "{\"name\":\"TS_3\"}");
+			git.add().addFilepattern(".").call();
+			git.add().setUpdate(true).addFilepattern(".").call();
+			secondCommitHash = git.commit().setMessage("Second commit").setCommitter("tester", "tester@catma.de").call().getName();
+
+			// uncommitted changes in the worktree must not be visible to the reader
+			writeFile("readme.txt", "uncommitted");
+			writeFile("tagsets/TS_4/header.json", "{\"name\":\"TS_4\"}");
+		}
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		FileUtils.deleteDirectory(repositoryPath);
+	}
+
+	private String readFile(RevisionReader revisionReader, String path) throws IOException {
+		try (InputStream inputStream = revisionReader.openFile(path)) {
+			return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	void testExistsAndIsDirectory() throws Exception {
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, firstCommitHash)) {
+			assertTrue(revisionReader.exists("readme.txt"));
+			assertTrue(revisionReader.exists("tagsets/TS_1"));
+			assertTrue(revisionReader.exists("tagsets/TS_1/T_1/T_2/propertydefs.json"));
+			assertTrue(revisionReader.exists("tagsets/TS_2/header.json"));
+			assertFalse(revisionReader.exists("tagsets/TS_3"));
+			assertFalse(revisionReader.exists("tagsets/TS_4"));
+
+			assertTrue(revisionReader.isDirectory("tagsets"));
+			assertTrue(revisionReader.isDirectory("tagsets/TS_1/T_1"));
+			assertFalse(revisionReader.isDirectory("readme.txt"));
+			assertFalse(revisionReader.isDirectory("tagsets/TS_3"));
+		}
+	}
+
+	@Test
+	void testListDirectories() throws Exception {
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, firstCommitHash)) {
+			assertEquals(Arrays.asList("TS_1", "TS_2"), revisionReader.listDirectories("tagsets"));
+			// not recursive
+			assertEquals(Collections.singletonList("T_1"), revisionReader.listDirectories("tagsets/TS_1"));
+			assertEquals(Collections.emptyList(), revisionReader.listDirectories("tagsets/TS_2"));
+			assertEquals(Collections.emptyList(), revisionReader.listDirectories("readme.txt"));
+			assertEquals(Collections.emptyList(), revisionReader.listDirectories("collections"));
+		}
+
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, "HEAD")) {
+			assertEquals(Arrays.asList("TS_1", "TS_3"), revisionReader.listDirectories("tagsets"));
+		}
+	}
+
+	@Test
+	void testListFiles() throws Exception {
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, firstCommitHash)) {
+			// recursive, directories themselves are not listed
+			List<String> expectedFiles = Arrays.asList(
+					"tagsets/TS_1/T_1/T_2/propertydefs.json",
+					"tagsets/TS_1/T_1/propertydefs.json",
+					"tagsets/TS_1/header.json"
+			);
+			assertEquals(expectedFiles, revisionReader.listFiles("tagsets/TS_1"));
+			assertEquals(Collections.singletonList("tagsets/TS_2/header.json"), revisionReader.listFiles("tagsets/TS_2"));
+			assertEquals(Collections.emptyList(), revisionReader.listFiles("tagsets/TS_3"));
+		}
+	}
+
+	@Test
+	void testOpenFileOfNonHeadRevision() throws Exception {
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, firstCommitHash)) {
+			assertEquals(firstCommitHash, revisionReader.getCommitHash());
+			assertEquals("first", readFile(revisionReader, "readme.txt"));
+			assertEquals("{\"name\":\"TS_2\"}", readFile(revisionReader, "tagsets/TS_2/header.json"));
+			assertEquals(5, revisionReader.getFileSize("readme.txt"));
+
+			assertThrows(FileNotFoundException.class, () -> revisionReader.openFile("tagsets/TS_3/header.json"));
+			assertThrows(FileNotFoundException.class, () -> revisionReader.openFile("tagsets/TS_1"));
+		}
+
+		try (RevisionReader revisionReader = RevisionReader.open(repositoryPath, "HEAD")) {
+			assertEquals(secondCommitHash, revisionReader.getCommitHash());
+			assertEquals("second", readFile(revisionReader, "readme.txt"));
+			assertFalse(revisionReader.exists("tagsets/TS_2/header.json"));
+		}
+	}
+
+	@Test
+	void testUnknownRevision() {
+		assertThrows(IOException.class, () -> RevisionReader.open(repositoryPath, "unknown"));
+	}
+}
@@ -0,0 +1,326 @@
+package de.catma.repository.git.resource.provider;
+
+import static de.catma.repository.git.serialization.AnnotationPageFixture.createAnnotation;
+import static de.catma.repository.git.serialization.AnnotationPageFixture.createPage;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.catma.backgroundservice.ProgressListener;
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.TagReference;
+import de.catma.project.ProjectReference;
+import de.catma.properties.CATMAProperties;
+import de.catma.repository.git.GitAnnotationCollectionHandler;
+import de.catma.repository.git.GitProjectHandler;
+import de.catma.repository.git.GitTagsetHandler;
+import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
+import de.catma.repository.git.managers.interfaces.RemoteGitManagerRestricted;
+import de.catma.repository.git.serialization.SerializationHelper;
+import de.catma.repository.git.serialization.model_wrappers.GitTagDefinition;
+import de.catma.repository.git.serialization.models.GitMarkupCollectionHeader;
+import de.catma.repository.git.serialization.models.GitTagsetHeader;
+import de.catma.tag.TagDefinition;
+import de.catma.tag.TagLibrary;
+import de.catma.tag.TagsetDefinition;
+
+class LatestContributionsResourceProviderTest {
+
+	private static final String USER_BRANCH = "master";
+	private static final ProgressListener NO_PROGRESS = (value, args) -> {};
+
+	private File repositoryPath;
+	private Git git;
+	private Set<LatestContribution> latestContributions;
+	private LocalGitRepositoryManager localGitRepositoryManager;
+	private RemoteGitManagerRestricted remoteGitManagerRestricted;
+	private LatestContributionsResourceProvider provider;
+
+	@BeforeAll
+	static void setUpProperties() {
+		if (CATMAProperties.INSTANCE.getProperties() == null) {
+			CATMAProperties.INSTANCE.setProperties(new Properties());
+		}
+	}
+
+	private void writeFile(String path, String content) throws IOException {
+		File file = new File(repositoryPath, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void writeTagset(String tagsetId) throws IOException {
+		writeFile(
+				String.format("%s/%s/header.json", GitProjectHandler.TAGSETS_DIRECTORY_NAME, tagsetId),
+				new SerializationHelper<GitTagsetHeader>().serialize(
+						new GitTagsetHeader(tagsetId, "", "tester", null, new TreeSet<>())
+				)
+		);
+	}
+
+	private void writeTag(String tagsetId, String tagId) throws IOException {
+		writeFile(
+				String.format("%s/%s/%s/propertydefs.json", GitProjectHandler.TAGSETS_DIRECTORY_NAME, tagsetId, tagId),
+				new SerializationHelper<GitTagDefinition>().serialize(
+						new GitTagDefinition(new TagDefinition(tagId, tagId, null, tagsetId))
+				)
+		);
+	}
+
+	private void writeCollection(String collectionId) throws IOException {
+		writeFile(
+				String.format("%s/%s/header.json", GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME, collectionId),
+				new SerializationHelper<GitMarkupCollectionHeader>().serialize(
+						new GitMarkupCollectionHeader(collectionId, "", "tester", null, "D_1")
+				)
+		);
+	}
+
+	private void writePage(String collectionId, String pageFilename, int... annotationNumbers) throws IOException {
+		String[] annotations = new String[annotationNumbers.length];
+		for (int i = 0; i < annotationNumbers.length; i++) {
+			annotations[i] = createAnnotation(annotationNumbers[i], "value " + annotationNumbers[i]);
+		}
+		writeFile(
+				String.format(
+						"%s/%s/%s/%s",
+						GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME,
+						collectionId,
+						GitAnnotationCollectionHandler.ANNNOTATIONS_DIR,
+						pageFilename
+				),
+				createPage(annotations)
+		);
+	}
+
+	private void commit(String message) throws Exception {
+		git.add().addFilepattern(".").call();
+		git.commit().setMessage(message).setCommitter("tester", "tester@catma.de").call();
+	}
+
+	private void createContributionBranch(String branch) throws Exception {
+		git.checkout().setCreateBranch(true).setName(branch).setStartPoint(USER_BRANCH).call();
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repositoryPath = Files.createTempDirectory("latestcontributionstest").toFile();
+		git = Git.init().setDirectory(repositoryPath).call();
+
+		writeTagset("TS_1");
+		writeTag("TS_1", "T_1");
+		writeCollection("C_1");
+		writePage("C_1", "tester_00000.json", 0, 1);
+		commit("User's resources");
+
+		createContributionBranch("alice");
+		writeTag("TS_1", "T_2");
+		writeTagset("TS_2");
+		writeTag("TS_2", "T_3");
+		writePage("C_1", "alice_00000.json", 2);
+		writeCollection("C_2");
+		writePage("C_2", "alice_00000.json", 3);
+		commit("Alice's contributions");
+
+		createContributionBranch("bob");
+		writeTag("TS_1", "T_4");
+		// annotation 1 exists on the user's branch already
+		writePage("C_1", "bob_00000.json", 1, 4);
+		commit("Bob's contributions");
+
+		git.checkout().setName(USER_BRANCH).call();
+
+		LatestContribution alice = new LatestContribution("alice");
+		alice.addTagsetId("TS_1");
+		alice.addTagsetId("TS_2");
+		alice.addCollectionId("C_1");
+		alice.addCollectionId("C_2");
+		LatestContribution bob = new LatestContribution("bob");
+		bob.addTagsetId("TS_1");
+		bob.addCollectionId("C_1");
+		latestContributions = new LinkedHashSet<>();
+		latestContributions.add(alice);
+		latestContributions.add(bob);
+
+		localGitRepositoryManager = mock(LocalGitRepositoryManager.class);
+		remoteGitManagerRestricted = mock(RemoteGitManagerRestricted.class);
+		when(remoteGitManagerRestricted.getUsername()).thenReturn("tester");
+		when(remoteGitManagerRestricted.getEmail()).thenReturn("tester@catma.de");
+
+		provider = new LatestContributionsResourceProvider(
+				"P_1",
+				new ProjectReference("P_1", "tester", "Project", ""),
+				repositoryPath,
+				localGitRepositoryManager,
+				remoteGitManagerRestricted,
+				latestContributions
+		);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		git.close();
+		FileUtils.deleteDirectory(repositoryPath);
+	}
+
+	private GitTagsetHandler createTagsetHandler() {
+		return new GitTagsetHandler(localGitRepositoryManager, repositoryPath, "tester", "tester@catma.de");
+	}
+
+	private GitAnnotationCollectionHandler createCollectionHandler() {
+		return new GitAnnotationCollectionHandler(localGitRepositoryManager, repositoryPath, "P_1", "tester", "tester@catma.de");
+	}
+
+	/**
+	 * The tagsets as they used to be loaded, by checking out each contribution branch and reading from the worktree.
+	 */
+	private List<TagsetDefinition> getTagsetsByCheckout() throws Exception {
+		Map<String, TagsetDefinition> tagsetsById = new TreeMap<>();
+		for (String tagsetId : new File(repositoryPath, GitProjectHandler.TAGSETS_DIRECTORY_NAME).list()) {
+			tagsetsById.put(tagsetId, createTagsetHandler().getTagset(tagsetId));
+		}
+
+		for (LatestContribution latestContribution : latestContributions) {
+			git.checkout().setName(latestContribution.getBranch()).call();
+
+			for (String tagsetId : latestContribution.getTagsetIds()) {
+				TagsetDefinition tagsetDefinition = createTagsetHandler().getTagset(tagsetId);
+
+				if (tagsetsById.containsKey(tagsetDefinition.getUuid())) {
+					tagsetsById.get(tagsetDefinition.getUuid()).mergeAdditive(tagsetDefinition);
+				}
+				else {
+					tagsetDefinition.setContribution(true);
+					tagsetsById.put(tagsetDefinition.getUuid(), tagsetDefinition);
+				}
+			}
+		}
+		git.checkout().setName(USER_BRANCH).call();
+
+		return tagsetsById.values().stream().collect(Collectors.toList());
+	}
+
+	/**
+	 * The collections as they used to be loaded, by checking out each contribution branch and reading from the
+	 * worktree.
+	 */
+	private List<AnnotationCollection> getCollectionsByCheckout(TagLibrary tagLibrary) throws Exception {
+		Map<String, AnnotationCollection> collectionsById = new TreeMap<>();
+		for (String collectionId : new File(repositoryPath, GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME).list()) {
+			collectionsById.put(collectionId, createCollectionHandler().getCollection(collectionId, tagLibrary, NO_PROGRESS, false));
+		}
+
+		for (LatestContribution latestContribution : latestContributions) {
+			git.checkout().setName(latestContribution.getBranch()).call();
+
+			for (String collectionId : latestContribution.getCollectionIds()) {
+				AnnotationCollection collection = createCollectionHandler().getCollection(collectionId, tagLibrary, NO_PROGRESS, false);
+				collection.setContribution(true);
+
+				if (collectionsById.containsKey(collection.getId())) {
+					collectionsById.get(collection.getId()).mergeAdditive(collection);
+				}
+				else {
+					collectionsById.put(collection.getId(), collection);
+				}
+			}
+		}
+		git.checkout().setName(USER_BRANCH).call();
+
+		return collectionsById.values().stream().collect(Collectors.toList());
+	}
+
+	private static Map<String, String> describeTagsets(List<TagsetDefinition> tagsets) {
+		Map<String, String> descriptions = new TreeMap<>();
+		for (TagsetDefinition tagset : tagsets) {
+			descriptions.put(
+					tagset.getUuid(),
+					StreamSupport.stream(tagset.spliterator(), false)
+							.map(TagDefinition::getUuid)
+							.sorted()
+							.collect(Collectors.joining(",", "", tagset.isContribution() ? " (contribution)" : ""))
+			);
+		}
+		return descriptions;
+	}
+
+	private static String describeCollection(AnnotationCollection collection) {
+		return collection.getTagReferences().stream()
+				.map(TagReference::getTagInstanceId)
+				.distinct()
+				.sorted()
+				.collect(Collectors.joining(",", "", collection.isContribution() ? " (contribution)" : ""));
+	}
+
+	private static Map<String, String> describeCollections(List<AnnotationCollection> collections) {
+		Map<String, String> descriptions = new TreeMap<>();
+		for (AnnotationCollection collection : collections) {
+			descriptions.put(collection.getId(), describeCollection(collection));
+		}
+		return descriptions;
+	}
+
+	@Test
+	void testTagsetsMatchCheckoutBasedResult() throws Exception {
+		Map<String, String> tagsets = describeTagsets(provider.getTagsets());
+
+		assertEquals(describeTagsets(getTagsetsByCheckout()), tagsets);
+		assertEquals("T_1,T_2,T_4 (contribution)", tagsets.get("TS_1"));
+		assertEquals("T_3 (contribution)", tagsets.get("TS_2"));
+		// the worktree stays on the user's branch
+		assertEquals(USER_BRANCH, git.getRepository().getBranch());
+	}
+
+	@Test
+	void testCollectionsMatchCheckoutBasedResult() throws Exception {
+		Map<String, String> collections = describeCollections(provider.getCollections(new TagLibrary(), NO_PROGRESS, false));
+
+		assertEquals(describeCollections(getCollectionsByCheckout(new TagLibrary())), collections);
+		assertEquals("CATMA_0,CATMA_1,CATMA_2,CATMA_4 (contribution)", collections.get("C_1"));
+		assertEquals("CATMA_3 (contribution)", collections.get("C_2"));
+
+		Map<String, AnnotationCollection> collectionsByCheckout = getCollectionsByCheckout(new TagLibrary()).stream()
+				.collect(Collectors.toMap(AnnotationCollection::getId, collection -> collection));
+		assertEquals(
+				describeCollection(collectionsByCheckout.get("C_1")),
+				describeCollection(provider.getCollection("C_1", new TagLibrary()))
+		);
+		assertEquals(
+				describeCollection(collectionsByCheckout.get("C_2")),
+				describeCollection(provider.getCollection("C_2", new TagLibrary()))
+		);
+	}
+
+	@Test
+	void testCollectionReferencesIncludeContributions() throws Exception {
+		Map<String, Boolean> contributionByCollectionId = new TreeMap<>();
+		provider.getCollectionReferences().forEach(
+				collectionReference -> contributionByCollectionId.put(collectionReference.getId(), collectionReference.isContribution())
+		);
+
+		assertEquals(describeCollections(getCollectionsByCheckout(new TagLibrary())).keySet(), contributionByCollectionId.keySet());
+		assertTrue(contributionByCollectionId.get("C_1"));
+		assertTrue(contributionByCollectionId.get("C_2"));
+	}
+}
@@ -0,0 +1,105 @@
+package de.catma.repository.git.serialization;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import de.catma.document.annotation.TagReference;
+import de.catma.document.source.FileOSType;
+import de.catma.document.source.FileType;
+import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
+
+/**
+ * Compares reading an annotation page into {@link TagReference}s via {@link AnnotationPageCodec} with reading the
+ * whole page into a String and deserializing it into a list with a freshly built Gson instance, which is what
+ * opening a collection used to do.
+ * <p>
+ * Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=de.catma.repository.git.serialization.AnnotationPageCodecBenchmark</code> or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnnotationPageCodecBenchmark {
+
+	@Param({"1000", "10000"})
+	private int annotationCount;
+
+	private File pageFile;
+	private final AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+
+	@Setup
+	public void setUp() throws IOException {
+		pageFile = File.createTempFile("annotationpage", ".json");
+		Files.write(pageFile.toPath(), AnnotationPageFixture.createPage(annotationCount).getBytes(StandardCharsets.UTF_8));
+	}
+
+	@TearDown
+	public void tearDown() {
+		pageFile.delete();
+	}
+
+	@Benchmark
+	public List<TagReference> readWithNewGsonPerPage() throws IOException {
+		String pageContent = new String(Files.readAllBytes(pageFile.toPath()), StandardCharsets.UTF_8);
+
+		Type listType = new TypeToken<ArrayList<JsonLdWebAnnotation>>(){}.getType();
+		GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeAdapter(Charset.class, new CharsetAdapter());
+		gsonBuilder.registerTypeAdapter(Locale.class, new LocaleAdapter());
+		gsonBuilder.registerTypeAdapter(FileOSType.class, new FileOSTypeAdapter());
+		gsonBuilder.registerTypeAdapter(FileType.class, new FileTypeAdapter());
+		gsonBuilder.registerTypeAdapterFactory(new CharsetAdapterFactory());
+		ArrayList<JsonLdWebAnnotation> annotations = gsonBuilder.create().fromJson(pageContent, listType);
+
+		List<TagReference> tagReferences = new ArrayList<>();
+		for (JsonLdWebAnnotation annotation : annotations) {
+			annotation.setPageFilename(pageFile.getName());
+			tagReferences.addAll(annotation.toTagReferences("C_1"));
+		}
+		return tagReferences;
+	}
+
+	@Benchmark
+	public List<TagReference> readWithCodec() throws IOException {
+		List<TagReference> tagReferences = new ArrayList<>();
+		annotationPageCodec.read(pageFile, annotation -> {
+			annotation.setPageFilename(pageFile.getName());
+			tagReferences.addAll(annotation.toTagReferences("C_1"));
+		});
+		return tagReferences;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(AnnotationPageCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,127 @@
+package de.catma.repository.git.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.reflect.TypeToken;
+
+import de.catma.document.annotation.TagReference;
+import de.catma.repository.git.serialization.models.json_ld.JsonLdWebAnnotation;
+
+class AnnotationPageCodecTest {
+
+	private File pageFile;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		pageFile = File.createTempFile("annotationpage", ".json");
+		Files.write(pageFile.toPath(), AnnotationPageFixture.createPage(50).getBytes(StandardCharsets.UTF_8));
+	}
+
+	@AfterEach
+	void tearDown() {
+		pageFile.delete();
+	}
+
+	private List<JsonLdWebAnnotation> readWithSerializationHelper() throws IOException {
+		Type listType = new TypeToken<ArrayList<JsonLdWebAnnotation>>(){}.getType();
+		return new SerializationHelper<ArrayList<JsonLdWebAnnotation>>().deserialize(
+				new String(Files.readAllBytes(pageFile.toPath()), StandardCharsets.UTF_8), listType
+		);
+	}
+
+	@Test
+	void testReadMatchesSerializationHelper() throws IOException {
+		List<JsonLdWebAnnotation> expected = readWithSerializationHelper();
+
+		List<TagReference> tagReferences = new ArrayList<>();
+		new AnnotationPageCodec().read(pageFile, annotation -> tagReferences.addAll(annotation.toTagReferences("C_1")));
+
+		assertEquals(100, tagReferences.size());
+		for (int i = 0; i < expected.size(); i++) {
+			List<TagReference> expectedTagReferences = expected.get(i).toTagReferences("C_1");
+			for (int j = 0; j < expectedTagReferences.size(); j++) {
+				TagReference expectedTagReference = expectedTagReferences.get(j);
+				TagReference tagReference = tagReferences.get(2 * i + j);
+
+				assertEquals(expectedTagReference.getTagInstanceId(), tagReference.getTagInstanceId());
+				assertEquals(expectedTagReference.getRange(), tagReference.getRange());
+				assertEquals(expectedTagReference.getSourceDocumentId(), tagReference.getSourceDocumentId());
+				assertEquals(
+						expectedTagReference.getTagInstance().getUserDefinedProperties().iterator().next().getPropertyValueList(),
+						tagReference.getTagInstance().getUserDefinedProperties().iterator().next().getPropertyValueList()
+				);
+			}
+		}
+	}
+
+	@Test
+	void testWriteMatchesSerializationHelper() throws IOException {
+		AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+		List<JsonLdWebAnnotation> annotations = annotationPageCodec.readAll(pageFile);
+		annotations.remove(3);
+
+		annotationPageCodec.write(pageFile, annotations);
+
+		assertEquals(
+				new SerializationHelper<JsonLdWebAnnotation>().serialize(annotations),
+				new String(Files.readAllBytes(pageFile.toPath()), StandardCharsets.UTF_8)
+		);
+		assertEquals(49, annotationPageCodec.readAll(pageFile).size());
+	}
+
+	@Test
+	void testFailedWriteKeepsPage() throws IOException {
+		AnnotationPageCodec annotationPageCodec = new AnnotationPageCodec();
+		List<JsonLdWebAnnotation> annotations = annotationPageCodec.readAll(pageFile);
+		byte[] content = Files.readAllBytes(pageFile.toPath());
+
+		// fails after the first few annotations have been written
+		AbstractCollection<JsonLdWebAnnotation> failingAnnotations = new AbstractCollection<JsonLdWebAnnotation>() {
+			@Override
+			public Iterator<JsonLdWebAnnotation> iterator() {
+				Iterator<JsonLdWebAnnotation> iterator = annotations.iterator();
+				return new Iterator<JsonLdWebAnnotation>() {
+					private int count = 0;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public JsonLdWebAnnotation next() {
+						if (++count > 5) {
+							throw new IllegalStateException("write interrupted");
+						}
+						return iterator.next();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return annotations.size();
+			}
+		};
+
+		assertThrows(IllegalStateException.class, () -> annotationPageCodec.write(pageFile, failingAnnotations));
+
+		assertArrayEquals(content, Files.readAllBytes(pageFile.toPath()));
+		String[] tempFiles = pageFile.getParentFile().list((dir, name) -> name.startsWith("." + pageFile.getName()));
+		assertEquals(0, tempFiles.length);
+	}
+}
@@ -0,0 +1,67 @@
+package de.catma.repository.git.serialization;
+
+import java.util.StringJoiner;
+
+/**
+ * Creates annotation page files with synthetic annotations, shared by the tests of the serialization and of the page
+ * index.
+ */
+public class AnnotationPageFixture {
+
+	private static final String ANNOTATION_TEMPLATE = "{"
+			+ "\"@context\":\"http://www.w3.org/ns/anno.jsonld\","
+			+ "\"type\":\"Annotation\","
+			+ "\"id\":\"https://git.catma.de/P_1/collections/C_1/annotations/CATMA_%1$d.json\","
+			+ "\"body\":{"
+			+ "\"@context\":{"
+			+ "\"catma_displaycolor\":\"https://git.catma.de/P_1/tagsets/TS_1/T_1/propertydefs.json/PD_1\","
+			+ "\"PD_2\":\"https://git.catma.de/P_1/tagsets/TS_1/T_1/propertydefs.json/PD_2\","
+			+ "\"tag\":\"https://git.catma.de/portal/tag\","
+			+ "\"tagset\":\"https://git.catma.de/portal/tagset\"},"
+			+ "\"tagset\":\"https://git.catma.de/P_1/tagsets/TS_1\","
+			+ "\"tag\":\"https://git.catma.de/P_1/tagsets/TS_1/T_1\","
+			+ "\"properties\":{"
+			+ "\"system\":{\"catma_displaycolor\":[\"-16776961\"]},"
+			+ "\"user\":{\"PD_2\":[%5$s]}},"
+			+ "\"type\":\"Dataset\"},"
+			+ "\"target\":{"
+			+ "\"items\":["
+			+ "{\"source\":\"https://git.catma.de/P_1/documents/D_1\",\"selector\":{\"start\":%2$d,\"end\":%3$d,\"type\":\"TextPositionSelector\"}},"
+			+ "{\"source\":\"https://git.catma.de/P_1/documents/D_1\",\"selector\":{\"start\":%3$d,\"end\":%4$d,\"type\":\"TextPositionSelector\"}}],"
+			+ "\"type\":\"List\"}}";
+
+	/**
+	 * @param number the number of the annotation, its tag instance ID is <code>CATMA_&lt;number&gt;</code>
+	 * @param values the values of the user defined property, as the content of JSON strings, i.e. already escaped
+	 * @return a serialized annotation with two target ranges
+	 */
+	public static String createAnnotation(int number, String... values) {
+		StringJoiner serializedValues = new StringJoiner(",");
+		for (String value : values) {
+			serializedValues.add("\"" + value + "\"");
+		}
+		return String.format(ANNOTATION_TEMPLATE, number, 10 * number, 10 * number + 4, 10 * number + 8, serializedValues);
+	}
+
+	/**
+	 * @return a page containing the given serialized annotations
+	 */
+	public static String createPage(String... annotations) {
+		StringJoiner page = new StringJoiner(",\n", "[\n", "\n]");
+		for (String annotation : annotations) {
+			page.add(annotation);
+		}
+		return page.toString();
+	}
+
+	/**
+	 * @return a page with the given number of annotations, numbered from 0
+	 */
+	public static String createPage(int annotationCount) {
+		String[] annotations = new String[annotationCount];
+		for (int i = 0; i < annotationCount; i++) {
+			annotations[i] = createAnnotation(i, "value " + i, "<b>&'");
+		}
+		return createPage(annotations);
+	}
+}
@@ -0,0 +1,76 @@
+package de.catma.serialization.tei;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+
+class RangeSegmentationTest {
+
+	private List<String> segment(List<Range> ranges, Range range) throws IOException {
+		List<String> segments = new ArrayList<>();
+		RangeSegmentation.forEachSegment(
+				ranges, Function.identity(), range,
+				(segment, items) -> segments.add(segment + "=" + items)
+		);
+		return segments;
+	}
+
+	@Test
+	void testSegments() throws IOException {
+		Range first = new Range(2, 6);
+		Range second = new Range(4, 8);
+		Range outside = new Range(20, 30);
+		Range empty = new Range(5, 5);
+		Range clipped = new Range(8, 15);
+
+		assertEquals(
+				Arrays.asList(
+						new Range(0, 2) + "=[]",
+						new Range(2, 4) + "=" + Arrays.asList(first),
+						new Range(4, 6) + "=" + Arrays.asList(second, first),
+						new Range(6, 8) + "=" + Arrays.asList(second),
+						new Range(8, 10) + "=" + Arrays.asList(clipped)
+				),
+				segment(Arrays.asList(second, outside, empty, first, clipped), new Range(0, 10))
+		);
+	}
+
+	@Test
+	void testSegmentsMatchCoverage() throws IOException {
+		Random random = new Random(42);
+		List<Range> ranges = new ArrayList<>();
+		for (int idx = 0; idx < 200; idx++) {
+			int start = random.nextInt(100);
+			ranges.add(new Range(start, start + 1 + random.nextInt(20)));
+		}
+
+		List<String> expected = new ArrayList<>();
+		for (int point = 0; point < 100; point++) {
+			List<Range> covering = new ArrayList<>();
+			for (Range range : ranges) {
+				if (range.getStartPoint() <= point && point < range.getEndPoint()) {
+					covering.add(range);
+				}
+			}
+			expected.add(covering.toString());
+		}
+
+		List<String> actual = new ArrayList<>();
+		RangeSegmentation.forEachSegment(ranges, Function.identity(), new Range(0, 100), (segment, items) -> {
+			for (int point = segment.getStartPoint(); point < segment.getEndPoint(); point++) {
+				actual.add(items.toString());
+			}
+		});
+
+		assertEquals(expected, actual);
+	}
+}
@@ -20,11 +20,9 @@ package de.catma.serialization.tei;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import de.catma.document.Range;
 import de.catma.document.annotation.AnnotationCollection;
@@ -36,19 +34,23 @@ import de.catma.tag.PropertyDefinition;
 import de.catma.tag.TagInstance;
 import de.catma.tag.TagLibrary;
 
-public class TeiUserMarkupCollectionSerializer {
+/**
+ * The former serializer that builds the segments and feature structures as a XOM tree. It is kept as the reference
+ * for {@link TeiUserMarkupCollectionStreamSerializer}, see {@link TeiUserMarkupCollectionStreamSerializerTest}.
+ */
+class TeiUserMarkupCollectionSerializer {
 	
 	private TeiDocument teiDocument;
 	private boolean withText;
 	
-	public TeiUserMarkupCollectionSerializer(TeiDocument teiDocument, boolean withText) {
+	TeiUserMarkupCollectionSerializer(TeiDocument teiDocument, boolean withText) {
 		super();
 		this.teiDocument = teiDocument;
 		this.withText = withText;
 	}
 	
 	
-	public void serialize(
+	void serialize(
 			AnnotationCollection userMarkupCollection, 
 			SourceDocument sourceDocument) throws IOException {
 		
@@ -67,104 +69,21 @@ public class TeiUserMarkupCollectionSerializer {
 
 		Set<String> addedTagInstances = new HashSet<String>();
 		
-		HashMap<Range, List<TagReference>> mergedTagReferences = 
-			mergeTagReferences(
-				userMarkupCollection.getTagReferences(), 
-				new Range(0, sourceDocument.getLength()));
-		
-		TreeSet<Range> sortedRanges = new TreeSet<Range>();
-		sortedRanges.addAll(mergedTagReferences.keySet());
-		
-		
-		for (Range range : sortedRanges) {
-			List<TagReference> currentReferences = mergedTagReferences.get(range);
-			
-			TeiElement parent = ptrParentElement; 
-			if (!currentReferences.isEmpty()) {
-				parent = writeSegment(
-						currentReferences, ptrParentElement, 
-						textElement, addedTagInstances, 
-						userMarkupCollection.getTagLibrary());
-			}
-			writeText(
-				targetURI, range, parent, sourceDocument);
-		}
-	}
-
-	private HashMap<Range, List<TagReference>> mergeTagReferences(
-			List<TagReference> tagReferences, Range initialRange) {
-		
-		HashMap<Range, List<TagReference>> mergedTagReferences = 
-				new HashMap<Range, List<TagReference>>();
-		
-		mergedTagReferences.put(initialRange, new ArrayList<TagReference>());
-		
-		for (TagReference tagReference : tagReferences) {
-			Range targetRange = tagReference.getRange();
-			List<Range> affectedRanges = 
-					getAffectedRanges(mergedTagReferences.keySet(), targetRange);
-			
-			for (Range affectedRange : affectedRanges) {
-				
-				if (affectedRange.isInBetween(targetRange)) {
-					mergedTagReferences.get(affectedRange).add(tagReference);
+		RangeSegmentation.forEachSegment(
+			userMarkupCollection.getTagReferences(), 
+			TagReference::getRange,
+			new Range(0, sourceDocument.getLength()), 
+			(range, currentReferences) -> {
+				TeiElement parent = ptrParentElement; 
+				if (!currentReferences.isEmpty()) {
+					parent = writeSegment(
+							currentReferences, ptrParentElement, 
+							textElement, addedTagInstances, 
+							userMarkupCollection.getTagLibrary());
 				}
-				else {
-					List<TagReference> existingReferences = 
-							mergedTagReferences.get(affectedRange);
-
-					Range overlappingRange = affectedRange.getOverlappingRange(targetRange);
-					
-					List<Range> disjointRanges = affectedRange.getDisjointRanges(targetRange);
-
-					// range outside of the overlapping range
-					// left or right depending on the position of the overlapping range
-					Range firstDisjointRange = disjointRanges.get( 0 );
-					List<TagReference> firstCopy = new ArrayList<TagReference>();
-					firstCopy.addAll(existingReferences);
-					mergedTagReferences.put(
-							firstDisjointRange, firstCopy);
-					
-					// the overlapping range sits in the middle
-					if( disjointRanges.size() == 2 ) {
-						// range right of the overlappting range
-						Range secondDisjointRange = disjointRanges.get( 1 );
-
-						List<TagReference> secondCopy = new ArrayList<TagReference>();
-						secondCopy.addAll(existingReferences);
-						
-						mergedTagReferences.put(
-								secondDisjointRange, secondCopy);
-					}
-					
-					existingReferences.add(tagReference);
-					mergedTagReferences.put(overlappingRange, existingReferences);
-					
-					mergedTagReferences.remove(affectedRange);
-					
-				}
-			}
-		}			
-		
-		return mergedTagReferences;
-	}
-
-
-	private List<Range> getAffectedRanges(
-			Set<Range> documentRanges,
-			Range targetRange) {
-		Set<Range> sortedDocumentRanges = new TreeSet<Range>();
-		sortedDocumentRanges.addAll(documentRanges);
-		
-		List<Range> affectedRanges = new ArrayList<Range>();
-		
-		for (Range docRange : sortedDocumentRanges) {
-			if (docRange.hasOverlappingRange(targetRange)) {
-				affectedRanges.add(docRange);
-			}
-		}
-		
-		return affectedRanges;
+				writeText(
+					targetURI, range, parent, sourceDocument);
+			});
 	}
 
 
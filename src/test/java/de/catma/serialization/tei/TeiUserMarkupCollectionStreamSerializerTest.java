@@ -0,0 +1,243 @@
+package de.catma.serialization.tei;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.TagReference;
+import de.catma.document.source.ContentInfoSet;
+import de.catma.document.source.FileOSType;
+import de.catma.document.source.FileType;
+import de.catma.document.source.IndexInfoSet;
+import de.catma.document.source.SourceDocument;
+import de.catma.document.source.SourceDocumentInfo;
+import de.catma.document.source.TechInfoSet;
+import de.catma.document.source.contenthandler.AbstractSourceContentHandler;
+import de.catma.serialization.DocumentSerializer;
+import de.catma.tag.Property;
+import de.catma.tag.PropertyDefinition;
+import de.catma.tag.TagDefinition;
+import de.catma.tag.TagInstance;
+import de.catma.tag.TagLibrary;
+import de.catma.tag.TagManager;
+import de.catma.tag.TagsetDefinition;
+import nu.xom.Builder;
+import nu.xom.Element;
+import nu.xom.Node;
+import nu.xom.Text;
+
+class TeiUserMarkupCollectionStreamSerializerTest {
+
+	private static final String CONTENT = "The cat sat on the mat, the dog <sat> on the cat & the bird sat on the dog.";
+	private static final String VERSION = "1";
+
+	private static SourceDocument createSourceDocument() {
+		AbstractSourceContentHandler handler = new AbstractSourceContentHandler() {
+			@Override
+			public void load() throws IOException {
+				setContent(CONTENT);
+			}
+		};
+		handler.setSourceDocumentInfo(new SourceDocumentInfo(
+				new IndexInfoSet(Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH),
+				new ContentInfoSet("Author", "Description", "Publisher", "Title"),
+				new TechInfoSet(FileType.TEXT, StandardCharsets.UTF_8, FileOSType.UNIX, 0L)));
+		return new SourceDocument("D_1", handler);
+	}
+
+	private static TagDefinition createTagDefinition(String uuid, String name, String color, PropertyDefinition... propertyDefinitions) {
+		TagDefinition tagDefinition = new TagDefinition(uuid, name, null, "TS_1");
+		tagDefinition.addSystemPropertyDefinition(new PropertyDefinition(
+				"PD_" + uuid + "_color",
+				PropertyDefinition.SystemPropertyName.catma_displaycolor.name(),
+				Collections.singletonList(color)));
+		for (PropertyDefinition propertyDefinition : propertyDefinitions) {
+			tagDefinition.addUserDefinedPropertyDefinition(propertyDefinition);
+		}
+		return tagDefinition;
+	}
+
+	private static TagInstance createTagInstance(String uuid, TagDefinition tagDefinition, Property... properties) {
+		TagInstance tagInstance = new TagInstance(
+				uuid, tagDefinition.getUuid(), "tester", "2026-10-18T10:00:00.000+0200",
+				tagDefinition.getUserDefinedPropertyDefinitions(), "TS_1");
+		for (Property property : properties) {
+			tagInstance.addUserDefinedProperty(property);
+		}
+		return tagInstance;
+	}
+
+	private static AnnotationCollection createCollection(TagManager tagManager) {
+		PropertyDefinition mood = new PropertyDefinition("PD_mood", "mood", Arrays.asList("calm", "angry", "sleepy"));
+		PropertyDefinition note = new PropertyDefinition("PD_note", "note", Collections.emptyList());
+
+		TagsetDefinition tagset = new TagsetDefinition("TS_1", "Animals");
+		TagDefinition animal = createTagDefinition("T_animal", "animal", "-16776961", mood, note);
+		TagDefinition place = createTagDefinition("T_place", "place", "-65536");
+		tagset.addTagDefinition(animal);
+		tagset.addTagDefinition(place);
+		tagManager.addTagsetDefinition(tagset);
+
+		// multi-valued, single-valued and empty properties
+		TagInstance cat = createTagInstance(
+				"CATMA_CAT", animal,
+				new Property(mood.getUuid(), Arrays.asList("calm", "sleepy")),
+				new Property(note.getUuid(), Collections.singletonList("<b>&'\"")));
+		TagInstance dog = createTagInstance(
+				"CATMA_DOG", animal,
+				new Property(mood.getUuid(), Collections.singletonList("angry")));
+		TagInstance sentence = createTagInstance("CATMA_SENTENCE", place);
+		TagInstance mat = createTagInstance("CATMA_MAT", place);
+
+		List<TagReference> tagReferences = new ArrayList<>();
+		// discontinuous: both cats
+		tagReferences.add(new TagReference("C_1", cat, "D_1", new Range(4, 7)));
+		tagReferences.add(new TagReference("C_1", cat, "D_1", new Range(45, 48)));
+		// overlapping each other and the cats
+		tagReferences.add(new TagReference("C_1", dog, "D_1", new Range(28, 48)));
+		tagReferences.add(new TagReference("C_1", sentence, "D_1", new Range(0, 40)));
+		tagReferences.add(new TagReference("C_1", mat, "D_1", new Range(19, 22)));
+
+		return new AnnotationCollection(
+				"C_1", new ContentInfoSet("Author", "Description", "Publisher", "Cats and dogs"),
+				tagManager.getTagLibrary(), tagReferences, "D_1", null, "tester");
+	}
+
+	private static byte[] serializeWithXom(
+			AnnotationCollection collection, SourceDocument sourceDocument, TagManager tagManager, boolean withText)
+					throws Exception {
+		TeiDocument teiDocument = new TeiDocumentFactory().createEmptyDocument(collection.getId());
+		teiDocument.getTeiHeader().setValues(collection.getContentInfoSet());
+		new TeiTagLibrarySerializationHandler(teiDocument, tagManager, VERSION).serialize(collection.getTagLibrary());
+		new TeiUserMarkupCollectionSerializer(teiDocument, withText).serialize(collection, sourceDocument);
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new DocumentSerializer().serialize(teiDocument.getDocument(), outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private static byte[] serializeWithStax(
+			AnnotationCollection collection, SourceDocument sourceDocument, TagManager tagManager, boolean withText)
+					throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new TeiUserMarkupCollectionStreamSerializer(tagManager, VERSION, withText).serialize(
+				collection, sourceDocument, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * @return the elements, attributes and text of the parsed document in document order, one per line, ignoring
+	 *         indentation
+	 */
+	private static List<String> parse(byte[] serializedCollection) throws Exception {
+		List<String> lines = new ArrayList<>();
+		describe(new Builder().build(new ByteArrayInputStream(serializedCollection)).getRootElement(), "", lines);
+		return lines;
+	}
+
+	private static void describe(Element element, String path, List<String> lines) {
+		String elementPath = path + "/" + element.getQualifiedName();
+
+		Map<String, String> attributes = new TreeMap<>();
+		for (int idx=0; idx<element.getAttributeCount(); idx++) {
+			attributes.put(element.getAttribute(idx).getQualifiedName(), element.getAttribute(idx).getValue());
+		}
+		// the version of a tag is the time of serialization, which differs between the two serializers
+		if (element.getQualifiedName().equals("fsDecl")) {
+			attributes.replace("n", "<version>");
+		}
+		lines.add(elementPath + " " + attributes);
+
+		for (int idx=0; idx<element.getChildCount(); idx++) {
+			Node child = element.getChild(idx);
+			if (child instanceof Element) {
+				describe((Element) child, elementPath, lines);
+			}
+			else if (child instanceof Text && !child.getValue().trim().isEmpty()) {
+				lines.add(elementPath + " \"" + child.getValue().trim() + "\"");
+			}
+		}
+	}
+
+	private static void assertContains(List<String> lines, String... expectedLines) {
+		assertTrue(
+				Collections.indexOfSubList(lines, Arrays.asList(expectedLines)) != -1,
+				() -> String.join("\n", expectedLines) + "\nnot found in\n" + String.join("\n", lines)
+		);
+	}
+
+	@Test
+	void testStreamedDocumentMatchesXomDocument() throws Exception {
+		SourceDocument sourceDocument = createSourceDocument();
+		TagManager tagManager = new TagManager(new TagLibrary());
+		AnnotationCollection collection = createCollection(tagManager);
+
+		List<String> expected = parse(serializeWithXom(collection, sourceDocument, tagManager, false));
+		List<String> actual = parse(serializeWithStax(collection, sourceDocument, tagManager, false));
+
+		assertEquals(expected, actual);
+
+		// the overlapping and discontinuous annotations result in these segments
+		assertContains(
+				actual,
+				"/TEI/text/body/ab/seg {ana=#CATMA_SENTENCE}",
+				"/TEI/text/body/ab/seg/ptr {target=D_1#char=0,4, type=inclusion}",
+				"/TEI/text/body/ab/seg {ana=#CATMA_SENTENCE #CATMA_CAT}",
+				"/TEI/text/body/ab/seg/ptr {target=D_1#char=4,7, type=inclusion}"
+		);
+		assertContains(
+				actual,
+				"/TEI/text/body/ab/seg {ana=#CATMA_DOG}",
+				"/TEI/text/body/ab/seg/ptr {target=D_1#char=40,45, type=inclusion}",
+				"/TEI/text/body/ab/seg {ana=#CATMA_DOG #CATMA_CAT}",
+				"/TEI/text/body/ab/seg/ptr {target=D_1#char=45,48, type=inclusion}",
+				"/TEI/text/body/ab/ptr {target=D_1#char=48,75, type=inclusion}"
+		);
+		// multi-valued properties
+		assertContains(
+				actual,
+				"/TEI/text/fs/f {name=mood}",
+				"/TEI/text/fs/f/vRange {}",
+				"/TEI/text/fs/f/vRange/vColl {}",
+				"/TEI/text/fs/f/vRange/vColl/string {}",
+				"/TEI/text/fs/f/vRange/vColl/string \"calm\"",
+				"/TEI/text/fs/f/vRange/vColl/string {}",
+				"/TEI/text/fs/f/vRange/vColl/string \"sleepy\""
+		);
+	}
+
+	@Test
+	void testStreamedDocumentWithTextMatchesXomDocument() throws Exception {
+		SourceDocument sourceDocument = createSourceDocument();
+		TagManager tagManager = new TagManager(new TagLibrary());
+		AnnotationCollection collection = createCollection(tagManager);
+
+		List<String> expected = parse(serializeWithXom(collection, sourceDocument, tagManager, true));
+		List<String> actual = parse(serializeWithStax(collection, sourceDocument, tagManager, true));
+
+		assertEquals(expected, actual);
+		assertContains(
+				actual,
+				"/TEI/text/body/ab/seg {ana=#CATMA_DOG}",
+				"/TEI/text/body/ab/seg \"the\"",
+				"/TEI/text/body/ab/seg {ana=#CATMA_DOG #CATMA_CAT}",
+				"/TEI/text/body/ab/seg \"cat\"",
+				"/TEI/text/body/ab \"& the bird sat on the dog.\""
+		);
+	}
+}
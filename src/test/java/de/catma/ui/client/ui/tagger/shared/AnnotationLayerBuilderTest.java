@@ -0,0 +1,93 @@
+package de.catma.ui.client.ui.tagger.shared;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Table;
+
+class AnnotationLayerBuilderTest {
+
+	private ClientTagInstance createTagInstance(String instanceID, TextRange... ranges) {
+		return new ClientTagInstance("tagDef", instanceID, "000000", Arrays.asList(ranges));
+	}
+
+	private List<TextRange> createRangeParts(int... boundaries) {
+		List<TextRange> rangeParts = new ArrayList<>();
+		for (int i=1; i<boundaries.length; i++) {
+			rangeParts.add(new TextRange(boundaries[i-1], boundaries[i]));
+		}
+		return rangeParts;
+	}
+
+	@Test
+	void testAnnotationsKeepTheirLayerAcrossRangeParts() {
+		// parts: [0,5] [5,10] [10,15] [15,20]
+		List<TextRange> rangeParts = createRangeParts(0, 5, 10, 15, 20);
+
+		ClientTagInstance a = createTagInstance("a", new TextRange(0, 10));
+		ClientTagInstance b = createTagInstance("b", new TextRange(5, 20));
+		ClientTagInstance c = createTagInstance("c", new TextRange(10, 15));
+		ClientTagInstance d = createTagInstance("d", new TextRange(0, 20));
+
+		Table<Integer, TextRange, ClientTagInstance> layerTable =
+				new AnnotationLayerBuilder(Arrays.asList(a, b, c, d), rangeParts).getLayerTable();
+
+		// at most three annotations overlap
+		assertEquals(3, layerTable.rowKeySet().size());
+
+		// the longest annotation starting first gets the lowest layer
+		for (TextRange rangePart : rangeParts) {
+			assertEquals(d, layerTable.get(0, rangePart));
+		}
+		assertEquals(a, layerTable.get(1, rangeParts.get(0)));
+		assertEquals(a, layerTable.get(1, rangeParts.get(1)));
+		// b starts while a is still active and keeps its layer afterwards
+		assertEquals(b, layerTable.get(2, rangeParts.get(1)));
+		assertEquals(b, layerTable.get(2, rangeParts.get(2)));
+		assertEquals(b, layerTable.get(2, rangeParts.get(3)));
+		// c reuses the layer freed by a
+		assertEquals(c, layerTable.get(1, rangeParts.get(2)));
+		assertNull(layerTable.get(1, rangeParts.get(3)));
+	}
+
+	@Test
+	void testEveryCoveringAnnotationGetsALayer() {
+		List<TextRange> rangeParts = createRangeParts(0, 3, 4, 9, 12, 20, 21, 30);
+		rangeParts.add(new TextRange(9, 9));
+
+		List<ClientTagInstance> tagInstances = new ArrayList<>();
+		tagInstances.add(createTagInstance("a", new TextRange(0, 12), new TextRange(20, 30)));
+		tagInstances.add(createTagInstance("b", new TextRange(3, 21)));
+		tagInstances.add(createTagInstance("c", new TextRange(9, 9)));
+		tagInstances.add(createTagInstance("d", new TextRange(4, 12)));
+		tagInstances.add(createTagInstance("e", new TextRange(21, 30)));
+
+		Table<Integer, TextRange, ClientTagInstance> layerTable =
+				new AnnotationLayerBuilder(tagInstances, rangeParts).getLayerTable();
+
+		for (TextRange rangePart : rangeParts) {
+			Set<ClientTagInstance> expected = new HashSet<>();
+			for (ClientTagInstance tagInstance : tagInstances) {
+				for (TextRange textRange : tagInstance.getRanges()) {
+					if (rangePart.isCoveredBy(textRange)) {
+						expected.add(tagInstance);
+					}
+				}
+			}
+			assertEquals(expected, new HashSet<>(layerTable.column(rangePart).values()));
+			assertEquals(expected.size(), layerTable.column(rangePart).size());
+		}
+		for (int rowIdx=0; rowIdx<layerTable.rowKeySet().size(); rowIdx++) {
+			assertTrue(layerTable.containsRow(rowIdx));
+		}
+	}
+}
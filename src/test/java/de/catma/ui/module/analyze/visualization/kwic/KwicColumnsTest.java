@@ -0,0 +1,68 @@
+package de.catma.ui.module.analyze.visualization.kwic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.queryengine.QueryId;
+import de.catma.queryengine.result.QueryResultRow;
+
+class KwicColumnsTest {
+
+	private QueryResultRow createRow(int startPoint) {
+		return new QueryResultRow(new QueryId("wild=\"cat\""), "doc1", new Range(startPoint, startPoint+3), "cat");
+	}
+
+	@Test
+	void testBackwardContextSortKeyStartsAtTheKeyword() {
+		assertEquals("mat the on sat", KwicColumns.createBackwardContextSortKey(" sat on  The\tmat "));
+		assertEquals("", KwicColumns.createBackwardContextSortKey("  "));
+	}
+
+	@Test
+	void testFilterAndSortReadFromTheStore() {
+		KwicColumns columns = new KwicColumns();
+		QueryResultRow row1 = createRow(10);
+		QueryResultRow row2 = createRow(20);
+		QueryResultRow row3 = createRow(30);
+
+		columns.add(new KwicColumns.RowValues(row1, "Doc", "the black", "sat down", false, "Animals/Cat"));
+		columns.add(new KwicColumns.RowValues(row2, "Doc", "a white", "ran away", false, (String) null));
+		columns.add(new KwicColumns.RowValues(row3, "Doc", "the grey", "Sat still", true));
+
+		assertTrue(columns.containsSearchInput(row1, "animals/"));
+		assertFalse(columns.containsSearchInput(row2, "animals/"));
+		assertTrue(columns.containsSearchInput(row3, "sat still"));
+		// values are searched separately
+		assertFalse(columns.containsSearchInput(row1, "blacksat"));
+
+		List<QueryResultRow> rows = new ArrayList<>(Arrays.asList(row1, row2, row3));
+		rows.sort(columns::compareBackwardContexts);
+		assertEquals(Arrays.asList(row1, row3, row2), rows);
+		rows.sort(columns::compareForwardContexts);
+		assertEquals(Arrays.asList(row2, row1, row3), rows);
+
+		assertTrue(columns.isRightToLeft(row3));
+		assertFalse(columns.isRightToLeft(row2));
+
+		columns.remove(row1);
+		assertNull(columns.getBackwardContext(row1));
+		assertFalse(columns.containsSearchInput(row1, "black"));
+
+		// the slot of the removed row gets reused
+		QueryResultRow row4 = createRow(40);
+		columns.add(new KwicColumns.RowValues(row4, "Doc", "one", "two", false));
+		assertEquals(3, columns.size());
+		assertEquals("one", columns.getBackwardContext(row4));
+		assertFalse(columns.isRightToLeft(row4));
+		assertEquals("the grey", columns.getBackwardContext(row3));
+	}
+}
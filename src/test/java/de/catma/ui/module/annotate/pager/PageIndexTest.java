@@ -0,0 +1,122 @@
+package de.catma.ui.module.annotate.pager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.junit.jupiter.api.Test;
+
+class PageIndexTest {
+
+	private static final String[] TOKENS = {
+			"word", "x", "averyveryverylongword", " ", "\t", " \t ", "\n", "\r", "\r\n", "\u000B", "\f", " ", "\u0085",
+			"a\fb", "ä", "😀"
+	};
+
+	/**
+	 * The page boundaries as computed with {@link Pager#LINE_CONTENT_PATTERN}: start, end of each page followed by
+	 * the total line count.
+	 */
+	private List<Integer> getPageBoundariesWithPattern(String text, int approxMaxLineLength, int maxPageLengthInLines) {
+		List<Integer> result = new ArrayList<>();
+		Matcher matcher = Pager.LINE_CONTENT.matcher(text);
+
+		int pageStart = 0;
+		int pageEnd = 0;
+		int pageLines = 0;
+		int lineLength = 0;
+		int totalLineCount = 0;
+
+		while (matcher.find()) {
+			if (lineLength + matcher.group().length() > approxMaxLineLength) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd += lineLength;
+				lineLength = 0;
+			}
+			if (pageLines >= maxPageLengthInLines) {
+				result.add(pageStart);
+				result.add(pageEnd);
+				pageLines = 0;
+				pageStart = pageEnd;
+			}
+			lineLength += matcher.group().length();
+			if (matcher.group(Pager.LINE_SEPARATOR_GROUP) != null) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd += lineLength;
+				lineLength = 0;
+			}
+		}
+		if (lineLength != 0) {
+			pageEnd += lineLength;
+			pageLines++;
+			totalLineCount++;
+		}
+		if (pageLines != 0) {
+			result.add(pageStart);
+			result.add(pageEnd);
+		}
+		result.add(totalLineCount);
+		return result;
+	}
+
+	private List<Integer> getPageBoundaries(PageIndex pageIndex) {
+		List<Integer> result = new ArrayList<>();
+		for (int pageIdx=0; pageIdx<pageIndex.getPageCount(); pageIdx++) {
+			result.add(pageIndex.getPageStart(pageIdx));
+			result.add(pageIndex.getPageEnd(pageIdx));
+		}
+		result.add(pageIndex.getTotalLineCount());
+		return result;
+	}
+
+	@Test
+	void testPageBoundariesMatchLineContentPattern() {
+		Random random = new Random(42);
+		for (int i=0; i<2000; i++) {
+			StringBuilder builder = new StringBuilder();
+			int tokenCount = random.nextInt(200);
+			for (int j=0; j<tokenCount; j++) {
+				builder.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			String text = builder.toString();
+			int approxMaxLineLength = 1 + random.nextInt(30);
+			int maxPageLengthInLines = 1 + random.nextInt(6);
+
+			assertEquals(
+					getPageBoundariesWithPattern(text, approxMaxLineLength, maxPageLengthInLines),
+					getPageBoundaries(PageIndex.create(text, approxMaxLineLength, maxPageLengthInLines)),
+					text);
+		}
+	}
+
+	@Test
+	void testIndexIsSharedForEqualDocumentAndLayout() {
+		String text = "The quick brown fox\njumps over the lazy dog.\n";
+
+		PageIndex pageIndex = PageIndex.get("D_1", text, 10, 2);
+
+		assertSame(pageIndex, PageIndex.get("D_1", new String(text.toCharArray()), 10, 2));
+		assertNotSame(pageIndex, PageIndex.get("D_2", text, 10, 2));
+		assertEquals(getPageBoundariesWithPattern(text, 5, 2), getPageBoundaries(PageIndex.get("D_1", text, 5, 2)));
+	}
+
+	@Test
+	void testIndexIsNotSharedForDifferentText() {
+		String text = "The quick brown fox\njumps over the lazy dog.\n";
+		String otherText = "The quick brown fox\njumps over the lazy cat and the lazy dog.\n";
+
+		PageIndex pageIndex = PageIndex.get("D_3", text, 10, 2);
+		PageIndex otherPageIndex = PageIndex.get("D_3", otherText, 10, 2);
+
+		assertNotSame(pageIndex, otherPageIndex);
+		assertEquals(getPageBoundariesWithPattern(otherText, 10, 2), getPageBoundaries(otherPageIndex));
+		assertSame(otherPageIndex, PageIndex.get("D_3", otherText, 10, 2));
+	}
+}